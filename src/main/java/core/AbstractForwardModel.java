@@ -3,6 +3,7 @@ package core;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
+import core.components.ComponentIdAllocator;
 import core.interfaces.IPlayerDecorator;
 import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
@@ -41,6 +42,8 @@ public abstract class AbstractForwardModel {
      * @param firstState - initial state.
      */
     protected void abstractSetup(AbstractGameState firstState) {
+        // _setup() may still adjust the parameters to the game being set up; after that they are shared by all copies
+        firstState.gameParameters.unfreeze();
         firstState.gameStatus = CoreConstants.GameResult.GAME_ONGOING;
         firstState.playerResults = new CoreConstants.GameResult[firstState.getNPlayers()];
         Arrays.fill(firstState.playerResults, CoreConstants.GameResult.GAME_ONGOING);
@@ -54,6 +57,7 @@ public abstract class AbstractForwardModel {
 
         _setup(firstState);
         firstState.addAllComponents();
+        firstState.gameParameters.freeze();
     }
 
     /* Methods to be implemented by subclasses, unavailable to AI players */
@@ -132,8 +136,13 @@ public abstract class AbstractForwardModel {
      * @param gameState - game state to be modified.
      */
     public final void setup(AbstractGameState gameState) {
-        gameState.reset();
-        abstractSetup(gameState);
+        ComponentIdAllocator previousIDs = gameState.componentIDs.bind();
+        try {
+            gameState.reset();
+            abstractSetup(gameState);
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
     }
 
     /**
@@ -143,17 +152,111 @@ public abstract class AbstractForwardModel {
      * @param action       - action requested to be played by a player.
      */
     public final void next(AbstractGameState currentState, AbstractAction action) {
-        if (action != null) {
-            int player = currentState.getCurrentPlayer();
-            currentState.recordAction(action, player);
-            _next(currentState, action);
-        } else {
-            if (currentState.coreGameParameters.verbose) {
-                System.out.println("Invalid action.");
+        ComponentIdAllocator previousIDs = currentState.componentIDs.bind();
+        try {
+            if (action != null) {
+                int player = currentState.getCurrentPlayer();
+                currentState.recordAction(action, player);
+                _next(currentState, action);
+            } else {
+                if (currentState.coreGameParameters.verbose) {
+                    System.out.println("Invalid action.");
+                }
+                illegalActionPlayed(currentState, action);
             }
-            illegalActionPlayed(currentState, action);
+            currentState.advanceGameTick();
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
+    }
+
+    /**
+     * Applies the given action to the game state in the same way as next(), but also returns a token that can be
+     * passed to undo() to take the state back to how it was. This allows a search to walk down a line of play and
+     * back again without copying the state.
+     * <p>
+     * This is only available if supportsUndo() is true. The random number generator of the state is not
+     * put back by undo(), so games only support this if next() does not use it.
+     * Events are still sent to any listeners on the state, so this should not be used on the main game state.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     * @return - the token to pass to undo(); these must be undone in reverse order
+     */
+    public final UndoToken nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        if (!supportsUndo())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support undo");
+        Object gameData;
+        ComponentIdAllocator previousIDs = currentState.componentIDs.bind();
+        try {
+            gameData = _prepareUndo(currentState, action);
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
         }
-        currentState.advanceGameTick();
+        UndoToken token = currentState.undoToken(action, gameData);
+        next(currentState, action);
+        return token;
+    }
+
+    /**
+     * Takes the game state back to how it was before the action that returned the token from nextWithUndo().
+     *
+     * @param currentState - the game state the action was applied to
+     * @param token        - the token returned by nextWithUndo(), which must be the last not yet undone
+     */
+    public final void undo(AbstractGameState currentState, UndoToken token) {
+        ComponentIdAllocator previousIDs = currentState.componentIDs.bind();
+        try {
+            _undo(currentState, token.action, token.gameData);
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
+        currentState.undo(token);
+    }
+
+    /**
+     * @return true if this forward model implements _prepareUndo() and _undo(), so that nextWithUndo() can be used
+     */
+    public boolean supportsUndo() {
+        return false;
+    }
+
+    /**
+     * Forward models are normally stateless once set up, so the same instance can be shared by every player, and by
+     * searches running on several threads at once. A forward model that keeps working data between calls (such as
+     * an action tree that is filled in by computeAvailableActions) must override this to return a copy that does not
+     * share that data.
+     *
+     * @return - a forward model that can be used independently of this one
+     */
+    public AbstractForwardModel independentCopy() {
+        return this;
+    }
+
+    /**
+     * Called before an action is applied by nextWithUndo(), to record whatever game-specific information is needed
+     * to undo it. The counters, status, history and actions in progress held in AbstractGameState do not need to be
+     * recorded here.
+     *
+     * @param currentState - current game state, which the action has not yet been applied to
+     * @param action       - action about to be applied
+     * @return - anything needed by _undo() (may be null)
+     */
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support undo");
+    }
+
+    /**
+     * Reverses the game-specific effects of the action, using the information from _prepareUndo().
+     * This is called before the AbstractGameState fields are put back, so the counters (and hence the current player)
+     * are still as they were after the action.
+     *
+     * @param currentState - the game state, as it was after the action
+     * @param action       - the action to undo
+     * @param undoData     - what was returned by _prepareUndo()
+     */
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support undo");
     }
 
     /**
@@ -169,12 +272,17 @@ public abstract class AbstractForwardModel {
     public final List<AbstractAction> computeAvailableActions(AbstractGameState gameState, ActionSpace actionSpace) {
         // If there is an action in progress (see IExtendedSequence), then delegate to that
         List<AbstractAction> retValue;
-        if (gameState.isActionInProgress()) {
-            retValue = gameState.actionsInProgress.peek()._computeAvailableActions(gameState, actionSpace);
-        } else if (actionSpace != null && !actionSpace.isDefault()) {
-            retValue = _computeAvailableActions(gameState, actionSpace);
-        } else {
-            retValue = _computeAvailableActions(gameState);
+        ComponentIdAllocator previousIDs = gameState.componentIDs.bind();
+        try {
+            if (gameState.isActionInProgress()) {
+                retValue = gameState.actionsInProgress.peek()._computeAvailableActions(gameState, actionSpace);
+            } else if (actionSpace != null && !actionSpace.isDefault()) {
+                retValue = _computeAvailableActions(gameState, actionSpace);
+            } else {
+                retValue = _computeAvailableActions(gameState);
+            }
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
         }
 
         // Then apply Decorators regardless of source of actions
@@ -4,6 +4,9 @@ import core.actions.AbstractAction;
 import core.actions.LogEvent;
 import core.components.Area;
 import core.components.Component;
+import core.components.ComponentIdAllocator;
+import core.components.ComponentIndex;
+import core.components.Deck;
 import core.components.PartialObservableDeck;
 import core.interfaces.IComponentContainer;
 import core.interfaces.IExtendedSequence;
@@ -14,6 +17,8 @@ import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Pair;
+import utilities.PersistentLog;
+import utilities.Zobrist;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -39,6 +44,11 @@ public abstract class AbstractGameState {
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
+    // Used by getComponentById(). This is only built when first needed, and rebuilt if a component cannot be found
+    private final ComponentIndex componentIndex = new ComponentIndex();
+    private boolean componentIndexStale = true;
+    // The copy-on-write mode currently applied to the Decks in this state (see CoreParameters.copyOnWriteDecks)
+    private boolean copyOnWriteDecks;
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
@@ -55,8 +65,9 @@ public abstract class AbstractGameState {
     // A record of all actions taken to reach this game state
     // The history is stored as a list of pairs, where the first element is the player who took the action
     // this is in chronological order
-    private List<Pair<Integer, AbstractAction>> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // Both logs share their entries with copies of the state, so copying does not get slower as the game goes on
+    private PersistentLog<Pair<Integer, AbstractAction>> history = new PersistentLog<>();
+    private PersistentLog<String> historyText = new PersistentLog<>();
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -66,6 +77,8 @@ public abstract class AbstractGameState {
     // Stack for extended actions
     Stack<IExtendedSequence> actionsInProgress = new Stack<>();
     CoreParameters coreGameParameters;
+    // IDs for all components created while the framework is working on this state (see ComponentIdAllocator)
+    ComponentIdAllocator componentIDs;
     private int gameID;
     // rnd is used for all random number generation in the game - for events within the game
     protected Random rnd;
@@ -82,6 +95,9 @@ public abstract class AbstractGameState {
         // this is then overridden in the game-specific constructor if needed
         this.gameParameters = gameParameters;
         this.coreGameParameters = new CoreParameters();
+        // When created by GameType, or as a copy, the allocator for the game is already bound to the thread
+        ComponentIdAllocator bound = ComponentIdAllocator.current();
+        this.componentIDs = bound != null ? bound : new ComponentIdAllocator();
     }
 
     protected abstract GameType _getGameType();
@@ -91,11 +107,12 @@ public abstract class AbstractGameState {
      */
     protected void reset() {
         allComponents = new Area(-1, "All Components");
+        componentIndexStale = true;
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = new PersistentLog<>();
+        historyText = new PersistentLog<>();
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
         turnOwner = 0;
@@ -167,9 +184,9 @@ public abstract class AbstractGameState {
     /**
      * @return All actions that have been executed on this state since reset()/initialisation
      */
-    public List<Pair<Integer, AbstractAction>> getHistory() { return new ArrayList<>(history);}
+    public List<Pair<Integer, AbstractAction>> getHistory() { return history.toList();}
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        return historyText.toList();
     }
     public int getGameID() {
         return gameID;
@@ -241,19 +258,22 @@ public abstract class AbstractGameState {
     }
     public final int getGameTick() {return tick;}
     public final Component getComponentById(int id) {
-        Component c = allComponents.getComponent(id);
+        Component c = componentIndexStale ? null : componentIndex.get(id);
         if (c == null) {
             try {
-                addAllComponents();
-                c = allComponents.getComponent(id);
+                componentIndexStale = false;
+                componentIndex.rebuild(_getAllComponents());
+                c = componentIndex.get(id);
             } catch (Exception ignored) {
+                componentIndexStale = true;
             }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
         }
         return c;
     }
 
     public final Area getAllComponents() {
-        addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
+        allComponents.clear();
+        allComponents.putComponents(_getAllComponents());
         return allComponents;
     }
 
@@ -269,11 +289,11 @@ public abstract class AbstractGameState {
     }
 
     /**
-     * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
+     * Marks the index used by getComponentById() as out of date, so that it is rebuilt from _getAllComponents()
+     * on the next lookup. Call this after replacing components in a way that keeps their IDs.
      */
     protected final void addAllComponents() {
-        allComponents.clear();
-        allComponents.putComponents(_getAllComponents());
+        componentIndexStale = true;
     }
 
     /**
@@ -295,11 +315,74 @@ public abstract class AbstractGameState {
      * @return - reduced copy of the game state.
      */
     public final AbstractGameState copy(int playerId) {
-        AbstractGameState s = _copy(playerId);
-        // Copy super class things
-        s.allComponents = allComponents.emptyCopy();
+        if (copyOnWriteDecks != coreGameParameters.copyOnWriteDecks)
+            setCopyOnWriteDecks(coreGameParameters.copyOnWriteDecks);
+        // Components created for the copy take their IDs from a copy of our allocator, so that the sequence of IDs
+        // does not depend on how many copies have been made
+        ComponentIdAllocator copyIDs = componentIDs.copy();
+        ComponentIdAllocator previousIDs = copyIDs.bind();
+        try {
+            AbstractGameState s = _copy(playerId);
+            s.componentIDs = copyIDs;
+            s.allComponents = allComponents.emptyCopy();
+            s.playerResults = playerResults.clone();
+            // We always branch the RNG on a copy() so that the master RNG
+            // is not called an arbitrary number of times. This is to ensure that all shuffles in the main game are
+            // the same if we start with the same seed
+            s.rnd = new Random(redeterminisationRnd.nextLong());
+            s.actionsInProgress = new Stack<>();
+            s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
+            copySuperTo(s);
+            // The copy builds its own index of components for ID matching in actions when it first needs it
+            return s;
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
+    }
+
+    /**
+     * Copies this game state into a state left over from an earlier copy, overwriting its arrays, decks and other
+     * components in place rather than creating new ones. This is the same as copy(playerId), but avoids most of
+     * the allocation for games that implement _copyInto(); for all other games it simply returns a new copy.
+     * <p>
+     * The target must be a copy (made by copy() or copyInto()) of a state of the same game, and must not be used
+     * by anything else afterwards, as everything it refers to may be overwritten.
+     *
+     * @param target   - a discarded copy of a state of the same game (may be null)
+     * @param playerId - player observing the state
+     * @return - the target as a reduced copy of this state, or a new copy if the target could not be reused
+     */
+    public final AbstractGameState copyInto(AbstractGameState target, int playerId) {
+        if (target == null || target == this || target.getClass() != getClass() || target.nPlayers != nPlayers
+                || target.gameParameters != gameParameters)
+            return copy(playerId);
+        if (copyOnWriteDecks != coreGameParameters.copyOnWriteDecks)
+            setCopyOnWriteDecks(coreGameParameters.copyOnWriteDecks);
+        // the target keeps its own allocator, which then hands out the same IDs a new copy would
+        target.componentIDs.rewind(componentIDs.peekNextID());
+        ComponentIdAllocator previousIDs = target.componentIDs.bind();
+        try {
+            if (!_copyInto(target, playerId))
+                return copy(playerId);
+            target.allComponents.clear();
+            target.componentIndexStale = true;
+            System.arraycopy(playerResults, 0, target.playerResults, 0, playerResults.length);
+            // not reseeded in place, as a player may have given the target its own Random (see AbstractPlayer.getAction())
+            target.rnd = new Random(redeterminisationRnd.nextLong());
+            target.actionsInProgress.clear();
+            copySuperTo(target);
+            return target;
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
+    }
+
+    /**
+     * Copies the super class fields common to copy() and copyInto()
+     */
+    private void copySuperTo(AbstractGameState s) {
+        s.copyOnWriteDecks = copyOnWriteDecks;
         s.gameStatus = gameStatus;
-        s.playerResults = playerResults.clone();
         s.gamePhase = gamePhase;
         s.coreGameParameters = coreGameParameters;
         s.tick = tick;
@@ -308,35 +391,47 @@ public abstract class AbstractGameState {
         s.turnCounter = turnCounter;
         s.turnOwner = turnOwner;
         s.firstPlayer = firstPlayer;
-        // We always branch the RNG on a copy() so that the master RNG
-        // is not called an arbitrary number of times. This is to ensure that all shuffles in the main game are
-        // the same if we start with the same seed
-        s.rnd = new Random(redeterminisationRnd.nextLong());
 
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history = history.copy();
+            s.historyText = historyText.copy();
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
             // any history over in case a sneaky agent tries to take advantage of it.
             // If there is any information only available in History that could legitimately be used, then this should
             // be incorporated in the game-specific data in GameState where the correct hiding protocols can be enforced.
+        } else {
+            // only needed when a state is being reused by copyInto()
+            s.history.clear();
+            s.historyText.clear();
         }
 
-        s.actionsInProgress = new Stack<>();
         actionsInProgress.forEach(
                 a -> s.actionsInProgress.push(a.copy())
         );
 
-        s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         for (int i = 0; i < getNPlayers(); i++) {
             s.playerTimer[i] = playerTimer[i].copy();
         }
+    }
+
+    /**
+     * Switches copy-on-write on or off for all Decks currently in the game. Copies of a Deck inherit the mode, so
+     * this only needs to be done once; Decks created from scratch later in the game will copy as normal.
+     */
+    private void setCopyOnWriteDecks(boolean copyOnWrite) {
+        copyOnWriteDecks = copyOnWrite;
+        for (Component c : _getAllComponents())
+            setCopyOnWrite(c, copyOnWrite);
+    }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
-        return s;
+    private void setCopyOnWrite(Component c, boolean copyOnWrite) {
+        if (c instanceof Deck<?> deck)
+            deck.setCopyOnWrite(copyOnWrite);
+        // stream() is read-only, so does not make a copy-on-write Deck take a private copy of its list
+        if (c instanceof IComponentContainer<?> container)
+            container.stream().forEach(child -> setCopyOnWrite(child, copyOnWrite));
     }
 
     /**
@@ -349,6 +444,56 @@ public abstract class AbstractGameState {
         historyText.add("Player " + player + " : " + action.getString(this));
     }
 
+    /**
+     * Used by ForwardModel.nextWithUndo() to record everything at this level that an action may change.
+     * The history logs are shared with the token (as they are with a copy), and so cost nothing to record.
+     *
+     * @param gameData - whatever the game-specific forward model needs to undo the action
+     */
+    final UndoToken undoToken(AbstractAction action, Object gameData) {
+        Stack<IExtendedSequence> inProgress = null;
+        if (!actionsInProgress.isEmpty()) {
+            inProgress = new Stack<>();
+            for (IExtendedSequence a : actionsInProgress)
+                inProgress.push(a.copy());
+        }
+        long[] timeRemaining = new long[playerTimer.length];
+        for (int i = 0; i < playerTimer.length; i++)
+            timeRemaining[i] = playerTimer[i] == null ? 0 : playerTimer[i].remainingTime();
+        return new UndoToken(action, gameData, tick, roundCounter, turnCounter, turnOwner, firstPlayer,
+                gameStatus, playerResults.clone(), gamePhase, inProgress, history.copy(), historyText.copy(),
+                timeRemaining, componentIDs.peekNextID());
+    }
+
+    /**
+     * Used by ForwardModel.undo() to put back everything recorded by undoToken()
+     */
+    final void undo(UndoToken token) {
+        tick = token.tick;
+        roundCounter = token.roundCounter;
+        turnCounter = token.turnCounter;
+        turnOwner = token.turnOwner;
+        firstPlayer = token.firstPlayer;
+        gameStatus = token.gameStatus;
+        System.arraycopy(token.playerResults, 0, playerResults, 0, playerResults.length);
+        gamePhase = token.gamePhase;
+        if (token.actionsInProgress == null)
+            actionsInProgress.clear();
+        else
+            actionsInProgress = token.actionsInProgress;
+        history = token.history;
+        historyText = token.historyText;
+        for (int i = 0; i < playerTimer.length; i++) {
+            if (playerTimer[i] != null)
+                playerTimer[i].setRemainingTime(token.timeRemaining[i]);
+        }
+        if (componentIDs.peekNextID() != token.nextComponentID) {
+            // components created by the action no longer exist, and their IDs will be handed out again
+            componentIDs.rewind(token.nextComponentID);
+            componentIndexStale = true;
+        }
+    }
+
 
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
@@ -465,6 +610,21 @@ public abstract class AbstractGameState {
      */
     protected abstract AbstractGameState _copy(int playerId);
 
+    /**
+     * Optionally implemented by games to support copyInto(). This should make the target exactly as _copy(playerId)
+     * would have made a new state, but overwriting the target's own arrays, decks and other components where it
+     * can. The target is always of the same class as this state, and was itself created as a copy; nothing else
+     * refers to it, so it can be changed freely.
+     * Return false (as the default does) if the target cannot be reused, in which case copy() is used instead.
+     *
+     * @param target   - a discarded copy of a state of this game, to be overwritten
+     * @param playerId - player observing this game state.
+     * @return - true if the target is now a copy of this state
+     */
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        return false;
+    }
+
     /**
      * Provide a simple numerical assessment of the current game state, the bigger the better.
      * Subjective heuristic function definition.
@@ -571,28 +731,27 @@ public abstract class AbstractGameState {
                 case VISIBLE_TO_ALL:
                     break;
                 case HIDDEN_TO_ALL:
-                    retValue.addAll(container.getComponents().stream().map(Component::getComponentID).toList());
+                    retValue.addAll(container.stream().map(Component::getComponentID).toList());
                     break;
                 case VISIBLE_TO_OWNER:
                     if (((Component) container).getOwnerId() != player)
-                        retValue.addAll(container.getComponents().stream().map(Component::getComponentID).toList());
+                        retValue.addAll(container.stream().map(Component::getComponentID).toList());
                     break;
                 case TOP_VISIBLE_TO_ALL:
                     // add everything as unseen, and then remove the first element
-                    retValue.addAll(container.getComponents().stream().map(Component::getComponentID).toList());
-                    retValue.remove(container.getComponents().get(0).getComponentID());
+                    retValue.addAll(container.stream().map(Component::getComponentID).toList());
+                    retValue.remove(container.stream().findFirst().orElseThrow().getComponentID());
                     break;
                 case BOTTOM_VISIBLE_TO_ALL:
                     // add in the ID of the last item only
-                    int length = container.getComponents().size();
-                    retValue.add(container.getComponents().get(length - 1).getComponentID());
+                    retValue.add(container.stream().reduce((first, second) -> second).orElseThrow().getComponentID());
                     break;
                 case MIXED_VISIBILITY:
                     throw new AssertionError("If something uses this visibility mode, then you need to also add code to this method please!");
             }
         }
         // we also need to run through the contents in case that contains any Containers
-        container.getComponents().stream().filter(c -> c instanceof IComponentContainer<?>).forEach(c ->
+        container.stream().filter(c -> c instanceof IComponentContainer<?>).forEach(c ->
                 retValue.addAll(unknownComponents((IComponentContainer<?>) c, player))
         );
         return retValue;
@@ -682,6 +841,50 @@ public abstract class AbstractGameState {
         return result;
     }
 
+    /**
+     * A 64-bit hash of this state, for use as a key in transposition tables and caches (see
+     * evaluation.features.LongHashStateKey). Unlike hashCode() this leaves out the game parameters (which are
+     * shared by all states of a game) and the tick, so that the same position reached by different sequences of
+     * actions has the same hash.
+     * Game states with large components should override _longHash() to combine the longHash() of their Decks,
+     * Counters and boards, which these keep up to date as they change (see utilities.Zobrist), so that the hash
+     * does not have to visit every component.
+     *
+     * @return - hash of the state
+     */
+    public final long longHash() {
+        // the hashCode() of an enum differs from run to run, so phases that are enums use their ordinal
+        int phase = gamePhase instanceof Enum<?> e ? e.ordinal() : Objects.hashCode(gamePhase);
+        long hash = Zobrist.key(gameStatus.ordinal(), phase, turnOwner);
+        hash = Zobrist.key(hash, roundCounter, turnCounter);
+        hash = Zobrist.key(hash, firstPlayer);
+        for (CoreConstants.GameResult result : playerResults)
+            hash = Zobrist.key(hash, result.ordinal());
+        for (int i = 0; i < actionsInProgress.size(); i++)
+            hash = Zobrist.key(hash, actionsInProgress.get(i).hashCode());
+        return Zobrist.key(hash, _longHash());
+    }
+
+    /**
+     * The part of longHash() that covers the state of the game itself. By default this is hashCode(); override it
+     * to combine the longHash() of the components of the game, and anything else that can differ between states
+     * (and then override hasLongHash() too).
+     *
+     * @return - hash of the game-specific state
+     */
+    protected long _longHash() {
+        return hashCode();
+    }
+
+    /**
+     * @return true if this game overrides _longHash() with a full 64-bit hash of its state. If not, two different
+     * states have the same longHash() as often as they have the same hashCode(), so longHash() is not safe as the only
+     * key of a transposition table.
+     */
+    public boolean hasLongHash() {
+        return false;
+    }
+
     /**
      * HashCodeArray compiles all necessary hash codes for each individual game state.
      * Override as necessary for each game state.
@@ -26,6 +26,9 @@ public abstract class AbstractParameters {
     // Increment in seconds, added after a custom milestone (to be added manually in game implementation). Default 0.
     long incrementMilestoneS = 0;
 
+    // Set once a game has been set up with these parameters, after which they are shared (not copied) by every
+    // copy of the game state, and must not change. The random seed is not covered, as it changes with each new game.
+    private boolean frozen;
 
     public AbstractParameters() {
         this.setRandomSeed(System.currentTimeMillis());
@@ -65,16 +68,50 @@ public abstract class AbstractParameters {
     }
 
     public void setThinkingTimeMins(long thinkingTimeMins) {
+        checkNotFrozen();
         this.thinkingTimeMins = thinkingTimeMins;
     }
 
     public void setMaxRounds(int max) {
+        checkNotFrozen();
         maxRounds = max;
     }
     public void setTimeoutRounds(int max) {
+        checkNotFrozen();
         timeoutRounds = max;
     }
 
+    /**
+     * Makes these parameters read-only. This is done by the forward model once a game has been set up, after which
+     * all copies of the game state share this object rather than copying it.
+     * To change parameters after this, take a copy() (which is not frozen) and create a new game with it.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Allows the parameters to be changed again. Only used between games, before the next one is set up.
+     */
+    void unfreeze() {
+        frozen = false;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * To be called by any method that changes a parameter.
+     *
+     * @throws IllegalStateException - if the parameters are in use by a game, and hence frozen
+     */
+    protected void checkNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException("Parameters cannot be changed once a game has been set up with them. " +
+                    "Use copy() to get a version that can be changed.");
+    }
+
     /**
      * Retrieve total thinking time for the game, in minutes
      *
@@ -141,13 +178,15 @@ public abstract class AbstractParameters {
     }
 
     /**
-     * Copy this game parameter object.
+     * Copy this game parameter object. This is only needed to change parameters (for example when tuning them), as
+     * game states share their parameters once frozen.
      *
-     * @return - new object with the same parameters, but a new random seed.
+     * @return - new object with the same parameters and random seed, which is not frozen.
      */
     public AbstractParameters copy() {
         AbstractParameters copy = _copy();
-        copy.randomSeed = System.currentTimeMillis();
+        copy.randomSeed = randomSeed;
+        copy.frozen = false;
         return copy;
     }
 
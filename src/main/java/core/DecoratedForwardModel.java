@@ -37,6 +37,21 @@ public class DecoratedForwardModel extends AbstractForwardModel {
         wrappedFM._next(currentState, action);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return wrappedFM.supportsUndo();
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        return wrappedFM._prepareUndo(currentState, action);
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        wrappedFM._undo(currentState, action, undoData);
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
         List<AbstractAction> actions = wrappedFM.computeAvailableActions(gameState);
@@ -2,6 +2,7 @@ package core;
 
 import core.actions.AbstractAction;
 import core.actions.DoNothing;
+import core.components.ComponentIdAllocator;
 import core.interfaces.IExtendedSequence;
 import core.interfaces.IPrintable;
 import core.turnorders.ReactiveTurnOrder;
@@ -9,7 +10,6 @@ import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import evaluation.summarisers.TAGNumericStatSummary;
 import games.GameType;
-import games.pandemic.PandemicForwardModel;
 import gui.AbstractGUIManager;
 import gui.GUI;
 import gui.GamePanel;
@@ -133,9 +133,8 @@ public class Game {
 
         // Randomize parameters
         if (randomizeParameters) {
-            AbstractParameters gameParameters = game.getGameState().getGameParameters();
-            gameParameters.randomize();
-            System.out.println("Parameters: " + gameParameters);
+            game.randomizeParameters();
+            System.out.println("Parameters: " + game.getGameState().getGameParameters());
         }
 
         // Reset game instance, passing the players for this game
@@ -346,6 +345,15 @@ public class Game {
         }
     }
 
+    /**
+     * Randomizes the game parameters (if they are tunable) for the next game. The parameters are frozen while a game
+     * is in progress, so this must be called before reset(), which then sets up the game with the new values.
+     */
+    public void randomizeParameters() {
+        gameState.gameParameters.unfreeze();
+        gameState.gameParameters.randomize();
+    }
+
     public final void reset(List<AbstractPlayer> players) {
         reset(players, gameState.gameParameters.randomSeed);
     }
@@ -359,16 +367,17 @@ public class Game {
      */
     public final void reset(List<AbstractPlayer> players, long newRandomSeed) {
         if (debug) System.out.println("Game Seed: " + newRandomSeed);
-        gameState.reset(newRandomSeed);
-        forwardModel.abstractSetup(gameState);
+        ComponentIdAllocator previousIDs = gameState.componentIDs.bind();
+        try {
+            gameState.reset(newRandomSeed);
+            forwardModel.abstractSetup(gameState);
+        } finally {
+            ComponentIdAllocator.restore(previousIDs);
+        }
 
         // set forward models for all players
-        for (AbstractPlayer player : players) {
-            if (forwardModel instanceof PandemicForwardModel pfm)
-                player.setForwardModel(pfm.copy());
-            else
-                player.setForwardModel(this.forwardModel);
-        }
+        for (AbstractPlayer player : players)
+            player.setForwardModel(forwardModel.independentCopy());
 
         if (players.size() == gameState.getNPlayers()) {
             this.players = players;
@@ -0,0 +1,37 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last copy of a game state made for each observing player, so that the next copy for the same player
+ * can overwrite it with AbstractGameState.copyInto() instead of allocating a new state.
+ * <p>
+ * A copy taken from the pool must no longer be needed when the next copy is taken for the same player, as it is
+ * then overwritten. A pool should only be used by one thread, and cleared at the start of each game.
+ */
+public class StatePool {
+
+    // indexed by playerId + 1, so that full copies (playerId -1) are at index 0
+    private AbstractGameState[] states = new AbstractGameState[0];
+
+    /**
+     * @param state    - the state to copy
+     * @param playerId - player observing the state (or -1 for a full copy)
+     * @return - a copy of the state, as from state.copy(playerId); this may be the last copy made for this player
+     */
+    public AbstractGameState copy(AbstractGameState state, int playerId) {
+        int index = playerId + 1;
+        if (index >= states.length)
+            states = Arrays.copyOf(states, Math.max(index, state.getNPlayers()) + 1);
+        AbstractGameState copy = state.copyInto(states[index], playerId);
+        states[index] = copy;
+        return copy;
+    }
+
+    /**
+     * Forgets all the copies held, for example at the start of a new game
+     */
+    public void clear() {
+        Arrays.fill(states, null);
+    }
+}
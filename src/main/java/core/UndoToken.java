@@ -0,0 +1,59 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.interfaces.IExtendedSequence;
+import core.interfaces.IGamePhase;
+import utilities.Pair;
+import utilities.PersistentLog;
+
+import java.util.Stack;
+
+/**
+ * Returned by AbstractForwardModel.nextWithUndo(), and holds what is needed to take the game state back to how it was
+ * before the action. This covers the game counters, status and results, actions in progress, history and timers
+ * (all of which are held in AbstractGameState), plus whatever the game-specific forward model needs to undo the effect
+ * of the action itself.
+ * <p>
+ * A token can only be used once, and tokens must be undone in the reverse order to the actions they were created for.
+ */
+public final class UndoToken {
+
+    final AbstractAction action;
+    final Object gameData;
+
+    final int tick, roundCounter, turnCounter, turnOwner, firstPlayer;
+    final CoreConstants.GameResult gameStatus;
+    final CoreConstants.GameResult[] playerResults;
+    final IGamePhase gamePhase;
+    final Stack<IExtendedSequence> actionsInProgress;  // null if there were none
+    final PersistentLog<Pair<Integer, AbstractAction>> history;
+    final PersistentLog<String> historyText;
+    final long[] timeRemaining;
+    final int nextComponentID;
+
+    UndoToken(AbstractAction action, Object gameData, int tick, int roundCounter, int turnCounter, int turnOwner,
+              int firstPlayer, CoreConstants.GameResult gameStatus, CoreConstants.GameResult[] playerResults,
+              IGamePhase gamePhase, Stack<IExtendedSequence> actionsInProgress,
+              PersistentLog<Pair<Integer, AbstractAction>> history, PersistentLog<String> historyText,
+              long[] timeRemaining, int nextComponentID) {
+        this.action = action;
+        this.gameData = gameData;
+        this.tick = tick;
+        this.roundCounter = roundCounter;
+        this.turnCounter = turnCounter;
+        this.turnOwner = turnOwner;
+        this.firstPlayer = firstPlayer;
+        this.gameStatus = gameStatus;
+        this.playerResults = playerResults;
+        this.gamePhase = gamePhase;
+        this.actionsInProgress = actionsInProgress;
+        this.history = history;
+        this.historyText = historyText;
+        this.timeRemaining = timeRemaining;
+        this.nextComponentID = nextComponentID;
+    }
+
+    public AbstractAction getAction() {
+        return action;
+    }
+}
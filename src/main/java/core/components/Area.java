@@ -99,12 +99,13 @@ public class Area extends Component implements IComponentContainer<Component> {
         if (component == null) return;
 
         this.components.put(component.getComponentID(), component);
-        if (component instanceof IComponentContainer) {
-            for (Component nestedC : ((IComponentContainer<?>) component).getComponents()) {
+        if (component instanceof IComponentContainer<?> container) {
+            // stream() is read-only, so does not make a copy-on-write Deck take a private copy of its list
+            container.stream().forEach(nestedC -> {
                 if (nestedC != null) {
                     putComponent(nestedC);
                 }
-            }
+            });
         }
     }
 
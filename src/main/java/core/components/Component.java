@@ -9,40 +9,39 @@ import core.CoreConstants.ComponentType;
 import java.util.*;
 
 public abstract class Component {
-    private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
-
-    protected transient final int componentID;  // Unique ID of this component
+    protected transient final int componentID;  // Unique ID of this component, see ComponentIdAllocator
     protected final ComponentType type;  // Type of this component
-    protected HashMap<Integer, Property> properties;  // Maps between integer key for the property and the property object
+    protected PropertyMap properties;  // Maps between integer key for the property and the property object
     protected transient int ownerId = -1;  // By default belongs to the game
     protected String componentName;  // Name of this component
+    protected boolean immutable;  // If true the component never changes once created, so copies may share it
 
     public Component(ComponentType type, String name) {
-        this.componentID = ID++;
+        this.componentID = ComponentIdAllocator.nextID();
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     public Component(ComponentType type) {
-        this.componentID = ID++;
+        this.componentID = ComponentIdAllocator.nextID();
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     protected Component(ComponentType type, String name, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     protected Component(ComponentType type, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     /**
@@ -52,6 +51,20 @@ public abstract class Component {
     public abstract Component copy();
     public Component copy(int playerId) { return copy(); }
 
+    /**
+     * Immutable components are never cloned when the Deck (or other container) holding them is copied; the copy
+     * simply references the same object (in copy-on-write mode, see CoreParameters.copyOnWriteDecks). Only set this
+     * for components with no state that changes during a game. This includes ownerId, which is shared between all
+     * copies, and so is not changed when a Deck adds or removes the component.
+     * @return - true if this component never changes after creation.
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+    public void setImmutable(boolean immutable) {
+        this.immutable = immutable;
+    }
+
     /**
      * Get and set the type of this component.
      */
@@ -210,13 +223,10 @@ public abstract class Component {
      */
     public void copyComponentTo(Component copyTo)
     {
-        copyTo.properties.clear();
-        for (int prop_key : this.properties.keySet()) {
-            Property newProp = this.properties.get(prop_key).copy();
-            copyTo.setProperty(newProp);
-        }
+        properties.copyTo(copyTo.properties);
         copyTo.ownerId = ownerId;
         copyTo.componentName = componentName;
+        copyTo.immutable = immutable;
     }
 
     @Override
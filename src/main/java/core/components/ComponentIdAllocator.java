@@ -0,0 +1,101 @@
+package core.components;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the IDs of new Components.
+ * Each game state owns an allocator, and a copy of the state gets a copy of the allocator. While the framework is
+ * working on a state (constructing, setting up, copying it, or applying an action) its allocator is bound to the
+ * current thread, and all Components created in that time take their ID from it. This means a game played from the
+ * same seed always gives the same IDs to its components, regardless of what other games are running in the JVM,
+ * and on which threads.
+ * <p>
+ * Components created when no game is bound (for example constants shared by all games of a type) instead take an
+ * ID from a single JVM-wide counter. These IDs start well above anything a single game will reach, so they never
+ * clash with the IDs handed out by a game. Use {@link #shared(Supplier)} to create components that will outlive the
+ * game that first creates them.
+ */
+public final class ComponentIdAllocator {
+
+    static final int FIRST_SHARED_ID = 1 << 30;
+    private static final AtomicInteger sharedID = new AtomicInteger(FIRST_SHARED_ID);
+    private static final ThreadLocal<ComponentIdAllocator> current = new ThreadLocal<>();
+
+    // only ever used by one thread at a time, as each state (and hence allocator) belongs to a single thread
+    private int nextID;
+
+    public ComponentIdAllocator() {
+    }
+
+    private ComponentIdAllocator(int nextID) {
+        this.nextID = nextID;
+    }
+
+    /**
+     * @return a new allocator that will hand out the same IDs as this one, from this point
+     */
+    public ComponentIdAllocator copy() {
+        return new ComponentIdAllocator(nextID);
+    }
+
+    /**
+     * @return the ID that will be given to the next component created with this allocator
+     */
+    public int peekNextID() {
+        return nextID;
+    }
+
+    /**
+     * Moves the allocator back to an earlier point (see {@link #peekNextID()}), so that the same IDs are handed
+     * out again. This is used when the actions that created components are undone.
+     */
+    public void rewind(int nextID) {
+        this.nextID = nextID;
+    }
+
+    /**
+     * Binds this allocator to the current thread, so that all components created on it take their IDs from here.
+     * The previous binding should always be put back afterwards with {@link #restore(ComponentIdAllocator)}.
+     *
+     * @return the allocator previously bound to the thread (may be null)
+     */
+    public ComponentIdAllocator bind() {
+        ComponentIdAllocator previous = current.get();
+        current.set(this);
+        return previous;
+    }
+
+    public static void restore(ComponentIdAllocator previous) {
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    /**
+     * @return the allocator bound to the current thread, or null if there is none
+     */
+    public static ComponentIdAllocator current() {
+        return current.get();
+    }
+
+    /**
+     * Creates components with IDs that are unique across all games. This is needed for anything stored in a static
+     * field, as it may be first created while one game is bound to the thread, and then used by another.
+     */
+    public static <T> T shared(Supplier<T> creator) {
+        ComponentIdAllocator previous = current.get();
+        current.remove();
+        try {
+            return creator.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static int nextID() {
+        ComponentIdAllocator allocator = current.get();
+        return allocator == null ? sharedID.getAndIncrement() : allocator.nextID++;
+    }
+}
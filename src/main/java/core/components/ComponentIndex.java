@@ -0,0 +1,103 @@
+package core.components;
+
+import core.interfaces.IComponentContainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps component IDs to the components of a game state, for AbstractGameState.getComponentById().
+ * This is an open-addressing hash map keyed directly on the int ID, so that looking up a component does not box
+ * the key or follow a chain of entries. The arrays are only allocated when the index is first built, so a copy of
+ * a state that never looks anything up by ID costs nothing.
+ */
+public class ComponentIndex {
+
+    private static final int EMPTY = Integer.MIN_VALUE;  // never used as a component ID
+
+    private int[] keys;
+    private Component[] values;
+    private int size;
+
+    /**
+     * Clears the index, and then adds all the given components, and everything they contain.
+     */
+    public void rebuild(List<? extends Component> components) {
+        clear();
+        for (Component c : components)
+            add(c);
+    }
+
+    /**
+     * Adds the component (and any components nested within it) to the index.
+     */
+    public void add(Component component) {
+        if (component == null) return;
+        put(component.getComponentID(), component);
+        // stream() is read-only, so does not make a copy-on-write Deck take a private copy of its list
+        if (component instanceof IComponentContainer<?> container)
+            container.stream().forEach(this::add);
+    }
+
+    /**
+     * @return the component with this ID, or null if there is none in the index
+     */
+    public Component get(int id) {
+        if (size == 0) return null;
+        int mask = keys.length - 1;
+        for (int slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == id) return values[slot];
+            if (key == EMPTY) return null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void put(int id, Component component) {
+        if (keys == null) {
+            keys = new int[64];
+            Arrays.fill(keys, EMPTY);
+            values = new Component[64];
+        } else if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = mix(id) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != id)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = component;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Component[] oldValues = values;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Component[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    // IDs within a game are mostly consecutive, so spread them out to avoid long runs of occupied slots
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
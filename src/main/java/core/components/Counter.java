@@ -5,6 +5,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -146,6 +147,13 @@ public class Counter extends Component {
         return values;
     }
 
+    /**
+     * @return a 64-bit hash of this counter and its current value, for AbstractGameState.longHash().
+     */
+    public long longHash() {
+        return Zobrist.key(componentID, valueIdx);
+    }
+
     /**
      * Sets the maximum value for this counter.
      * @param maximum - new maximum value.
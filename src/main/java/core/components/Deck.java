@@ -7,10 +7,13 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.HashedDeque;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static core.CoreConstants.VisibilityMode;
 
@@ -27,6 +30,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // In copy-on-write mode a copy shares the list of components with this deck (if they are all immutable) until
+    // one of the two is modified. sharedStorage is true while the list may be referenced by another deck.
+    protected boolean copyOnWrite;
+    protected transient boolean sharedStorage;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -34,7 +41,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     public Deck(String name, int ownerId, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name);
-        this.components = new LinkedList<>();   // we always add new components to element 0...so an ArrayList is inefficient
+        this.components = new HashedDeque<>();   // we usually add new components to element 0, but also index into decks
         this.ownerId = ownerId;
         this.capacity = -1;
         this.visibility = visibility;
@@ -42,7 +49,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     protected Deck(String name, int ownerId, int ID, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name, ID);
-        this.components = new LinkedList<>();
+        this.components = new HashedDeque<>();
         this.capacity = -1;
         this.ownerId = ownerId;
         this.visibility = visibility;
@@ -142,6 +149,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
+            ensureWritable();
             T c = components.get(idx);
             components.remove(idx);
             return c;
@@ -205,7 +213,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean add(T c) {
         if (c != null) {
-            c.setOwnerId(ownerId);
+            setOwner(c, ownerId);
         }
         return add(c, 0);
     }
@@ -220,7 +228,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean add(T c, int index) {
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
-        c.setOwnerId(ownerId);
+        ensureWritable();
+        setOwner(c, ownerId);
         components.add(index, c);
         return capacity == -1 || components.size() <= capacity;
     }
@@ -254,9 +263,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
+        ensureWritable();
         components.addAll(index, d.components);
         for (T comp : d.components) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -266,9 +276,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index) {
+        ensureWritable();
         components.addAll(index, d);
         for (T comp : d) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -280,7 +291,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if successfully removed, false otherwise.
      */
     public boolean remove(T component) {
-        component.setOwnerId(-1);
+        setOwner(component, -1);
         int index = components.indexOf(component);
         if (index != -1) {
             return remove(index);
@@ -297,7 +308,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
+            ensureWritable();
+            setOwner(components.get(idx), -1);
             components.remove(idx);
             return true;
         }
@@ -320,8 +332,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Removes all the components from the deck.
      */
     public void clear() {
+        ensureWritable();
         for (T comp : components) {
-            comp.setOwnerId(-1);
+            setOwner(comp, -1);
         }
         components.clear();
     }
@@ -332,6 +345,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
+        ensureWritable();
+        invalidateHash();
         Collections.shuffle(components, rnd);
     }
 
@@ -343,32 +358,45 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
-        List<T> subList = components.subList(fromIndex, toIndex);
-        Collections.shuffle(subList, rnd);
-        int i = 0;
-        for (T component : subList) {
-            components.set(fromIndex + i, component);
-            i++;
-        }
+        ensureWritable();
+        invalidateHash();
+        // the sub-list is a view, so this shuffles the components in place
+        Collections.shuffle(components.subList(fromIndex, toIndex), rnd);
     }
 
     /**
+     * The list returned is the live list of this deck, and may be modified by the caller. In copy-on-write mode
+     * this therefore takes a private copy of the list if it is currently shared. Use get(), getSize(),
+     * stream() or iterator() for read-only access that avoids this.
+     *
      * @return all the components in this deck.
      */
     @Override
     public List<T> getComponents() {
+        ensureWritable();
         return components;
     }
 
+    @Override
+    public int getSize() {
+        return components.size();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return components.stream();
+    }
+
     /**
-     * Set the components in this deck.
+     * Set the components in this deck. The deck keeps its own copy of the list.
      *
      * @param components - new components for the deck, overrides old content.
      */
     public void setComponents(List<T> components) {
-        this.components = components;
+        this.components = new HashedDeque<>(components);
+        this.sharedStorage = false;
         for (T comp : components) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
     }
 
@@ -402,7 +430,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param component - new component.
      */
     public void setComponent(int idx, T component) {
-        component.setOwnerId(ownerId);
+        ensureWritable();
+        setOwner(component, ownerId);
         components.set(idx, component);
     }
 
@@ -425,6 +454,76 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         visibility = mode;
     }
 
+    /**
+     * In copy-on-write mode, copies of this deck share the underlying list of components (and the components
+     * themselves) as long as every component is immutable. The list is only duplicated when either deck
+     * is modified. Decks with mutable components are copied as normal, except that any immutable
+     * components are still shared rather than cloned. The mode is inherited by copies. With the mode off, every
+     * component is cloned.
+     *
+     * @param copyOnWrite - true to switch on copy-on-write for this deck
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * @return true while the list of components may still be shared with another copy of this deck, i.e. it
+     * has not been modified since a copy-on-write copy was made
+     */
+    public boolean isStorageShared() {
+        return sharedStorage;
+    }
+
+    /**
+     * An immutable component may be shared by the copies of this deck (in copy-on-write mode), and so by other
+     * game states, so its owner is never changed (see Component.isImmutable()).
+     */
+    private void setOwner(T component, int owner) {
+        if (!component.isImmutable())
+            component.setOwnerId(owner);
+    }
+
+    /**
+     * Called before any modification of the list of components. If the list is currently shared with
+     * another deck after a copy-on-write copy, then this deck takes a private copy of it first.
+     */
+    protected void ensureWritable() {
+        if (sharedStorage) {
+            components = new HashedDeque<>(components);
+            sharedStorage = false;
+        }
+    }
+
+    /**
+     * A 64-bit hash of this deck and its contents, in order, for AbstractGameState.longHash().
+     * Once this has been called the hash of the contents is kept up to date as components are added and removed,
+     * in O(1) at either end, and is passed on to copies (see HashedDeque). Components are hashed by their
+     * hashCode() when they are added, so a component that is changed in place while in the deck is not seen.
+     *
+     * @return - hash of the deck
+     */
+    public long longHash() {
+        long contents = components instanceof HashedDeque<T> hashed ? hashed.longHash()
+                : new HashedDeque<>(components).longHash();
+        return Zobrist.key(componentID, ownerId, contents);
+    }
+
+    private void invalidateHash() {
+        if (components instanceof HashedDeque<T> hashed)
+            hashed.invalidateHash();
+    }
+
+    // the copy has the same components (or copies of them, with the same hash codes) in the same order
+    private void copyHashTo(List<T> copy) {
+        if (components instanceof HashedDeque<T> hashed && copy instanceof HashedDeque<T> hashedCopy)
+            hashedCopy.copyHashFrom(hashed);
+    }
+
     /**
      * Creates a copy of this deck.
      *
@@ -436,14 +535,46 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return dp;
     }
 
+    /**
+     * Copies this deck into an earlier copy of it, reusing the target's list of components rather than creating
+     * a new one. Components are copied (or shared, if immutable) exactly as by copy().
+     * This is only supported for plain Decks; for subclasses, or a target that does not have the same component ID
+     * or that shares its list with another deck, this is the same as copy().
+     *
+     * @param target - an earlier copy of this deck, which nothing else refers to
+     * @return - the target, or a new copy if the target could not be reused
+     */
+    @SuppressWarnings("unchecked")
+    public Deck<T> copyInto(Deck<T> target) {
+        if (target == null || target == this || getClass() != Deck.class || target.getClass() != Deck.class
+                || target.componentID != componentID || target.sharedStorage)
+            return copy();
+        if (!shareComponentsWith(target)) {
+            target.components.clear();
+            for (T c : components) {
+                target.components.add(copyOnWrite && c.isImmutable() ? c : (T) c.copy());
+            }
+            copyHashTo(target.components);
+        }
+        target.capacity = capacity;
+        target.copyOnWrite = copyOnWrite;
+        target.visibility = visibility;
+        copyComponentTo(target);
+        return target;
+    }
+
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy());
+        if (!shareComponentsWith(deck)) {
+            List<T> newComponents = new HashedDeque<>(components.size());
+            for (T c : components) {
+                newComponents.add(copyOnWrite && c.isImmutable() ? c : (T) c.copy());
+            }
+            copyHashTo(newComponents);
+            deck.components = newComponents;
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
+        deck.copyOnWrite = copyOnWrite;
 
         //copy type and component.
         copyComponentTo(deck);
@@ -452,17 +583,40 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy(playerId));
+        if (!shareComponentsWith(deck)) {
+            List<T> newComponents = new HashedDeque<>(components.size());
+            for (T c : components) {
+                newComponents.add(copyOnWrite && c.isImmutable() ? c : (T) c.copy(playerId));
+            }
+            deck.components = newComponents;
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
+        deck.copyOnWrite = copyOnWrite;
 
         //copy type and component.
         copyComponentTo(deck);
     }
 
+    /**
+     * In copy-on-write mode, if every component is immutable then the copy can reference the same list
+     * until one of the two decks is modified.
+     *
+     * @param deck - the copy
+     * @return true if the list of components is now shared with the copy
+     */
+    private boolean shareComponentsWith(Deck<T> deck) {
+        if (!copyOnWrite)
+            return false;
+        for (T c : components) {
+            if (!c.isImmutable())
+                return false;
+        }
+        sharedStorage = true;
+        deck.sharedStorage = true;
+        deck.components = components;
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
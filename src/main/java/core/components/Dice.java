@@ -31,7 +31,7 @@ public class Dice extends Component {
             return dCustom;
         }
     }
-    public static Map<Type, Dice> StandardDice = new HashMap<Type, Dice>() {{
+    public static Map<Type, Dice> StandardDice = ComponentIdAllocator.shared(() -> new HashMap<Type, Dice>() {{
         put(d3, new Dice(d3));
         put(d4, new Dice(d4));
         put(d6, new Dice(d6));
@@ -39,7 +39,7 @@ public class Dice extends Component {
         put(d10, new Dice(d10));
         put(d12, new Dice(d12));
         put(d20, new Dice(d20));
-    }};
+    }});
 
     public final Type type;
     public final int nSides; // Number of sides
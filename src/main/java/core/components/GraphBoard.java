@@ -9,6 +9,7 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Hash;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -21,6 +22,9 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
 
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, BoardNode> boardNodes;
+    // XOR of the keys of the IDs in boardNodes (see longHash()), kept up to date by the methods below once it is valid
+    private long nodeHash;
+    private boolean nodeHashValid;
 
     public GraphBoard(String name)
     {
@@ -73,6 +77,8 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         }
         // Assign new neighbours
         b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
+        b.nodeHash = nodeHash;
+        b.nodeHashValid = nodeHashValid;
         // Copy properties
         copyComponentTo(b);
         return b;
@@ -129,19 +135,49 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      */
     public void setBoardNodes(List<BoardNode> boardNodes) {
         for (BoardNode bn: boardNodes) {
-            this.boardNodes.put(bn.componentID, bn);
+            putNode(bn.componentID, bn);
         }
     }
     public void setBoardNodes(Map<Integer, BoardNode> boardNodes) {
         this.boardNodes = boardNodes;
+        this.nodeHashValid = false;
     }
 
     public void addBoardNode(BoardNode bn) {
-        this.boardNodes.put(bn.getComponentID(), bn);
+        putNode(bn.getComponentID(), bn);
     }
 
     public void removeBoardNode(BoardNode bn) {
-        this.boardNodes.remove(bn.getComponentID());
+        removeNode(bn.getComponentID());
+    }
+
+    private void putNode(int id, BoardNode bn) {
+        if (boardNodes.put(id, bn) == null && nodeHashValid)
+            nodeHash ^= Zobrist.key(id);
+    }
+
+    private void removeNode(int id) {
+        if (boardNodes.remove(id) != null && nodeHashValid)
+            nodeHash ^= Zobrist.key(id);
+    }
+
+    /**
+     * A 64-bit hash of this board and the set of nodes on it, for AbstractGameState.longHash().
+     * The first call is O(number of nodes); after that the hash is updated in O(1) as nodes are added to or removed
+     * from the board, and is passed on to copies. The connections and properties of the nodes are not included, as
+     * they are changed on the nodes themselves; a game state that changes them should hash them separately.
+     *
+     * @return - hash of the board
+     */
+    public long longHash() {
+        if (!nodeHashValid) {
+            long h = 0;
+            for (int id : boardNodes.keySet())
+                h ^= Zobrist.key(id);
+            nodeHash = h;
+            nodeHashValid = true;
+        }
+        return Zobrist.key(componentID, nodeHash);
     }
 
     public void breakConnection(AbstractGameState gs, BoardNode bn1, BoardNode bn2) {
@@ -156,7 +192,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn1.componentID);
+        if (!inBoard) removeNode(bn1.componentID);
 
         inBoard = false;
         for (BoardNode n: bn2.getNeighbours().keySet()) {
@@ -165,17 +201,17 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 break;
             }
         }
-        if (!inBoard) boardNodes.remove(bn2.componentID);
+        if (!inBoard) removeNode(bn2.componentID);
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2) {
         bn1.addNeighbourWithCost(bn2);
         bn2.addNeighbourWithCost(bn1);
         if (!boardNodes.containsKey(bn1.componentID)) {
-            boardNodes.put(bn1.componentID, bn1);
+            putNode(bn1.componentID, bn1);
         }
         if (!boardNodes.containsKey(bn2.componentID)) {
-            boardNodes.put(bn1.componentID, bn2);
+            putNode(bn1.componentID, bn2);
         }
     }
 
@@ -183,10 +219,10 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         bn1.addNeighbourWithCost(bn2, edgeValue);
         bn2.addNeighbourWithCost(bn1, edgeValue);
         if (!boardNodes.containsKey(bn1.componentID)) {
-            boardNodes.put(bn1.componentID, bn1);
+            putNode(bn1.componentID, bn1);
         }
         if (!boardNodes.containsKey(bn2.componentID)) {
-            boardNodes.put(bn1.componentID, bn2);
+            putNode(bn1.componentID, bn2);
         }
     }
 
@@ -253,7 +289,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             newBN.loadBoardNode(node);
             newBN.setComponentName(((PropertyString)newBN.getProperty(nameHash)).value);
             newBN.setMaxNeighbours(maxNeighbours);
-            boardNodes.put(newBN.componentID, newBN);
+            putNode(newBN.componentID, newBN);
         }
 
         int _hash_neighbours_ = Hash.GetInstance().hash(neighboursKey);
@@ -294,6 +330,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public Map<Integer, BoardNode> getBoardNodeMap() {
+        nodeHashValid = false;  // the caller may change the map
         return boardNodes;
     }
 
@@ -10,6 +10,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -30,6 +31,9 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
     private int height;  // Height of the board
 
     private BoardNode[][] grid;  // 2D grid representation of this board
+    // XOR of the keys of the occupied cells (see longHash()), kept up to date by setElement() once it is valid
+    private long cellHash;
+    private boolean cellHashValid;
 
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -132,6 +136,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        this.cellHashValid = false;
     }
 
     /**
@@ -144,6 +149,8 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
      */
     public boolean setElement(int x, int y, BoardNode value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            if (cellHashValid)
+                cellHash ^= cellKey(x, y, grid[y][x]) ^ cellKey(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -171,6 +178,30 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         return getElement(pos.getX(), pos.getY());
     }
 
+    private long cellKey(int x, int y, BoardNode node) {
+        return node == null ? 0 : Zobrist.key(y * (long) width + x, node.hashCode());
+    }
+
+    /**
+     * A 64-bit hash of this board and the node in each cell, for AbstractGameState.longHash().
+     * The first call is O(width * height); after that the hash is updated in O(1) by setElement(), and is passed on
+     * to copies. Nodes are hashed by their hashCode() (their component ID), so changes to a node in place, or to
+     * the array returned by getGridValues(), are not seen.
+     *
+     * @return - hash of the board
+     */
+    public long longHash() {
+        if (!cellHashValid) {
+            long h = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    h ^= cellKey(x, y, grid[y][x]);
+            cellHash = h;
+            cellHashValid = true;
+        }
+        return Zobrist.key(componentID, cellHash);
+    }
+
     /**
      * Retrieves the grid.
      *
@@ -264,10 +295,43 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
             }
         }
         GridBoard g = new GridBoard(gridCopy, componentID);
+        g.cellHash = cellHash;
+        g.cellHashValid = cellHashValid;
         copyComponentTo(g);
         return g;
     }
 
+    /**
+     * Copies this board into an earlier copy of it, reusing the target's grid arrays. Immutable nodes are shared
+     * with the target rather than copied. Boards whose nodes have neighbours are not supported, as the links
+     * between the copied nodes would have to be rebuilt; for these (or a target of a different size) this is
+     * the same as copy().
+     *
+     * @param target - an earlier copy of this board, which nothing else refers to
+     * @return - the target, or a new copy if the target could not be reused
+     */
+    public GridBoard copyInto(GridBoard target) {
+        if (target == null || target == this || target.componentID != componentID
+                || target.width != width || target.height != height)
+            return copy();
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                BoardNode node = grid[i][j];
+                if (node == null || node.isImmutable()) {
+                    target.grid[i][j] = node;
+                } else if (node.getNeighbours().isEmpty() && node.getNeighbourSideMapping().isEmpty()) {
+                    target.grid[i][j] = new BoardNode(node);
+                } else {
+                    return copy();
+                }
+            }
+        }
+        target.cellHash = cellHash;
+        target.cellHashValid = cellHashValid;
+        copyComponentTo(target);
+        return target;
+    }
+
     public GridBoard copyNewID() {
         BoardNode[][] gridCopy = new BoardNode[getHeight()][getWidth()];
         Map<Integer, BoardNode> nodeCopies = new HashMap<>();
@@ -4,6 +4,8 @@ import core.AbstractGameState;
 import core.CoreConstants.VisibilityMode;
 import org.jetbrains.annotations.NotNull;
 import utilities.DeterminisationUtilities;
+import utilities.HashedDeque;
+import utilities.IndexedDeque;
 import utilities.Pair;
 
 import java.util.*;
@@ -14,25 +16,33 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     // (true if player can see the deck, false otherwise)
     protected boolean[] deckVisibility;
 
-    // Visibility of each component in the deck, order corresponds to order of elements in the deck;
-    protected List<boolean[]> elementVisibility = new LinkedList<>();
+    // Visibility of each component in the deck, order corresponds to order of elements in the deck.
+    // Each entry is a bitset, with bit i set if player i can see the component (so at most 64 players).
+    protected List<Long> elementVisibility = new IndexedDeque<>();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
-        return elementVisibility.get(elementIdx)[playerID];
+        return (elementVisibility.get(elementIdx) & (1L << playerID)) != 0;
     }
 
+    /**
+     * @param elementIdx - index of the component
+     * @return - a new array with the visibility of the component for each player. Changing this does not change
+     * the deck; use setVisibilityOfComponent() for that.
+     */
     public boolean[] getVisibilityOfComponent(int elementIdx) {
-        return elementVisibility.get(elementIdx);
+        return toArray(elementVisibility.get(elementIdx));
     }
 
 
     public PartialObservableDeck(String id, int ownerID, boolean[] defaultVisibility) {
         super(id, ownerID, VisibilityMode.MIXED_VISIBILITY);
+        checkPlayerCount(defaultVisibility.length);
         this.deckVisibility = defaultVisibility;
     }
 
     public PartialObservableDeck(String id, int ownerID, int nPlayers, VisibilityMode visibilityMode) {
         super(id, ownerID, visibilityMode);
+        checkPlayerCount(nPlayers);
         deckVisibility = new boolean[nPlayers];
         switch (visibilityMode) {
             case VISIBLE_TO_ALL:
@@ -53,6 +63,38 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         this.deckVisibility = defaultVisibility;
     }
 
+    private static void checkPlayerCount(int nPlayers) {
+        if (nPlayers > Long.SIZE)
+            throw new IllegalArgumentException("PartialObservableDeck supports at most " + Long.SIZE + " players, not " + nPlayers);
+    }
+
+    /**
+     * @param visibility - visibility for each player
+     * @return - the same as a bitset, with bit i set if player i can see the component
+     */
+    private static long toBits(boolean[] visibility) {
+        long bits = 0;
+        for (int i = 0; i < visibility.length; i++) {
+            if (visibility[i])
+                bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    private boolean[] toArray(long bits) {
+        boolean[] visibility = new boolean[deckVisibility.length];
+        for (int i = 0; i < visibility.length; i++)
+            visibility[i] = (bits & (1L << i)) != 0;
+        return visibility;
+    }
+
+    /**
+     * Visibility of the deck as a whole, which is the default for each component added to it
+     */
+    private long defaultBits() {
+        return toBits(deckVisibility);
+    }
+
     /**
      * Retrieves the components in this deck visible by the given player.
      * <p>
@@ -67,8 +109,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
         List<T> visibleComponents = new ArrayList<>(components.size());
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerID])
+            if (getVisibilityForPlayer(i, playerID))
                 visibleComponents.add(i, components.get(i));
             else
                 visibleComponents.add(i, null);
@@ -86,7 +127,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public boolean isComponentVisible(int idx, int playerID) {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
-        return elementVisibility.get(idx)[playerID];
+        return getVisibilityForPlayer(idx, playerID);
     }
 
 
@@ -106,7 +147,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setComponents(List<T> components, List<boolean[]> visibilityPerPlayer) {
         super.setComponents(components);
-        this.elementVisibility = visibilityPerPlayer;
+        setElementVisibility(visibilityPerPlayer);
     }
 
 
@@ -120,15 +161,24 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             if (b.length != this.deckVisibility.length)
                 throw new IllegalArgumentException("All entries of visibility need to have length " + deckVisibility.length +
                         " but at least one entry is of length " + b.length);
-        this.elementVisibility = visibility;
+        setElementVisibility(visibility);
     }
+
+    private void setElementVisibility(List<boolean[]> visibility) {
+        IndexedDeque<Long> newVisibility = new IndexedDeque<>(visibility.size());
+        for (boolean[] b : visibility)
+            newVisibility.add(toBits(b));
+        this.elementVisibility = newVisibility;
+    }
+
     private void applyVisibilityMode() {
-        if (getVisibilityMode() == VisibilityMode.TOP_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(0)[j] = true;
-        if (getVisibilityMode() == VisibilityMode.BOTTOM_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(components.size() - 1)[j] = true;
+        ensureWritable();
+        // 1L << 64 is 1L in Java (shift distances are taken modulo 64), so 64 players is a special case
+        long allPlayers = deckVisibility.length == Long.SIZE ? -1L : (1L << deckVisibility.length) - 1;
+        if (getVisibilityMode() == VisibilityMode.TOP_VISIBLE_TO_ALL && !elementVisibility.isEmpty())
+            elementVisibility.set(0, allPlayers);
+        if (getVisibilityMode() == VisibilityMode.BOTTOM_VISIBLE_TO_ALL && !elementVisibility.isEmpty())
+            elementVisibility.set(components.size() - 1, allPlayers);
     }
 
     /**
@@ -140,9 +190,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
         if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
-                this.elementVisibility.get(index)[playerID] = visibility;
-            else
+            ensureWritable();
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                long bits = elementVisibility.get(index);
+                elementVisibility.set(index, visibility ? bits | (1L << playerID) : bits & ~(1L << playerID));
+            } else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + (deckVisibility.length - 1) + "]");
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + (components.size() - 1) + "]");
@@ -157,7 +209,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
-            this.elementVisibility.set(index, visibility.clone());
+            ensureWritable();
+            this.elementVisibility.set(index, toBits(visibility));
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
         }
@@ -185,7 +238,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
-        this.elementVisibility.add(index, visibilityPerPlayer.clone());
+        ensureWritable();
+        this.elementVisibility.add(index, toBits(visibilityPerPlayer));
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
         return retValue;
@@ -200,17 +254,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public boolean add(Deck<T> d, int index) {
+        ensureWritable();
         if (d instanceof PartialObservableDeck<T> pod) {
-            int length = d.components.size();
-            for (int i = 0; i < length; i++) {
-                // Add in reverse order to keep the order of the deck
-                // this is to ties up with addAll() of components in super.add() a few lines down
-                this.elementVisibility.add(index, pod.elementVisibility.get(length - i - 1).clone());
-            }
+            this.elementVisibility.addAll(index, pod.elementVisibility);
         } else {
-            for (int i = 0; i < d.components.size(); i++) {
-                this.elementVisibility.add(index, deckVisibility.clone());
-            }
+            this.elementVisibility.addAll(index, Collections.nCopies(d.components.size(), defaultBits()));
         }
         boolean retValue = super.add(d, index);
         applyVisibilityMode();
@@ -219,9 +267,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public boolean add(Collection<T> d, int index) {
-        for (int i = 0; i < d.size(); i++) {
-            this.elementVisibility.add(index, deckVisibility.clone());
-        }
+        ensureWritable();
+        this.elementVisibility.addAll(index, Collections.nCopies(d.size(), defaultBits()));
         return super.add(d, index);
     }
 
@@ -233,10 +280,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @Override
     public void setComponents(List<T> components) {
         super.setComponents(components);
-        elementVisibility.clear();
-        for (int i = 0; i < components.size(); i++) {
-            elementVisibility.add(deckVisibility.clone());
-        }
+        // a new list, as the old one may be shared with a copy
+        elementVisibility = new IndexedDeque<>(Collections.nCopies(components.size(), defaultBits()));
         applyVisibilityMode();
     }
 
@@ -290,7 +335,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
-        elementVisibility.replaceAll(ignored -> deckVisibility.clone());
+        ensureWritable();
+        Collections.fill(elementVisibility, defaultBits());
         super.shuffle(rnd);
         applyVisibilityMode();
     }
@@ -301,9 +347,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd random number generator to be used in shuffling.
      */
     public void shuffleAndKeepVisibility(Random rnd) {
-        Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
+        Pair<List<T>, List<Long>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
+        sharedStorage = false;
         applyVisibilityMode();
     }
 
@@ -316,9 +363,9 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd   - random number generator to be used in shuffling.
      * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
      */
-    private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new LinkedList<>();
-        List<boolean[]> tmp_visibility = new LinkedList<>();
+    private Pair<List<T>, List<Long>> shuffleLists(List<T> comps, List<Long> vis, Random rnd) {
+        List<T> tmp_components = new HashedDeque<>(comps.size());
+        List<Long> tmp_visibility = new IndexedDeque<>(comps.size());
 
         List<Integer> indexList = new ArrayList<>(comps.size());
         for (int i = 0; i < comps.size(); i++)
@@ -344,6 +391,16 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         DeterminisationUtilities.reshuffle(playerId, List.of(this), c -> true, rnd);
     }
 
+    /**
+     * As well as the components, in copy-on-write mode the visibility of each element is shared with the copy.
+     */
+    @Override
+    protected void ensureWritable() {
+        if (sharedStorage)
+            elementVisibility = new IndexedDeque<>(elementVisibility);
+        super.ensureWritable();
+    }
+
     public boolean[] getDeckVisibility() {
         return deckVisibility;
     }
@@ -366,12 +423,12 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @NotNull
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
-
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
+        if (dp.sharedStorage) {
+            dp.elementVisibility = elementVisibility;
+            return dp;
         }
-        dp.elementVisibility = newVisibility;
+
+        dp.elementVisibility = new IndexedDeque<>(elementVisibility);
 
         return dp;
     }
@@ -33,6 +33,29 @@ public interface ICoefficients {
         return retValue;
     }
 
+    /**
+     * As applyCoefficients() for each row of phi (the stacked feature vectors of several states), as one
+     * matrix-vector product. A null row is skipped (and its value left as 0).
+     */
+    default double[] applyCoefficients(double[][] phi) {
+        double[] coefficients = coefficients();
+        boolean hasInteractions = interactionCoefficients() != null;
+        double[] retValue = new double[phi.length];
+        for (int row = 0; row < phi.length; row++) {
+            double[] x = phi[row];
+            if (x == null)
+                continue;
+            double value = coefficients[0]; // the bias term
+            for (int i = 0; i < x.length; i++) {
+                value += x[i] * coefficients[i + 1];
+            }
+            if (hasInteractions)
+                value += calculateInteractionEffects(x);
+            retValue[row] = value;
+        }
+        return retValue;
+    }
+
     default double calculateInteractionEffects(double[] phi) {
         double retValue = 0;
         int[][] interactions = interactions();
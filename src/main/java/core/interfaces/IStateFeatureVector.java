@@ -12,8 +12,10 @@ public interface IStateFeatureVector extends IStateKey {
     default Integer getKey(AbstractGameState state, int p) {
         int retValue = state.getCurrentPlayer();
         double[] features = featureVector(state, p);
+        double multiplier = 1.0;
         for (int i = 0; i < features.length; i++) {
-            retValue += (int) (features[i] * Math.pow(31, i+1) - 1);
+            multiplier *= 31;  // 31^(i+1), without a call to Math.pow() for every feature
+            retValue += (int) (features[i] * multiplier - 1);
         }
         return retValue;
     }
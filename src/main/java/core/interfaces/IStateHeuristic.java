@@ -3,6 +3,8 @@ package core.interfaces;
 
 import core.AbstractGameState;
 
+import java.util.List;
+
 public interface IStateHeuristic {
 
     /**
@@ -14,6 +16,21 @@ public interface IStateHeuristic {
      */
     double evaluateState(AbstractGameState gs, int playerId);
 
+    /**
+     * Scores each of the states, as evaluateState() does. This is for callers with many states to score at once
+     * (such as a one-step lookahead over all the actions), and may be overridden to do so more efficiently than one
+     * state at a time.
+     * @param states - game states to evaluate and score.
+     * @param playerId - id of the player we're evaluating the game for.
+     * @return - value of each state, in the same order.
+     */
+    default double[] evaluateStates(List<AbstractGameState> states, int playerId) {
+        double[] retValue = new double[states.size()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = evaluateState(states.get(i), playerId);
+        return retValue;
+    }
+
     default double minValue() {
         return -1;
     }
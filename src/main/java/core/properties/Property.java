@@ -8,6 +8,8 @@ public abstract class Property
     protected final String hashString;
     // Hash of property name
     protected final int hashKey;
+    // If true the property is never changed in place, so copies of the component may share it
+    protected boolean immutable;
 
     public Property(String hashString, int hashKey) {
         this.hashString = hashString;
@@ -23,6 +25,15 @@ public abstract class Property
     public String getHashString() {return hashString;}
     public int getHashKey() {return  hashKey;}
 
+    /**
+     * Immutable properties are not cloned when the component holding them is copied; the copy references the same
+     * object. Replacing the property with Component.setProperty() is fine, but anything that modifies it in place
+     * (such as adding to the list of a PropertyIntArrayList) must not be marked as immutable.
+     * @return - true if this property never changes after creation.
+     */
+    public boolean isImmutable() {return immutable;}
+    public void setImmutable(boolean immutable) {this.immutable = immutable;}
+
     /* Methods to be implemented by subclass */
 
     /**
@@ -47,6 +58,8 @@ public abstract class Property
      * @return - a new Property object with the same hashString and hashKey.
      */
     public final Property copy() {
-        return _copy();
+        Property copy = _copy();
+        copy.immutable = immutable;
+        return copy;
     }
 }
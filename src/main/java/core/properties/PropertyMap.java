@@ -0,0 +1,179 @@
+package core.properties;
+
+import java.util.*;
+
+/**
+ * The properties of a Component, by their integer key (see utilities.Hash).
+ * The keys are kept in a sorted int array with the properties in a parallel array, so a lookup is a binary search
+ * with no boxing, and a component with no properties allocates nothing beyond this object.
+ * <p>
+ * Copies share the array of keys until either of them adds or removes a key, and share any properties marked as
+ * immutable (see Property.setImmutable()); other properties are copied.
+ */
+public class PropertyMap extends AbstractMap<Integer, Property> {
+
+    private static final int[] NO_KEYS = new int[0];
+    private static final Property[] NO_PROPERTIES = new Property[0];
+
+    private int[] keys = NO_KEYS;
+    private Property[] values = NO_PROPERTIES;
+    private int size;
+    private boolean sharedKeys;  // true if the keys array may also be used by a copy
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * @param key - key of the property
+     * @return - the property, or null if there is none with this key
+     */
+    public Property get(int key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Property get(Object key) {
+        return key instanceof Integer k ? get(k.intValue()) : null;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer k && containsKey(k.intValue());
+    }
+
+    /**
+     * Adds a property, replacing any existing property with the same key.
+     *
+     * @return - the previous property with this key, or null if there was none
+     */
+    public Property put(int key, Property value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            Property old = values[index];
+            values[index] = value;
+            return old;
+        }
+        index = -index - 1;
+        if (sharedKeys || size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size + (size >> 1) + 1));
+            sharedKeys = false;
+        }
+        if (size == values.length)
+            values = Arrays.copyOf(values, keys.length);
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public Property put(Integer key, Property value) {
+        return put(key.intValue(), value);
+    }
+
+    public Property remove(int key) {
+        int index = indexOf(key);
+        if (index < 0)
+            return null;
+        if (sharedKeys) {
+            keys = keys.clone();
+            sharedKeys = false;
+        }
+        Property old = values[index];
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        values[size] = null;
+        return old;
+    }
+
+    @Override
+    public Property remove(Object key) {
+        return key instanceof Integer k ? remove(k.intValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Replaces the contents of the target with copies of these properties (immutable properties are shared).
+     *
+     * @param target - map to copy into
+     */
+    public void copyTo(PropertyMap target) {
+        if (target == this)
+            return;
+        if (size == 0) {
+            target.clear();
+            return;
+        }
+        sharedKeys = true;
+        target.sharedKeys = true;
+        target.keys = keys;
+        if (target.values.length < size)
+            target.values = new Property[size];
+        else if (target.size > size)
+            Arrays.fill(target.values, size, target.size, null);
+        for (int i = 0; i < size; i++) {
+            Property p = values[i];
+            target.values[i] = p.isImmutable() ? p : p.copy();
+        }
+        target.size = size;
+    }
+
+    @Override
+    public Set<Entry<Integer, Property>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Property>> iterator() {
+                return new Iterator<>() {
+                    int next = 0;
+                    int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<Integer, Property> next() {
+                        if (next >= size)
+                            throw new NoSuchElementException();
+                        last = next++;
+                        return new SimpleImmutableEntry<>(keys[last], values[last]);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0)
+                            throw new IllegalStateException();
+                        PropertyMap.this.remove(keys[last]);
+                        next = last;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
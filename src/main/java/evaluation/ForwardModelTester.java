@@ -21,6 +21,8 @@ public class ForwardModelTester {
      * (we cannot necessarily assert that the new state *has* changed)
      * iv) As we proceed through the game, we retain a List of the (copies of) the game state at each previous decision point.
      * These should remain unchanged.
+     * v) The game parameters are shared by all copies of the game state once the game has been set up, so we also
+     * check that they are frozen, and that their hashcode never changes during the game.
      * <p>
      * This is a useful way of checking automatically if some copy() is not doing a full deep copy, as in this case
      * an action may (incorrectly) change the state of the historic game state from which it was copied.
@@ -32,6 +34,7 @@ public class ForwardModelTester {
     List<AbstractGameState> stateHistory = new ArrayList<>();
     List<AbstractAction> actionHistory = new ArrayList<>();
     int decision = 0;
+    int parametersHashCode;
 
     public static void main(String... args) {
         new ForwardModelTester(args);
@@ -64,6 +67,9 @@ public class ForwardModelTester {
             seed = rnd.nextInt();
             System.out.printf("Running Game %d of %s with seed %d at %tc%n", loop, gameToRun, seed, System.currentTimeMillis());
             game.reset(allPlayers, seed);
+            if (!game.getGameState().getGameParameters().isFrozen())
+                throw new AssertionError("Game parameters should be frozen once the game has been set up");
+            parametersHashCode = game.getGameState().getGameParameters().hashCode();
 
             decision = 0;
             boolean allFine;
@@ -115,7 +121,7 @@ public class ForwardModelTester {
                     System.out.printf("\tOrig: %s%n\tCopy: %s%n", game.getGameState().toString(), stateCopy);
                     throw new AssertionError("Copy of game state should have same hashcode as original");
                 }
-                allFine = checkHistory();
+                allFine = checkHistory() && checkParameters(game.getGameState());
                 int player = game.getGameState().getCurrentPlayer();
                 int currentRound = game.getGameState().getRoundCounter();
                 AbstractAction action = game.oneAction();
@@ -128,6 +134,19 @@ public class ForwardModelTester {
         }
     }
 
+    private boolean checkParameters(AbstractGameState state) {
+        // The parameters are shared by every copy of the state, so a game must not change them after setup
+        int hashCode = state.getGameParameters().hashCode();
+        if (hashCode != parametersHashCode) {
+            String error = String.format("Game parameters changed after decision %d (%s) - old/new hashcodes are %d/%d",
+                    decision, decision > 0 ? actionHistory.get(decision - 1) : "setup", parametersHashCode, hashCode);
+            System.out.println(error);
+            System.out.printf("\tParameters: %s%n", state.getGameParameters());
+            throw new AssertionError(error + "\n");
+        }
+        return true;
+    }
+
     private boolean checkHistory() {
         // Here we run through the history of game state to make sure that their hashcodes are unchanged
         for (int i = 0; i < stateHistory.size(); i++) {
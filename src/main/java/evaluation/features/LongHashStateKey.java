@@ -0,0 +1,19 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.IStateKey;
+import utilities.Zobrist;
+
+/**
+ * A state key (for example for MCGSStateKey in MCTSParams) made from AbstractGameState.longHash() and the player.
+ * This distinguishes every state that the game's longHash() does, and for games that hash their components
+ * incrementally it costs far less than building a feature vector or a String.
+ */
+public class LongHashStateKey implements IStateKey {
+
+    @Override
+    public Long getKey(AbstractGameState state, int playerId) {
+        return Zobrist.key(state.longHash(), playerId);
+    }
+
+}
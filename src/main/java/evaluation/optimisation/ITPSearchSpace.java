@@ -1,5 +1,6 @@
 package evaluation.optimisation;
 
+import core.AbstractParameters;
 import core.interfaces.ITunableParameters;
 import org.apache.hadoop.shaded.org.eclipse.jetty.util.ajax.JSON;
 import org.json.simple.JSONArray;
@@ -266,7 +267,11 @@ public class ITPSearchSpace<T> extends AgentSearchSpace<T> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     private void setTo(int[] settings) {
+        // game parameters are frozen once a game has been set up with them, so we change a copy
+        if (itp instanceof AbstractParameters params && params.isFrozen())
+            itp = (ITunableParameters<T>) params.copy();
         for (int i = 0; i < settings.length; i++) {
             String pName = name(i);
             Object value = value(i, settings[i]);
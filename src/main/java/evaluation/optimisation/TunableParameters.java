@@ -182,7 +182,7 @@ public abstract class TunableParameters<T> extends AbstractParameters implements
         return tunable;
     }
 
-    // This is much faster in a forward model, and just changes the random seed
+    // This is much faster in a forward model, and shares the parameter values with the original
     // It is suitable if the same set of parameters are being used with none of them recording any state
     // This is usually the case for forward models in MCTS for example
     public TunableParameters shallowCopy() {
@@ -313,6 +313,7 @@ public abstract class TunableParameters<T> extends AbstractParameters implements
     @Override
     public void setParameterValue(String parameterName, Object value) {
         //    System.out.println("Setting " + parameterName + " to " + value);
+        checkNotFrozen();
         if (parameterName.split(Pattern.quote(".")).length > 1) {
             // in this case we pass on to the subParam (as well as updating here)
             String[] split = parameterName.split(Pattern.quote("."));
@@ -349,14 +349,14 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int i = 0; i < nGames; i++) {
             // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
             // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
-
-            // Randomize parameters
+            // Randomize parameters (before the reset, so that the game is set up with them)
             if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
+                game.randomizeParameters();
                 System.out.println("Game parameters: " + game.getGameState().getGameParameters());
             }
 
+            game.reset(matchUpPlayers, seeds.get(i));
+
             game.run();  // Always running tournaments without visuals
             GameResult[] results = game.getGameState().getPlayerResults();
 
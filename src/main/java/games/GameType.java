@@ -4,6 +4,7 @@ import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractParameters;
 import core.Game;
+import core.components.ComponentIdAllocator;
 import core.rules.AbstractRuleBasedForwardModel;
 import dev.langchain4j.agent.tool.P;
 import games.backgammon.*;
@@ -426,7 +427,13 @@ public enum GameType {
         if (gameStateClass == null) throw new AssertionError("No game state class declared for the game: " + this);
         try {
             Constructor<?> constructorGS = ConstructorUtils.getMatchingAccessibleConstructor(gameStateClass, AbstractParameters.class, Integer.class);
-            return (AbstractGameState) constructorGS.newInstance(params, nPlayers);
+            // the new state picks up this allocator, so its components get the same IDs whatever else is running
+            ComponentIdAllocator previousIDs = new ComponentIdAllocator().bind();
+            try {
+                return (AbstractGameState) constructorGS.newInstance(params, nPlayers);
+            } finally {
+                ComponentIdAllocator.restore(previousIDs);
+            }
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException(e);
         }
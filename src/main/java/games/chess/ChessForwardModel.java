@@ -12,8 +12,10 @@ import games.chess.components.ChessPiece;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import java.util.List;
+import java.util.Objects;
 
 
 public class ChessForwardModel extends StandardForwardModel {
@@ -605,6 +607,84 @@ public class ChessForwardModel extends StandardForwardModel {
         } 
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    // Everything a move can change: the piece on each square and in each player's list of pieces, the fields of
+    // all those pieces, the half-move clock, and the repetition count of the position reached (see _undo())
+    private record UndoData(ChessPiece[] squares, ChessPiece[] white, ChessPiece[] black, int[] pieceStates,
+                            int halfMoveClock, int repetitions) {
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        ChessGameState chessState = (ChessGameState) currentState;
+        ChessPiece[][] board = chessState.board.getBoard();
+        ChessPiece[] squares = new ChessPiece[64];
+        for (int x = 0; x < 8; x++)
+            System.arraycopy(board[x], 0, squares, x * 8, 8);
+        ChessPiece[] white = chessState.whitePieces.toArray(new ChessPiece[0]);
+        ChessPiece[] black = chessState.blackPieces.toArray(new ChessPiece[0]);
+        // The pieces in the lists are not always the same objects as those on the board, so we record both
+        int[] pieceStates = new int[squares.length + white.length + black.length];
+        int i = 0;
+        for (ChessPiece[] pieces : new ChessPiece[][]{squares, white, black})
+            for (ChessPiece piece : pieces)
+                pieceStates[i++] = piece == null ? 0 : packPiece(piece);
+        return new UndoData(squares, white, black, pieceStates, chessState.halfMoveClock, countRepetitions(chessState));
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        ChessGameState chessState = (ChessGameState) currentState;
+        UndoData data = (UndoData) undoData;
+        if (countRepetitions(chessState) > data.repetitions()) {
+            // checkGameEnd() counted the position reached, with the board and current player as they still are
+            int boardHash = Objects.hash(chessState.board.hashCode(), chessState.getCurrentPlayer());
+            int count = chessState.gameStateCounts.get(boardHash);
+            if (count == 1)
+                chessState.gameStateCounts.remove(boardHash);
+            else
+                chessState.gameStateCounts.put(boardHash, count - 1);
+        }
+        ChessPiece[][] board = chessState.board.getBoard();
+        for (int x = 0; x < 8; x++)
+            System.arraycopy(data.squares(), x * 8, board[x], 0, 8);
+        chessState.whitePieces.clear();
+        chessState.whitePieces.addAll(Arrays.asList(data.white()));
+        chessState.blackPieces.clear();
+        chessState.blackPieces.addAll(Arrays.asList(data.black()));
+        int i = 0;
+        for (ChessPiece[] pieces : new ChessPiece[][]{data.squares(), data.white(), data.black()})
+            for (ChessPiece piece : pieces) {
+                if (piece != null)
+                    unpackPiece(piece, data.pieceStates()[i]);
+                i++;
+            }
+        chessState.halfMoveClock = data.halfMoveClock();
+    }
+
+    private static int packPiece(ChessPiece piece) {
+        return piece.getChessPieceType().ordinal() | piece.getMoved().ordinal() << 3 |
+                piece.getX() << 5 | piece.getY() << 9 | (piece.getEnPassant() ? 1 << 13 : 0);
+    }
+
+    private static void unpackPiece(ChessPiece piece, int packed) {
+        piece.setChessPieceType(ChessPiece.ChessPieceType.values()[packed & 7]);
+        piece.setMoved(ChessPiece.MovedState.values()[(packed >> 3) & 3]);
+        piece.setPosition((packed >> 5) & 15, (packed >> 9) & 15);
+        piece.setEnPassant((packed & 1 << 13) != 0);
+    }
+
+    private static int countRepetitions(ChessGameState chessState) {
+        int total = 0;
+        for (int count : chessState.gameStateCounts.values())
+            total += count;
+        return total;
+    }
+
     @Override
     public void endGame(AbstractGameState gameState) {
         ChessGameState chessState = (ChessGameState) gameState;
@@ -181,6 +181,29 @@ public class CCForwardModel extends StandardForwardModel {
             endPlayerTurn(state);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        // Moving a peg can only change whether that peg is in its destination
+        MovePeg move = (MovePeg) action;
+        List<CCNode> nodes = ((CCGameState) currentState).getStarBoard().getBoardNodes();
+        return nodes.get(move.getFrom()).getOccupiedPeg().getInDestination();
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        MovePeg move = (MovePeg) action;
+        List<CCNode> nodes = ((CCGameState) currentState).getStarBoard().getBoardNodes();
+        Peg peg = nodes.get(move.getTo()).getOccupiedPeg();
+        nodes.get(move.getTo()).setOccupiedPeg(null);
+        nodes.get(move.getFrom()).setOccupiedPeg(peg);
+        peg.setInDestination((Boolean) undoData);
+    }
+
     private boolean checkWinCondition(CCGameState state, Peg.Colour colour) {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] colourIndices = params.colourIndices.get(colour);
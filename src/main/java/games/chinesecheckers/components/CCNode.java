@@ -164,7 +164,8 @@ public class CCNode extends Component {
     public boolean equals(Object o) {
         if (o instanceof CCNode) {
             CCNode other = (CCNode) o;
-            return componentID == other.componentID && occupiedPeg.equals(other.occupiedPeg) && x == other.x && y == other.y && Objects.equals(neighbours, other.neighbours) && Objects.equals(neighbourSideMapping, other.neighbourSideMapping) && maxNeighbours == other.maxNeighbours;
+            // The neighbours are fixed by the layout of the board (and comparing them would recurse round the board)
+            return componentID == other.componentID && Objects.equals(occupiedPeg, other.occupiedPeg) && x == other.x && y == other.y && maxNeighbours == other.maxNeighbours;
         }
         return false;
     }
@@ -1,12 +1,15 @@
 package games.connect4;
 import core.components.BoardNode;
+import core.components.ComponentIdAllocator;
 import core.components.Token;
 
 import java.util.ArrayList;
 public class Connect4Constants {
-    public static final ArrayList<BoardNode> playerMapping = new ArrayList<BoardNode>() {{
+    public static final ArrayList<BoardNode> playerMapping = ComponentIdAllocator.shared(() -> new ArrayList<BoardNode>() {{
         add(new BoardNode(8, "x"));
         add(new BoardNode(8, "o"));
-    }};
+        // symbols are placed on the board as they are, and never change
+        forEach(symbol -> symbol.setImmutable(true));
+    }});
     public static final String emptyCell = ".";
 }
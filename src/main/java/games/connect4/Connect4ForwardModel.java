@@ -21,7 +21,9 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         Connect4GameParameters c4gp = (Connect4GameParameters) firstState.getGameParameters();
         int gridSize = c4gp.gridSize;
         Connect4GameState state = (Connect4GameState) firstState;
-        state.gridBoard = new GridBoard(gridSize, gridSize, new BoardNode(Connect4Constants.emptyCell));
+        BoardNode emptyCell = new BoardNode(Connect4Constants.emptyCell);
+        emptyCell.setImmutable(true);
+        state.gridBoard = new GridBoard(gridSize, gridSize, emptyCell);
         state.winnerCells = new LinkedList<>();
     }
 
@@ -61,6 +63,31 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         super._afterAction(currentState, action);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    // The only action drops a token into one cell of the grid; a win also replaces the list of winning cells
+    private record UndoData(BoardNode previousCell, LinkedList<Pair<Integer, Integer>> winnerCells) {
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        SetGridValueAction setValue = (SetGridValueAction) action;
+        return new UndoData(c4gs.gridBoard.getElement(setValue.getX(), setValue.getY()), c4gs.winnerCells);
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        SetGridValueAction setValue = (SetGridValueAction) action;
+        UndoData data = (UndoData) undoData;
+        c4gs.gridBoard.setElement(setValue.getX(), setValue.getY(), data.previousCell());
+        c4gs.winnerCells = data.winnerCells();
+    }
+
     /**
      * Checks if the game ended.
      *
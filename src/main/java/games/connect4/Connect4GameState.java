@@ -50,7 +50,7 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
 
     @Override
     protected AbstractGameState _copy(int playerId) {
-        Connect4GameState s = new Connect4GameState(gameParameters.copy(), getNPlayers());
+        Connect4GameState s = new Connect4GameState(gameParameters, getNPlayers());
         s.gridBoard = gridBoard.copy();
 
         s.winnerCells.clear();
@@ -60,6 +60,18 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return s;
     }
 
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        Connect4GameState s = (Connect4GameState) target;
+        s.gridBoard = gridBoard.copyInto(s.gridBoard);
+
+        s.winnerCells.clear();
+        for (Pair<Integer, Integer> wC : this.winnerCells)
+            s.winnerCells.add(wC.copy());
+
+        return true;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         return new Connect4Heuristic().evaluateState(this, playerId);
@@ -77,7 +89,6 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Connect4GameState that)) return false;
-        if (!super.equals(o)) return false;
         return Objects.equals(gridBoard, that.gridBoard);
     }
 
@@ -105,6 +116,16 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return Objects.hash(super.hashCode(), gridBoard);
     }
 
+    @Override
+    protected long _longHash() {
+        return gridBoard.longHash();
+    }
+
+    @Override
+    public boolean hasLongHash() {
+        return true;
+    }
+
     @Override
     public GridBoard getGridBoard() {
         return gridBoard;
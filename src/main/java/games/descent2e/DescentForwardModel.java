@@ -54,8 +54,9 @@ public class DescentForwardModel extends StandardForwardModel {
         // Set up dice pools
         // Revive: 2 red dice
         // Heal: 1 red die
-        DicePool.revive = constructDicePool(descentParameters.reviveDice);
-        DicePool.heal = constructDicePool(descentParameters.healDice);
+        // these are static, so must not take their IDs from this game
+        DicePool.revive = ComponentIdAllocator.shared(() -> constructDicePool(descentParameters.reviveDice));
+        DicePool.heal = ComponentIdAllocator.shared(() -> constructDicePool(descentParameters.healDice));
 
         // TODO: epic play options (pg 19)
 
@@ -1,5 +1,6 @@
 package games.descent2e.abilities;
 
+import core.components.ComponentIdAllocator;
 import games.descent2e.DescentGameState;
 import games.descent2e.components.*;
 import utilities.Vector2D;
@@ -17,7 +18,7 @@ public class NightStalker {
         put(BROWN, 1);
     }};
 
-    public static DicePool nightStalkerDicePool = DicePool.constructDicePool(nightStalkerDice);
+    public static DicePool nightStalkerDicePool = ComponentIdAllocator.shared(() -> DicePool.constructDicePool(nightStalkerDice));
 
     public static DicePool getNightStalkerDicePool() {
         return nightStalkerDicePool;
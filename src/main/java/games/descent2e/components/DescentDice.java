@@ -2,6 +2,7 @@ package games.descent2e.components;
 
 import core.CoreConstants;
 import core.components.Component;
+import core.components.ComponentIdAllocator;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -58,7 +59,8 @@ public class DescentDice extends Component {
 
             JSONArray data = (JSONArray) jsonParser.parse(reader);
             for(Object o : data) {
-                DescentDice newDice = new DescentDice();
+                // the master dice are static, so must not take their IDs from the game that loads them
+                DescentDice newDice = ComponentIdAllocator.shared(DescentDice::new);
                 newDice.loadDie((JSONObject) o);
                 masterDice.add(newDice);
             }
@@ -14,6 +14,7 @@ import games.diamant.cards.DiamantCard;
 import games.diamant.components.ActionsPlayed;
 import org.apache.spark.internal.config.R;
 import org.json.simple.JSONObject;
+import utilities.Zobrist;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -88,11 +89,39 @@ public class DiamantGameState extends AbstractGameState implements IPrintable {
     @Override
     protected AbstractGameState _copy(int playerId)
     {
-        DiamantGameState dgs = new DiamantGameState(gameParameters.copy(), getNPlayers());
+        DiamantGameState dgs = new DiamantGameState(gameParameters, getNPlayers());
 
         dgs.mainDeck    = mainDeck.copy();
         dgs.discardDeck = discardDeck.copy();
         dgs.path        = path.copy();
+        dgs.hands          = new ArrayList<>();
+        dgs.treasureChests = new ArrayList<>();
+        dgs.playerInCave   = new ArrayList<>();
+        copyTo(dgs, playerId);
+        return dgs;
+    }
+
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId)
+    {
+        DiamantGameState dgs = (DiamantGameState) target;
+
+        dgs.mainDeck    = mainDeck.copyInto(dgs.mainDeck);
+        dgs.discardDeck = discardDeck.copyInto(dgs.discardDeck);
+        dgs.path        = path.copyInto(dgs.path);
+        dgs.hands.clear();
+        dgs.treasureChests.clear();
+        dgs.playerInCave.clear();
+        dgs.recordOfPlayerActions.clear();
+        copyTo(dgs, playerId);
+        return true;
+    }
+
+    /**
+     * Copies everything other than the decks into dgs, which has empty lists for the hands, chests and players
+     */
+    private void copyTo(DiamantGameState dgs, int playerId)
+    {
         dgs.actionsPlayed  = (ActionsPlayed) actionsPlayed.copy();
 
         dgs.nGemsOnPath             = nGemsOnPath;
@@ -103,9 +132,6 @@ public class DiamantGameState extends AbstractGameState implements IPrintable {
         dgs.nHazardExplosionsOnPath = nHazardExplosionsOnPath;
 
         dgs.nCave          = nCave;
-        dgs.hands          = new ArrayList<>();
-        dgs.treasureChests = new ArrayList<>();
-        dgs.playerInCave   = new ArrayList<>();
         dgs.recordOfPlayerActions.addAll(recordOfPlayerActions);
 
         for (Counter c : hands)
@@ -139,7 +165,6 @@ public class DiamantGameState extends AbstractGameState implements IPrintable {
             // is now the responsibility of the deciding agent (see for example OSLA)
 
         }
-        return dgs;
     }
 
     @Override
@@ -188,7 +213,6 @@ public class DiamantGameState extends AbstractGameState implements IPrintable {
     {
         if (this == o)                        return true;
         if (!(o instanceof DiamantGameState)) return false;
-        if (!super.equals(o))                 return false;
 
         DiamantGameState that = (DiamantGameState) o;
 
@@ -208,6 +232,25 @@ public class DiamantGameState extends AbstractGameState implements IPrintable {
                Objects.equals(actionsPlayed,  that.actionsPlayed);
     }
 
+    @Override
+    protected long _longHash()
+    {
+        long hash = Zobrist.key(mainDeck.longHash(), discardDeck.longHash(), path.longHash());
+        for (int p = 0; p < getNPlayers(); p++)
+            hash = Zobrist.key(hash, hands.get(p).longHash(), treasureChests.get(p).longHash() + (playerInCave.get(p) ? 1 : 0));
+        hash = Zobrist.key(hash, nGemsOnPath, nCave);
+        hash = Zobrist.key(hash, nHazardPoissonGasOnPath, nHazardScorpionsOnPath);
+        hash = Zobrist.key(hash, nHazardSnakesOnPath, nHazardRockfallsOnPath);
+        hash = Zobrist.key(hash, nHazardExplosionsOnPath, actionsPlayed.actions.hashCode());
+        return hash;
+    }
+
+    @Override
+    public boolean hasLongHash()
+    {
+        return true;
+    }
+
     /**
      * Returns the number of player already in the cave
     */
@@ -28,6 +28,7 @@ public class DiamantCard extends Card {
         this.cardType     = cardType;
         this.hazardType   = hazardType;
         this.NumberOfGems = NumberOfGems;
+        this.immutable = true;
     }
 
     public DiamantCard(DiamantCardType cardType, HazardType hazardType, int NumberOfGems, int ID) {
@@ -35,6 +36,7 @@ public class DiamantCard extends Card {
         this.cardType     = cardType;
         this.hazardType   = hazardType;
         this.NumberOfGems = NumberOfGems;
+        this.immutable = true;
     }
 
     public DiamantCardType getCardType()     { return cardType;     }
@@ -12,6 +12,7 @@ public class DominionCard extends Card {
     protected DominionCard(CardType type) {
         super(type.name());
         this.type = type;
+        this.immutable = true;
     }
 
     public static DominionCard create(CardType type) {
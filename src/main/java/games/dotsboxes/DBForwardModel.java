@@ -62,6 +62,31 @@ public class DBForwardModel extends StandardForwardModel {
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        return ((DBGameState) currentState).lastActionDidNotScore;
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        DBGameState dbgs = (DBGameState) currentState;
+        DBEdge edge = ((AddGridCellEdge) action).edge;
+        dbgs.edgeToOwnerMap.remove(edge);
+        // A cell next to the edge cannot have been complete before the edge was added, so any that are owned now
+        // were completed by this action
+        for (DBCell c : dbgs.edgeToCellMap.get(edge)) {
+            Integer owner = dbgs.cellToOwnerMap.remove(c);
+            if (owner != null)
+                dbgs.nCellsPerPlayer[owner]--;
+        }
+        dbgs.lastActionDidNotScore = (Boolean) undoData;
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
 
@@ -63,6 +63,23 @@ public class DBGameState extends AbstractGameState {
         return dbgs;
     }
 
+    @Override
+    protected boolean _copyInto(AbstractGameState target, int playerId) {
+        DBGameState dbgs = (DBGameState) target;
+        // the board is shared by all copies of a game, so this tells us whether the target is from this game
+        if (dbgs.edges != edges || dbgs.gameParameters != gameParameters)
+            return false;
+        dbgs.lastActionDidNotScore = lastActionDidNotScore;
+
+        System.arraycopy(nCellsPerPlayer, 0, dbgs.nCellsPerPlayer, 0, nCellsPerPlayer.length);
+        dbgs.cellToOwnerMap.clear();
+        dbgs.cellToOwnerMap.putAll(cellToOwnerMap);
+        dbgs.edgeToOwnerMap.clear();
+        dbgs.edgeToOwnerMap.putAll(edgeToOwnerMap);
+        dbgs.heuristic = heuristic;
+        return true;
+    }
+
     @Override
     protected double _getHeuristicScore(int playerId) {
         if (heuristic == null) { // lazy initialization
@@ -88,9 +105,9 @@ public class DBGameState extends AbstractGameState {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBGameState)) return false;
-        if (!super.equals(o)) return false;
         DBGameState that = (DBGameState) o;
-        return lastActionDidNotScore == that.lastActionDidNotScore && Objects.equals(heuristic, that.heuristic)
+        // heuristic is not compared, as it is only created (and cached) when first needed
+        return lastActionDidNotScore == that.lastActionDidNotScore
                 && Objects.equals(edges, that.edges) && Objects.equals(cells, that.cells) &&
                 Objects.equals(edgeToCellMap, that.edgeToCellMap) &&
                 Objects.equals(cellToEdgesMap, that.cellToEdgesMap) &&
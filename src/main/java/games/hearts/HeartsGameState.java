@@ -120,7 +120,7 @@ public class HeartsGameState extends AbstractGameState {
 
     @Override
     protected AbstractGameState _copy(int playerId) {
-        HeartsGameState copy = new HeartsGameState(gameParameters.copy(), getNPlayers());
+        HeartsGameState copy = new HeartsGameState(gameParameters, getNPlayers());
 
         // Deep Copy player decks
         copy.playerDecks = new ArrayList<>();
@@ -1,25 +1,26 @@
 package games.mastermind;
 
 import core.components.BoardNode;
+import core.components.ComponentIdAllocator;
 import core.components.Token;
 
 import java.util.ArrayList;
 
 public class MMConstants {
-    public static final ArrayList<BoardNode> resultColours = new ArrayList<>() {{
+    public static final ArrayList<BoardNode> resultColours = ComponentIdAllocator.shared(() -> new ArrayList<BoardNode>() {{
         add(new BoardNode("b"));
         add(new BoardNode("w"));
         add(new BoardNode("x"));
-    }};
+    }});
 
-    public static final ArrayList<BoardNode> guessColours = new ArrayList<>() {{
+    public static final ArrayList<BoardNode> guessColours = ComponentIdAllocator.shared(() -> new ArrayList<BoardNode>() {{
         add(new BoardNode("R"));
         add(new BoardNode("O"));
         add(new BoardNode("Y"));
         add(new BoardNode("G"));
         add(new BoardNode("B"));
         add(new BoardNode("V"));
-    }};
+    }});
 
     static String emptyPeg = ".";
 
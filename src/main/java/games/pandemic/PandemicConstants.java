@@ -1,6 +1,7 @@
 package games.pandemic;
 
 import utilities.Hash;
+import utilities.Utils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,30 @@ public class PandemicConstants {
     // for contingency planner
     public final static int plannerDeckHash = Hash.GetInstance().hash("plannerDeck");
 
+    // counters for each disease (0 - not cured, 1 - cured, 2 - eradicated) and its cubes, in the order of colors
+    public final static int[] diseaseHashes = new int[colors.length];
+    public final static int[] diseaseCubeHashes = new int[colors.length];
+    static {
+        for (int i = 0; i < colors.length; i++) {
+            diseaseHashes[i] = Hash.GetInstance().hash("Disease " + colors[i]);
+            diseaseCubeHashes[i] = Hash.GetInstance().hash("Disease Cube " + colors[i]);
+        }
+    }
+
+    /**
+     * Key of the counter for a disease, without building and hashing its name
+     */
+    public static int diseaseHash(String color) {
+        return diseaseHashes[Utils.indexOf(colors, color)];
+    }
+
+    /**
+     * Key of the counter for the cubes of a disease, without building and hashing its name
+     */
+    public static int diseaseCubeHash(String color) {
+        return diseaseCubeHashes[Utils.indexOf(colors, color)];
+    }
+
     public enum PlayerRole {
         Any,
         Scientist,
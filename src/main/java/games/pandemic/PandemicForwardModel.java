@@ -4,7 +4,9 @@ import core.*;
 import core.actions.AbstractAction;
 import core.actions.DrawCard;
 import core.components.Area;
+import core.components.BoardNode;
 import core.components.Card;
+import core.components.Component;
 import core.components.Counter;
 import core.components.Deck;
 import core.properties.Property;
@@ -21,6 +23,7 @@ import games.pandemic.rules.conditions.*;
 import games.pandemic.rules.gameOver.*;
 import games.pandemic.rules.rules.*;
 import utilities.Hash;
+import utilities.Utils;
 
 import java.util.*;
 
@@ -28,6 +31,7 @@ import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
 import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
 import static core.CoreConstants.nameHash;
 import static core.CoreConstants.playerHandHash;
+import static core.CoreConstants.playersHash;
 import static games.pandemic.PandemicActionFactory.*;
 import static games.pandemic.PandemicConstants.*;
 import static games.pandemic.actions.MovePlayer.placePlayer;
@@ -194,12 +198,12 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         gameArea.putComponent(PandemicConstants.researchStationHash, researchStations);
 
         for (String color : colors) {
-            int hash = Hash.GetInstance().hash("Disease " + color);
+            int hash = diseaseHash(color);
             Counter diseaseC = _data.findCounter("Disease " + color);
             diseaseC.setValue(0);  // 0 - cure not discovered; 1 - cure discovered; 2 - eradicated
             gameArea.putComponent(hash, diseaseC);
 
-            hash = Hash.GetInstance().hash("Disease Cube " + color);
+            hash = diseaseCubeHash(color);
             Counter diseaseCubeCounter = _data.findCounter("Disease Cube " + color);
             diseaseCubeCounter.setMaximum(pp.nInitialDiseaseCubes);
             diseaseCubeCounter.setValue(pp.nInitialDiseaseCubes);
@@ -233,6 +237,14 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
 
         state.addComponents();
 
+        // Properties loaded from the data are only ever replaced (with setProperty()), not changed in place, so copies
+        // of the state can share them. The exceptions are the disease cubes and players in each city.
+        for (BoardNode city : state.world.getBoardNodes())
+            setPropertiesImmutable(city, infectionHash, playersHash);
+        for (Deck<Card> deck : List.of(playerDeck, playerRoles, infectionDeck))
+            for (Card card : deck)
+                setPropertiesImmutable(card);
+
         // Infection
         infectionDeck.shuffle(firstState.getRnd());
         int nCards = pp.nInfectionCardsSetup;
@@ -338,6 +350,18 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         return null;
     }
 
+    /**
+     * Marks the properties of a component as immutable, so that copies of it share them.
+     * @param c - component loaded from the data
+     * @param mutableKeys - keys of any properties that are changed in place during the game
+     */
+    private static void setPropertiesImmutable(Component c, int... mutableKeys) {
+        for (Property p : c.getProperties().values()) {
+            if (Utils.indexOf(mutableKeys, p.getHashKey()) == -1)
+                p.setImmutable(true);
+        }
+    }
+
     /**
      * Calculates the list of currently available actions, possibly depending on the game phase.
      * @return - List of IAction objects.
@@ -367,6 +391,11 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         return retValue;
     }
 
+    @Override
+    public PandemicForwardModel independentCopy() {
+        return copy();
+    }
+
     @Override
     protected void endPlayerTurn(AbstractGameState state) {
         PandemicGameState pgs = (PandemicGameState) state;
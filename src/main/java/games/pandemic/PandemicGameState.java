@@ -68,10 +68,10 @@ public class PandemicGameState extends AbstractGameStateWithTurnOrder implements
         int nDiseasesCured = 0;
         int i = 3;
         for (String color: colors) {
-            Counter disease = (Counter) getComponent(Hash.GetInstance().hash("Disease " + color));
+            Counter disease = (Counter) getComponent(PandemicConstants.diseaseHash(color));
             if (disease.getValue() >= 1) nDiseasesCured++;
 
-            Counter diseaseCube = (Counter) getComponent(Hash.GetInstance().hash("Disease cube " + color));
+            Counter diseaseCube = (Counter) getComponent(PandemicConstants.diseaseCubeHash(color));
             features[i++] = diseaseCube.getValue();
         }
 
@@ -222,7 +222,7 @@ public class PandemicGameState extends AbstractGameStateWithTurnOrder implements
 
     @Override
     protected AbstractGameStateWithTurnOrder __copy(int playerId) {
-        PandemicGameState gs = new PandemicGameState(gameParameters.copy(), getNPlayers());
+        PandemicGameState gs = new PandemicGameState(gameParameters, getNPlayers());
 
         gs.areas = new HashMap<>();
         for(int key : areas.keySet())
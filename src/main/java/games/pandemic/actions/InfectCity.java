@@ -9,7 +9,6 @@ import core.properties.*;
 import core.AbstractGameState;
 import games.pandemic.PandemicConstants;
 import games.pandemic.PandemicGameState;
-import utilities.Hash;
 import utilities.Utils;
 
 import java.util.ArrayList;
@@ -42,11 +41,11 @@ public class InfectCity extends DrawCard {
         PandemicGameState pgs = (PandemicGameState)gs;
         Card infectingCard = getCard(gs);
         PropertyColor color = (PropertyColor) infectingCard.getProperty(colorHash);
-        Counter diseaseCounter = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color.valueStr));
+        Counter diseaseCounter = (Counter) pgs.getComponent(PandemicConstants.diseaseHash(color.valueStr));
 
         boolean disease_eradicated = diseaseCounter.getValue() == 2;
         if (!disease_eradicated) {  // Only infect if disease is not eradicated
-            Counter diseaseCubeCounter = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color.valueStr));
+            Counter diseaseCubeCounter = (Counter) pgs.getComponent(PandemicConstants.diseaseCubeHash(color.valueStr));
             int colorIdx = Utils.indexOf(colors, color.valueStr);
             PropertyString city = (PropertyString) infectingCard.getProperty(nameHash);
 
@@ -1,12 +1,12 @@
 package games.pandemic.actions;
 
+import games.pandemic.PandemicConstants;
 import core.actions.AbstractAction;
 import core.components.BoardNode;
 import core.components.Counter;
 import core.properties.PropertyIntArray;
 import core.AbstractGameState;
 import games.pandemic.PandemicGameState;
-import utilities.Hash;
 import utilities.Utils;
 
 import java.util.Objects;
@@ -39,8 +39,8 @@ public class TreatDisease extends AbstractAction {
     public boolean execute(AbstractGameState gs) {
         PandemicGameState pgs = (PandemicGameState) gs;
 
-        Counter diseaseToken = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color));
-        Counter diseaseCubeCounter = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color));
+        Counter diseaseToken = (Counter) pgs.getComponent(PandemicConstants.diseaseHash(color));
+        Counter diseaseCubeCounter = (Counter) pgs.getComponent(PandemicConstants.diseaseCubeHash(color));
         int colorIdx = Utils.indexOf(colors, color);
 
         BoardNode bn = pgs.getWorld().getNodeByStringProperty(nameHash, city);
@@ -118,9 +118,9 @@ public class PandemicMetrics implements IMetricsCollection {
         int count = 0;
         for (String color: colors) {
             if (cubes) {
-                count += ((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color))).getValue();
+                count += ((Counter) pgs.getComponent(PandemicConstants.diseaseCubeHash(color))).getValue();
             } else {
-                if (((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color))).getValue() == targetValue)
+                if (((Counter) pgs.getComponent(PandemicConstants.diseaseHash(color))).getValue() == targetValue)
                     count++;
             }
         }
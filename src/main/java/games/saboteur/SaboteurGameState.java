@@ -67,7 +67,7 @@ public class SaboteurGameState extends AbstractGameState
     @Override
     protected SaboteurGameState _copy(int playerId)
     {
-        SaboteurGameState copy = new SaboteurGameState(gameParameters.copy(), getNPlayers());
+        SaboteurGameState copy = new SaboteurGameState(gameParameters, getNPlayers());
 
         //copying brokenToolsDeck
         copy.toolDeck = new ArrayList<>();
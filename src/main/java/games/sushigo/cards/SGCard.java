@@ -226,12 +226,14 @@ public class SGCard extends Card {
         super(type.toString());
         this.type = type;
         this.count = 1;
+        this.immutable = true;
     }
 
     public SGCard(SGCardType type, int count) {
         super(type.toString());
         this.type = type;
         this.count = count;
+        this.immutable = true;
     }
 
     @Override
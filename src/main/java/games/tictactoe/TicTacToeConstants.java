@@ -1,14 +1,17 @@
 package games.tictactoe;
 
 import core.components.BoardNode;
+import core.components.ComponentIdAllocator;
 import core.components.Token;
 
 import java.util.ArrayList;
 
 public class TicTacToeConstants {
-    public static final ArrayList<BoardNode> playerMapping = new ArrayList<>() {{
+    public static final ArrayList<BoardNode> playerMapping = ComponentIdAllocator.shared(() -> new ArrayList<BoardNode>() {{
         add(new BoardNode("x"));
         add(new BoardNode("o"));
-    }};
+        // symbols are placed on the board as they are, and never change
+        forEach(symbol -> symbol.setImmutable(true));
+    }});
     public static final String emptyCell = ".";
 }
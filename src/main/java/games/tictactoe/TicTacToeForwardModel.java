@@ -23,7 +23,9 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         TicTacToeGameParameters tttgp = (TicTacToeGameParameters) firstState.getGameParameters();
         int gridSize = tttgp.gridSize;
         TicTacToeGameState state = (TicTacToeGameState) firstState;
-        state.gridBoard = new GridBoard(gridSize, gridSize, new BoardNode(TicTacToeConstants.emptyCell));
+        BoardNode emptyCell = new BoardNode(TicTacToeConstants.emptyCell);
+        emptyCell.setImmutable(true);
+        state.gridBoard = new GridBoard(gridSize, gridSize, emptyCell);
     }
 
 
@@ -58,6 +60,24 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         endPlayerTurn(currentState);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _prepareUndo(AbstractGameState currentState, AbstractAction action) {
+        // The only action sets one cell of the grid, so all we need is what was there before
+        SetGridValueAction setValue = (SetGridValueAction) action;
+        return ((TicTacToeGameState) currentState).gridBoard.getElement(setValue.getX(), setValue.getY());
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object undoData) {
+        SetGridValueAction setValue = (SetGridValueAction) action;
+        ((TicTacToeGameState) currentState).gridBoard.setElement(setValue.getX(), setValue.getY(), (BoardNode) undoData);
+    }
+
     /**
      * Checks if the game ended.
      *
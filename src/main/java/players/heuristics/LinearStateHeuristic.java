@@ -39,5 +39,30 @@ public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristi
         return 0;
     }
 
+    @Override
+    public double[] evaluateStates(List<AbstractGameState> states, int playerId) {
+        if (coefficients == null)
+            return IStateHeuristic.super.evaluateStates(states, playerId);
+        // the feature vectors of the states the coefficients are used for, stacked as the rows of one matrix
+        double[][] phi = new double[states.size()][];
+        double[] retValue = new double[states.size()];
+        for (int i = 0; i < phi.length; i++) {
+            AbstractGameState state = states.get(i);
+            if (defaultHeuristic == null || state.isNotTerminal())
+                phi[i] = features.featureVector(state, playerId);
+            else
+                retValue[i] = defaultHeuristic.evaluateState(state, playerId);
+        }
+        double[] linear = applyCoefficients(phi);
+        for (int i = 0; i < phi.length; i++) {
+            if (phi[i] == null)
+                continue;
+            retValue[i] = inverseLinkFunction.applyAsDouble(linear[i]);
+            if (defaultHeuristic != null)
+                retValue[i] = Utils.clamp(retValue[i], defaultHeuristic.minValue(), defaultHeuristic.maxValue());
+        }
+        return retValue;
+    }
+
 
 }
@@ -27,6 +27,18 @@ public class ActionStats {
         nVisits++;
     }
 
+    /**
+     * Adds the visits and values of other (for the same action, from another tree) to these
+     */
+    public void add(ActionStats other) {
+        for (int i = 0; i < totValue.length; i++) {
+            totValue[i] += other.totValue[i];
+            squaredTotValue[i] += other.squaredTotValue[i];
+        }
+        nVisits += other.nVisits;
+        validVisits += other.validVisits;
+    }
+
     public ActionStats copy() {
         ActionStats newStats = new ActionStats(totValue.length);
         newStats.nVisits = nVisits;
@@ -0,0 +1,52 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.Arrays;
+
+/**
+ * The actions taken in the rollout of one iteration, and the player who took each, for the MAST statistics.
+ * <p>
+ * These are kept in arrays that are cleared (rather than made afresh) for each iteration, so recording an action
+ * allocates nothing once the arrays are long enough. The actions are not copied: MASTTable copies an action the
+ * first time it sees it.
+ */
+class ActionTrajectory {
+
+    private int[] players = new int[0];
+    private AbstractAction[] actions = new AbstractAction[0];
+    private int size;
+
+    void add(int player, AbstractAction action) {
+        if (size == players.length) {
+            int length = Math.max(16, 2 * size);
+            players = Arrays.copyOf(players, length);
+            actions = Arrays.copyOf(actions, length);
+        }
+        players[size] = player;
+        actions[size] = action;
+        size++;
+    }
+
+    int player(int i) {
+        return players[i];
+    }
+
+    AbstractAction action(int i) {
+        return actions[i];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        // so the actions can be garbage collected
+        Arrays.fill(actions, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,233 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.OneTree;
+import static players.mcts.MCTSEnums.TreePolicy.*;
+import static utilities.Utils.*;
+
+/**
+ * The root of a tree that is stored in a NodeArena, rather than as a SingleTreeNode for each node
+ * (see MCTSParams.nodeArena). This keeps the memory used by large trees down, and the statistics of the actions
+ * at each node in one array for the tree policy to loop over.
+ * <p>
+ * Each iteration is as in SingleTreeNode (including the rollout, budgets and MAST statistics), but the tree
+ * policy and backup work on the arena. Once the search is over, the statistics of the actions at the root
+ * are copied to actionValues, so that bestAction() and the metrics see them as for any other root;
+ * the children of the root are not kept as nodes.
+ * <p>
+ * This supports OneTree search (including paranoid), with Open_Loop or Information_Set, the UCB, UCB_Tuned and
+ * EXP3 tree policies and MonteCarlo backups; and not reuse of the tree between decisions, progressive
+ * widening or bias, or initialisation of action values from a heuristic.
+ */
+public class ArenaTreeNode extends SingleTreeNode {
+
+    NodeArena arena;
+    private final SingleTreeNode rolloutNode = new SingleTreeNode();
+    // the node and the slot of the action taken at each step of the current iteration, and the actions available
+    private int[] pathNodes = new int[16], pathSlots = new int[16], pathValidCount = new int[16];
+    private int[][] pathValidSlots = new int[16][];
+    // for the tree policy
+    private double[] values = new double[16];
+
+    @Override
+    public void mctsSearch(long initialisationTime, int budget) {
+        if (params.opponentTreePolicy != OneTree)
+            throw new AssertionError("An arena tree only supports OneTree search, not " + params.opponentTreePolicy);
+        if (params.information == Closed_Loop)
+            throw new AssertionError("An arena tree needs Open_Loop or Information_Set search");
+        if (params.treePolicy != UCB && params.treePolicy != UCB_Tuned && params.treePolicy != EXP3)
+            throw new AssertionError("An arena tree only supports the UCB, UCB_Tuned and EXP3 tree policies, not " + params.treePolicy);
+        if (params.backupPolicy != MCTSEnums.BackupPolicy.MonteCarlo)
+            throw new AssertionError("An arena tree only supports MonteCarlo backups");
+        if (params.reuseTree || params.progressiveWideningConstant >= 1.0 || params.progressiveBias > 0 ||
+                params.pUCT || params.initialiseVisits > 0)
+            throw new AssertionError("An arena tree does not support tree reuse, progressive widening or bias, pUCT or initialiseVisits");
+        if (params.maxTreeNodes > 0)
+            throw new AssertionError("An arena tree does not support maxTreeNodes");
+        if (params.treeParallelThreads > 1 || params.leafParallelRollouts > 1)
+            throw new AssertionError("An arena tree does not support tree-parallel search or leaf-parallel rollouts");
+
+        arena = new NodeArena(openLoopState.getNPlayers(), 1024);
+        arena.addNode(decisionPlayer, 0);
+        rolloutNode.root = this;
+        rolloutNode.params = params;
+        rolloutNode.forwardModel = forwardModel;
+        rolloutNode.rnd = rnd;
+        super.mctsSearch(initialisationTime, budget);
+
+        // copy the statistics at the root to where bestAction() and the metrics look for them
+        actionValues.clear();
+        children.clear();
+        for (int slot = 0; slot < arena.nActions[0]; slot++) {
+            AbstractAction action = arena.actions[0][slot];
+            actionValues.put(action, arena.actionStats(0, slot));
+            children.put(action, null);
+        }
+        nVisits = arena.nodeVisits[0];
+    }
+
+    /**
+     * @return the number of nodes in the tree from the last search
+     */
+    public int getNodeCount() {
+        return arena == null ? 0 : arena.nNodes;
+    }
+
+    @Override
+    protected void oneSearchIteration() {
+        actionsInTree = new ArrayList<>();
+        clearRolloutActions();
+
+        // the state and actions at the root have been set by mctsSearch()
+        AbstractGameState gs = openLoopState;
+        List<AbstractAction> available = actionsFromOpenLoopState;
+        int node = 0;
+        int steps = 0;
+        int lastActorInTree = decisionPlayer;
+        while (gs.isNotTerminalForPlayer(arena.decisionPlayer[node]) &&
+                arena.depth[node] < params.maxTreeDepth && !available.isEmpty()) {
+            if (steps == pathNodes.length)
+                growPath();
+            int nAvailable = available.size();
+            if (pathValidSlots[steps] == null || pathValidSlots[steps].length < nAvailable)
+                pathValidSlots[steps] = new int[Math.max(nAvailable, 8)];
+            int[] slots = pathValidSlots[steps];
+            for (int i = 0; i < nAvailable; i++)
+                slots[i] = arena.slot(node, available.get(i));
+            int slot = nAvailable == 1 ? slots[0] : treePolicySlot(node, slots, nAvailable);
+            pathNodes[steps] = node;
+            pathSlots[steps] = slot;
+            pathValidCount[steps] = nAvailable;
+            steps++;
+
+            lastActorInTree = arena.decisionPlayer[node];
+            advanceState(gs, arena.actions[node][slot], false);
+            if (!gs.isNotTerminal())
+                break;
+            int nextPlayer = gs.getCurrentPlayer();
+            int next = arena.child(node, slot, nextPlayer);
+            if (next == -1) {
+                // expansion; we then roll out from the new node
+                next = arena.addNode(nextPlayer, arena.depth[node] + 1);
+                arena.setChild(node, slot, nextPlayer, next);
+                node = next;
+                break;
+            }
+            node = next;
+            available = computeAvailableActions(gs);
+        }
+
+        rolloutNode.decisionPlayer = arena.decisionPlayer[node];
+        double[] delta = rolloutNode.rollout(lastActorInTree, gs);
+        rolloutActionsTaken += actionsInRollout.size();
+
+        normaliseRewardsAfterIteration(delta);
+        double[] result = processResultsForParanoidOrSelfOnly(delta);
+        for (int i = steps - 1; i >= 0; i--)
+            arena.backUp(pathNodes[i], pathValidSlots[i], pathValidCount[i], pathSlots[i], result);
+        updateMASTStatistics(actionsInTree, actionsInRollout, delta);
+    }
+
+    private void growPath() {
+        int capacity = pathNodes.length * 2;
+        pathNodes = Arrays.copyOf(pathNodes, capacity);
+        pathSlots = Arrays.copyOf(pathSlots, capacity);
+        pathValidCount = Arrays.copyOf(pathValidCount, capacity);
+        pathValidSlots = Arrays.copyOf(pathValidSlots, capacity);
+    }
+
+    /**
+     * The tree policy, as in SingleTreeNode.treePolicyAction(), over the actions in the first n of slots
+     *
+     * @return the slot of the action to take
+     */
+    private int treePolicySlot(int node, int[] slots, int n) {
+        if (values.length < n)
+            values = new double[Math.max(n, values.length * 2)];
+        double[] s = arena.stats[node];
+        int stride = arena.stride;
+        int player = arena.decisionPlayer[node];
+        int total = NodeArena.TOTAL + player;
+        int squared = NodeArena.TOTAL + arena.nPlayers + player;
+
+        if (params.treePolicy == EXP3) {
+            if (rnd.nextDouble() < params.exploreEpsilon)
+                return slots[rnd.nextInt(n)];
+            double nodeValue = 0.0;
+            if (arena.nodeVisits[node] > 0) {
+                for (int slot = 0; slot < arena.nActions[node]; slot++)
+                    nodeValue += s[slot * stride + total];
+                nodeValue /= arena.nodeVisits[node];
+            }
+            boolean anyNonZero = false;
+            for (int i = 0; i < n; i++) {
+                int offset = slots[i] * stride;
+                double visits = s[offset + NodeArena.VISITS];
+                double actionValue = 0.0;
+                if (visits > 0) {
+                    actionValue = s[offset + total] / visits;
+                    actionValue = params.normaliseRewards ? normalise(actionValue, lowReward, highReward) : actionValue - nodeValue;
+                }
+                double value = Math.exp(actionValue / params.exp3Boltzmann);
+                if (Double.isNaN(value) || Double.isInfinite(value))
+                    value = 1e6;  // to avoid numeric issues later
+                if (visits == 0)
+                    value += params.firstPlayUrgency;
+                values[i] = value;
+                anyNonZero |= value > 0.0;
+            }
+            if (!anyNonZero)
+                return slots[rnd.nextInt(n)];
+            return slots[sampleFrom(pdf(Arrays.copyOf(values, n)), rnd.nextDouble())];
+        }
+
+        // UCB and UCB_Tuned take the maximum, with ties broken at random
+        int best = -1;
+        double bestValue = -Double.MAX_VALUE;
+        int ties = 0;
+        for (int i = 0; i < n; i++) {
+            int offset = slots[i] * stride;
+            double visits = s[offset + NodeArena.VISITS];
+            double validVisits = Math.max(1.0, s[offset + NodeArena.VALID_VISITS]);
+            double childValue = 0.0;
+            double explorationTerm = Math.max(params.firstPlayUrgency, params.K * Math.sqrt(validVisits));
+            if (visits > 0) {
+                childValue = s[offset + total] / visits;
+                if (params.normaliseRewards)
+                    childValue = normalise(childValue, lowReward, highReward);
+                if (params.treePolicy == UCB_Tuned) {
+                    double range = Math.max(highReward - lowReward, 1e-6);
+                    double meanSq = s[offset + squared] / visits;
+                    double standardVar = 0.25;
+                    if (params.normaliseRewards)
+                        meanSq = (meanSq + lowReward * lowReward - 2 * lowReward * s[offset + total] / visits) / (range * range);
+                    else
+                        standardVar = Math.sqrt(range / 2.0);
+                    double variance = Math.max(0.0, meanSq - childValue * childValue);
+                    double minTerm = Math.min(standardVar, variance + Math.sqrt(2 * Math.log(validVisits) / visits));
+                    explorationTerm = params.K * Math.sqrt(Math.log(validVisits) / visits * minTerm);
+                } else {
+                    explorationTerm = Math.sqrt(Math.log(validVisits) / visits);
+                }
+            }
+            double value = childValue + explorationTerm;
+            if (Double.isNaN(value))
+                throw new AssertionError("Numeric error calculating uctValue");
+            if (value > bestValue) {
+                bestValue = value;
+                best = slots[i];
+                ties = 1;
+            } else if (value == bestValue && rnd.nextInt(++ties) == 0) {
+                best = slots[i];
+            }
+        }
+        return best;
+    }
+}
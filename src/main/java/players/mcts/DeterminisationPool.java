@@ -0,0 +1,51 @@
+package players.mcts;
+
+import core.AbstractGameState;
+
+/**
+ * A pool of determinisations of the root state for Information_Set search (see MCTSParams.determinisationPool).
+ * <p>
+ * Rather than copy (and so redeterminise) the root state from the point of view of the redeterminisation player at
+ * the start of every iteration, the iterations take the determinisations in the pool in turn, and each just makes a
+ * full copy of one (copy(-1), which does not shuffle anything, and which can overwrite a copy from the state pool).
+ * A determinisation is made when its slot is first used, and made afresh once it has been used for
+ * params.determinisationReuse iterations (or never, if that is zero).
+ * <p>
+ * So with a pool of M each determinisation is used for about K iterations in every M (for K = determinisationReuse),
+ * rather than once: this trades some independence between the iterations for cheaper copies.
+ * The pool is made for each search, as the root state changes from one decision to the next.
+ */
+class DeterminisationPool {
+
+    final SingleTreeNode root;
+    final AbstractGameState[] samples;
+    final int[] uses;
+    final int reuse;
+    private int next;
+    // the determinisations made in this search
+    int made;
+
+    DeterminisationPool(SingleTreeNode root, int size, int reuse) {
+        this.root = root;
+        this.samples = new AbstractGameState[size];
+        this.uses = new int[size];
+        this.reuse = reuse;
+    }
+
+    /**
+     * @return a copy of the next determinisation in the pool, for an iteration to change as it goes
+     */
+    AbstractGameState next() {
+        int i = next;
+        next = (next + 1) % samples.length;
+        if (samples[i] == null || (reuse > 0 && uses[i] >= reuse)) {
+            // not from the state pool, as it is kept for later iterations
+            samples[i] = root.state.copy(root.redeterminisationPlayer);
+            root.copyCount++;
+            uses[i] = 0;
+            made++;
+        }
+        uses[i]++;
+        return root.copyState(samples[i], -1);
+    }
+}
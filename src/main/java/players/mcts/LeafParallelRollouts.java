@@ -0,0 +1,150 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.StatePool;
+import core.actions.AbstractAction;
+import utilities.Pair;
+import utilities.SearchThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
+
+/**
+ * Leaf parallelisation: several rollouts are run at once from each node selected by the tree policy, and the mean
+ * of their results is backed up as a single visit (see MCTSParams.leafParallelRollouts).
+ * <p>
+ * The first rollout is run from the node itself, on the thread doing the search, just as in a serial search.
+ * Each of the others is run on another thread, from a copy of the state at the node. These copies are all made
+ * before any rollout starts, as the first one may change the state in place.
+ * Each of the other threads has its own forward model, random number generator, state pool and copies of the
+ * rollout policy and opponent model, and counts its own FM calls; these are added to the counts at the root once
+ * all the rollouts have finished, as are the copies made for them. So budgets of FM calls and copies are used up
+ * by every rollout, and the search stops at the end of the iteration that passes them, as it does in serial search.
+ * A time budget is still of the CPU time of the searching thread.
+ * <p>
+ * MAST statistics are only updated once all the rollouts have finished, so that rollout policies can read them from
+ * several threads at once. The actions in each rollout are backed up with the result of that rollout, and the
+ * actions in the tree with the mean.
+ */
+class LeafParallelRollouts {
+
+    final SingleTreeNode root;
+    final MCTSParams params;
+    final List<Worker> workers;
+    // the result of each rollout in the current iteration, starting with the one from the selected node itself
+    private List<double[]> results = List.of();
+
+    LeafParallelRollouts(SingleTreeNode root, int nRollouts) {
+        this.root = root;
+        this.params = root.params;
+        if (params.opponentTreePolicy == MultiTree)
+            throw new AssertionError("Leaf-parallel rollouts are not supported for MultiTree search");
+        // set up on the searching thread, as the policies must not be copied by several threads at once
+        workers = new ArrayList<>(nRollouts - 1);
+        for (int i = 1; i < nRollouts; i++)
+            workers.add(new Worker(new Random(root.rnd.nextLong())));
+    }
+
+    /**
+     * Runs the rollouts from the node selected in this iteration
+     *
+     * @return - the mean of their results
+     */
+    double[] rollout(SingleTreeNode selected, int lastActorInTree) {
+        if (params.rolloutLength <= 0 && params.rolloutTermination == DEFAULT) {
+            // every rollout would just evaluate the same state
+            results = List.of(selected.rollout(lastActorInTree));
+            root.rolloutActionsTaken += root.actionsInRollout.size();
+            return results.get(0);
+        }
+
+        AbstractGameState source = params.information == Closed_Loop && !root.undoInPlace ? selected.state : selected.openLoopState;
+        List<Callable<double[]>> rollouts = new ArrayList<>(workers.size() + 1);
+        rollouts.add(() -> selected.rollout(lastActorInTree));
+        for (Worker worker : workers) {
+            AbstractGameState rolloutState = worker.copyState(source);
+            root.copyCount++;
+            worker.node.decisionPlayer = selected.decisionPlayer;
+            worker.workerRoot.clearRolloutActions();
+            rollouts.add(() -> worker.node.rollout(lastActorInTree, rolloutState));
+        }
+        results = SearchThreads.invokeAll(rollouts);
+
+        root.rolloutActionsTaken += root.actionsInRollout.size();
+        for (Worker worker : workers) {
+            root.fmCallsCount += worker.workerRoot.fmCallsCount;
+            root.copyCount += worker.workerRoot.copyCount;
+            root.rolloutActionsTaken += worker.workerRoot.actionsInRollout.size();
+            worker.workerRoot.fmCallsCount = 0;
+            worker.workerRoot.copyCount = 0;
+        }
+        double[] mean = new double[results.get(0).length];
+        for (double[] result : results)
+            for (int p = 0; p < mean.length; p++)
+                mean[p] += result[p] / results.size();
+        return mean;
+    }
+
+    /**
+     * Updates the MAST statistics at the root with the actions taken in this iteration (in the tree and in all the
+     * rollouts), once the rollouts have finished
+     */
+    void updateMASTStatistics(List<Pair<Integer, AbstractAction>> actionsInTree, double[] mean) {
+        if (!params.useMAST)
+            return;
+        // updateMASTStatistics() only uses the actions that params.MAST asks for
+        root.updateMASTStatistics(List.of(), root.actionsInRollout, results.get(0));
+        for (int r = 1; r < results.size(); r++)
+            root.updateMASTStatistics(List.of(), workers.get(r - 1).workerRoot.actionsInRollout, results.get(r));
+        root.updateMASTStatistics(actionsInTree, null, mean);
+    }
+
+    /**
+     * The extra rollouts run by one thread. This has a root of its own, which is not part of the tree, to hold its
+     * counts, policies and state pool; and a node that stands in for the node selected in each iteration.
+     */
+    class Worker {
+        final SingleTreeNode workerRoot = new SingleTreeNode();
+        final SingleTreeNode node = new SingleTreeNode();
+
+        Worker(Random rnd) {
+            AbstractForwardModel forwardModel = root.forwardModel.independentCopy();
+            workerRoot.root = workerRoot;
+            workerRoot.params = params;
+            workerRoot.forwardModel = forwardModel;
+            workerRoot.rnd = rnd;
+            workerRoot.decisionPlayer = root.decisionPlayer;
+            workerRoot.statePool = params.reuseStates ? new StatePool() : null;
+            workerRoot.rolloutPolicy = copyPolicy(params.getRolloutStrategy(), forwardModel);
+            workerRoot.opponentModel = params.getOpponentModel() == params.getRolloutStrategy() ?
+                    workerRoot.rolloutPolicy : copyPolicy(params.getOpponentModel(), forwardModel);
+            node.root = workerRoot;
+            node.params = params;
+            node.forwardModel = forwardModel;
+            node.rnd = rnd;
+        }
+
+        private AbstractPlayer copyPolicy(AbstractPlayer policy, AbstractForwardModel forwardModel) {
+            AbstractPlayer retValue = policy.copy();
+            retValue.setForwardModel(forwardModel);
+            if (retValue instanceof IMASTUser mastUser)
+                mastUser.setStats(root.MASTStatistics);
+            return retValue;
+        }
+
+        /**
+         * Copies the state for the next rollout; this is done by the searching thread, so is counted by the caller
+         */
+        AbstractGameState copyState(AbstractGameState state) {
+            return workerRoot.statePool == null ? state.copy(-1) : workerRoot.statePool.copy(state, -1);
+        }
+    }
+}
@@ -15,11 +15,11 @@ import java.util.Random;
 
 public class MASTActionHeuristic implements IActionHeuristic {
 
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics;
+    List<? extends Map<Object, Pair<Integer, Double>>> MASTStatistics;
     IActionKey actionKey;
     double defaultValue;
 
-    public MASTActionHeuristic(List<Map<Object, Pair<Integer, Double>>> MASTStatistics, IActionKey actionKey, double defaultValue) {
+    public MASTActionHeuristic(List<? extends Map<Object, Pair<Integer, Double>>> MASTStatistics, IActionKey actionKey, double defaultValue) {
         this.MASTStatistics = MASTStatistics;
         this.actionKey = actionKey;
         this.defaultValue = defaultValue;
@@ -27,8 +27,10 @@ public class MASTActionHeuristic implements IActionHeuristic {
 
     @Override
     public double evaluateAction(AbstractAction action, AbstractGameState state, List<AbstractAction> contextActions) {
-        Object key = actionKey == null ? action : actionKey.key(action);
         Map<Object, Pair<Integer, Double>> MAST = MASTStatistics.get(state.getCurrentPlayer());
+        if (MAST instanceof MASTTable table)
+            return table.mean(action, actionKey, defaultValue);
+        Object key = actionKey == null ? action : actionKey.key(action);
         if (MAST.containsKey(key)) {
             Pair<Integer, Double> stats = MAST.get(key);
             if (stats.a > 0)
@@ -21,7 +21,7 @@ public class MASTPlayer extends BoltzmannActionPlayer implements IMASTUser {
         super(new MASTPlusActionHeuristic(externalHeuristic, actionKey, defaultValue, weightOfExternal), temperature, epsilon, System.currentTimeMillis());
     }
     @Override
-    public void setStats(List<Map<Object, Pair<Integer, Double>>> MASTStats) {
+    public void setStats(List<? extends Map<Object, Pair<Integer, Double>>> MASTStats) {
         ((MASTActionHeuristic)this.actionHeuristic).MASTStatistics = MASTStats;
     }
 }
@@ -0,0 +1,206 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.interfaces.IActionKey;
+import utilities.Pair;
+import utilities.Zobrist;
+
+import java.util.*;
+
+/**
+ * The MAST statistics of one player: the visits and total value of each action (or action key, see
+ * MCTSParams.MASTActionKey).
+ * <p>
+ * Entries are held in flat arrays with open addressing (linear probing) on a 64-bit hash of the key, so that
+ * add() and mean() allocate nothing once an action has been seen (a new action is copied once, as its key), and
+ * only call equals() on the key when the hashes match. With an IActionKey the key itself is built for each call,
+ * so these are only as cheap as that key.
+ * <p>
+ * This is a Map from the key to (visits, total value), so the statistics can be read (and changed) as before; but
+ * the Pairs are copies of the entries, so changing one does not change the table until it is put() back.
+ * Entries are only removed by clear().
+ */
+public class MASTTable extends AbstractMap<Object, Pair<Integer, Double>> {
+
+    private long[] hashes;
+    private Object[] keys;
+    private int[] visits;
+    private double[] totals;
+    private int mask;
+    private int size;
+
+    public MASTTable() {
+        allocate(64);
+    }
+
+    private void allocate(int length) {
+        hashes = new long[length];
+        keys = new Object[length];
+        visits = new int[length];
+        totals = new double[length];
+        mask = length - 1;
+    }
+
+    static long hash(Object key) {
+        return Zobrist.key(key.hashCode());
+    }
+
+    private int home(long hash) {
+        return (int) (Zobrist.key(hash) & mask);
+    }
+
+    private int indexOf(Object key, long hash) {
+        for (int i = home(hash); keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    private int insert(Object key, long hash) {
+        if (2 * (size + 1) > keys.length)
+            resize(keys.length * 2);
+        int i = home(hash);
+        while (keys[i] != null)
+            i = (i + 1) & mask;
+        hashes[i] = hash;
+        keys[i] = key;
+        visits[i] = 0;
+        totals[i] = 0.0;
+        size++;
+        return i;
+    }
+
+    private void resize(int length) {
+        long[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        int[] oldVisits = visits;
+        double[] oldTotals = totals;
+        allocate(length);
+        size = 0;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = insert(oldKeys[j], oldHashes[j]);
+                visits[i] = oldVisits[j];
+                totals[i] = oldTotals[j];
+            }
+        }
+    }
+
+    /**
+     * Adds one visit with the given value to the statistics of the action
+     */
+    public void add(AbstractAction action, IActionKey actionKey, double value) {
+        Object key = actionKey == null ? action : actionKey.key(action);
+        long hash = hash(key);
+        int i = indexOf(key, hash);
+        if (i < 0)
+            // the action may be changed later, so the table keeps its own copy
+            i = insert(actionKey == null ? action.copy() : key, hash);
+        visits[i]++;
+        totals[i] += value;
+    }
+
+    /**
+     * @return the mean value of the action, or defaultValue if it has no visits
+     */
+    public double mean(AbstractAction action, IActionKey actionKey, double defaultValue) {
+        Object key = actionKey == null ? action : actionKey.key(action);
+        int i = indexOf(key, hash(key));
+        return i < 0 || visits[i] == 0 ? defaultValue : totals[i] / visits[i];
+    }
+
+    /**
+     * @return a copy of this table with the statistics decayed by gamma (as Utils.decay())
+     */
+    public MASTTable decay(double gamma) {
+        MASTTable retValue = new MASTTable();
+        retValue.resize(keys.length);
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] == null)
+                continue;
+            int i = retValue.insert(keys[j], hashes[j]);
+            if (gamma < 1.0 && gamma >= 0.0) {
+                int newCount = (int) (visits[j] * gamma);
+                retValue.visits[i] = newCount;
+                retValue.totals[i] = visits[j] == 0 ? 0.0 : totals[j] * newCount / visits[j];
+            } else {
+                retValue.visits[i] = visits[j];
+                retValue.totals[i] = totals[j];
+            }
+        }
+        return retValue;
+    }
+
+    @Override
+    public Pair<Integer, Double> get(Object key) {
+        int i = key == null ? -1 : indexOf(key, hash(key));
+        return i < 0 ? null : new Pair<>(visits[i], totals[i]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && indexOf(key, hash(key)) >= 0;
+    }
+
+    @Override
+    public Pair<Integer, Double> put(Object key, Pair<Integer, Double> stats) {
+        long hash = hash(key);
+        int i = indexOf(key, hash);
+        Pair<Integer, Double> previous = i < 0 ? null : new Pair<>(visits[i], totals[i]);
+        if (i < 0)
+            i = insert(key, hash);
+        visits[i] = stats.a;
+        totals[i] = stats.b;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<Object, Pair<Integer, Double>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, Pair<Integer, Double>>> iterator() {
+                return new Iterator<>() {
+                    int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < keys.length && keys[from] == null)
+                            from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<Object, Pair<Integer, Double>> next() {
+                        if (next >= keys.length)
+                            throw new NoSuchElementException();
+                        Entry<Object, Pair<Integer, Double>> retValue =
+                                new SimpleImmutableEntry<>(keys[next], new Pair<>(visits[next], totals[next]));
+                        next = advance(next + 1);
+                        return retValue;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -7,7 +7,8 @@ import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
-    private Map<Object, MCGSNode> transpositionMap = new HashMap<>();
+    // only used at the root; created when first needed
+    private MCGSTranspositionTable transpositionMap;
     public List<Object> trajectory = new ArrayList<>();
     protected List<Object> keysTorRemove = new ArrayList<>();
 
@@ -25,12 +26,11 @@ public class MCGSNode extends SingleTreeNode {
     private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
         Object key = params.MCGSStateKey.getKey(keyState);
         MCGSNode graphRoot = (MCGSNode) root;
-        if (graphRoot.transpositionMap.containsKey(key)) {
-            if (graphRoot.transpositionMap.get(key) != node) {
-                throw new AssertionError("Unexpected?");
-            }
-        } else {
-            graphRoot.transpositionMap.put(key, node);
+        MCGSNode existing = graphRoot.getTranspositionMap().get(key);
+        if (existing == null) {
+            graphRoot.getTranspositionMap().add(key, node, graphRoot);
+        } else if (existing != node) {
+            throw new AssertionError("Unexpected?");
         }
     }
 
@@ -47,11 +47,11 @@ public class MCGSNode extends SingleTreeNode {
         // this enforces (for the moment) the rule that each iteration adds one new node.
         MCGSNode graphRoot = (MCGSNode) root;
         Object key = params.MCGSStateKey.getKey(nextState);
-        if (graphRoot.transpositionMap.containsKey(key)) {
+        MCGSNode retValue = graphRoot.getTranspositionMap().get(key);
+        if (retValue != null) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
             } else {
-                MCGSNode retValue = graphRoot.transpositionMap.get(key);
                 retValue.setActionsFromOpenLoopState(openLoopState);
                 return retValue;
             }
@@ -63,7 +63,7 @@ public class MCGSNode extends SingleTreeNode {
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // we look up the node in the transposition table using the feature vector for the openLoopState
         Object key = params.MCGSStateKey.getKey(openLoopState);
-        MCGSNode nextNode = ((MCGSNode) root).transpositionMap.get(key);
+        MCGSNode nextNode = ((MCGSNode) root).getTranspositionMap().probe(key);
 
         if (nextNode != null) {
             if (actionValues.get(actionChosen).nVisits == 0) {
@@ -103,15 +103,24 @@ public class MCGSNode extends SingleTreeNode {
         int depthDelta = depth;
         root = this;
         keysTorRemove = new ArrayList<>();
-        for (Object key : transpositionMap.keySet()) {
-            MCGSNode node = transpositionMap.get(key);
+        MCGSTranspositionTable table = getTranspositionMap();
+        for (Map.Entry<Object, MCGSNode> entry : table.entrySet()) {
+            MCGSNode node = entry.getValue();
             node.depth -= depthDelta;
             if (node.depth < 0) {
-                keysTorRemove.add(key);
+                keysTorRemove.add(entry.getKey());
             }
             node.root = this;
         }
-        keysTorRemove.forEach(transpositionMap::remove);
+        keysTorRemove.forEach(table::remove);
+        // so that the nodes not reached in the next search are the first to be replaced
+        table.age();
+    }
+
+    @Override
+    protected void initialiseRootMetrics() {
+        super.initialiseRootMetrics();
+        getTranspositionMap().resetCounts();
     }
 
     /**
@@ -131,7 +140,7 @@ public class MCGSNode extends SingleTreeNode {
 
         for (int i = nRoot.trajectory.size() - 1; i >= 0; i--) {
             Object key = nRoot.trajectory.get(i);
-            MCGSNode node = nRoot.transpositionMap.get(key);
+            MCGSNode node = nRoot.getTranspositionMap().get(key);
             AbstractAction action = nRoot.actionsInTree.get(i).b;
             if (node == null) {
                 throw new AssertionError("Node should not be null");
@@ -141,11 +150,13 @@ public class MCGSNode extends SingleTreeNode {
         nRoot.trajectory.clear();
     }
 
-    public Map<Object, MCGSNode> getTranspositionMap() {
+    public MCGSTranspositionTable getTranspositionMap() {
+        if (transpositionMap == null)
+            transpositionMap = new MCGSTranspositionTable(params == null ? 0 : params.MCGSTableSize);
         return transpositionMap;
     }
 
-    public void setTranspositionMap(Map<Object, MCGSNode> transposition) {
+    public void setTranspositionMap(MCGSTranspositionTable transposition) {
         transpositionMap = transposition;
     }
 
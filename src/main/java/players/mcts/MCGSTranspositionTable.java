@@ -0,0 +1,279 @@
+package players.mcts;
+
+import utilities.Zobrist;
+
+import java.util.*;
+
+/**
+ * The transposition table of an MCGS graph: the node for each state key (see MCTSParams.MCGSStateKey).
+ * <p>
+ * Each key is reduced to a 64-bit hash (a Long key, as from LongHashStateKey, is used as it is; for any other the
+ * hashCode() is mixed up to 64 bits), and entries are held in flat arrays with open addressing (linear probing),
+ * so a lookup compares longs and only calls equals() on the key when the hashes match.
+ * <p>
+ * If a capacity is set (MCTSParams.MCGSTableSize) then once the table holds that many nodes, adding a new one
+ * replaces one of the entries near where it would go: the one from the oldest search, then with the fewest
+ * visits, then the deepest. Each search that reuses the table ages the entries in it (see age()), and
+ * an entry is brought up to date each time it is found by probe(). The root of the graph, and the nodes on the
+ * path of the current iteration (which are still to be backed up), are never replaced.
+ * A replaced node is simply dropped from the graph; the statistics of the action that led to it are kept by the
+ * node it was reached from, and the state is expanded afresh if it is reached again.
+ * <p>
+ * This is a Map, so the graph can be read (and changed) as before; but it must not be changed while iterating over it.
+ */
+public class MCGSTranspositionTable extends AbstractMap<Object, MCGSNode> {
+
+    // how many entries from where a new key would go are considered for replacement
+    static final int REPLACEMENT_WINDOW = 8;
+
+    final int capacity;
+    private long[] hashes;
+    private Object[] keys;
+    private MCGSNode[] nodes;
+    private int[] generations;
+    private int mask;
+    private int size;
+    private int generation;
+
+    // from probe() and add(), since the last resetCounts()
+    public int hits, misses, replacements;
+
+    /**
+     * @param capacity - the most nodes to hold, or 0 for no limit
+     */
+    public MCGSTranspositionTable(int capacity) {
+        this.capacity = capacity;
+        // at most half full once at capacity, so that the probe sequences stay short
+        allocate(tableLength(capacity > 0 ? 2 * capacity : 64));
+    }
+
+    private static int tableLength(int n) {
+        return Integer.highestOneBit(Math.max(n - 1, 8)) << 1;
+    }
+
+    private void allocate(int length) {
+        hashes = new long[length];
+        keys = new Object[length];
+        nodes = new MCGSNode[length];
+        generations = new int[length];
+        mask = length - 1;
+    }
+
+    static long hash(Object key) {
+        return key instanceof Long l ? l : Zobrist.key(key.hashCode());
+    }
+
+    private int home(long hash) {
+        return (int) (Zobrist.key(hash) & mask);
+    }
+
+    private int indexOf(Object key, long hash) {
+        for (int i = home(hash); nodes[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public MCGSNode get(Object key) {
+        int i = key == null ? -1 : indexOf(key, hash(key));
+        return i < 0 ? null : nodes[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * As get(), for a lookup during the search; this counts the hit or miss, and marks a node found as current
+     */
+    public MCGSNode probe(Object key) {
+        int i = indexOf(key, hash(key));
+        if (i < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        generations[i] = generation;
+        return nodes[i];
+    }
+
+    @Override
+    public MCGSNode put(Object key, MCGSNode node) {
+        if (node == null)
+            throw new IllegalArgumentException("MCGSTranspositionTable does not hold null nodes");
+        long hash = hash(key);
+        int i = indexOf(key, hash);
+        if (i >= 0) {
+            MCGSNode previous = nodes[i];
+            nodes[i] = node;
+            generations[i] = generation;
+            return previous;
+        }
+        if (2 * (size + 1) > nodes.length)
+            resize(nodes.length * 2);
+        insert(key, hash, node);
+        return null;
+    }
+
+    /**
+     * Adds a node for a new key during the search. If the table is at capacity this replaces an entry (see above)
+     * when there is one that can be replaced, and otherwise lets the table grow past its capacity.
+     *
+     * @param graphRoot - the root of the graph; its trajectory holds the keys of the path of the current iteration
+     */
+    void add(Object key, MCGSNode node, MCGSNode graphRoot) {
+        if (capacity > 0 && size >= capacity && !containsKey(key)) {
+            int victim = replacementCandidate(hash(key), graphRoot);
+            if (victim >= 0) {
+                removeAt(victim);
+                replacements++;
+            }
+        }
+        put(key, node);
+    }
+
+    private int replacementCandidate(long hash, MCGSNode graphRoot) {
+        int best = -1;
+        int i = home(hash);
+        for (int seen = 0, step = 0; seen < REPLACEMENT_WINDOW && step < nodes.length; step++, i = (i + 1) & mask) {
+            if (nodes[i] == null)
+                continue;
+            seen++;
+            MCGSNode node = nodes[i];
+            if (node == graphRoot || graphRoot.trajectory.contains(keys[i]))
+                continue;
+            if (best < 0 || worseThan(i, best))
+                best = i;
+        }
+        return best;
+    }
+
+    // true if the entry in slot a is less worth keeping than that in slot b
+    private boolean worseThan(int a, int b) {
+        if (generations[a] != generations[b])
+            return generations[a] < generations[b];
+        if (nodes[a].nVisits != nodes[b].nVisits)
+            return nodes[a].nVisits < nodes[b].nVisits;
+        return nodes[a].depth > nodes[b].depth;
+    }
+
+    private int insert(Object key, long hash, MCGSNode node) {
+        int i = home(hash);
+        while (nodes[i] != null)
+            i = (i + 1) & mask;
+        hashes[i] = hash;
+        keys[i] = key;
+        nodes[i] = node;
+        generations[i] = generation;
+        size++;
+        return i;
+    }
+
+    private void resize(int length) {
+        long[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        MCGSNode[] oldNodes = nodes;
+        int[] oldGenerations = generations;
+        allocate(length);
+        size = 0;
+        for (int j = 0; j < oldNodes.length; j++) {
+            if (oldNodes[j] != null)
+                generations[insert(oldKeys[j], oldHashes[j], oldNodes[j])] = oldGenerations[j];
+        }
+    }
+
+    @Override
+    public MCGSNode remove(Object key) {
+        int i = key == null ? -1 : indexOf(key, hash(key));
+        if (i < 0)
+            return null;
+        MCGSNode retValue = nodes[i];
+        removeAt(i);
+        return retValue;
+    }
+
+    // removes the entry in slot i, and moves up any later entries in the same run that can then be found sooner
+    private void removeAt(int i) {
+        nodes[i] = null;
+        keys[i] = null;
+        size--;
+        for (int j = (i + 1) & mask; nodes[j] != null; j = (j + 1) & mask) {
+            int h = home(hashes[j]);
+            // the entry in j can move to the gap at i if its home is not in (i, j]
+            if (i <= j ? (h <= i || h > j) : (h <= i && h > j)) {
+                hashes[i] = hashes[j];
+                keys[i] = keys[j];
+                nodes[i] = nodes[j];
+                generations[i] = generations[j];
+                nodes[j] = null;
+                keys[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(nodes, null);
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Called when the graph is reused for a new search, so that the entries not found since are replaced first
+     */
+    public void age() {
+        generation++;
+    }
+
+    public void resetCounts() {
+        hits = 0;
+        misses = 0;
+        replacements = 0;
+    }
+
+    @Override
+    public Set<Entry<Object, MCGSNode>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, MCGSNode>> iterator() {
+                return new Iterator<>() {
+                    int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < nodes.length && nodes[from] == null)
+                            from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < nodes.length;
+                    }
+
+                    @Override
+                    public Entry<Object, MCGSNode> next() {
+                        if (next >= nodes.length)
+                            throw new NoSuchElementException();
+                        Entry<Object, MCGSNode> retValue = new SimpleImmutableEntry<>(keys[next], nodes[next]);
+                        next = advance(next + 1);
+                        return retValue;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
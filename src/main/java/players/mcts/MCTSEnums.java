@@ -49,6 +49,14 @@ public class MCTSEnums {
         // END_TURN|ROUND is triggered when the game round/turn changes
     }
 
+    public enum TreeNodeLimit {
+        StopExpanding, PruneLeastVisited
+        // What to do once the tree has MCTSParams.maxTreeNodes nodes.
+        // StopExpanding keeps the tree as it is, and rolls out from the first node not in it, which is then discarded
+        // PruneLeastVisited removes the least visited subtrees (the ActionStats that led to them are kept) until the
+        // tree is back to 90% of the limit
+    }
+
     public enum OpponentTreePolicy {
         SelfOnly(true), OneTree(false),
         MultiTree(true),
@@ -33,16 +33,23 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("PlayerID", e.state.getCurrentPlayer());
                 records.put("Iterations", root.getVisits());
                 records.put("ReusedVisits", mctsPlayer.root.inheritedVisits);
+                records.put("PonderIterations", mctsPlayer.ponderIterations);
                 records.put("MaxDepth", treeStats.depthReached);
                 records.put("MeanLeafDepth", treeStats.meanLeafDepth);
                 records.put("MeanNodeDepth", treeStats.meanNodeDepth);
                 records.put("Nodes", treeStats.totalNodes);
                 records.put("LeafNodes", treeStats.totalLeaves);
+                records.put("PrunedNodes", treeStats.prunedNodes);
+                records.put("PruneEvents", treeStats.pruneEvents);
                 records.put("OneActionNodes", treeStats.oneActionNodes);
                 records.put("MeanActionsAtNode", treeStats.meanActionsAtNode);
                 records.put("MeanActionsExpanded", treeStats.meanActionsExpanded);
                 records.put("RolloutLength", mctsPlayer.root.rolloutActionsTaken / (double) visits);
                 records.put("NodeClashes", mctsPlayer.root.nodeClash);
+                MCGSTranspositionTable table = root instanceof MCGSNode graphRoot ? graphRoot.getTranspositionMap() : null;
+                records.put("TTHits", table == null ? 0 : table.hits);
+                records.put("TTMisses", table == null ? 0 : table.misses);
+                records.put("TTReplacements", table == null ? 0 : table.replacements);
                 OptionalInt maxVisits = Arrays.stream(root.actionVisits()).max();
                 records.put("maxVisitProportion", (maxVisits.isPresent() ? maxVisits.getAsInt() : 0) / (double) visits);
                 records.put("Action", e.action.getString(e.state));
@@ -51,6 +58,9 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("copyCalls", mctsPlayer.root.copyCount / visits);
                 records.put("time", mctsPlayer.root.timeTaken);
                 records.put("initTime", mctsPlayer.root.initialisationTimeTaken);
+                records.put("Threads", mctsPlayer.threadIterations.length);
+                records.put("ThreadIterations", Arrays.stream(mctsPlayer.threadIterations)
+                        .mapToObj(String::valueOf).collect(Collectors.joining("|")));
                 return true;
             }
             return false;
@@ -68,16 +78,22 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("PlayerID", Integer.class);
             cols.put("Iterations", Integer.class);
             cols.put("ReusedVisits", Integer.class); // visits from reused tree
+            cols.put("PonderIterations", Integer.class); // iterations while the opponents moved (see MCTSParams.ponderBudget)
             cols.put("MaxDepth", Integer.class);
             cols.put("MeanLeafDepth", Double.class);
             cols.put("MeanNodeDepth", Double.class);
             cols.put("Nodes", Integer.class);
             cols.put("LeafNodes", Integer.class);
+            cols.put("PrunedNodes", Integer.class); // removed to keep within maxTreeNodes
+            cols.put("PruneEvents", Integer.class);
             cols.put("OneActionNodes", Integer.class);
             cols.put("MeanActionsAtNode", Double.class);
             cols.put("MeanActionsExpanded", Double.class);
             cols.put("RolloutLength", Double.class);
             cols.put("NodeClashes", Integer.class);
+            cols.put("TTHits", Integer.class); // lookups of the MCGS transposition table in the tree policy
+            cols.put("TTMisses", Integer.class);
+            cols.put("TTReplacements", Integer.class); // nodes replaced to keep within MCGSTableSize
             cols.put("maxVisitProportion", Double.class);
             cols.put("Action", String.class);
             cols.put("ActionsAtRoot", Integer.class);
@@ -85,6 +101,55 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("copyCalls", Integer.class);
             cols.put("time", Double.class);
             cols.put("initTime", Double.class);
+            cols.put("Threads", Integer.class);
+            cols.put("ThreadIterations", String.class); // iterations of each tree, for root parallel search
+            return cols;
+        }
+    }
+
+
+    public static class SearchProfileStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer mctsPlayer && mctsPlayer.root != null) {
+                SearchProfile profile = mctsPlayer.root.profile;
+                if (profile == null) return false;  // params.profileSearch is not set
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("Iterations", profile.iterations);
+                for (SearchProfile.Phase phase : SearchProfile.Phase.values()) {
+                    records.put(phase + "Ms", profile.millis(phase));
+                    records.put(phase + "Calls", profile.calls[phase.ordinal()]);
+                }
+                records.put("TotalMs", profile.totalNanos / 1e6);
+                records.put("AllocatedBytes", profile.allocatedBytes);
+                records.put("BytesPerIteration", profile.allocatedBytes < 0 ? -1.0 :
+                        profile.allocatedBytes / (double) Math.max(profile.iterations, 1));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new HashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("Iterations", Integer.class);
+            for (SearchProfile.Phase phase : SearchProfile.Phase.values()) {
+                cols.put(phase + "Ms", Double.class); // the phases overlap (see SearchProfile)
+                cols.put(phase + "Calls", Long.class);
+            }
+            cols.put("TotalMs", Double.class);
+            cols.put("AllocatedBytes", Long.class); // over the whole search, or -1 if the JVM does not report it
+            cols.put("BytesPerIteration", Double.class);
             return cols;
         }
     }
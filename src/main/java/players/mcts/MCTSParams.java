@@ -29,6 +29,8 @@ public class MCTSParams extends PlayerParameters {
     public boolean rolloutLengthPerPlayer = false;  // if true, then rolloutLength is multiplied by the number of players
     public int maxTreeDepth = 1000; // effectively no limit
     public MCTSEnums.Information information = Information_Set;  // this should be the default in TAG, given that most games have hidden information
+    public int determinisationPool = 0;  // if more than zero, Information_Set iterations take their determinisations in turn from a pool of this many (see DeterminisationPool)
+    public int determinisationReuse = 0;  // the iterations for which each determinisation in the pool is used before it is made afresh (0 for the whole search)
     public MCTSEnums.MASTType MAST = None;
     public boolean useMAST = false;
     public double MASTGamma = 0.0;
@@ -55,11 +57,18 @@ public class MCTSParams extends PlayerParameters {
     // It also means that at the end of the game (when rewards are possibly closer to each other, they are still scaled to [0, 1]
     public boolean maintainMasterState = false;
     public boolean discardStateAfterEachIteration = true;  // default will remove reference to OpenLoopState in backup(). Saves memory!
+    // overwrite the copy of the state from the last iteration (for games that support AbstractGameState.copyInto()).
+    // This is ignored when the nodes keep these copies after the iteration (see reuseIterationStates())
+    public boolean reuseStates = false;
+    // In Closed_Loop with a forward model that supports undo: advance the root state in place and undo the actions at the
+    // end of each iteration, rather than copying it for each new node. Only the root then keeps a state (see SingleTreeNode)
+    public boolean undoInPlace = false;
     public MCTSEnums.RolloutTermination rolloutTermination = DEFAULT;
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
     public IActionKey MASTActionKey;
     public IStateKey MCGSStateKey;
     public boolean MCGSExpandAfterClash = true;
+    public int MCGSTableSize = 0;  // if more than zero, the most nodes in the MCGS transposition table (see MCGSTranspositionTable)
     public double firstPlayUrgency = 1e6;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
     public int actionHeuristicRecalculationThreshold = 20;
@@ -71,6 +80,15 @@ public class MCTSParams extends PlayerParameters {
     public double progressiveWideningExponent = 0.0;
     public double progressiveBias = 0.0;
     public boolean reuseTree = false;
+    public boolean profileSearch = false;  // record where the time of each search goes (see SearchProfile)
+    public int ponderBudget = 0;  // if more than zero, search on in the background while opponents move, for up to this budget (see MCTSPlayer)
+    public int rootParallelThreads = 1;  // more than one runs this many independent searches in parallel, and merges the statistics at their roots
+    public int treeParallelThreads = 1;  // more than one runs this many threads on the same tree (see TreeParallelSearch)
+    public int virtualLoss = 1;  // losses added to each node and action on the path of an iteration in progress in tree-parallel search
+    public int leafParallelRollouts = 1;  // more than one runs this many rollouts in parallel from each node selected, and backs up their mean
+    public int maxTreeNodes = 0;  // if more than zero, the most nodes the tree can have; see treeNodeLimit for what happens then
+    public MCTSEnums.TreeNodeLimit treeNodeLimit = MCTSEnums.TreeNodeLimit.StopExpanding;
+    public boolean nodeArena = false;  // store the tree in primitive arrays (see ArenaTreeNode) rather than as a SingleTreeNode per node
     public MCTSEnums.BackupPolicy backupPolicy = MCTSEnums.BackupPolicy.MonteCarlo;
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
@@ -93,6 +111,8 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("opponentModelParams", ITunableParameters.class);
         addTunableParameter("opponentModel", new RandomPlayer());
         addTunableParameter("information", Information_Set, Arrays.asList(MCTSEnums.Information.values()));
+        addTunableParameter("determinisationPool", 0);
+        addTunableParameter("determinisationReuse", 0);
         addTunableParameter("selectionPolicy", SIMPLE, Arrays.asList(MCTSEnums.SelectionPolicy.values()));
         addTunableParameter("treePolicy", UCB, Arrays.asList(MCTSEnums.TreePolicy.values()));
         addTunableParameter("opponentTreePolicy", OneTree, Arrays.asList(MCTSEnums.OpponentTreePolicy.values()));
@@ -106,12 +126,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("normaliseRewards", true);
         addTunableParameter("maintainMasterState", false);
         addTunableParameter("discardStateAfterEachIteration", true);
+        addTunableParameter("reuseStates", false);
+        addTunableParameter("undoInPlace", false);
         addTunableParameter("omaVisits", 30);
         addTunableParameter("paranoid", false);
         addTunableParameter("MASTActionKey", IActionKey.class);
         addTunableParameter("MASTDefaultValue", 0.0);
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
+        addTunableParameter("MCGSTableSize", 0);
         addTunableParameter("FPU", 1e6);
         addTunableParameter("actionHeuristic", IActionHeuristic.class,  IActionHeuristic.nullReturn);
         addTunableParameter("progressiveBias", 0.0);
@@ -120,6 +143,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("initialiseVisits", 0);
         addTunableParameter("actionHeuristicRecalculation", 20);
         addTunableParameter("reuseTree", false);
+        addTunableParameter("profileSearch", false);
+        addTunableParameter("ponderBudget", 0);
+        addTunableParameter("rootParallelThreads", 1);
+        addTunableParameter("treeParallelThreads", 1);
+        addTunableParameter("virtualLoss", 1);
+        addTunableParameter("leafParallelRollouts", 1);
+        addTunableParameter("maxTreeNodes", 0);
+        addTunableParameter("treeNodeLimit", MCTSEnums.TreeNodeLimit.StopExpanding, Arrays.asList(MCTSEnums.TreeNodeLimit.values()));
+        addTunableParameter("nodeArena", false);
         addTunableParameter("backupPolicy", MCTSEnums.BackupPolicy.MonteCarlo, Arrays.asList(MCTSEnums.BackupPolicy.values()));
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
@@ -138,6 +170,8 @@ public class MCTSParams extends PlayerParameters {
         rolloutTermination = (MCTSEnums.RolloutTermination) getParameterValue("rolloutTermination");
         oppModelType = (MCTSEnums.Strategies) getParameterValue("oppModelType");
         information = (MCTSEnums.Information) getParameterValue("information");
+        determinisationPool = (int) getParameterValue("determinisationPool");
+        determinisationReuse = (int) getParameterValue("determinisationReuse");
         treePolicy = (MCTSEnums.TreePolicy) getParameterValue("treePolicy");
         selectionPolicy = (MCTSEnums.SelectionPolicy) getParameterValue("selectionPolicy");
         opponentTreePolicy = (MCTSEnums.OpponentTreePolicy) getParameterValue("opponentTreePolicy");
@@ -157,6 +191,8 @@ public class MCTSParams extends PlayerParameters {
         maintainMasterState = (boolean) getParameterValue("maintainMasterState");
         paranoid = (boolean) getParameterValue("paranoid");
         discardStateAfterEachIteration = (boolean) getParameterValue("discardStateAfterEachIteration");
+        reuseStates = (boolean) getParameterValue("reuseStates");
+        undoInPlace = (boolean) getParameterValue("undoInPlace");
         pUCT = (boolean) getParameterValue("pUCT");
         pUCTTemperature = (double) getParameterValue("pUCTTemperature");
         if (information == Closed_Loop)
@@ -169,6 +205,7 @@ public class MCTSParams extends PlayerParameters {
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         MCGSStateKey = (IStateKey) getParameterValue("MCGSStateKey");
         MCGSExpandAfterClash = (boolean) getParameterValue("MCGSExpandAfterClash");
+        MCGSTableSize = (int) getParameterValue("MCGSTableSize");
         rolloutPolicyParams = (TunableParameters) getParameterValue("rolloutPolicyParams");
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
@@ -176,6 +213,15 @@ public class MCTSParams extends PlayerParameters {
         initialiseVisits = (int) getParameterValue("initialiseVisits");
         actionHeuristicRecalculationThreshold = (int) getParameterValue("actionHeuristicRecalculation");
         reuseTree = (boolean) getParameterValue("reuseTree");
+        profileSearch = (boolean) getParameterValue("profileSearch");
+        ponderBudget = (int) getParameterValue("ponderBudget");
+        rootParallelThreads = (int) getParameterValue("rootParallelThreads");
+        treeParallelThreads = (int) getParameterValue("treeParallelThreads");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        leafParallelRollouts = (int) getParameterValue("leafParallelRollouts");
+        maxTreeNodes = (int) getParameterValue("maxTreeNodes");
+        treeNodeLimit = (MCTSEnums.TreeNodeLimit) getParameterValue("treeNodeLimit");
+        nodeArena = (boolean) getParameterValue("nodeArena");
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
@@ -219,6 +265,15 @@ public class MCTSParams extends PlayerParameters {
         return opponentModel;
     }
 
+    /**
+     * The copies of the state made for each iteration are only overwritten by the next (reuseStates) when the nodes
+     * drop them at the end of the iteration, which is not the case without discardStateAfterEachIteration (and so
+     * never in Closed_Loop). With maintainMasterState the nodes keep their own copies, which are not reused.
+     */
+    public boolean reuseIterationStates() {
+        return reuseStates && discardStateAfterEachIteration;
+    }
+
     public AbstractPlayer getRolloutStrategy() {
         if (rolloutPolicy == null) {
             if (rolloutType == PARAMS)
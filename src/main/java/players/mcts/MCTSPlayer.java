@@ -3,6 +3,7 @@ package players.mcts;
 import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.StatePool;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
@@ -11,14 +12,18 @@ import evaluation.metrics.Event;
 import llm.IHasStateHeuristic;
 import players.IAnyTimePlayer;
 import utilities.Pair;
-import utilities.Utils;
+import utilities.SearchThreads;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static players.PlayerConstants.BUDGET_TIME;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
 
@@ -28,9 +33,20 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     protected boolean debug = false;
     protected SingleTreeNode root;
     protected Pair<Integer, AbstractAction> lastAction;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    List<MASTTable> MASTStats;
     protected Map<Object, Integer> oldGraphKeys = new HashMap<>();
     protected List<Object> recentlyRemovedKeys = new ArrayList<>();
+    // The copies of the state made for each iteration of search are overwritten by the next iteration (see MCTSParams.reuseIterationStates())
+    protected final StatePool statePool = new StatePool();
+    // The copies of this player whose trees are searched alongside this one's (see MCTSParams.rootParallelThreads)
+    protected MCTSPlayer[] parallelSearches = new MCTSPlayer[0];
+    // The iterations run by each tree in the last decision (just the one tree unless rootParallelThreads > 1)
+    protected int[] threadIterations = new int[0];
+    // The search from the state after this player's last action, run while the opponents move (see MCTSParams.ponderBudget)
+    protected SingleTreeNode ponderRoot;
+    protected Future<?> ponderSearch;
+    // The iterations of that search before the last decision
+    protected int ponderIterations;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -52,6 +68,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
 
     @Override
     public void initializePlayer(AbstractGameState state) {
+        stopPondering();
         if (getParameters().resetSeedEachGame) {
             rnd = new Random(parameters.getRandomSeed());
             getParameters().rolloutPolicy = null;
@@ -64,7 +81,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
             ((AbstractPlayer) getParameters().actionHeuristic).initializePlayer(state);
         MASTStats = null;
         root = null;
+        statePool.clear();
         oldGraphKeys = new HashMap<>();
+        parallelSearches = new MCTSPlayer[0];  // these are created afresh (from rnd) at the first decision
         getParameters().getRolloutStrategy().initializePlayer(state);
         getParameters().getOpponentModel().initializePlayer(state);
     }
@@ -80,6 +99,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 return new OMATreeNode();
             else if (getParameters().opponentTreePolicy == MCGS || getParameters().opponentTreePolicy == MCGSSelfOnly)
                 return new MCGSNode();
+            else if (getParameters().nodeArena)
+                return new ArenaTreeNode();
             else
                 return new SingleTreeNode();
         };
@@ -165,7 +186,16 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
 
         // Now for standard open loop processing
         SingleTreeNode newRoot = null;
-        if (params.reuseTree && root != null) {
+        SingleTreeNode template = root;
+        SingleTreeNode pondered = stopPondering();
+        ponderIterations = pondered == null ? 0 : pondered.nVisits;
+        if (pondered != null) {
+            // the search since our last action has a tree from after that action, rather than from our last decision
+            newRoot = backtrack(pondered, gameState, true);
+            template = pondered;
+            if (debug && newRoot == null)
+                System.out.println("No matching node found in the pondered tree");
+        } else if (params.reuseTree && root != null) {
             // we see if we can reuse the tree
             // We need to look at all actions taken since our last action
             if (debug)
@@ -194,12 +224,20 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
             // We need to make the new root the root of the tree
             // We need to remove the parent link from the new root
             //   newRoot.instantiate(null, null, gameState);
-            newRoot.rootify(root, gameState);
+            newRoot.rootify(template, gameState);
         }
         return newRoot;
     }
 
     protected SingleTreeNode backtrack(SingleTreeNode startingRoot, AbstractGameState gameState) {
+        return backtrack(startingRoot, gameState, false);
+    }
+
+    /**
+     * @param afterLastAction - true if startingRoot is the node reached by lastAction (the root of a pondered
+     *                        search), rather than the node at which it was chosen
+     */
+    protected SingleTreeNode backtrack(SingleTreeNode startingRoot, AbstractGameState gameState, boolean afterLastAction) {
         List<Pair<Integer, AbstractAction>> history = gameState.getHistory();
         Pair<Integer, AbstractAction> lastExpected = lastAction;
         MCTSParams params = getParameters();
@@ -214,7 +252,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 foundPointInHistory = true;
                 if (debug)
                     System.out.println("Matching action found at " + backwardLoop + " of " + history.size() + " - tracking forward");
-                for (int forwardLoop = backwardLoop; forwardLoop < history.size(); forwardLoop++) {
+                for (int forwardLoop = afterLastAction ? backwardLoop + 1 : backwardLoop; forwardLoop < history.size(); forwardLoop++) {
                     if (selfOnly && history.get(forwardLoop).a != rootPlayer)
                         continue; // we only care about our actions
                     AbstractAction action = history.get(forwardLoop).b;
@@ -254,7 +292,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         }
         if (MASTStats != null && getParameters().MASTGamma > 0.0)
             root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, getParameters().MASTGamma))
+                    .map(m -> m.decay(getParameters().MASTGamma))
                     .collect(Collectors.toList());
 
         if (getParameters().getRolloutStrategy() instanceof IMASTUser) {
@@ -272,7 +310,16 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         createRootNode(gameState);
         long timeTaken = System.nanoTime() - currentTimeNano;
 
-        root.mctsSearch(timeTaken / 1000000);
+        if (getParameters().rootParallelThreads > 1) {
+            rootParallelSearch(gameState, timeTaken / 1000000);
+        } else {
+            root.mctsSearch(timeTaken / 1000000);
+            SingleTreeNode decisionRoot = root.decisionRoot();
+            if (root.threadIterations != null)  // a tree-parallel search
+                threadIterations = root.threadIterations;
+            else
+                threadIterations = new int[]{decisionRoot.nVisits - decisionRoot.inheritedVisits};
+        }
 
         if (getParameters().actionHeuristic instanceof ITreeProcessor)
             ((ITreeProcessor) getParameters().actionHeuristic).process(root);
@@ -294,18 +341,149 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         if (root.children.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
         lastAction = new Pair<>(gameState.getCurrentPlayer(), root.bestAction());
+        for (MCTSPlayer search : parallelSearches)
+            search.lastAction = lastAction;  // so that they can find their place in the history if reuseTree is set
+        startPondering(gameState);
         return lastAction.b.copy();
     }
 
+    /**
+     * Pondering. Once a decision is made, the search carries on in the background from the state after the action
+     * chosen, until this player is next asked for a decision (or for up to params.ponderBudget, in the units of
+     * params.budgetType). The tree from that search is then reused as with reuseTree, so its statistics are added to
+     * those of the next search, which still has its full budget.
+     * <p>
+     * The search is stopped at the start of _getAction(), so the time to do so is charged to this player's decision
+     * by the game; the CPU used while the opponents move is not. It uses this player's forward model, policies and
+     * state pool, which are not otherwise used until then; and a tree of its own, so root (and hence the metrics of
+     * the last decision) is not changed while the game goes on. Pondering is not done in competition mode.
+     */
+    protected void startPondering(AbstractGameState gameState) {
+        MCTSParams params = getParameters();
+        if (params.ponderBudget <= 0 || gameState.getCoreGameParameters().competitionMode)
+            return;
+        if (!params.reuseTree || params.opponentTreePolicy.selfOnlyTree || params.opponentTreePolicy == MCGS ||
+                params.rootParallelThreads > 1 || params.treeParallelThreads > 1)
+            throw new AssertionError("Pondering needs reuseTree, and a single tree with nodes for every player " +
+                    "(OneTree, OMA or OMA_All) searched on one thread");
+        AbstractGameState ponderState = gameState.copy();
+        getForwardModel().next(ponderState, lastAction.b.copy());
+        if (!ponderState.isNotTerminal() || ponderState.getCurrentPlayer() == getPlayerID())
+            return;  // we are asked for the next decision straight away
+        SingleTreeNode searchRoot = SingleTreeNode.createRootNode(this, ponderState, new Random(rnd.nextLong()), getFactory());
+        // the state is as we see it; so is redeterminised from our point of view rather than that of the player to move
+        searchRoot.setRedeterminisationPlayer(getPlayerID());
+        searchRoot.MASTStatistics = root.MASTStatistics;
+        ponderRoot = searchRoot;
+        ponderSearch = SearchThreads.submit(() -> searchRoot.mctsSearch(0, params.ponderBudget));
+    }
+
+    /**
+     * Stops any pondering search, once its current iteration is complete
+     *
+     * @return the root of its tree, or null if there was no search
+     */
+    protected SingleTreeNode stopPondering() {
+        if (ponderSearch == null)
+            return null;
+        SingleTreeNode retValue = ponderRoot;
+        retValue.stopSearch = true;
+        try {
+            ponderSearch.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ponderRoot = null;
+            ponderSearch = null;
+        }
+        retValue.stopSearch = false;
+        return retValue;
+    }
+
+    /**
+     * Root parallelisation. The search is shared between this player's tree and those of (rootParallelThreads - 1)
+     * copies of this player, each with its own random seed, forward model and copy of the state (and hence its own
+     * determinisations). The trees are searched in parallel, and the statistics at their roots are then added to
+     * those at this player's root, so that bestAction() decides using all of them.
+     * Budgets of iterations or of FM/copy calls are split between the trees, so that the total for a decision is the
+     * same as for a single tree. A time budget applies to each tree, as they all run at the same time.
+     */
+    protected void rootParallelSearch(AbstractGameState gameState, long initialisationTime) {
+        MCTSParams params = getParameters();
+        int trees = params.rootParallelThreads;
+        if (parallelSearches.length != trees - 1)
+            parallelSearches = createParallelSearches(trees - 1, gameState);
+
+        List<Callable<SingleTreeNode>> searches = new ArrayList<>(trees);
+        for (int t = 0; t < trees; t++) {
+            int budget = params.budgetType == BUDGET_TIME ? params.budget : params.budget / trees + (t < params.budget % trees ? 1 : 0);
+            if (t == 0) {
+                searches.add(() -> {
+                    root.mctsSearch(initialisationTime, budget);
+                    return root;
+                });
+            } else {
+                MCTSPlayer search = parallelSearches[t - 1];
+                // the copy is made here, as the other threads must not all copy the same state at once
+                AbstractGameState stateCopy = gameState.copy();
+                searches.add(() -> {
+                    long start = System.nanoTime();
+                    search.createRootNode(stateCopy);
+                    search.root.mctsSearch((System.nanoTime() - start) / 1000000, budget);
+                    return search.root;
+                });
+            }
+        }
+        List<SingleTreeNode> roots = SearchThreads.invokeAll(searches);
+
+        threadIterations = new int[trees];
+        SingleTreeNode decisionRoot = root.decisionRoot();
+        for (int t = 0; t < trees; t++) {
+            SingleTreeNode treeRoot = roots.get(t).decisionRoot();
+            threadIterations[t] = treeRoot.nVisits - treeRoot.inheritedVisits;
+            if (t > 0)
+                decisionRoot.mergeRootStatistics(treeRoot);
+        }
+    }
+
+    /**
+     * The players for the other trees of a root-parallel search are copies of this one, so only parameters that are
+     * registered (see MCTSParams._copy()) are carried over to them.
+     */
+    private MCTSPlayer[] createParallelSearches(int n, AbstractGameState state) {
+        MCTSPlayer[] retValue = new MCTSPlayer[n];
+        for (int i = 0; i < n; i++) {
+            long seed = rnd.nextLong();
+            MCTSPlayer search = copy();
+            search.getParameters().setRandomSeed(seed);
+            search.rnd = new Random(seed);
+            // the rollout policy and opponent model are then rebuilt from the new seed
+            search.getParameters().rolloutPolicy = null;
+            search.getParameters().opponentModel = null;
+            search.setForwardModel(getForwardModel().independentCopy());
+            search.initializePlayer(state);
+            retValue[i] = search;
+        }
+        return retValue;
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
+        stopPondering();
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         getParameters().getOpponentModel().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().heuristic instanceof IGameListener)
             ((IGameListener) getParameters().heuristic).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().actionHeuristic instanceof IGameListener)
             ((IGameListener) getParameters().actionHeuristic).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
-
+        for (MCTSPlayer search : parallelSearches)
+            search.finalizePlayer(state);
     }
 
     @Override
@@ -319,6 +497,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     @Override
     public void setForwardModel(AbstractForwardModel model) {
         super.setForwardModel(model);
+        parallelSearches = new MCTSPlayer[0];
         if (getParameters().getRolloutStrategy() != null)
             getParameters().getRolloutStrategy().setForwardModel(model);
         if (getParameters().getOpponentModel() != null)
@@ -351,6 +530,27 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         return retValue;
     }
 
+    /**
+     * @return the root of the tree from the last search (null before the first)
+     */
+    public SingleTreeNode getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the iterations of the search while the opponents moved, before the last decision (see startPondering())
+     */
+    public int getPonderIterations() {
+        return ponderIterations;
+    }
+
+    /**
+     * @return the iterations run by each tree (root-parallel search) or thread (tree-parallel search) in the last decision
+     */
+    public int[] getThreadIterations() {
+        return threadIterations;
+    }
+
     @Override
     public void setBudget(int budget) {
         parameters.budget = budget;
@@ -61,6 +61,9 @@ public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
         if (maxDepth > 0 && !root.params.maintainMasterState) {
             throw new IllegalArgumentException("maxDepth > 0 requires maintainMasterState to be true");
         }
+        if (maxDepth > 0 && root.undoInPlace) {
+            throw new IllegalArgumentException("maxDepth > 0 cannot be used with undoInPlace, as only the root has a state");
+        }
 
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
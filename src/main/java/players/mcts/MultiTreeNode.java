@@ -41,7 +41,7 @@ public class MultiTreeNode extends SingleTreeNode {
         // only root node maintains MAST statistics
         MASTStatistics = new ArrayList<>();
         for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+            MASTStatistics.add(new MASTTable());
         if (params.useMASTAsActionHeuristic) {
             params.actionHeuristic = new MASTActionHeuristic(MASTStatistics, params.MASTActionKey, params.MASTDefaultValue);
         }
@@ -77,7 +77,7 @@ public class MultiTreeNode extends SingleTreeNode {
 
         actionsInTree = new ArrayList<>();
         currentNodeTrajectory = new ArrayList<>();
-        actionsInRollout = new ArrayList<>();
+        clearRolloutActions();
         // Keep iterating while the state reached is not terminal and the depth of the tree is not exceeded
         do {
             if (debug)
@@ -181,6 +181,11 @@ public class MultiTreeNode extends SingleTreeNode {
         return roots[decisionPlayer].bestAction();
     }
 
+    @Override
+    SingleTreeNode decisionRoot() {
+        return roots[decisionPlayer];
+    }
+
     public SingleTreeNode getRoot(int player) {
         return roots[player];
     }
@@ -0,0 +1,132 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.Arrays;
+
+/**
+ * The nodes of an MCTS tree held in primitive arrays (see ArenaTreeNode), in place of a SingleTreeNode for each
+ * node, and a map of ActionStats (with two arrays each) for its actions.
+ * <p>
+ * A node is an index into the node arrays. Each action seen at a node has a slot there, in the order in which
+ * they were first seen, and the statistics of all the actions at node n are in the single array stats[n]:
+ * for each slot in turn its visits, valid visits (the visits to the node in which it was available), then
+ * the total value for each player, then the total squared value for each player. The child reached by
+ * each action is in children[n], at slot * nPlayers + (the player to act next), or -1 if not yet expanded.
+ */
+final class NodeArena {
+
+    static final int VISITS = 0, VALID_VISITS = 1, TOTAL = 2;
+
+    final int nPlayers;
+    // the number of doubles in stats[n] for each slot
+    final int stride;
+    int nNodes;
+
+    int[] nodeVisits, decisionPlayer, depth, nActions;
+    double[][] stats;
+    int[][] children;
+    AbstractAction[][] actions;
+    // hash codes of the actions, to make finding the slot of an action cheaper
+    int[][] actionHashes;
+
+    NodeArena(int nPlayers, int capacity) {
+        this.nPlayers = nPlayers;
+        this.stride = TOTAL + 2 * nPlayers;
+        capacity = Math.max(capacity, 16);
+        nodeVisits = new int[capacity];
+        decisionPlayer = new int[capacity];
+        depth = new int[capacity];
+        nActions = new int[capacity];
+        stats = new double[capacity][];
+        children = new int[capacity][];
+        actions = new AbstractAction[capacity][];
+        actionHashes = new int[capacity][];
+    }
+
+    /**
+     * @return the index of a new node, with no actions yet
+     */
+    int addNode(int player, int nodeDepth) {
+        if (nNodes == nodeVisits.length) {
+            int capacity = nNodes * 2;
+            nodeVisits = Arrays.copyOf(nodeVisits, capacity);
+            decisionPlayer = Arrays.copyOf(decisionPlayer, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            nActions = Arrays.copyOf(nActions, capacity);
+            stats = Arrays.copyOf(stats, capacity);
+            children = Arrays.copyOf(children, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            actionHashes = Arrays.copyOf(actionHashes, capacity);
+        }
+        int node = nNodes++;
+        decisionPlayer[node] = player;
+        depth[node] = nodeDepth;
+        return node;
+    }
+
+    /**
+     * @return the slot of the action at the node, which is added if it has not been seen there before
+     */
+    int slot(int node, AbstractAction action) {
+        int hash = action.hashCode();
+        int n = nActions[node];
+        int[] hashes = actionHashes[node];
+        for (int slot = 0; slot < n; slot++) {
+            if (hashes[slot] == hash && actions[node][slot].equals(action))
+                return slot;
+        }
+        if (hashes == null || n == hashes.length) {
+            int capacity = hashes == null ? 4 : n * 2;
+            actionHashes[node] = Arrays.copyOf(hashes == null ? new int[0] : hashes, capacity);
+            actions[node] = Arrays.copyOf(actions[node] == null ? new AbstractAction[0] : actions[node], capacity);
+            stats[node] = Arrays.copyOf(stats[node] == null ? new double[0] : stats[node], capacity * stride);
+            int[] oldChildren = children[node] == null ? new int[0] : children[node];
+            children[node] = Arrays.copyOf(oldChildren, capacity * nPlayers);
+            Arrays.fill(children[node], oldChildren.length, children[node].length, -1);
+        }
+        actionHashes[node][n] = hash;
+        actions[node][n] = action;
+        nActions[node] = n + 1;
+        return n;
+    }
+
+    int child(int node, int slot, int nextPlayer) {
+        return children[node][slot * nPlayers + nextPlayer];
+    }
+
+    void setChild(int node, int slot, int nextPlayer, int child) {
+        children[node][slot * nPlayers + nextPlayer] = child;
+    }
+
+    /**
+     * Records a visit to the node, in which the actions in the first nValid of validSlots were available, and that
+     * in slot was taken
+     */
+    void backUp(int node, int[] validSlots, int nValid, int slot, double[] result) {
+        double[] s = stats[node];
+        nodeVisits[node]++;
+        for (int i = 0; i < nValid; i++)
+            s[validSlots[i] * stride + VALID_VISITS]++;
+        int offset = slot * stride;
+        s[offset + VISITS]++;
+        for (int p = 0; p < nPlayers; p++) {
+            s[offset + TOTAL + p] += result[p];
+            s[offset + TOTAL + nPlayers + p] += result[p] * result[p];
+        }
+    }
+
+    /**
+     * @return the statistics of the action in slot as an ActionStats
+     */
+    ActionStats actionStats(int node, int slot) {
+        double[] s = stats[node];
+        int offset = slot * stride;
+        ActionStats retValue = new ActionStats(nPlayers);
+        retValue.nVisits = (int) s[offset + VISITS];
+        retValue.validVisits = (int) s[offset + VALID_VISITS];
+        System.arraycopy(s, offset + TOTAL, retValue.totValue, 0, nPlayers);
+        System.arraycopy(s, offset + TOTAL + nPlayers, retValue.squaredTotValue, 0, nPlayers);
+        return retValue;
+    }
+}
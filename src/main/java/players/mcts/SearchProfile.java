@@ -0,0 +1,79 @@
+package players.mcts;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Where the time of one MCTS search goes (see MCTSParams.profileSearch), as reported by the metric
+ * MCTSMetrics.SearchProfileStats.
+ * <p>
+ * Each phase accumulates the nanoseconds spent in it, and how often it was entered. The phases overlap:
+ * Expansion is part of Selection (the tree policy), Heuristic is part of Rollout, and Copy and Actions
+ * (computeAvailableActions()) are counted wherever they happen, so they are also part of the phase that called them.
+ * The bytes allocated are those of the searching thread over the whole search, as reported by the JVM; finding them
+ * for each phase would cost more than many of the phases themselves.
+ * <p>
+ * Only the thread running the search is measured: for leaf-parallel rollouts the Rollout phase is the time to run
+ * all of them, and the copies and actions of the other threads are not counted. An ArenaTreeNode only reports its
+ * copies, actions and rollout heuristic.
+ */
+public class SearchProfile {
+
+    public enum Phase {
+        Selection, Expansion, Rollout, Heuristic, Backup, Copy, Actions
+    }
+
+    private static final com.sun.management.ThreadMXBean threads =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+                    bean.isThreadAllocatedMemorySupported() ? bean : null;
+
+    public final long[] nanos = new long[Phase.values().length];
+    public final long[] calls = new long[Phase.values().length];
+    public long totalNanos;
+    // -1 if the JVM does not report it
+    public long allocatedBytes;
+    public int iterations;
+    private long searchStart, bytesAtStart;
+
+    /**
+     * @return the time now, to pass to end()
+     */
+    long start() {
+        return System.nanoTime();
+    }
+
+    void end(Phase phase, long start) {
+        nanos[phase.ordinal()] += System.nanoTime() - start;
+        calls[phase.ordinal()]++;
+    }
+
+    void startSearch() {
+        bytesAtStart = allocatedBytes();
+        searchStart = System.nanoTime();
+    }
+
+    void endSearch(int iterations) {
+        totalNanos = System.nanoTime() - searchStart;
+        allocatedBytes = bytesAtStart < 0 ? -1 : allocatedBytes() - bytesAtStart;
+        this.iterations = iterations;
+    }
+
+    public double millis(Phase phase) {
+        return nanos[phase.ordinal()] / 1e6;
+    }
+
+    private static long allocatedBytes() {
+        if (threads == null || !threads.isThreadAllocatedMemoryEnabled())
+            return -1;
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder retValue = new StringBuilder(String.format("%d iterations in %.1f ms", iterations, totalNanos / 1e6));
+        for (Phase phase : Phase.values())
+            retValue.append(String.format(", %s %.1f ms (%d)", phase, millis(phase), calls[phase.ordinal()]));
+        if (allocatedBytes >= 0)
+            retValue.append(String.format(", %d bytes allocated", allocatedBytes));
+        return retValue.toString();
+    }
+}
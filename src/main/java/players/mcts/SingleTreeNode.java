@@ -14,6 +14,7 @@ import java.util.stream.IntStream;
 import static java.util.stream.Collectors.*;
 import static players.PlayerConstants.*;
 import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.*;
@@ -23,7 +24,8 @@ import static utilities.Utils.*;
 public class SingleTreeNode {
 
     //  private final Map<AbstractAction, Integer> nValidVisits = new HashMap<>();
-    // State in this node (closed loop)
+    // State in this node (closed loop). This is null below the root when the root state is advanced in place
+    // (MCTSParams.undoInPlace), as the nodes then do not have a state of their own
     protected AbstractGameState state;
     // State in this node (open loop - this is updated by onward trajectory....be very careful about using)
     protected AbstractGameState openLoopState;
@@ -34,6 +36,16 @@ public class SingleTreeNode {
     // Number of FM calls and State copies up until this node
     protected int fmCallsCount;
     protected int copyCount;
+    // In Closed_Loop search with MCTSParams.undoInPlace and a forward model that supports undo, each iteration applies
+    // its actions to the root state itself, and then undoes them all at the end (instead of copying the state for each
+    // new node and rollout). These are only used on the root node
+    protected boolean undoInPlace;
+    protected List<UndoToken> undoTokens = new ArrayList<>();
+    // If not null, the states copied for each iteration (or rollout) overwrite those of the previous one (root only)
+    protected StatePool statePool;
+    // If not null, these replace the rollout policy and opponent model in params (root only). This is so that each
+    // thread of a TreeParallelSearch (or of LeafParallelRollouts) has its own.
+    protected AbstractPlayer rolloutPolicy, opponentModel;
     protected int paranoidPlayer = -1;
     // Action taken to reach this node
     // In vanilla MCTS this will likely be an action taken by some other player (not the decisionPlayer at this node)
@@ -57,10 +69,19 @@ public class SingleTreeNode {
     boolean terminalNode;
     double timeTaken;
     double initialisationTimeTaken;
+    int[] threadIterations;  // the iterations run by each thread of a TreeParallelSearch (root only)
+    LeafParallelRollouts leafRollouts;  // the threads that run extra rollouts from each node selected (root only)
+    DeterminisationPool determinisations;  // for Information_Set search, if params.determinisationPool is set (root only)
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
     protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
     protected int nodeClash;
+    // the number of nodes in the tree, and the pruning done to keep this within params.maxTreeNodes (root only)
+    int treeNodes, prunedNodes, pruneEvents;
+    // where the time of the last search went, if params.profileSearch is set (root only)
+    SearchProfile profile;
+    // set by another thread to end the search at the end of the current iteration (root only)
+    volatile boolean stopSearch;
     // Root node of tree
     protected SingleTreeNode root;
     // Parent of this node
@@ -70,14 +91,14 @@ public class SingleTreeNode {
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
     Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
     Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    List<MASTTable> MASTStatistics; // a list of one table per player. Action -> (visits, totValue)
     // ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private Supplier<? extends SingleTreeNode> factory;
     // Total value of this node
     protected List<SingleTreeNode> currentNodeTrajectory;
     protected List<Pair<Integer, AbstractAction>> actionsInTree;
-    List<Pair<Integer, AbstractAction>> actionsInRollout;
+    ActionTrajectory actionsInRollout;
 
     protected SingleTreeNode() {
     }
@@ -90,10 +111,12 @@ public class SingleTreeNode {
         retValue.params = player.getParameters();
         retValue.forwardModel = player.getForwardModel();
         retValue.rnd = rnd;
+        if (retValue.params.reuseIterationStates())
+            retValue.statePool = player.statePool;
         // only root node maintains MAST statistics
         retValue.MASTStatistics = new ArrayList<>();
         for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+            retValue.MASTStatistics.add(new MASTTable());
         if (retValue.params.useMASTAsActionHeuristic)
             retValue.params.actionHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
         retValue.instantiate(null, null, state);
@@ -114,6 +137,8 @@ public class SingleTreeNode {
         this.params = root.params;
         this.forwardModel = root.forwardModel;
         this.rnd = root.rnd;
+        if (parent == null)
+            this.undoInPlace = params.undoInPlace && params.information == Closed_Loop && forwardModel.supportsUndo();
 
         if (params.information != Closed_Loop && (params.maintainMasterState || depth == 0)) {
             // if we're using open loop, then we need to make sure the reference state is never changed
@@ -122,24 +147,28 @@ public class SingleTreeNode {
             // features from the nodes - if we are gathering Expert Iteration data or Learning an Advantage function
             root.copyCount++;
             this.state = rootState.copy();
+        } else if (parent != null && root.undoInPlace) {
+            // rootState is the root state, part way through an iteration, and will be undone at the end of it
+            this.state = null;
         } else {
             this.state = rootState;
         }
 
-        this.round = state.getRoundCounter();
-        this.turn = state.getTurnCounter();
-        this.turnOwner = state.getCurrentPlayer();
-        this.terminalNode = !state.isNotTerminal();
+        this.round = rootState.getRoundCounter();
+        this.turn = rootState.getTurnCounter();
+        this.turnOwner = rootState.getCurrentPlayer();
+        this.terminalNode = !rootState.isNotTerminal();
 
         this.actionToReach = actionToReach;
 
         if (parent != null) {
             depth = parent.depth + 1;
             factory = parent.factory;
-            decisionPlayer = terminalStateInSelfOnlyTree(state) ? parent.decisionPlayer : state.getCurrentPlayer();
+            decisionPlayer = terminalStateInSelfOnlyTree(rootState) ? parent.decisionPlayer : rootState.getCurrentPlayer();
         } else { // this is the root node (possibly reused from previous tree)
+            treeNodes = 0;  // counted by resetDepth()
             resetDepth(this);
-            decisionPlayer = state.getCurrentPlayer();
+            decisionPlayer = rootState.getCurrentPlayer();
         }
 
         // then set up available actions, and set openLoopState
@@ -158,12 +187,13 @@ public class SingleTreeNode {
         inheritedVisits = nVisits;
         MASTStatistics = new ArrayList<>();
         for (int i = 0; i < template.MASTStatistics.size(); i++)
-            MASTStatistics.add(new HashMap<>());
+            MASTStatistics.add(new MASTTable());
     }
 
     protected void resetDepth(SingleTreeNode newRoot) {
         depth = parent == null ? 0 : parent.depth + 1;
         root = newRoot;
+        newRoot.treeNodes++;
         for (SingleTreeNode[] childArray : children.values()) {
             if (childArray == null) continue;
             for (SingleTreeNode child : childArray) {
@@ -196,7 +226,7 @@ public class SingleTreeNode {
     protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
-            actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            actionsFromOpenLoopState = computeAvailableActions(actionState);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
@@ -299,6 +329,10 @@ public class SingleTreeNode {
         initialisationTimeTaken = 0.0;
         nodeClash = 0;
         rolloutActionsTaken = 0;
+        prunedNodes = 0;
+        pruneEvents = 0;
+        profile = params.profileSearch ? new SearchProfile() : null;
+        threadIterations = null;
         regretMatchingAverage.clear();
     }
 
@@ -306,15 +340,35 @@ public class SingleTreeNode {
      * Performs full MCTS search, using the defined budget limits.
      */
     public void mctsSearch(long initialisationTime) {
+        mctsSearch(initialisationTime, params.budget);
+    }
+
+    /**
+     * Performs full MCTS search, with the budget given in place of that in params (of the type
+     * set by params.budgetType). This is used to share the budget between the trees of a root-parallel search.
+     */
+    public void mctsSearch(long initialisationTime, int budget) {
+        if (params.treeParallelThreads > 1) {
+            new TreeParallelSearch(this, params.treeParallelThreads).search(initialisationTime, budget);
+            return;
+        }
         initialiseRootMetrics();
         initialisationTimeTaken = initialisationTime;
+        if (profile != null)
+            profile.startSearch();
+        // a reused tree may start over the limit
+        checkTreeSize();
+        // set up afresh for each search, as the forward model, policies and MAST statistics may have changed
+        leafRollouts = params.leafParallelRollouts > 1 ? new LeafParallelRollouts(this, params.leafParallelRollouts) : null;
+        determinisations = params.information == Information_Set && params.determinisationPool > 0 ?
+                new DeterminisationPool(this, params.determinisationPool, params.determinisationReuse) : null;
         // Variables for tracking time budget
         double avgTimeTaken;
         long remaining;
         int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
+            elapsedTimer.setMaxTimeMillis(budget - initialisationTime);
         }
 
         // Tracking number of iterations for iteration budget
@@ -326,14 +380,13 @@ public class SingleTreeNode {
                     setActionsFromOpenLoopState(state);
                     break;
                 case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
+                    setActionsFromOpenLoopState(copyState(state, -1));
                     break;
                 case Information_Set:
                     if (redeterminisationPlayer == -1)
                         redeterminisationPlayer = decisionPlayer;
-                    setActionsFromOpenLoopState(state.copy(redeterminisationPlayer));
-                    copyCount++;
+                    setActionsFromOpenLoopState(determinisations == null ?
+                            copyState(state, redeterminisationPlayer) : determinisations.next());
                     break;
             }
 
@@ -343,7 +396,17 @@ public class SingleTreeNode {
             //   System.out.println("Starting MCTS Search iteration " + numIters);
 
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
-            oneSearchIteration();
+            try {
+                oneSearchIteration();
+            } finally {
+                if (undoInPlace) {
+                    // put the root state back as it was at the start of the iteration
+                    for (int i = undoTokens.size() - 1; i >= 0; i--)
+                        forwardModel.undo(state, undoTokens.get(i));
+                    undoTokens.clear();
+                }
+            }
+            checkTreeSize();
 
             // Finished iteration
             numIters++;
@@ -357,17 +420,20 @@ public class SingleTreeNode {
                 stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
-                stop = numIters >= params.budget;
+                stop = numIters >= budget;
             } else if (budgetType == BUDGET_FM_CALLS) {
                 // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
+                stop = fmCallsCount > budget || numIters > budget;
             } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
+                stop = copyCount > budget || numIters > budget;
             } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
+                stop = (copyCount + fmCallsCount) > budget || numIters > budget;
             }
+            stop |= stopSearch;
         }
         timeTaken = elapsedTimer.elapsedMillis();
+        if (profile != null)
+            profile.endSearch(numIters);
     }
 
     /**
@@ -377,9 +443,12 @@ public class SingleTreeNode {
     protected void oneSearchIteration() {
         actionsInTree = new ArrayList<>();
         currentNodeTrajectory = new ArrayList<>();
-        actionsInRollout = new ArrayList<>();
+        clearRolloutActions();
 
+        long start = profile == null ? 0 : profile.start();
         SingleTreeNode selected = treePolicy();
+        if (profile != null)
+            profile.end(SearchProfile.Phase.Selection, start);
         if (selected == this && openLoopState.isNotTerminalForPlayer(decisionPlayer) && nVisits > 3 && !(this instanceof MCGSNode))
             throw new AssertionError("We have not expanded or selected a new node");
         // by this point (and really earlier) we should have expanded a new node.
@@ -388,31 +457,49 @@ public class SingleTreeNode {
 
         // Monte Carlo rollout: return value of MC rollout from the newly added node
         int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
-        double[] delta = selected.rollout(lastActorInTree);
-        // Back up the value of the rollout through the tree
-        rolloutActionsTaken += actionsInRollout.size();
+        if (profile != null)
+            start = profile.start();
+        double[] delta;
+        if (leafRollouts != null) {
+            // several rollouts in parallel, the mean of which is backed up
+            delta = leafRollouts.rollout(selected, lastActorInTree);
+        } else {
+            delta = selected.rollout(lastActorInTree);
+            rolloutActionsTaken += actionsInRollout.size();
+        }
+        if (profile != null) {
+            profile.end(SearchProfile.Phase.Rollout, start);
+            start = profile.start();
+        }
 
+        // Back up the value of the rollout through the tree
         selected.backUp(delta);
-        updateMASTStatistics(actionsInTree, actionsInRollout, delta);
+        selected.discardIterationState();
+        if (leafRollouts != null)
+            leafRollouts.updateMASTStatistics(actionsInTree, delta);
+        else
+            updateMASTStatistics(actionsInTree, actionsInRollout, delta);
+        if (profile != null)
+            profile.end(SearchProfile.Phase.Backup, start);
+    }
+
+    /**
+     * Empties actionsInRollout for a new iteration (the arrays are kept)
+     */
+    void clearRolloutActions() {
+        if (actionsInRollout == null)
+            actionsInRollout = new ActionTrajectory();
+        else
+            actionsInRollout.clear();
     }
 
     protected void updateMASTStatistics
-            (List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
+            (List<Pair<Integer, AbstractAction>> tree, ActionTrajectory rollout, double[] value) {
         if (params.useMAST) {
-            List<Pair<Integer, AbstractAction>> MASTActions = new ArrayList<>();
-            switch (params.MAST) {
-                case Rollout:
-                    MASTActions = rollout;
-                    break;
-                case Tree:
-                    MASTActions = tree;
-                    break;
-                case Both:
-                    MASTActions = rollout;
-                    MASTActions.addAll(tree);
-                    break;
-            }
-            root.MASTBackup(MASTActions, value);
+            if (params.MAST != MCTSEnums.MASTType.Tree && rollout != null)
+                root.MASTBackup(rollout, value);
+            if (params.MAST != MCTSEnums.MASTType.Rollout)
+                root.MASTBackup(tree, value);
         }
     }
 
@@ -461,6 +548,96 @@ public class SingleTreeNode {
                 .toArray();
     }
 
+    /**
+     * The node whose bestAction() gives the decision after search. This is the root itself, except
+     * for MultiTreeNode where it is the tree of the deciding player.
+     */
+    SingleTreeNode decisionRoot() {
+        return this;
+    }
+
+    /**
+     * Adds the statistics of the actions at the root of another tree, searched from the same state, to those
+     * at this root (see MCTSParams.rootParallelThreads).
+     * Only the root is merged, as that is all that bestAction() looks at; the rest of this tree is unchanged.
+     */
+    void mergeRootStatistics(SingleTreeNode other) {
+        for (Map.Entry<AbstractAction, ActionStats> entry : other.actionValues.entrySet()) {
+            if (entry.getValue() == null)
+                continue;
+            ActionStats stats = actionValues.get(entry.getKey());
+            if (stats == null) {
+                // an action only the other tree has seen (a different determinisation)
+                actionValues.put(entry.getKey(), entry.getValue().copy());
+                children.putIfAbsent(entry.getKey().copy(), null);
+            } else {
+                stats.add(entry.getValue());
+            }
+        }
+        other.regretMatchingAverage.forEach((action, weight) -> regretMatchingAverage.merge(action, weight, Double::sum));
+        nVisits += other.nVisits;
+        inheritedVisits += other.inheritedVisits;
+    }
+
+    /**
+     * Keeps the tree within params.maxTreeNodes (if set) when the limit is applied by pruning; StopExpanding is
+     * applied as nodes are expanded. This is called on the root before each search and after each iteration.
+     */
+    protected void checkTreeSize() {
+        if (params.maxTreeNodes <= 0)
+            return;
+        if (params.opponentTreePolicy == MultiTree || params.opponentTreePolicy == MCGS || params.opponentTreePolicy == MCGSSelfOnly)
+            throw new AssertionError("maxTreeNodes is not supported for " + params.opponentTreePolicy);
+        if (params.treeNodeLimit == MCTSEnums.TreeNodeLimit.PruneLeastVisited && treeNodes > params.maxTreeNodes)
+            pruneTree(params.maxTreeNodes * 9 / 10);
+    }
+
+    /**
+     * Removes the least visited subtrees (those of nodes below the root, fewest visits first) until the tree has
+     * no more than target nodes. The ActionStats of the actions that led to them are kept, as they already include
+     * every visit to the subtree; the tree policy just expands the action again when it next takes it.
+     */
+    void pruneTree(int target) {
+        // nodes in breadth-first order, so that each subtree size can be added to its parent's going backwards
+        List<SingleTreeNode> nodes = new ArrayList<>(treeNodes);
+        nodes.add(this);
+        for (int i = 0; i < nodes.size(); i++) {
+            for (SingleTreeNode[] childArray : nodes.get(i).children.values()) {
+                if (childArray == null) continue;
+                for (SingleTreeNode child : childArray)
+                    if (child != null) nodes.add(child);
+            }
+        }
+        Map<SingleTreeNode, Integer> subtreeSize = new IdentityHashMap<>(nodes.size());
+        for (int i = nodes.size() - 1; i > 0; i--) {
+            SingleTreeNode node = nodes.get(i);
+            int size = subtreeSize.merge(node, 1, Integer::sum);
+            subtreeSize.merge(node.parent, size, Integer::sum);
+        }
+
+        List<SingleTreeNode> candidates = new ArrayList<>(nodes.subList(1, nodes.size()));
+        // the least visited first, and the deepest of those
+        candidates.sort(Comparator.comparingInt((SingleTreeNode n) -> n.nVisits).thenComparingInt(n -> -n.depth));
+        Set<SingleTreeNode> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SingleTreeNode node : candidates) {
+            if (treeNodes <= target)
+                break;
+            SingleTreeNode ancestor = node.parent;
+            while (ancestor != null && !removed.contains(ancestor))
+                ancestor = ancestor.parent;
+            if (ancestor != null)
+                continue;  // already gone with an ancestor
+            SingleTreeNode[] siblings = node.parent.children.get(node.actionToReach);
+            for (int i = 0; i < siblings.length; i++)
+                if (siblings[i] == node) siblings[i] = null;
+            removed.add(node);
+            int size = subtreeSize.get(node);
+            treeNodes -= size;
+            prunedNodes += size;
+        }
+        pruneEvents++;
+    }
+
     /**
      * Selection + expansion steps.
      * - Tree is traversed until a node not fully expanded is found.
@@ -482,8 +659,9 @@ public class SingleTreeNode {
 
             // In Open_Loop (and all variants other than Closed_Loop), we make a single copy of the state at the start of each iteration
             // this is then updated with all actions (and stored in openLoopState on each node it visits).
-            // In Closed_Loop we make a copy of a state only when we expand and add a new node to the tree.
-            if (params.information == Closed_Loop) {
+            // In Closed_Loop we make a copy of a state only when we expand and add a new node to the tree
+            // (unless the state is advanced in place, and undone at the end of the iteration).
+            if (params.information == Closed_Loop && !undoInPlace) {
                 // we do not advance
                 // but we do want to track the actions taken (otherwise done in advanceState)
                 actionsInTree.add(new Pair<>(cur.openLoopState.getCurrentPlayer(), chosen));
@@ -499,7 +677,12 @@ public class SingleTreeNode {
             SingleTreeNode nextNode = cur.nextNodeInTree(chosen);
             // if and only if we do not find a new node, then we need to expand and create a new node
             if (nextNode == null) {
-                return cur.expandNode(chosen, cur.openLoopState);
+                if (profile == null)
+                    return cur.expandNode(chosen, cur.openLoopState);
+                long start = profile.start();
+                SingleTreeNode expanded = cur.expandNode(chosen, cur.openLoopState);
+                profile.end(SearchProfile.Phase.Expansion, start);
+                return expanded;
             }
             cur = nextNode;
         }
@@ -529,6 +712,12 @@ public class SingleTreeNode {
         // then instantiate a new node
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
         SingleTreeNode tn = createChildNode(actionCopy, nextState);
+        if (params.maxTreeNodes > 0 && params.treeNodeLimit == MCTSEnums.TreeNodeLimit.StopExpanding &&
+                root.treeNodes >= params.maxTreeNodes) {
+            // the tree is full; the node is only used for the rollout of this iteration, and not added to the tree
+            return tn;
+        }
+        root.treeNodes++;
         // It is possible that we are expanding a node because a different player is the next to act
         SingleTreeNode[] newNodeArray = children.get(actionCopy);
         if (newNodeArray == null)
@@ -543,6 +732,37 @@ public class SingleTreeNode {
         return SingleTreeNode.createChildNode(this, actionCopy, nextState, factory);
     }
 
+    /**
+     * Copies the state at the start of an iteration or rollout, and counts the copy. If states are being reused then
+     * this overwrites the copy made by the last iteration for the same player, which must no longer be in use.
+     *
+     * @param gs       - the state to copy
+     * @param playerId - player observing the state (or -1 for a full copy)
+     */
+    protected AbstractGameState copyState(AbstractGameState gs, int playerId) {
+        root.copyCount++;
+        SearchProfile profile = root.profile;
+        if (profile == null)
+            return root.statePool == null ? gs.copy(playerId) : root.statePool.copy(gs, playerId);
+        long start = profile.start();
+        AbstractGameState retValue = root.statePool == null ? gs.copy(playerId) : root.statePool.copy(gs, playerId);
+        profile.end(SearchProfile.Phase.Copy, start);
+        return retValue;
+    }
+
+    /**
+     * forwardModel.computeAvailableActions(), timed if the search is being profiled
+     */
+    protected List<AbstractAction> computeAvailableActions(AbstractGameState gs) {
+        SearchProfile profile = root == null ? null : root.profile;
+        if (profile == null)
+            return forwardModel.computeAvailableActions(gs, params.actionSpace);
+        long start = profile.start();
+        List<AbstractAction> retValue = forwardModel.computeAvailableActions(gs, params.actionSpace);
+        profile.end(SearchProfile.Phase.Actions, start);
+        return retValue;
+    }
+
     /**
      * Advance the current game state with the given action, count the FM call and compute the next available actions.
      * <p>
@@ -558,11 +778,14 @@ public class SingleTreeNode {
             lastTurnInRollout = gs.getTurnCounter();
             lastRoundInRollout = gs.getRoundCounter();
             lastActorInRollout = gs.getCurrentPlayer();
-            root.actionsInRollout.add(new Pair<>(lastActorInRollout, act));
+            root.actionsInRollout.add(lastActorInRollout, act);
         } else {
             root.actionsInTree.add(new Pair<>(gs.getCurrentPlayer(), act));
         }
-        forwardModel.next(gs, act.copy());
+        if (root.undoInPlace)
+            root.undoTokens.add(forwardModel.nextWithUndo(gs, act.copy()));
+        else
+            forwardModel.next(gs, act.copy());
         root.fmCallsCount++;
         if (params.opponentTreePolicy != MultiTree &&
                 params.opponentTreePolicy.selfOnlyTree &&
@@ -581,18 +804,21 @@ public class SingleTreeNode {
         AbstractAction action = null;
         while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(inRollout && finishRollout(gs))) {
             //       AbstractGameState preGS = gs.copy();
-            AbstractPlayer oppModel = params.getOpponentModel();
-            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
+            AbstractPlayer oppModel = opponentModel();
+            List<AbstractAction> availableActions = computeAvailableActions(gs);
             if (availableActions.isEmpty())
                 throw new AssertionError("Should always have at least one action possible..." + (action != null ? " Last action: " + action : ""));
             action = oppModel.getAction(gs, availableActions);
             if (inRollout) {
-                root.actionsInRollout.add(new Pair<>(gs.getCurrentPlayer(), action));
+                root.actionsInRollout.add(gs.getCurrentPlayer(), action);
                 lastActorInRollout = gs.getCurrentPlayer();
                 lastRoundInRollout = gs.getRoundCounter();
                 lastTurnInRollout = gs.getTurnCounter();
             }
-            forwardModel.next(gs, action);
+            if (root.undoInPlace)
+                root.undoTokens.add(forwardModel.nextWithUndo(gs, action));
+            else
+                forwardModel.next(gs, action);
             root.fmCallsCount++;
         }
     }
@@ -687,7 +913,11 @@ public class SingleTreeNode {
         if (nodeArray == null) return null;
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
-            return Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst().orElse(null);
+            SingleTreeNode nextNode = Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst().orElse(null);
+            // if we are advancing the root state in place, then the node needs to pick it up, as in Open_Loop
+            if (nextNode != null && root.undoInPlace)
+                nextNode.setActionsFromOpenLoopState(openLoopState);
+            return nextNode;
         } else {
             //  int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : openLoopState.getCurrentPlayer();
             SingleTreeNode nextNode = nodeArray[openLoopState.getCurrentPlayer()];
@@ -886,31 +1116,39 @@ public class SingleTreeNode {
      * @return - value of rollout.
      */
     protected double[] rollout(int lastActor) {
+        AbstractGameState rolloutState = openLoopState;
+        // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
+        if ((params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) &&
+                params.information == Closed_Loop && !root.undoInPlace) {
+            // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
+            // model at each action. Hence the current state on the node is the one we have been using up to now.
+            /// Hence we do not need to copy it.
+            rolloutState = copyState(state, -1);
+        }
+        return rollout(lastActor, rolloutState);
+    }
+
+    /**
+     * Perform a Monte Carlo rollout from the given state (the state at this node), which is advanced in place.
+     *
+     * @return - value of rollout.
+     */
+    protected double[] rollout(int lastActor, AbstractGameState rolloutState) {
         lastActorInRollout = lastActor;
-        roundAtStartOfRollout = openLoopState.getRoundCounter();
-        turnAtStartOfRollout = openLoopState.getTurnCounter();
-        lastTurnInRollout = openLoopState.getTurnCounter();
-        lastRoundInRollout = openLoopState.getRoundCounter();
+        roundAtStartOfRollout = rolloutState.getRoundCounter();
+        turnAtStartOfRollout = rolloutState.getTurnCounter();
+        lastTurnInRollout = rolloutState.getTurnCounter();
+        lastRoundInRollout = rolloutState.getRoundCounter();
 
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
-        AbstractGameState rolloutState = openLoopState;
         if (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) {
-            // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
-            if (params.information == Closed_Loop) {
-                // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
-                // model at each action. Hence the current state on the node is the one we have been using up to now.
-                /// Hence we do not need to copy it.
-                rolloutState = state.copy();
-                root.copyCount++;
-            }
-
             AbstractAction next = null;
             while (!finishRollout(rolloutState)) {
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
+                List<AbstractAction> availableActions = computeAvailableActions(rolloutState);
                 if (availableActions.isEmpty()) {
                     throw new AssertionError("No actions available in rollout!" + (next != null ? " Last action: " + next : ""));
                 }
-                AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
+                AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? rolloutPolicy() : opponentModel();
                 next = agent.getAction(rolloutState, availableActions);
                 advanceState(rolloutState, next, true);
             }
@@ -918,14 +1156,26 @@ public class SingleTreeNode {
         // Evaluate final state and return normalised score
         double[] retValue = new double[rolloutState.getNPlayers()];
 
+        SearchProfile profile = root.profile;
+        long start = profile == null ? 0 : profile.start();
         for (int i = 0; i < retValue.length; i++) {
             retValue[i] = params.heuristic.evaluateState(rolloutState, i);
             if (Double.isNaN(retValue[i]) || Double.isInfinite(retValue[i]))
                 throw new AssertionError("Illegal heuristic value - should be a number - " + params.heuristic.toString());
         }
+        if (profile != null)
+            profile.end(SearchProfile.Phase.Heuristic, start);
         return retValue;
     }
 
+    protected AbstractPlayer rolloutPolicy() {
+        return root.rolloutPolicy == null ? params.getRolloutStrategy() : root.rolloutPolicy;
+    }
+
+    protected AbstractPlayer opponentModel() {
+        return root.opponentModel == null ? params.getOpponentModel() : root.opponentModel;
+    }
+
     /**
      * Checks if rollout is finished. Rollouts end on maximum length, or if game ended.
      *
@@ -1014,18 +1264,28 @@ public class SingleTreeNode {
     }
 
     /**
-     * This take in the result coming from the child node, and updates the statistics for the action taken
-     * It returns the reward that should be back-propagated to the parent node.
-     * In the case of vanilla MCTS, this is unchanged from the input result.
-     * But, if we are interpolating some max/Q update, then this will change the result.
+     * Drops the references to the state of the current iteration (if discardStateAfterEachIteration), at the end of
+     * the iteration. This is done for each node of the trajectory in backUpSingleNode(), and for the node selected at
+     * the end of the tree (which has no action on the trajectory), as otherwise this keeps a state that may be
+     * overwritten by a later iteration (see MCTSParams.reuseIterationStates()).
      */
-    protected double[] backUpSingleNode(AbstractAction actionTaken, double[] result) {
+    protected void discardIterationState() {
         if (params.discardStateAfterEachIteration) {
             if (depth > 0)
                 openLoopState = null; // releases for Garbage Collection
             if (depth > 0 && !params.maintainMasterState)
                 state = null;
         }
+    }
+
+    /**
+     * This take in the result coming from the child node, and updates the statistics for the action taken
+     * It returns the reward that should be back-propagated to the parent node.
+     * In the case of vanilla MCTS, this is unchanged from the input result.
+     * But, if we are interpolating some max/Q update, then this will change the result.
+     */
+    protected double[] backUpSingleNode(AbstractAction actionTaken, double[] result) {
+        discardIterationState();
         nVisits++;
         // Here we look at actionsFromOpenLoopState to see which ones were valid
         // when we passed through, and keep track of valid visits
@@ -1132,15 +1392,17 @@ public class SingleTreeNode {
     }
 
 
-    protected void MASTBackup(List<Pair<Integer, AbstractAction>> rolloutActions, double[] delta) {
-        for (Pair<Integer, AbstractAction> pair : rolloutActions) {
-            AbstractAction action = pair.b;
-            int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+    protected void MASTBackup(List<Pair<Integer, AbstractAction>> treeActions, double[] delta) {
+        for (int i = 0; i < treeActions.size(); i++) {
+            int player = treeActions.get(i).a;
+            MASTStatistics.get(player).add(treeActions.get(i).b, params.MASTActionKey, delta[player]);
+        }
+    }
+
+    protected void MASTBackup(ActionTrajectory rolloutActions, double[] delta) {
+        for (int i = 0; i < rolloutActions.size(); i++) {
+            int player = rolloutActions.player(i);
+            MASTStatistics.get(player).add(rolloutActions.action(i), params.MASTActionKey, delta[player]);
         }
     }
 
@@ -0,0 +1,289 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.StatePool;
+import core.actions.AbstractAction;
+import utilities.Pair;
+import utilities.SearchThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static players.PlayerConstants.*;
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.OneTree;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.SelfOnly;
+import static players.mcts.MCTSEnums.TreePolicy.UCB_Tuned;
+
+/**
+ * Tree parallelisation: several threads run iterations on the same tree (see MCTSParams.treeParallelThreads).
+ * <p>
+ * There is no lock on the whole tree. During selection a thread holds the lock on one node at a time, while it sets
+ * the node's actions from its state, chooses an action and adds a virtual loss for it; and during backup while it
+ * updates the statistics of the node. The state is advanced, and the rollout run, with no lock held. Expanding a node
+ * (once per iteration), and updating the counts, budget, reward range and MAST statistics kept on the root, are done
+ * holding the lock on this search. The reward range is read without a lock during selection, as it only widens.
+ * <p>
+ * While a thread's iteration is in progress, each node on its path counts virtual losses (MCTSParams.virtualLoss)
+ * for the action taken, so that the other threads are steered to other parts of the tree. A virtual loss is a visit
+ * with the lowest reward seen so far (or zero, if rewards are not being tracked); when they are tracked, none are
+ * added until the first rewards have been backed up, as until then there is no range to normalise them by.
+ * <p>
+ * Each thread has its own copy of the root state, random number generator for rollouts, forward model, state pool
+ * and copies of the rollout policy and opponent model. The nodes compute the actions available from a state with the
+ * forward model of the tree, so this must be one that can be shared by threads. Budgets keep their meaning:
+ * iterations, FM calls and copies are counted across all threads (the calls made by iterations still in progress are
+ * counted once they finish, so a search can run over by up to one iteration per thread), and a time budget is of
+ * elapsed time rather than CPU time.
+ * <p>
+ * This supports OneTree (including paranoid) and SelfOnly trees, with Open_Loop or Information_Set search.
+ * Rollout policies and action heuristics that read MAST statistics are not supported, as these are updated during
+ * the search.
+ */
+class TreeParallelSearch {
+
+    final SingleTreeNode root;
+    final MCTSParams params;
+    final int nThreads;
+    final boolean rewardsTracked;
+    // these (and the counts and rewards kept on the root) are only read or changed with the lock on this search held
+    int budget, iterationsStarted, iterationsCompleted;
+    volatile boolean stopped;
+
+    TreeParallelSearch(SingleTreeNode root, int nThreads) {
+        this.root = root;
+        this.params = root.params;
+        this.nThreads = nThreads;
+        this.rewardsTracked = params.normaliseRewards || params.treePolicy == UCB_Tuned;
+        if (params.opponentTreePolicy != OneTree && params.opponentTreePolicy != SelfOnly)
+            throw new AssertionError("Tree-parallel search is only supported for OneTree and SelfOnly trees, not " + params.opponentTreePolicy);
+        if (params.information == Closed_Loop)
+            throw new AssertionError("Tree-parallel search needs Open_Loop or Information_Set search, not Closed_Loop");
+        if (params.getRolloutStrategy() instanceof IMASTUser || params.getOpponentModel() instanceof IMASTUser)
+            throw new AssertionError("Tree-parallel search does not support rollout policies that use MAST statistics");
+        if (params.useMASTAsActionHeuristic)
+            throw new AssertionError("Tree-parallel search does not support MAST as the action heuristic");
+        if (root.forwardModel.independentCopy() != root.forwardModel)
+            throw new AssertionError("Tree-parallel search needs a forward model that can be shared by the threads, " +
+                    "as the nodes compute their actions with it (see AbstractForwardModel.independentCopy())");
+        if (params.maxTreeNodes > 0 && params.treeNodeLimit == MCTSEnums.TreeNodeLimit.PruneLeastVisited)
+            throw new AssertionError("Tree-parallel search does not support pruning the tree (use StopExpanding instead)");
+        if (params.determinisationPool > 0 && params.information == Information_Set)
+            throw new AssertionError("Tree-parallel search does not support a pool of determinisations");
+        if (params.leafParallelRollouts > 1)
+            throw new AssertionError("Tree-parallel search cannot be combined with leaf-parallel rollouts");
+        if (params.profileSearch)
+            throw new AssertionError("Tree-parallel search does not support profiling the search");
+    }
+
+    void search(long initialisationTime, int budget) {
+        root.initialiseRootMetrics();
+        root.initialisationTimeTaken = initialisationTime;
+        if (root.redeterminisationPlayer == -1 && params.information == Information_Set)
+            root.redeterminisationPlayer = root.decisionPlayer;
+        this.budget = budget;
+        long startTime = System.nanoTime();
+        long deadline = startTime + (budget - initialisationTime) * 1000000;
+
+        // the threads are set up here, as the root state and the policies must not be copied by several at once
+        List<Worker> workers = new ArrayList<>(nThreads);
+        List<Runnable> threads = new ArrayList<>(nThreads);
+        for (int t = 0; t < nThreads; t++) {
+            Worker worker = new Worker(root.state.copy(), new Random(root.rnd.nextLong()));
+            workers.add(worker);
+            threads.add(() -> worker.run(startTime, deadline));
+        }
+        SearchThreads.runAll(threads);
+        root.timeTaken = (System.nanoTime() - startTime) / 1e6;
+        root.threadIterations = workers.stream().mapToInt(w -> w.iterations).toArray();
+    }
+
+    /**
+     * Checked (with the lock on this search held) before each iteration is started
+     */
+    private boolean budgetUsed() {
+        if (iterationsStarted == 0)
+            return false;  // always run at least one iteration
+        return switch (params.budgetType) {
+            case BUDGET_ITERATIONS -> iterationsStarted >= budget;
+            case BUDGET_FM_CALLS -> root.fmCallsCount > budget || iterationsStarted > budget;
+            case BUDGET_COPY_CALLS -> root.copyCount > budget || iterationsStarted > budget;
+            case BUDGET_FMANDCOPY_CALLS -> root.copyCount + root.fmCallsCount > budget || iterationsStarted > budget;
+            default -> false;  // time is checked by each thread
+        };
+    }
+
+    /**
+     * One thread of the search. This has a root of its own, which is not part of the tree, that holds the counts,
+     * policies and state pool of the thread; and a node that stands in for the node selected in each iteration
+     * while the rollout from it is run.
+     */
+    class Worker {
+        final AbstractGameState rootState;
+        final SingleTreeNode workerRoot = new SingleTreeNode();
+        final SingleTreeNode rolloutNode = new SingleTreeNode();
+        // the nodes, actions and the actions available at each node, on the path of the current iteration
+        final List<SingleTreeNode> trajectory = new ArrayList<>();
+        final List<Pair<Integer, AbstractAction>> actionsInTree = new ArrayList<>();
+        final List<List<AbstractAction>> actionsSeen = new ArrayList<>();
+        int iterations;
+
+        Worker(AbstractGameState rootState, Random rnd) {
+            this.rootState = rootState;
+            AbstractForwardModel forwardModel = root.forwardModel.independentCopy();
+            workerRoot.root = workerRoot;
+            workerRoot.params = params;
+            workerRoot.forwardModel = forwardModel;
+            workerRoot.rnd = rnd;
+            workerRoot.decisionPlayer = root.decisionPlayer;
+            workerRoot.statePool = params.reuseIterationStates() ? new StatePool() : null;
+            workerRoot.actionsInTree = actionsInTree;
+            workerRoot.rolloutPolicy = params.getRolloutStrategy().copy();
+            workerRoot.rolloutPolicy.setForwardModel(forwardModel);
+            if (params.getOpponentModel() == params.getRolloutStrategy()) {
+                workerRoot.opponentModel = workerRoot.rolloutPolicy;
+            } else {
+                workerRoot.opponentModel = params.getOpponentModel().copy();
+                workerRoot.opponentModel.setForwardModel(forwardModel);
+            }
+            rolloutNode.root = workerRoot;
+            rolloutNode.params = params;
+            rolloutNode.forwardModel = forwardModel;
+            rolloutNode.rnd = rnd;
+        }
+
+        void run(long startTime, long deadline) {
+            int observer = params.information == Information_Set ? root.redeterminisationPlayer : -1;
+            while (!stopped) {
+                if (params.budgetType == BUDGET_TIME && iterations > 0) {
+                    long now = System.nanoTime();
+                    double averageTime = (now - startTime) / (double) iterations;
+                    long remaining = deadline - now;
+                    if (remaining <= 2 * averageTime || remaining <= params.breakMS * 1000000L)
+                        return;
+                }
+                AbstractGameState iterationState = workerRoot.copyState(rootState, observer);
+                synchronized (TreeParallelSearch.this) {
+                    if (budgetUsed()) {
+                        stopped = true;
+                        return;
+                    }
+                    iterationsStarted++;
+                }
+                boolean noRewards = Double.isInfinite(root.lowReward);
+                int lossCount = noRewards && rewardsTracked ? 0 : params.virtualLoss;
+                double lossValue = noRewards ? 0.0 : root.lowReward;
+                SingleTreeNode selected = select(iterationState, lossCount, lossValue);
+
+                workerRoot.clearRolloutActions();
+                synchronized (selected) {
+                    rolloutNode.state = selected.state;
+                }
+                rolloutNode.decisionPlayer = selected.decisionPlayer;
+                rolloutNode.openLoopState = iterationState;
+                int lastActorInTree = actionsInTree.isEmpty() ? root.decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+                double[] delta = rolloutNode.rollout(lastActorInTree);
+                rolloutNode.openLoopState = null;
+                rolloutNode.state = null;
+
+                backUp(selected, delta, lossCount, lossValue);
+                iterations++;
+            }
+        }
+
+        /**
+         * Selection and expansion, as in SingleTreeNode.treePolicy(), holding the lock on each node while its
+         * statistics are read and its virtual loss added. The state is advanced by this thread's forward model
+         * (through rolloutNode), with no lock held.
+         *
+         * @return the node the rollout is to be run from
+         */
+        private SingleTreeNode select(AbstractGameState state, int lossCount, double lossValue) {
+            trajectory.clear();
+            actionsSeen.clear();
+            actionsInTree.clear();
+            SingleTreeNode cur = root;
+            while (true) {
+                AbstractAction chosen;
+                synchronized (cur) {
+                    cur.setActionsFromOpenLoopState(state);
+                    if (!state.isNotTerminalForPlayer(cur.decisionPlayer) || cur.depth >= params.maxTreeDepth ||
+                            cur.actionsFromOpenLoopState.isEmpty())
+                        return cur;
+                    chosen = cur.treePolicyAction(true);
+                    // the next thread through the node may find different actions (with a different determinisation)
+                    actionsSeen.add(cur.actionsFromOpenLoopState);
+                    addVirtualLoss(cur, chosen, lossCount, lossValue);
+                }
+                trajectory.add(cur);
+                // this adds the action (and its player) to actionsInTree
+                rolloutNode.decisionPlayer = cur.decisionPlayer;
+                rolloutNode.advanceState(state, chosen, false);
+                if (!state.isNotTerminal() ||
+                        (params.opponentTreePolicy.selfOnlyTree && !state.isNotTerminalForPlayer(root.decisionPlayer)))
+                    return cur;
+                synchronized (cur) {
+                    SingleTreeNode[] nodeArray = cur.children.get(chosen);
+                    SingleTreeNode next = nodeArray == null ? null : nodeArray[state.getCurrentPlayer()];
+                    if (next == null) {
+                        // the count of nodes is kept on the root
+                        synchronized (TreeParallelSearch.this) {
+                            return cur.expandNode(chosen, state);
+                        }
+                    }
+                    cur = next;
+                }
+            }
+        }
+
+        /**
+         * Backs up the result of the rollout, as SingleTreeNode.backUp(), holding the lock on each node while its
+         * statistics are updated and its virtual loss taken away
+         */
+        private void backUp(SingleTreeNode selected, double[] delta, int lossCount, double lossValue) {
+            synchronized (TreeParallelSearch.this) {
+                root.normaliseRewardsAfterIteration(delta);
+                root.fmCallsCount += workerRoot.fmCallsCount;
+                root.copyCount += workerRoot.copyCount;
+                root.rolloutActionsTaken += workerRoot.actionsInRollout.size();
+                root.updateMASTStatistics(actionsInTree, workerRoot.actionsInRollout, delta);
+                iterationsCompleted++;
+            }
+            workerRoot.fmCallsCount = 0;
+            workerRoot.copyCount = 0;
+            double[] result = root.processResultsForParanoidOrSelfOnly(delta);
+            for (int i = trajectory.size() - 1; i >= 0; i--) {
+                SingleTreeNode node = trajectory.get(i);
+                AbstractAction action = actionsInTree.get(i).b;
+                synchronized (node) {
+                    addVirtualLoss(node, action, -lossCount, lossValue);
+                    node.actionsFromOpenLoopState = actionsSeen.get(i);
+                    result = node.backUpSingleNode(action, result);
+                }
+            }
+            synchronized (selected) {
+                selected.discardIterationState();
+            }
+        }
+    }
+
+    /**
+     * Adds (or with a negative count, takes away) losses to the statistics of the action taken from a node on the
+     * path. This is called with the lock on the node held.
+     */
+    private static void addVirtualLoss(SingleTreeNode node, AbstractAction action, int count, double lossValue) {
+        if (count == 0)
+            return;
+        ActionStats stats = node.actionValues.get(action);
+        stats.nVisits += count;
+        // the valid visits keep up, so that the exploration term of UCB stays well-defined
+        stats.validVisits += count;
+        stats.totValue[node.decisionPlayer] += count * lossValue;
+        stats.squaredTotValue[node.decisionPlayer] += count * lossValue * lossValue;
+        node.nVisits += count;
+    }
+}
@@ -68,9 +68,14 @@ public class TreeRecorder {
                 }
 
                 output.append("\t").append(parentName);
-                output.append("\t").append(node.state.toString());
-                output.append("\t").append(getFeaturesJson(node.state, player));
-                output.append("\t").append(String.format("%.3g",heuristic.evaluateState(node.state, player)));
+                if (node.state == null) {
+                    // the node has no state of its own (see MCTSParams.undoInPlace)
+                    output.append("\tNone\tNone\tNone");
+                } else {
+                    output.append("\t").append(node.state.toString());
+                    output.append("\t").append(getFeaturesJson(node.state, player));
+                    output.append("\t").append(String.format("%.3g", heuristic.evaluateState(node.state, player)));
+                }
                 if (node.actionToReach == null) {
                     output.append("\t").append("None");
                 } else {
@@ -24,6 +24,9 @@ public class TreeStatistics {
     public double meanActionsAtNode;
     public double meanActionsExpanded;
     public int oneActionNodes;
+    // nodes removed from the tree to keep within MCTSParams.maxTreeNodes, in the last search
+    public int prunedNodes;
+    public int pruneEvents;
 
 
     public void mcgsStats(MCGSNode root) {
@@ -119,6 +122,8 @@ public class TreeStatistics {
         leafDistribution = Arrays.stream(leavesAtDepth, 0, Math.min(depthReached + 1, maxDepth)).asDoubleStream().map(i -> i / totalLeaves).toArray();
         meanLeafDepth = totalLeaves > 0 ? IntStream.range(0, depthReached + 1).mapToDouble(i -> i * leafDistribution[i]).sum() : 0;
         meanNodeDepth = IntStream.range(0, Math.min(depthReached + 1, maxDepth)).mapToDouble(i -> i * nodeDistribution[i]).sum();
+        prunedNodes = root.prunedNodes;
+        pruneEvents = root.pruneEvents;
     }
 
 
@@ -130,6 +135,8 @@ public class TreeStatistics {
         List<String> leafDist = Arrays.stream(leafDistribution).mapToObj(n -> String.format("%2.0f%%", n * 100.0)).collect(toList());
         retValue.append(String.format("\tNodes  by depth: %s\n", String.join(", ", nodeDist)));
         retValue.append(String.format("\tLeaves by depth: %s\n", String.join(", ", leafDist)));
+        if (pruneEvents > 0)
+            retValue.append(String.format("\t%d nodes pruned in %d events\n", prunedNodes, pruneEvents));
 
         return retValue.toString();
     }
@@ -16,21 +16,26 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     protected int nonRepairCount;
     AbstractAction[] actions;         // Actions in individual. Intended max length of individual = actions.length
     AbstractGameState[] gameStates;   // Game states in individual.
+    double[] scores;                  // Heuristic value of each of gameStates (from index 1)
+    int validStates;                  // Number of gameStates (from index 0) that are those reached by the actions
+    boolean closedLoop;               // Reuse the gameStates up to the first changed action (see RHEAParams.closedLoop)
     double value;                     // Fitness of individual, to be maximised.
     int length;                       // Actual length of individual, <= actions.length
     double discountFactor;            // Discount factor for calculating rewards
     IStateHeuristic heuristic;
     AbstractPlayer rolloutPolicy;
-    private Random gen;               // Random generator
+    Random gen;                       // Random generator
 
     RHEAIndividual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs,
                    int playerID, Random gen, IStateHeuristic heuristic,
-                   AbstractPlayer rolloutPolicy) {
+                   AbstractPlayer rolloutPolicy, boolean closedLoop) {
         // Initialize
         this.gen = gen;
         this.discountFactor = discountFactor;
+        this.closedLoop = closedLoop;
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L + 1];
+        scores = new double[L + 1];
         this.heuristic = heuristic;
         this.rolloutPolicy = rolloutPolicy;
 
@@ -43,7 +48,10 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     RHEAIndividual(RHEAIndividual I) {
         actions = new AbstractAction[I.actions.length];
         gameStates = new AbstractGameState[I.gameStates.length];
+        scores = I.scores.clone();
         length = I.length;
+        validStates = I.validStates;
+        closedLoop = I.closedLoop;
         discountFactor = I.discountFactor;
         heuristic = I.heuristic;
         rolloutPolicy = I.rolloutPolicy;
@@ -52,6 +60,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             actions[i] = I.actions[i]; //.copy();
             gameStates[i] = I.gameStates[i]; //.copy(); // Should not need to copy game states, as we always copy before we use!
         }
+        gameStates[length] = I.gameStates[length];
 
         value = I.value;
         gen = I.gen;
@@ -61,6 +70,8 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * Mutates this individual, by picking an index and changing all genes from that point on.
      * Updates the length of the individual in case the rollout hits game end.
      * Also evaluates the individual as a rollout is needed for mutation, and updates the value.
+     * If closedLoop, the rollout starts no later than the last of the gameStates that are still those reached by the
+     * actions (which crossover may have changed), so that every state after it is simulated again.
      *
      * @param fm       - forward model
      * @param playerID - ID of player, used in evaluation of fitness
@@ -80,6 +91,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             }
         }
 
+        if (closedLoop)
+            startIndex = Math.min(startIndex, validStates - 1);
+
         // Perform rollout and return number of FM calls taken.
         if (gameStates[startIndex] == null) {
             return new Pair<>(0, 0);
@@ -92,6 +106,8 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * Performs a rollout with random actions from startIndex to endIndex in the individual, from root game state gs.
      * Starts by repairing the full individual, then mutates it, and finally evaluates it.
      * Evaluates the final state reached and returns the number of calls to the FM.next() function.
+     * The states before startIndex are not simulated again; if closedLoop, their heuristic values are not
+     * recalculated either.
      *
      * @param fm         - forward model
      * @param startIndex - index in individual from which to start rollout
@@ -99,11 +115,12 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * @return - number of calls to the FM.next() function
      */
     public Pair<Integer, Integer> rollout(AbstractForwardModel fm, int startIndex, int playerID, boolean repair) {
-        length = 0;
+        length = startIndex;
         double delta = 0;
         double previousScore = 0;
         int fmCalls = 0, copyCalls = 0;
-        AbstractGameState gs = gameStates[startIndex].copy();
+        // only ever copied, so the stored state can be used
+        AbstractGameState gs = gameStates[startIndex];
 
         // This lot are a local record for use in debugging; Very useful, with no compute overhead for keeping a local copy
         AbstractGameState[] oldGameStates = new AbstractGameState[gameStates.length];
@@ -113,9 +130,14 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         for (int i = 0; i < startIndex; i++) {
             double score;
-            score = heuristic.evaluateState(gameStates[i + 1], playerID);
-            if (Double.isNaN(score))
-                throw new AssertionError("Illegal heuristic value - should be a number");
+            if (closedLoop) {
+                score = scores[i + 1];
+            } else {
+                score = heuristic.evaluateState(gameStates[i + 1], playerID);
+                if (Double.isNaN(score))
+                    throw new AssertionError("Illegal heuristic value - should be a number");
+                scores[i + 1] = score;
+            }
             delta += Math.pow(discountFactor, i) * (score - previousScore);
             previousScore = score;
         }
@@ -143,8 +165,8 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                     action = actions[i];
                     nonRepairCount++;
                 }
-                // TODO: Add a closed loop option to not copy the state (expensively) if the action is valid, but jump to the next state stored
-                // TODO: When implemented, this will also need to take account of shiftLeft
+                // closedLoop only reuses the states before the first changed action; from there on every step still
+                // copies the state (expensively), even where the action is unchanged. After shiftLeft nothing is reused.
                 fm.next(gsCopy, action.copy());
                 fmCalls++;
 
@@ -169,6 +191,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                 score = heuristic.evaluateState(gameStates[i + 1], playerID);
                 if (Double.isNaN(score))
                     throw new AssertionError("Illegal heuristic value - should be a number");
+                scores[i + 1] = score;
                 delta += Math.pow(discountFactor, i) * (score - previousScore);
                 previousScore = score;
 
@@ -179,6 +202,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             }
         }
 //        this.value = gs.getScore(playerID);
+        validStates = length + 1;
         this.value = delta;
         return new Pair<>(fmCalls, copyCalls);
     }
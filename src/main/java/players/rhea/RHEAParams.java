@@ -23,6 +23,8 @@ public class RHEAParams extends PlayerParameters
     public boolean shiftLeft;
     public IStateHeuristic heuristic = AbstractGameState::getGameScore;
     public boolean useMAST;
+    public boolean closedLoop;  // reuse the states of an individual up to its first changed action, rather than simulating them again
+    public int parallelThreads = 1;  // more than one creates, mutates and evaluates the individuals on this many threads
 
 
     public RHEAParams() {
@@ -38,6 +40,8 @@ public class RHEAParams extends PlayerParameters
         addTunableParameter("mutationCount", 1, Arrays.asList(1, 3, 10));
         addTunableParameter("heuristic", (IStateHeuristic) AbstractGameState::getGameScore);
         addTunableParameter("useMAST", false, Arrays.asList(false, true));
+        addTunableParameter("closedLoop", false, Arrays.asList(false, true));
+        addTunableParameter("parallelThreads", 1);
     }
 
     @Override
@@ -54,6 +58,8 @@ public class RHEAParams extends PlayerParameters
         shiftLeft = (boolean) getParameterValue("shiftLeft");
         mutationCount = (int) getParameterValue("mutationCount");
         useMAST = (boolean) getParameterValue("useMAST");
+        closedLoop = (boolean) getParameterValue("closedLoop");
+        parallelThreads = (int) getParameterValue("parallelThreads");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         if (heuristic instanceof TunableParameters<?> tunableHeuristic) {
             for (String name : tunableHeuristic.getParameterNames()) {
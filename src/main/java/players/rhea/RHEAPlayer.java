@@ -1,5 +1,6 @@
 package players.rhea;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
@@ -8,12 +9,25 @@ import players.PlayerConstants;
 import players.mcts.MASTPlayer;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
+import utilities.ElapsedWallTimer;
 import utilities.Pair;
+import utilities.SearchThreads;
 import utilities.Utils;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 
+/**
+ * With parallelThreads, the individuals are created, mutated and evaluated on that many threads (SearchThreads),
+ * each with its own AbstractForwardModel.independentCopy(). Before each parallel step every individual is given its
+ * own random number generator and rollout policy, seeded from those of the player, so that the search does not
+ * depend on the number of threads or how they are scheduled; and MAST statistics are only updated once all of them
+ * have finished. Selection and crossover stay on the calling thread. The heuristic must then be safe to call from
+ * several threads at once. A time budget is then of elapsed time (see ElapsedWallTimer), rather than of the CPU time
+ * of the searching thread.
+ */
 public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
     List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
@@ -25,6 +39,8 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
     private MASTPlayer mastPlayer;
+    // one for each thread of a parallel search, starting with our own
+    private List<AbstractForwardModel> forwardModels;
 
     public RHEAPlayer(RHEAParams params) {
         super(params, "RHEAPlayer");
@@ -48,14 +64,16 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
+        RHEAParams params = getParameters();
+        // New timer for this game tick; a parallel search has a budget of elapsed time, as the CPU time of this
+        // thread does not count the time it waits for the others
+        ElapsedCpuTimer timer = params.parallelThreads > 1 ? new ElapsedWallTimer() : new ElapsedCpuTimer();
         timer.setMaxTimeMillis(parameters.budget);
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
         repairCount = 0;
         nonRepairCount = 0;
-        RHEAParams params = getParameters();
 
         if (params.useMAST) {
             if (MASTStatistics == null) {
@@ -70,10 +88,31 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
+        if (params.parallelThreads > 1) {
+            forwardModels = new ArrayList<>(params.parallelThreads);
+            forwardModels.add(getForwardModel());
+            for (int i = 1; i < params.parallelThreads; i++)
+                forwardModels.add(getForwardModel().independentCopy());
+        }
         // Initialise individuals
         if (params.shiftLeft && !population.isEmpty()) {
             population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
-            for (RHEAIndividual genome : population) {
+            if (params.parallelThreads > 1) {
+                // one individual for each thread at a time, so that the budget is checked between them
+                for (int from = 0; from < population.size() && budgetLeft(timer); from += params.parallelThreads) {
+                    List<RHEAIndividual> batch = population.subList(from, Math.min(from + params.parallelThreads, population.size()));
+                    for (RHEAIndividual genome : batch) {
+                        System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
+                        genome.gameStates[0] = stateObs.copy();
+                    }
+                    List<Pair<Integer, Integer>> calls = onThreads(batch, (genome, fm) ->
+                            genome.rollout(fm, 0, getPlayerID(), true));
+                    for (Pair<Integer, Integer> c : calls) {
+                        fmCalls += c.a;
+                        copyCalls += c.b;
+                    }
+                }
+            } else for (RHEAIndividual genome : population) {
                 if (!budgetLeft(timer)) break;
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
@@ -84,10 +123,28 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             }
         } else {
             population = new ArrayList<>();
-            for (int i = 0; i < params.populationSize; ++i) {
+            if (params.parallelThreads > 1) {
+                // one individual for each thread at a time, so that the budget is checked between them
+                while (population.size() < params.populationSize && budgetLeft(timer)) {
+                    int n = Math.min(params.parallelThreads, params.populationSize - population.size());
+                    long[] seeds = new long[n * 2];
+                    for (int i = 0; i < seeds.length; i++)
+                        seeds[i] = rnd.nextLong();
+                    RHEAIndividual[] individuals = new RHEAIndividual[n];
+                    onThreads(n, (fm, i) -> individuals[i] = new RHEAIndividual(params.horizon,
+                            params.discountFactor, fm, stateObs, getPlayerID(), new Random(seeds[2 * i]), params.heuristic,
+                            rolloutPolicy(seeds[2 * i + 1]), params.closedLoop));
+                    for (RHEAIndividual individual : individuals) {
+                        population.add(individual);
+                        fmCalls += individual.length;
+                        copyCalls += individual.length;
+                    }
+                }
+            } else for (int i = 0; i < params.populationSize; ++i) {
                 if (!budgetLeft(timer)) break;
                 population.add(new RHEAIndividual(params.horizon, params.discountFactor, getForwardModel(), stateObs,
-                        getPlayerID(), rnd, params.heuristic, params.useMAST ? mastPlayer : randomPlayer));
+                        getPlayerID(), rnd, params.heuristic, params.useMAST ? mastPlayer : randomPlayer,
+                        params.closedLoop));
                 fmCalls += population.get(i).length;
                 copyCalls += population.get(i).length;
             }
@@ -110,6 +167,53 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         return retValue;
     }
 
+    /**
+     * A rollout policy with its own random number generator, for one individual of a parallel search
+     */
+    private AbstractPlayer rolloutPolicy(long seed) {
+        if (getParameters().useMAST) {
+            MASTPlayer retValue = new MASTPlayer(null, 1.0, 0.0, seed, 0.0);
+            retValue.setStats(MASTStatistics);
+            return retValue;
+        }
+        return new RandomPlayer(new Random(seed));
+    }
+
+    /**
+     * Runs task(forwardModel, i) for each i from 0 to n - 1, divided between parallelThreads threads that each use
+     * one of the forwardModels, and returns when all have finished
+     */
+    private void onThreads(int n, ObjIntConsumer<AbstractForwardModel> task) {
+        int threads = Math.min(forwardModels.size(), n);
+        List<Runnable> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            AbstractForwardModel fm = forwardModels.get(t);
+            int first = t;
+            tasks.add(() -> {
+                for (int i = first; i < n; i += threads)
+                    task.accept(fm, i);
+            });
+        }
+        SearchThreads.runAll(tasks);
+    }
+
+    /**
+     * Gives each individual its own random number generator and rollout policy, and then runs the rollout
+     * (as task) of each of them in parallel
+     *
+     * @return the FM and copy calls of each rollout, in the order of the individuals
+     */
+    private List<Pair<Integer, Integer>> onThreads(List<RHEAIndividual> individuals,
+                                                   BiFunction<RHEAIndividual, AbstractForwardModel, Pair<Integer, Integer>> task) {
+        for (RHEAIndividual individual : individuals) {
+            individual.gen = new Random(rnd.nextLong());
+            individual.rolloutPolicy = rolloutPolicy(rnd.nextLong());
+        }
+        Pair<Integer, Integer>[] calls = new Pair[individuals.size()];
+        onThreads(individuals.size(), (fm, i) -> calls[i] = task.apply(individuals.get(i), fm));
+        return Arrays.asList(calls);
+    }
+
     private boolean budgetLeft(ElapsedCpuTimer timer) {
         RHEAParams params = getParameters();
         if (params.budgetType == PlayerConstants.BUDGET_TIME) {
@@ -157,8 +261,7 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         int min = Math.min(p1.length, p2.length);
         for (int i = 0; i < min; ++i) {
             if (rnd.nextFloat() >= 0.5f) {
-                child.actions[i] = p2.actions[i];
-                child.gameStates[i] = p2.gameStates[i]; //.copy();
+                takeGene(child, i, p2, i);
             }
         }
         return child;
@@ -170,8 +273,7 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         int tailLength = Math.min(p1.length, p2.length) / 2;
 
         for (int i = 0; i < tailLength; ++i) {
-            child.actions[child.length - 1 - i] = p2.actions[p2.length - 1 - i];
-            child.gameStates[child.length - 1 - i] = p2.gameStates[p2.length - 1 - i]; //.copy();
+            takeGene(child, child.length - 1 - i, p2, p2.length - 1 - i);
         }
         return child;
     }
@@ -181,14 +283,24 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         copyCalls += child.length;
         int tailLength = Math.min(p1.length, p2.length) / 3;
         for (int i = 0; i < tailLength; ++i) {
-            child.actions[i] = p2.actions[i];
-            child.gameStates[i] = p2.gameStates[i]; //.copy();
-            child.actions[child.length - 1 - i] = p2.actions[p2.length - 1 - i];
-            child.gameStates[child.length - 1 - i] = p2.gameStates[p2.length - 1 - i]; //.copy();
+            takeGene(child, i, p2, i);
+            takeGene(child, child.length - 1 - i, p2, p2.length - 1 - i);
         }
         return child;
     }
 
+    /**
+     * Sets gene i of the child to gene j of the parent. If closedLoop, the states of the child from the one after this
+     * gene are no longer those reached by its actions, so are simulated again when it is next mutated.
+     */
+    private void takeGene(RHEAIndividual child, int i, RHEAIndividual parent, int j) {
+        child.actions[i] = parent.actions[j];
+        if (getParameters().closedLoop)
+            child.validStates = Math.min(child.validStates, i + 1);
+        else
+            child.gameStates[i] = parent.gameStates[j]; //.copy();
+    }
+
     RHEAIndividual[] selectParents() {
         RHEAIndividual[] parents = new RHEAIndividual[2];
 
@@ -252,8 +364,13 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             population.add(child);
         }
 
-        for (RHEAIndividual individual : population) {
-            Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
+        List<Pair<Integer, Integer>> parallelCalls = params.parallelThreads > 1 ?
+                onThreads(population, (individual, fm) -> individual.mutate(fm, getPlayerID(), params.mutationCount)) :
+                null;
+        for (int i = 0; i < population.size(); i++) {
+            RHEAIndividual individual = population.get(i);
+            Pair<Integer, Integer> calls = parallelCalls != null ? parallelCalls.get(i) :
+                    individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
             fmCalls += calls.a;
             copyCalls += calls.b;
             repairCount += individual.repairCount;
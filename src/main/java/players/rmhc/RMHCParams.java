@@ -10,11 +10,15 @@ public class RMHCParams extends PlayerParameters {
     public int horizon = 10;
     public double discountFactor = 0.9;
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
+    public int batchSize = 1;  // mutants of the best individual evaluated in each iteration; the best of them is kept if better
+    public int parallelThreads = 1;  // more than one evaluates the mutants of each batch on this many threads
 
     public RMHCParams() {
         addTunableParameter("horizon", 10, Arrays.asList(1, 3, 5, 10, 20, 30));
         addTunableParameter("discountFactor", 0.9, Arrays.asList(0.5, 0.8, 0.9, 0.95, 0.99, 0.999, 1.0));
         addTunableParameter("heuristic", (IStateHeuristic) AbstractGameState::getHeuristicScore);
+        addTunableParameter("batchSize", 1, Arrays.asList(1, 2, 4, 8, 16));
+        addTunableParameter("parallelThreads", 1);
     }
 
     @Override
@@ -23,6 +27,8 @@ public class RMHCParams extends PlayerParameters {
         horizon = (int) getParameterValue("horizon");
         discountFactor = (double) getParameterValue("discountFactor");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
+        batchSize = (int) getParameterValue("batchSize");
+        parallelThreads = (int) getParameterValue("parallelThreads");
     }
 
     @Override
@@ -30,6 +36,8 @@ public class RMHCParams extends PlayerParameters {
         RMHCParams copy = new RMHCParams();
         copy.horizon = horizon;
         copy.discountFactor = discountFactor;
+        copy.batchSize = batchSize;
+        copy.parallelThreads = parallelThreads;
         return copy;
     }
 
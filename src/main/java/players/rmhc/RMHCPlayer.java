@@ -1,21 +1,35 @@
 package players.rmhc;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import players.PlayerConstants;
 import utilities.ElapsedCpuTimer;
+import utilities.ElapsedWallTimer;
+import utilities.SearchThreads;
 
 import java.util.*;
 
 
+/**
+ * With batchSize, each iteration mutates batchSize copies of the best individual, and keeps the best of them if it
+ * is better. Each mutant has its own random number generator, seeded from that of the player, so the search does not
+ * depend on how many threads evaluate them. With parallelThreads the mutants are copied and evaluated on that many
+ * threads (SearchThreads), each with its own AbstractForwardModel.independentCopy(); the heuristic must then be safe
+ * to call from several threads at once. The budget is checked between iterations, as for a single mutant, so an
+ * iteration counts the FM calls and copies of all the mutants in it. A time budget is of the CPU time of the
+ * searching thread, except that a search on several threads has a budget of elapsed time (see ElapsedWallTimer).
+ */
 public class RMHCPlayer extends AbstractPlayer {
-    private Individual bestIndividual;
+    protected Individual bestIndividual;
     // Budgets
     private double avgTimeTaken = 0, acumTimeTaken = 0;
-    private int numIters = 0;
-    private int fmCalls = 0;
-    private int copyCalls = 0;
+    protected int numIters = 0;
+    protected int fmCalls = 0;
+    protected int copyCalls = 0;
+    // one for each thread of a parallel search, starting with our own
+    private List<AbstractForwardModel> forwardModels;
 
     public RMHCPlayer() {
         this(new RMHCParams());
@@ -36,13 +50,22 @@ public class RMHCPlayer extends AbstractPlayer {
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
         avgTimeTaken = 0;
         acumTimeTaken = 0;
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
         RMHCParams params = getParameters();
+        if (params.parallelThreads > 1 && params.batchSize > 1) {
+            forwardModels = new ArrayList<>(params.parallelThreads);
+            forwardModels.add(getForwardModel());
+            for (int i = 1; i < Math.min(params.parallelThreads, params.batchSize); i++)
+                forwardModels.add(getForwardModel().independentCopy());
+        } else {
+            forwardModels = List.of(getForwardModel());
+        }
+        ElapsedCpuTimer timer = newTimer();  // New timer for this game tick
+        timer.setMaxTimeMillis(parameters.budget);
 
         // Initialise individual
         bestIndividual = new Individual(params.horizon, params.discountFactor, getForwardModel(), stateObs, getPlayerID(), rnd, params.getHeuristic());
@@ -72,6 +95,13 @@ public class RMHCPlayer extends AbstractPlayer {
         return bestIndividual.actions[0];
     }
 
+    /**
+     * @return the FM calls made in the last decision
+     */
+    public int getFMCalls() {
+        return fmCalls;
+    }
+
     @Override
     public RMHCPlayer copy() {
         RMHCParams newParams = (RMHCParams) parameters.copy();
@@ -81,24 +111,36 @@ public class RMHCPlayer extends AbstractPlayer {
         return retValue;
     }
 
+    /**
+     * @return a timer of the CPU time of this thread; or, if the mutants are evaluated on several threads, of elapsed
+     * time, as this thread's CPU time does not count the time it waits for the others
+     */
+    private ElapsedCpuTimer newTimer() {
+        return forwardModels.size() > 1 ? new ElapsedWallTimer() : new ElapsedCpuTimer();
+    }
+
     /**
      * Run evolutionary process for one generation
      *
      * @param stateObs - current game state
      */
     private void runIteration(AbstractGameState stateObs) {
-        ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
-
-        // Create new individual through mutation
-        Individual newIndividual = new Individual(bestIndividual);
-        copyCalls += newIndividual.length;
-        int statesUpdated = newIndividual.mutate(getForwardModel(), getPlayerID());
-        fmCalls += statesUpdated;
-        copyCalls += statesUpdated; // as mutate() copyies once each time it applies the forward model
-
-        // Keep new individual if better than current
-        if (newIndividual.value > bestIndividual.value)
-            bestIndividual = newIndividual;
+        ElapsedCpuTimer elapsedTimerIteration = newTimer();
+
+        if (getParameters().batchSize > 1) {
+            runBatch();
+        } else {
+            // Create new individual through mutation
+            Individual newIndividual = new Individual(bestIndividual);
+            copyCalls += newIndividual.length;
+            int statesUpdated = newIndividual.mutate(getForwardModel(), getPlayerID());
+            fmCalls += statesUpdated;
+            copyCalls += statesUpdated; // as mutate() copyies once each time it applies the forward model
+
+            // Keep new individual if better than current
+            if (newIndividual.value > bestIndividual.value)
+                bestIndividual = newIndividual;
+        }
 
         // Update budgets
         numIters++;
@@ -106,6 +148,42 @@ public class RMHCPlayer extends AbstractPlayer {
         avgTimeTaken = acumTimeTaken / numIters;
     }
 
+    /**
+     * Mutates batchSize copies of the best individual (on each of the forwardModels in turn), and keeps the best of
+     * them if it is better than the current one
+     */
+    private void runBatch() {
+        int batchSize = getParameters().batchSize;
+        Individual parent = bestIndividual;
+        long[] seeds = new long[batchSize];
+        for (int b = 0; b < batchSize; b++)
+            seeds[b] = rnd.nextLong();
+        Individual[] mutants = new Individual[batchSize];
+        int[] statesUpdated = new int[batchSize];
+        int threads = forwardModels.size();
+        List<Runnable> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            AbstractForwardModel fm = forwardModels.get(t);
+            int first = t;
+            tasks.add(() -> {
+                for (int b = first; b < batchSize; b += threads) {
+                    mutants[b] = new Individual(parent);
+                    mutants[b].gen = new Random(seeds[b]);
+                    statesUpdated[b] = mutants[b].mutate(fm, getPlayerID());
+                }
+            });
+        }
+        SearchThreads.runAll(tasks);
+
+        for (int b = 0; b < batchSize; b++) {
+            copyCalls += parent.length + statesUpdated[b];
+            fmCalls += statesUpdated[b];
+            // the first of any that are equally good is kept
+            if (mutants[b].value > bestIndividual.value)
+                bestIndividual = mutants[b];
+        }
+    }
+
 //    public static void main(String[] args){
 //        /* 1. Action controller for GUI interactions. If set to null, running without visuals. */
 //        ActionController ac = new ActionController(); //null;
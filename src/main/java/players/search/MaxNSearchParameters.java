@@ -19,6 +19,8 @@ public class MaxNSearchParameters extends PlayerParameters {
     protected boolean alphaBetaPruning = true;
     protected boolean iterativeDeepening = false;
     protected boolean expandByEstimatedValue = false;
+    protected int transpositionTableSize = 0;
+    protected int parallelThreads = 1;
 
     public MaxNSearchParameters() {
         this.addTunableParameter("searchDepth", 1);
@@ -28,6 +30,8 @@ public class MaxNSearchParameters extends PlayerParameters {
         this.addTunableParameter("iterativeDeepening", false);
         this.addTunableParameter("alphaBetaPruning", true);
         this.addTunableParameter("expandByEstimatedValue", false);
+        this.addTunableParameter("transpositionTableSize", 0);
+        this.addTunableParameter("parallelThreads", 1);
     }
 
     @Override
@@ -40,6 +44,8 @@ public class MaxNSearchParameters extends PlayerParameters {
         iterativeDeepening = (boolean) getParameterValue("iterativeDeepening");
         alphaBetaPruning = (boolean) getParameterValue("alphaBetaPruning");
         expandByEstimatedValue = (boolean) getParameterValue("expandByEstimatedValue");
+        transpositionTableSize = (int) getParameterValue("transpositionTableSize");
+        parallelThreads = (int) getParameterValue("parallelThreads");
         if (heuristic == null) {
             heuristic = new GameDefaultHeuristic();
         }
@@ -2,11 +2,13 @@ package players.search;
 
 import core.*;
 import core.actions.AbstractAction;
-import players.mcts.ActionStats;
 import core.interfaces.IStateHeuristic;
 import llm.IHasStateHeuristic;
+import utilities.SearchThreads;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
 
 public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeuristic {
     /**
@@ -23,6 +25,19 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
      * - heuristic: the heuristic function to evaluate the state of the game
      * - paranoid: if true, the algorithm assumes that all players are trying to minimise its score
      * - searchUnit: the unit of search (ACTION, MACRO_ACTION, TURN)
+     * - iterativeDeepening: if true, search to depth 1, then 2 and so on up to D, and use the deepest that finishes
+     * - expandByEstimatedValue: if true (with alphaBetaPruning), try first the best action from the transposition
+     * table or the previous iteration, then the killer actions (that caused a cut-off at the same depth), then the
+     * others by their history (how often, and how deep in the search, they caused a cut-off)
+     * - transpositionTableSize: if more than 0, the states searched are kept in a MaxNTranspositionTable of this many
+     * entries, so that a state reached by another order of actions (or again in the next iteration) is not searched
+     * again. The states are keyed by their longHash(), so the table is only used for games with a full 64-bit hash
+     * (AbstractGameState.hasLongHash())
+     * - parallelThreads: if more than 1, the search runs on this many threads (Young Brothers Wait): at each state with
+     * at least PARALLEL_MIN_DEPTH levels left to search, the first action is searched alone (to set the alpha-beta
+     * bounds), and then the others at the same time, each with the bounds as they are when it starts. The heuristic
+     * must then be safe to call from several threads at once, and each thread uses its own
+     * AbstractForwardModel.independentCopy()
      * <p></p>
      * The searchUnit determines how we measure D, or searchDepth.
      * - ACTION: D is decremented at each decision node
@@ -31,13 +46,25 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
      * <p>
      * Additionally, the BUDGET can be specified as a cutoff for the search. If this much time passes
      * without the search finishing, the best action found so far is returned (likely to be pretty random).
+     * With iterativeDeepening this is the best action of the deepest search that finished (unless not even the
+     * depth 1 search did).
      */
 
 
     private long startTime;
     private SearchResult rootResult;
+    private volatile boolean outOfTime;
+    private int depthReached;
 
-    protected List<Map<AbstractAction, ActionStats>> actionValueEstimates;
+    protected MaxNTranspositionTable transpositionTable;
+    // the best action of the previous iteration, to try first at the root
+    private AbstractAction previousBest;
+    // two killer actions for each ply from the root
+    protected List<AbstractAction[]> killers;
+    protected Map<AbstractAction, Integer> history;
+    // a parallel search only splits where at least this many levels are left to search
+    static final int PARALLEL_MIN_DEPTH = 3;
+    private ThreadLocal<AbstractForwardModel> threadForwardModel;
 
     public MaxNSearchPlayer(MaxNSearchParameters parameters) {
         super(parameters, "MinMaxSearch");
@@ -48,8 +75,6 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         return (MaxNSearchParameters) this.parameters;
     }
 
-    // TODO: Use information from iterative deepening to improve the expansion order
-
     @Override
     public AbstractAction _getAction(AbstractGameState gs, List<AbstractAction> actions) {
         // For each action we copy the state and recursively call the expand method
@@ -57,38 +82,70 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         // - ACTION: always
         // - MACRO_ACTION: only when the currentPlayer() has changed as a result of applying the action
         // - TURN: only when turn number has changed as a result of applying the action
+        MaxNSearchParameters params = getParameters();
         startTime = System.currentTimeMillis();
         rootResult = null;
-        actionValueEstimates = new ArrayList<>();
-        if (getParameters().iterativeDeepening) {
+        outOfTime = false;
+        depthReached = 0;
+        previousBest = null;
+        killers = new ArrayList<>();
+        history = new ConcurrentHashMap<>();
+        AbstractForwardModel fm = getForwardModel();
+        threadForwardModel = params.parallelThreads > 1 ? ThreadLocal.withInitial(fm::independentCopy) : null;
+        if (params.transpositionTableSize > 0 && gs.hasLongHash()) {
+            if (transpositionTable == null || transpositionTable.capacity < params.transpositionTableSize)
+                transpositionTable = new MaxNTranspositionTable(params.transpositionTableSize);
+            transpositionTable.newSearch(gs.getNPlayers());
+        } else {
+            transpositionTable = null;
+        }
+        if (params.iterativeDeepening) {
             // we do a depth D = 1 search, then D = 2 and so on until we reach maxDepth or exhaust budget
-            for (int depth = 1; depth <= getParameters().searchDepth; depth++) {
-                if (depth == 1)
-                    actionValueEstimates.add(new HashMap<>());
-                else {
-                    // initialise the actionValueEstimates for the next depth with the values from the previous depth
-                    Map<AbstractAction, ActionStats> newMap = new HashMap<>();
-                    for (Map.Entry<AbstractAction, ActionStats> entry : actionValueEstimates.get(0).entrySet()) {
-                        newMap.put(entry.getKey(), entry.getValue().copy());
-                    }
-                    actionValueEstimates.add(0, newMap);
+            for (int depth = 1; depth <= params.searchDepth; depth++) {
+                SearchResult result = search(gs, actions, depth);
+                if (outOfTime) {
+                    // an unfinished search has only tried some of the actions, so is only used if there is nothing else
+                    if (rootResult == null)
+                        rootResult = result;
+                    break;
                 }
-                rootResult = expand(gs, actions, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+                rootResult = result;
+                depthReached = depth;
+                previousBest = result.action;
+                if (!result.depthLimited)
+                    break;  // every line was searched to the end of the game, so a deeper search would find the same
             }
         } else {
-            for (int depth = 0; depth < getParameters().searchDepth; depth++) {
-                actionValueEstimates.add(new HashMap<>());
-            }
-            rootResult = expand(gs, actions, getParameters().searchDepth,
-                    Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            rootResult = search(gs, actions, params.searchDepth);
+            if (!outOfTime)
+                depthReached = params.searchDepth;
         }
         return rootResult == null ? null : rootResult.action;
     }
 
+    /**
+     * Searches from the root to the given depth; on the threads of SearchThreads.forkJoinPool() if the search is
+     * parallel
+     */
+    private SearchResult search(AbstractGameState gs, List<AbstractAction> actions, int depth) {
+        int threads = getParameters().parallelThreads;
+        if (threads <= 1)
+            return expand(gs, actions, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0);
+        return SearchThreads.forkJoinPool(threads).invoke(ForkJoinTask.adapt(() ->
+                expand(gs, actions, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0)));
+    }
+
     public SearchResult getRootResult() {
         return rootResult;
     }
 
+    /**
+     * @return the depth of the deepest search that finished in the last decision (0 if none did)
+     */
+    public int getDepthReached() {
+        return depthReached;
+    }
+
     @Override
     public void setStateHeuristic(IStateHeuristic heuristic) {
         getParameters().setParameterValue("heuristic", heuristic);
@@ -106,6 +163,14 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
      */
     protected SearchResult expand(AbstractGameState state, List<AbstractAction> actions, int searchDepth,
                                   double alpha, double beta) {
+        return expand(state, actions, searchDepth, alpha, beta, 0);
+    }
+
+    /**
+     * As expand() above, for a state ply actions from the root (for the killer actions)
+     */
+    protected SearchResult expand(AbstractGameState state, List<AbstractAction> actions, int searchDepth,
+                                  double alpha, double beta, int ply) {
         MaxNSearchParameters params = getParameters();
         // if we have reached the end of the search, or the state is terminal, we evaluate the state
         if (searchDepth == 0 || !state.isNotTerminal()) {
@@ -123,81 +188,245 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
                     values[i] = params.heuristic.evaluateState(state, i);
                 }
             }
-            return new SearchResult(null, values, alpha, beta, null);
+            return new SearchResult(null, values, alpha, beta, null, state.isNotTerminal());
+        }
+
+        // a previous search of this state may give the answer, or at least the action to try first
+        long key = 0;
+        AbstractAction hashAction = ply == 0 ? previousBest : null;
+        if (transpositionTable != null) {
+            key = state.longHash();
+            synchronized (transpositionTable) {
+                int slot = transpositionTable.probe(key);
+                if (slot >= 0) {
+                    hashAction = transpositionTable.move(slot);
+                    // the root needs the value of every action, so is always searched
+                    if (ply > 0 && transpositionTable.depth(slot) >= searchDepth) {
+                        double value = transpositionTable.value(slot, getPlayerID());
+                        byte bound = transpositionTable.bound(slot);
+                        if (bound == MaxNTranspositionTable.EXACT ||
+                                (bound == MaxNTranspositionTable.LOWER && value >= beta) ||
+                                (bound == MaxNTranspositionTable.UPPER && value <= alpha))
+                            return new SearchResult(hashAction, transpositionTable.values(slot), alpha, beta, null,
+                                    transpositionTable.depth(slot) != Integer.MAX_VALUE);
+                    }
+                }
+            }
         }
 
         // otherwise we recurse to find the best action and value
-        double[] bestValues = new double[state.getNPlayers()];
-        double bestValue = Double.NEGATIVE_INFINITY;
-        AbstractAction bestAction = null;
         // we shuffle the actions so that ties are broken at random
+        Collections.shuffle(actions, getRnd());
         if (params.expandByEstimatedValue) {
-            // sort actions based on actionValueEstimates (with highest value first)
-            actions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.get(searchDepth - 1)
-                    .getOrDefault(a, new ActionStats(state.getNPlayers()))
-                    .totValue[state.getCurrentPlayer()]));
+            // then sort them (keeping that order for ties) by what earlier searches found
+            AbstractAction[] killerActions = killersAt(ply);
+            AbstractAction first = hashAction;
+            actions.sort(Comparator.comparingInt(a -> -orderingScore(a, first, killerActions)));
+        }
+        Node node = new Node(state, searchDepth, ply, alpha, beta);
+        boolean parallel = params.parallelThreads > 1 && searchDepth >= PARALLEL_MIN_DEPTH;
+        for (int i = 0; i < actions.size(); i++) {
+            if (parallel && i == 1) {
+                // the first action has set the bounds, so the others can be searched at the same time
+                searchInParallel(state, actions.subList(1, actions.size()), node);
+                break;
+            }
+            // If the forward model can undo actions, then we apply each one to state itself, and undo it afterwards
+            if (node.update(actions.get(i), searchAction(state, actions.get(i), node, false)))
+                break;
+            if (outOfTime || System.currentTimeMillis() - startTime > params.budget) {
+                // out of time - return best action so far
+                outOfTime = true;
+                return node.result();
+            }
+        }
+        if (node.bestAction == null) {
+            if (outOfTime)
+                return node.result();
+            throw new AssertionError("No best action found");
+        }
+        if (transpositionTable != null && !outOfTime) {
+            // with pruning the value is exact only if it is inside the window searched (otherwise it is a bound)
+            double value = node.bestValues[getPlayerID()];
+            byte bound = !node.pruning || (value > alpha && value < beta) ? MaxNTranspositionTable.EXACT :
+                    value >= beta ? MaxNTranspositionTable.LOWER : MaxNTranspositionTable.UPPER;
+            // a search that reached the end of the game on every line holds for any depth
+            synchronized (transpositionTable) {
+                transpositionTable.store(key, node.depthLimited ? searchDepth : Integer.MAX_VALUE, bound,
+                        node.bestValues, node.bestAction);
+            }
+        }
+        return node.result();
+    }
+
+    /**
+     * Searches the state after action (with the bounds of node as they are now), and returns its value.
+     * If mayChange is set then the action is applied to state itself, which is left as it is after the search;
+     * otherwise state is copied (or the action undone, if the forward model can do that).
+     */
+    private SearchResult searchAction(AbstractGameState state, AbstractAction action, Node node, boolean mayChange) {
+        MaxNSearchParameters params = getParameters();
+        AbstractForwardModel fm = forwardModel();
+        boolean undo = !mayChange && fm.supportsUndo();
+        int player = state.getCurrentPlayer();
+        int turn = state.getTurnCounter();
+        AbstractGameState nextState;
+        UndoToken undoToken = null;
+        if (mayChange) {
+            nextState = state;
+            fm.next(nextState, action);
+        } else if (undo) {
+            nextState = state;
+            undoToken = fm.nextWithUndo(state, action);
         } else {
-            Collections.shuffle(actions, getRnd());
+            nextState = state.copy();
+            fm.next(nextState, action);
         }
-        Map<AbstractAction, ActionStats> statsMap = actionValueEstimates.get(searchDepth - 1);
-        Map<AbstractAction, double[]> actionValues = new HashMap<>();
-        for (AbstractAction action : actions) {
-            AbstractGameState stateCopy = state.copy();
-            getForwardModel().next(stateCopy, action);
-            // if we are at the bottom, then save a bit of time by not calculating the valid actions (which we'll never try)
-            List<AbstractAction> nextActions = searchDepth > 0 ? getForwardModel().computeAvailableActions(stateCopy) : List.of();
 
+        try {
             int newDepth = switch (params.searchUnit) {
-                case ACTION -> searchDepth - 1;
-                case MACRO_ACTION ->
-                        state.getCurrentPlayer() != stateCopy.getCurrentPlayer() ? searchDepth - 1 : searchDepth;
-                case TURN -> state.getTurnCounter() != stateCopy.getTurnCounter() ? searchDepth - 1 : searchDepth;
+                case ACTION -> node.searchDepth - 1;
+                case MACRO_ACTION -> player != nextState.getCurrentPlayer() ? node.searchDepth - 1 : node.searchDepth;
+                case TURN -> turn != nextState.getTurnCounter() ? node.searchDepth - 1 : node.searchDepth;
             };
 
-            // recurse - we are here just interested in the value of stateCopy, and hence of taking action
-            // We are not interested in the best action from stateCopy
-            SearchResult result = expand(stateCopy, nextActions, newDepth, alpha, beta);
-            if (params.expandByEstimatedValue) {
-                // we store the value estimates for each action
-                if (!statsMap.containsKey(action)) {
-                    statsMap.put(action, new ActionStats(state.getNPlayers()));
-                }
-                statsMap.get(action).update(result.value);
+            // if we are at the bottom, then save a bit of time by not calculating the valid actions (which we'll never try)
+            List<AbstractAction> nextActions = newDepth > 0 && nextState.isNotTerminal() ?
+                    fm.computeAvailableActions(nextState) : List.of();
+
+            // recurse - we are here just interested in the value of nextState, and hence of taking action
+            // We are not interested in the best action from nextState
+            double alpha, beta;
+            synchronized (node) {
+                alpha = node.alpha;
+                beta = node.beta;
             }
+            return expand(nextState, nextActions, newDepth, alpha, beta, node.ply + 1);
+        } finally {
+            if (undoToken != null)
+                fm.undo(state, undoToken);
+        }
+    }
+
+    /**
+     * Searches the actions from state (after the first) at the same time, each from its own copy of state.
+     * Each takes the bounds of node as they are when it starts; once one causes a cut-off those not yet started
+     * are skipped (but those already started run to the end).
+     */
+    private void searchInParallel(AbstractGameState state, List<AbstractAction> actions, Node node) {
+        long budget = getParameters().budget;
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(actions.size());
+        for (AbstractAction action : actions) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                if (node.cutOff || outOfTime)
+                    return;
+                node.update(action, searchAction(state.copy(), action, node, true));
+                if (System.currentTimeMillis() - startTime > budget)
+                    outOfTime = true;
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * @return the forward model for this thread (each thread of a parallel search has its own independentCopy())
+     */
+    private AbstractForwardModel forwardModel() {
+        return threadForwardModel == null ? getForwardModel() : threadForwardModel.get();
+    }
 
+    private int orderingScore(AbstractAction action, AbstractAction hashAction, AbstractAction[] killerActions) {
+        if (action.equals(hashAction))
+            return Integer.MAX_VALUE;
+        if (action.equals(killerActions[0]))
+            return Integer.MAX_VALUE - 1;
+        if (action.equals(killerActions[1]))
+            return Integer.MAX_VALUE - 2;
+        return history.getOrDefault(action, 0);
+    }
+
+    private synchronized AbstractAction[] killersAt(int ply) {
+        return ply < killers.size() ? killers.get(ply).clone() : new AbstractAction[2];
+    }
+
+    /**
+     * Records that action caused a cut-off ply actions from the root, with searchDepth still to go
+     */
+    private synchronized void cutOff(AbstractAction action, int ply, int searchDepth) {
+        while (killers.size() <= ply)
+            killers.add(new AbstractAction[2]);
+        AbstractAction[] killerActions = killers.get(ply);
+        if (!action.equals(killerActions[0])) {
+            killerActions[1] = killerActions[0];
+            killerActions[0] = action;
+        }
+        history.merge(action, searchDepth * searchDepth, Integer::sum);
+    }
+
+    /**
+     * The search of one state: the best action found so far, and the bounds for the actions still to search.
+     * The methods are synchronized as a parallel search updates it from several threads.
+     */
+    private class Node {
+        final int actor, searchDepth, ply;
+        final boolean pruning;
+        double alpha, beta;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double[] bestValues;
+        AbstractAction bestAction;
+        final Map<AbstractAction, double[]> actionValues = new HashMap<>();
+        volatile boolean cutOff;
+        boolean depthLimited;
+
+        Node(AbstractGameState state, int searchDepth, int ply, double alpha, double beta) {
+            this.actor = state.getCurrentPlayer();
+            this.searchDepth = searchDepth;
+            this.ply = ply;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bestValues = new double[state.getNPlayers()];
+            MaxNSearchParameters params = getParameters();
+            this.pruning = params.paranoid && params.alphaBetaPruning;
+        }
+
+        /**
+         * @return true if the remaining actions need not be searched
+         */
+        synchronized boolean update(AbstractAction action, SearchResult result) {
+            if (cutOff)
+                return true;
             actionValues.put(action, result.value);
-            // we make the decision based on the actor at state, not the actor at stateCopy
-            if (result.value[state.getCurrentPlayer()] > bestValue) {
+            depthLimited |= result.depthLimited;
+            // we make the decision based on the actor at state, not the actor at nextState
+            if (result.value[actor] > bestValue) {
                 bestAction = action;
-                bestValue = result.value[state.getCurrentPlayer()];
+                bestValue = result.value[actor];
                 bestValues = result.value;
 
-                if (params.paranoid && params.alphaBetaPruning) {
+                if (pruning) {
                     // alpha-beta pruning
                     // bestValue is already from the perspective of the current player (i.e. negated for opponents)
-                    if (getPlayerID() == state.getCurrentPlayer()) {
-                        if (bestValue > beta) {
-                            return new SearchResult(bestAction, bestValues, alpha, beta, actionValues);
-                        }
-                        alpha = Math.max(alpha, bestValue);
+                    if (getPlayerID() == actor) {
+                        if (bestValue > beta)
+                            cutOff = true;
+                        else
+                            alpha = Math.max(alpha, bestValue);
                     } else {
-                        if (-bestValue < alpha) {
-                            return new SearchResult(bestAction, bestValues, alpha, beta, actionValues);
-                        }
-                        beta = Math.min(beta, -bestValue);
+                        if (-bestValue < alpha)
+                            cutOff = true;
+                        else
+                            beta = Math.min(beta, -bestValue);
                     }
+                    if (cutOff)
+                        cutOff(action, ply, searchDepth);
                 }
             }
-
-            if (System.currentTimeMillis() - startTime > params.budget) {
-                // out of time - return best action so far
-                return new SearchResult(bestAction, bestValues, alpha, beta, actionValues);
-            }
+            return cutOff;
         }
-        if (bestAction == null) {
-            throw new AssertionError("No best action found");
+
+        synchronized SearchResult result() {
+            return new SearchResult(bestAction, bestValues, alpha, beta, actionValues, depthLimited);
         }
-        return new SearchResult(bestAction, bestValues, alpha, beta, actionValues);
     }
 
     @Override
@@ -208,7 +437,11 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         return retValue;
     }
 
-    protected record SearchResult(AbstractAction action, double[] value, double alpha, double beta, Map<AbstractAction, double[]> allActionValues) {
+    /**
+     * depthLimited is true if the search reached a state that is not terminal at the depth limit
+     */
+    protected record SearchResult(AbstractAction action, double[] value, double alpha, double beta,
+                                  Map<AbstractAction, double[]> allActionValues, boolean depthLimited) {
     }
 
 }
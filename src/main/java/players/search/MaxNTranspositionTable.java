@@ -0,0 +1,123 @@
+package players.search;
+
+import core.actions.AbstractAction;
+import utilities.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * The transposition table of a MaxNSearchPlayer (see MaxNSearchParameters.transpositionTableSize): for each state
+ * searched (keyed by AbstractGameState.longHash()), the depth it was searched to, the value vector found, whether
+ * that is exact or only a bound (when alpha-beta pruning cut the search short), and the best action.
+ * <p>
+ * The entries are held in flat arrays, in buckets of two: a new entry replaces one with the same key, then one from
+ * an earlier decision, then the one searched to the lesser depth. The table is kept from one decision to the next, but
+ * only the entries from the current decision are found (see newSearch()), as the heuristic values (and so the
+ * results) may change as the game goes on.
+ */
+class MaxNTranspositionTable {
+
+    static final byte EXACT = 0, LOWER = 1, UPPER = 2;
+
+    final int capacity;
+    private final long[] keys;
+    private final int[] depths;
+    private final byte[] bounds;
+    private final AbstractAction[] moves;
+    private final int[] generations;
+    private double[] values;
+    private int nPlayers;
+    private int generation;
+
+    // from probe(), since the last newSearch()
+    int probes, hits;
+
+    MaxNTranspositionTable(int size) {
+        capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        keys = new long[capacity];
+        depths = new int[capacity];
+        bounds = new byte[capacity];
+        moves = new AbstractAction[capacity];
+        generations = new int[capacity];
+    }
+
+    /**
+     * Called at the start of each decision: the entries from earlier ones are no longer found
+     */
+    void newSearch(int nPlayers) {
+        if (values == null || this.nPlayers != nPlayers) {
+            this.nPlayers = nPlayers;
+            values = new double[capacity * nPlayers];
+        }
+        generation++;
+        if (generation == 0) {
+            // after 2^32 searches, so that no old entry can match
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        probes = 0;
+        hits = 0;
+    }
+
+    private int bucket(long key) {
+        return (int) (Zobrist.key(key) & (capacity - 2));
+    }
+
+    /**
+     * @return the slot with the entry for key, or -1 if there is none from this decision
+     */
+    int probe(long key) {
+        probes++;
+        int b = bucket(key);
+        for (int i = b; i < b + 2; i++) {
+            if (generations[i] == generation && keys[i] == key) {
+                hits++;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int depth(int slot) {
+        return depths[slot];
+    }
+
+    byte bound(int slot) {
+        return bounds[slot];
+    }
+
+    AbstractAction move(int slot) {
+        return moves[slot];
+    }
+
+    double value(int slot, int player) {
+        return values[slot * nPlayers + player];
+    }
+
+    double[] values(int slot) {
+        return Arrays.copyOfRange(values, slot * nPlayers, (slot + 1) * nPlayers);
+    }
+
+    void store(long key, int depth, byte bound, double[] value, AbstractAction move) {
+        int b = bucket(key);
+        int slot = -1;
+        for (int i = b; i < b + 2 && slot < 0; i++) {
+            if (generations[i] == generation && keys[i] == key)
+                slot = i;
+        }
+        if (slot >= 0 && depths[slot] > depth)
+            return;  // keep the deeper search
+        for (int i = b; i < b + 2 && slot < 0; i++) {
+            if (generations[i] != generation)
+                slot = i;
+        }
+        if (slot < 0)
+            slot = depths[b] <= depths[b + 1] ? b : b + 1;
+        keys[slot] = key;
+        depths[slot] = depth;
+        bounds[slot] = bound;
+        moves[slot] = move;
+        generations[slot] = generation;
+        System.arraycopy(value, 0, values, slot * nPlayers, nPlayers);
+    }
+}
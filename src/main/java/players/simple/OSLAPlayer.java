@@ -1,19 +1,37 @@
 package players.simple;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IStateHeuristic;
+import utilities.SearchThreads;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import static utilities.Utils.noise;
 
+/**
+ * Applies each action in turn to a copy of the state, scores it with the heuristic, and takes the best.
+ * <p>
+ * With parallelThreads, an action list of at least PARALLEL_MIN_ACTIONS is divided between that many threads
+ * (SearchThreads), each with its own AbstractForwardModel.independentCopy(), which apply their share of the
+ * actions and score the states reached together (IStateHeuristic.evaluateStates()). The noise and choice of action
+ * stay on the calling thread, so the action chosen does not depend on the number of threads. The heuristic must then
+ * be safe to call from several threads at once.
+ */
 public class OSLAPlayer extends AbstractPlayer {
 
+    // below this many actions the threads cost more than they save
+    static final int PARALLEL_MIN_ACTIONS = 16;
+
     // Heuristic used for the agent
     IStateHeuristic heuristic;
+    int parallelThreads = 1;
+    // one for each thread of a parallel lookahead, starting with our own
+    private List<AbstractForwardModel> forwardModels = List.of();
 
     public OSLAPlayer(Random random) {
         super(null, "SuperOSLA");
@@ -34,6 +52,13 @@ public class OSLAPlayer extends AbstractPlayer {
         setName("OSLA");
     }
 
+    /**
+     * @param parallelThreads - the number of threads to divide a large action list between (1 for none)
+     */
+    public void setParallelThreads(int parallelThreads) {
+        this.parallelThreads = parallelThreads;
+    }
+
     @Override
     public AbstractAction _getAction(AbstractGameState gs, List<AbstractAction> actions) {
         double maxQ = Double.NEGATIVE_INFINITY;
@@ -41,17 +66,32 @@ public class OSLAPlayer extends AbstractPlayer {
         double[] valState = new double[actions.size()];
         int playerID = gs.getCurrentPlayer();
 
-        for (int actionIndex = 0; actionIndex < actions.size(); actionIndex++) {
-            AbstractAction action = actions.get(actionIndex);
-            AbstractGameState gsCopy = gs.copy();
-            getForwardModel().next(gsCopy, action);
-
-            if (heuristic != null) {
-                valState[actionIndex] = heuristic.evaluateState(gsCopy, playerID);
-            } else {
-                valState[actionIndex] = gsCopy.getHeuristicScore(playerID);
+        if (parallelThreads > 1 && actions.size() >= PARALLEL_MIN_ACTIONS) {
+            if (forwardModels.isEmpty() || forwardModels.get(0) != getForwardModel()) {
+                forwardModels = new ArrayList<>(parallelThreads);
+                forwardModels.add(getForwardModel());
+                for (int i = 1; i < parallelThreads; i++)
+                    forwardModels.add(getForwardModel().independentCopy());
+            }
+            // each thread takes a contiguous share of the actions
+            List<Runnable> tasks = new ArrayList<>(parallelThreads);
+            for (int t = 0; t < parallelThreads; t++) {
+                AbstractForwardModel fm = forwardModels.get(t);
+                int from = actions.size() * t / parallelThreads, to = actions.size() * (t + 1) / parallelThreads;
+                tasks.add(() -> evaluate(gs, actions, from, to, fm, playerID, valState));
+            }
+            SearchThreads.runAll(tasks);
+        } else {
+            // only one copy of the state is needed at a time
+            for (int actionIndex = 0; actionIndex < actions.size(); actionIndex++) {
+                AbstractGameState gsCopy = gs.copy();
+                getForwardModel().next(gsCopy, actions.get(actionIndex));
+                valState[actionIndex] = heuristic != null ? heuristic.evaluateState(gsCopy, playerID) : gsCopy.getHeuristicScore(playerID);
             }
+        }
 
+        for (int actionIndex = 0; actionIndex < actions.size(); actionIndex++) {
+            AbstractAction action = actions.get(actionIndex);
             double Q = noise(valState[actionIndex], getParameters().noiseEpsilon, rnd.nextDouble());
 
             if (Q > maxQ || bestAction == null) {
@@ -63,10 +103,32 @@ public class OSLAPlayer extends AbstractPlayer {
         return bestAction;
     }
 
+    /**
+     * Applies actions from (inclusive) to to (exclusive) each to a copy of gs, and puts the value of the states reached
+     * into valState. This is one thread's share of a parallel lookahead.
+     */
+    private void evaluate(AbstractGameState gs, List<AbstractAction> actions, int from, int to,
+                          AbstractForwardModel fm, int playerID, double[] valState) {
+        List<AbstractGameState> states = new ArrayList<>(to - from);
+        for (int actionIndex = from; actionIndex < to; actionIndex++) {
+            AbstractGameState gsCopy = gs.copy();
+            fm.next(gsCopy, actions.get(actionIndex));
+            states.add(gsCopy);
+        }
+
+        if (heuristic != null) {
+            System.arraycopy(heuristic.evaluateStates(states, playerID), 0, valState, from, to - from);
+        } else {
+            for (int i = 0; i < states.size(); i++)
+                valState[from + i] = states.get(i).getHeuristicScore(playerID);
+        }
+    }
+
     @Override
     public OSLAPlayer copy() {
         OSLAPlayer retValue = new OSLAPlayer(heuristic, new Random(rnd.nextInt()));
         retValue.setForwardModel(getForwardModel());
+        retValue.parallelThreads = parallelThreads;
         return retValue;
     }
 
@@ -54,6 +54,13 @@ public class ElapsedCpuChessTimer extends ElapsedCpuTimer {
         return timeRemaining;
     }
 
+    /**
+     * Puts back the time remaining to an earlier value, as when the actions since then have been undone.
+     */
+    public void setRemainingTime(long timeRemaining) {
+        this.timeRemaining = timeRemaining;
+    }
+
     public long remainingTimeMillis() {
         return (long) (timeRemaining / 1000000.0);
     }
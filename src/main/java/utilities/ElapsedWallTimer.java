@@ -0,0 +1,14 @@
+package utilities;
+
+/**
+ * An ElapsedCpuTimer that measures elapsed (wall-clock) time rather than the CPU time of the calling thread. This is
+ * the one to use for the time budget of a search that runs on several threads, as the CPU time of the threads that
+ * the calling thread waits for is not counted by an ElapsedCpuTimer.
+ */
+public class ElapsedWallTimer extends ElapsedCpuTimer {
+
+    @Override
+    protected long getTime() {
+        return System.nanoTime();
+    }
+}
@@ -1,34 +1,57 @@
 package utilities;
 
-import java.util.HashMap;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the integer keys used for component properties and components (see Component.getProperty()).
+ * The key for a string is its String.hashCode(), which Java caches in the String, so looking up a key that has
+ * been seen before does not allocate and is safe from any thread.
+ * The first time a string is seen it is registered, so that two different strings with the same key are reported
+ * (with an AssertionError) rather than silently referring to the same property.
+ */
 public class Hash
 {
-    private static Hash hash;
+    private static final Hash hash = new Hash();
 
-    private HashMap<String, Integer> hashmap;
+    // every string registered so far, and the string for each key
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, String> keys = new ConcurrentHashMap<>();
 
     public static Hash GetInstance()
     {
-        if(hash == null)
-            hash = new Hash();
         return hash;
     }
 
     private Hash()
     {
-        hashmap = new HashMap<>();
     }
 
 
     public int hash(String key)
     {
-        if(hashmap.containsKey(key))
-            return hashmap.get(key);
+        int value = key.hashCode();
+        if (!registered.contains(key))
+            register(key, value);
+        return value;
+    }
+
+    private void register(String key, int value)
+    {
+        String previous = keys.putIfAbsent(value, key);
+        if (previous != null && !previous.equals(key))
+            throw new AssertionError("Keys '" + previous + "' and '" + key + "' have the same hash " + value);
+        registered.add(key);
+    }
 
-        int newValue = key.hashCode();
-        hashmap.put(key, newValue);
-        return newValue;
+    /**
+     * @param value - a key returned by hash()
+     * @return - the string it was made from, or null if no such string has been registered
+     */
+    public String getKey(int value)
+    {
+        return keys.get(value);
     }
 
 }
@@ -0,0 +1,199 @@
+package utilities;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * An IndexedDeque that also keeps a 64-bit hash of its contents, in order, for Zobrist-style state hashing.
+ * The hash is the sum over the elements of key(e) * R^i, where key(e) is the Zobrist key of the hashCode() of the
+ * element, and i is its index. Adding or removing at either end updates this in O(1); elsewhere it takes time
+ * proportional to the distance from the nearer end, as for moving the elements themselves.
+ * <p>
+ * The hash is only kept up to date once it has been asked for, so a list whose hash is never used pays no more than
+ * a check of a flag on each change. A copy made with the copy constructor (or copyHashFrom()) takes over the hash.
+ * Elements are keyed by their hashCode() when they are added, so an element that is changed in place while in the
+ * list is not seen. This is intended for elements whose hashCode() does not change, such as immutable cards.
+ *
+ * @param <E> - type of the elements
+ */
+public class HashedDeque<E> extends IndexedDeque<E> {
+
+    private static final long R = 0x9E3779B97F4A7C15L;  // odd, so that it has an inverse modulo 2^64
+    private static final long R_INVERSE = inverse(R);
+
+    private long hash;
+    private long power = 1;  // R^size()
+    private boolean valid;   // true if hash and power are up to date
+
+    public HashedDeque() {
+        super();
+    }
+
+    public HashedDeque(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    public HashedDeque(Collection<? extends E> c) {
+        super(c);
+        if (c instanceof HashedDeque<?> other)
+            copyHashFrom(other);
+    }
+
+    private static long inverse(long x) {
+        // x * x == 1 (mod 8) for any odd x, and each step of Newton's method doubles the number of correct bits
+        long y = x;
+        for (int i = 0; i < 5; i++)
+            y *= 2 - x * y;
+        return y;
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0)
+                result *= base;
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    private static long key(Object e) {
+        return Zobrist.key(Objects.hashCode(e));
+    }
+
+    /**
+     * @return - the sum of key(e_j) * R^(j - from) for j in [from, to)
+     */
+    private long rangeHash(int from, int to) {
+        long h = 0;
+        for (int j = to - 1; j >= from; j--)
+            h = h * R + key(get(j));
+        return h;
+    }
+
+    /**
+     * @return - hash of the elements, in order. This is O(n) the first time it is called, and O(1) after that.
+     */
+    public long longHash() {
+        if (!valid) {
+            hash = rangeHash(0, size());
+            power = pow(R, size());
+            valid = true;
+        }
+        return hash;
+    }
+
+    /**
+     * Stops keeping the hash up to date until it is next asked for. This is worthwhile before changes that touch
+     * most of the list, such as a shuffle, after which it is cheaper to hash the list again.
+     */
+    public void invalidateHash() {
+        valid = false;
+    }
+
+    /**
+     * Takes over the hash of another list, which must have elements with the same hash codes in the same order
+     * (for example, because this list was filled with copies of its elements).
+     */
+    public void copyHashFrom(HashedDeque<?> other) {
+        hash = other.hash;
+        power = other.power;
+        valid = other.valid;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E old = super.set(index, element);
+        if (valid && old != element)
+            hash += (key(element) - key(old)) * pow(R, index);
+        return old;
+    }
+
+    @Override
+    public boolean add(E e) {
+        super.add(e);
+        if (valid) {
+            hash += key(e) * power;
+            power *= R;
+        }
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if (!valid) {
+            super.add(index, element);
+            return;
+        }
+        int n = size();
+        long newHash;
+        if (index == 0) {
+            newHash = key(element) + R * hash;
+        } else if (index == n) {
+            newHash = hash + key(element) * power;
+        } else if (index > 0 && index < n) {
+            // the elements from index onwards move up one place, so their part of the hash is multiplied by R
+            long atIndex = pow(R, index);
+            long high = index <= n - index ? hash - rangeHash(0, index) : rangeHash(index, n) * atIndex;
+            newHash = hash + (R - 1) * high + key(element) * atIndex;
+        } else {
+            newHash = hash;  // out of range, so the add below throws
+        }
+        super.add(index, element);
+        hash = newHash;
+        power *= R;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        if (!valid || (index != 0 && index != size())) {
+            boolean changed = super.addAll(index, c);
+            if (changed)
+                valid = false;
+            return changed;
+        }
+        long block = 0, blockPower = 1;
+        for (E e : c) {
+            block += key(e) * blockPower;
+            blockPower *= R;
+        }
+        boolean atEnd = index == size();
+        boolean changed = super.addAll(index, c);
+        hash = atEnd ? hash + block * power : block + blockPower * hash;
+        power *= blockPower;
+        return changed;
+    }
+
+    @Override
+    public E remove(int index) {
+        if (!valid)
+            return super.remove(index);
+        int n = size();
+        E old = get(index);
+        long atIndex = pow(R, index);
+        long withoutOld = hash - key(old) * atIndex;
+        long newHash;
+        if (index == n - 1) {
+            newHash = withoutOld;
+        } else if (index <= n - 1 - index) {
+            // the elements after index move down one place, so their part of the hash is divided by R
+            long low = rangeHash(0, index);
+            newHash = low + (withoutOld - low) * R_INVERSE;
+        } else {
+            long high = rangeHash(index + 1, n) * atIndex;  // their part of the hash once moved down
+            newHash = withoutOld - (R - 1) * high;
+        }
+        super.remove(index);
+        hash = newHash;
+        power *= R_INVERSE;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hash = 0;
+        power = 1;
+    }
+}
@@ -0,0 +1,248 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * A List backed by a circular array, so that adding or removing at either end is O(1) (amortised), as with a
+ * LinkedList, while get() and set() at any index are also O(1), as with an ArrayList.
+ * Insertion or removal elsewhere moves whichever side of the index is shorter.
+ * <p>
+ * This is the storage used by Deck, where index 0 is the top of the deck and new components are usually added there.
+ *
+ * @param <E> - type of the elements
+ */
+public class IndexedDeque<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // length is always a power of two, so that indices wrap with a mask
+    private Object[] elements;
+    private int head;  // array index of element 0
+    private int size;
+
+    public IndexedDeque() {
+        elements = new Object[DEFAULT_CAPACITY];
+    }
+
+    public IndexedDeque(int initialCapacity) {
+        elements = new Object[capacityFor(initialCapacity)];
+    }
+
+    public IndexedDeque(Collection<? extends E> c) {
+        Object[] source = c.toArray();
+        elements = new Object[capacityFor(source.length)];
+        System.arraycopy(source, 0, elements, 0, source.length);
+        size = source.length;
+    }
+
+    private static int capacityFor(int n) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < n)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (elements.length - 1);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * Makes sure there is room for n more elements, re-packing the contents from array index 0 if it grows
+     */
+    private void ensureSpaceFor(int n) {
+        if (size + n <= elements.length)
+            return;
+        Object[] newElements = new Object[capacityFor(size + n)];
+        copyOut(0, newElements, 0, size);
+        elements = newElements;
+        head = 0;
+    }
+
+    /**
+     * Copies count elements, starting at list index from, into the given array
+     */
+    private void copyOut(int from, Object[] dest, int destPos, int count) {
+        int start = slot(from);
+        int firstPart = Math.min(count, elements.length - start);
+        System.arraycopy(elements, start, dest, destPos, firstPart);
+        System.arraycopy(elements, 0, dest, destPos + firstPart, count - firstPart);
+    }
+
+    /**
+     * Moves the count elements starting at list index from by the given offset (which may be negative).
+     * This works element by element (in the safe direction) so that it can cope with the wrap-around.
+     */
+    private void shift(int from, int count, int offset) {
+        int mask = elements.length - 1;
+        if (offset > 0) {
+            for (int i = count - 1; i >= 0; i--)
+                elements[(head + from + i + offset) & mask] = elements[(head + from + i) & mask];
+        } else {
+            for (int i = 0; i < count; i++)
+                elements[(head + from + i + offset) & mask] = elements[(head + from + i) & mask];
+        }
+    }
+
+    /**
+     * Opens a gap of n slots at the given index, moving whichever side is shorter
+     */
+    private void openGap(int index, int n) {
+        ensureSpaceFor(n);
+        if (index < size - index) {
+            head = (head - n) & (elements.length - 1);
+            shift(n, index, -n);
+        } else {
+            shift(index, size - index, n);
+        }
+        size += n;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        return (E) elements[slot(index)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        checkIndex(index);
+        int i = slot(index);
+        E old = (E) elements[i];
+        elements[i] = element;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(E e) {
+        append(e);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkPositionIndex(index);
+        if (index == size) {
+            append(element);
+            return;
+        }
+        openGap(index, 1);
+        elements[slot(index)] = element;
+        modCount++;
+    }
+
+    // not add(E), so that subclasses overriding both add methods see each change once
+    private void append(E e) {
+        ensureSpaceFor(1);
+        elements[slot(size)] = e;
+        size++;
+        modCount++;
+    }
+
+    public void addFirst(E e) {
+        add(0, e);
+    }
+
+    public void addLast(E e) {
+        add(e);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        checkPositionIndex(index);
+        Object[] source = c.toArray();
+        if (source.length == 0)
+            return false;
+        openGap(index, source.length);
+        int mask = elements.length - 1;
+        for (int i = 0; i < source.length; i++)
+            elements[(head + index + i) & mask] = source[i];
+        modCount++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        checkIndex(index);
+        int mask = elements.length - 1;
+        E old = (E) elements[slot(index)];
+        if (index < size - 1 - index) {
+            shift(0, index, 1);
+            elements[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            shift(index + 1, size - 1 - index, -1);
+            elements[slot(size - 1)] = null;
+        }
+        size--;
+        modCount++;
+        return old;
+    }
+
+    public E removeFirst() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return remove(0);
+    }
+
+    public E removeLast() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return remove(size - 1);
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            int start = slot(0);
+            int end = start + size;
+            if (end <= elements.length) {
+                Arrays.fill(elements, start, end, null);
+            } else {
+                Arrays.fill(elements, start, elements.length, null);
+                Arrays.fill(elements, 0, end - elements.length, null);
+            }
+        }
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        copyOut(0, result, 0, size);
+        return result;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(o, elements[slot(i)]))
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,110 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * An append-only log in which copies share all the entries they have in common.
+ * Entries are held in an immutable chain running from the newest back to the oldest, so adding an entry
+ * or taking a copy is O(1), however long the log. Random access is O(n), as this is intended for
+ * records (such as the game history) that are appended to often and read rarely.
+ */
+public class PersistentLog<T> implements Iterable<T> {
+
+    private static final class Node<T> {
+        final T value;
+        final Node<T> previous;
+
+        Node(T value, Node<T> previous) {
+            this.value = value;
+            this.previous = previous;
+        }
+    }
+
+    private Node<T> last;
+    private int size;
+
+    public PersistentLog() {
+    }
+
+    private PersistentLog(Node<T> last, int size) {
+        this.last = last;
+        this.size = size;
+    }
+
+    public void add(T value) {
+        last = new Node<>(value, last);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        last = null;
+        size = 0;
+    }
+
+    public T get(int index) {
+        return nodeAt(index).value;
+    }
+
+    /**
+     * Replaces the entry at index. Copies sharing this entry are unaffected, which means all entries from
+     * index onwards are re-created for this log.
+     */
+    public void set(int index, T value) {
+        Node<T> replaced = nodeAt(index);
+        Node<T> node = last;
+        Object[] later = new Object[size - index - 1];
+        for (int i = later.length - 1; i >= 0; i--) {
+            later[i] = node.value;
+            node = node.previous;
+        }
+        Node<T> rebuilt = new Node<>(value, replaced.previous);
+        for (Object o : later) {
+            @SuppressWarnings("unchecked") T t = (T) o;
+            rebuilt = new Node<>(t, rebuilt);
+        }
+        last = rebuilt;
+    }
+
+    /**
+     * @return a new log with the same entries. Both this and the copy can be added to independently.
+     */
+    public PersistentLog<T> copy() {
+        return new PersistentLog<>(last, size);
+    }
+
+    /**
+     * @return a new (mutable) List of all entries, in the order in which they were added
+     */
+    public List<T> toList() {
+        Object[] values = new Object[size];
+        Node<T> node = last;
+        for (int i = size - 1; i >= 0; i--) {
+            values[i] = node.value;
+            node = node.previous;
+        }
+        @SuppressWarnings("unchecked") List<T> retValue = (List<T>) new ArrayList<>(Arrays.asList(values));
+        return retValue;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return toList().iterator();
+    }
+
+    private Node<T> nodeAt(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        Node<T> node = last;
+        for (int i = size - 1; i > index; i--)
+            node = node.previous;
+        return node;
+    }
+}
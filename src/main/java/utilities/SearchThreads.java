@@ -0,0 +1,101 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A shared pool of daemon threads for players that split their search over several threads.
+ * Threads are created as they are needed and die after a minute without work, so nothing is held on to by
+ * players that search on a single thread.
+ */
+public final class SearchThreads {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService pool = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "search-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<Integer, ForkJoinPool> forkJoinPools = new ConcurrentHashMap<>();
+
+    private SearchThreads() {
+    }
+
+    /**
+     * Runs the tasks in parallel and waits for all of them to finish. The first task is run on the calling
+     * thread, so a single task never leaves it.
+     * If any task throws, the exception of the first of them to do so (in list order) is rethrown once all
+     * have finished.
+     *
+     * @param tasks - the tasks to run
+     * @return - the results of the tasks, in the same order
+     */
+    public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (int i = 1; i < tasks.size(); i++)
+            futures.add(pool.submit(tasks.get(i)));
+
+        List<T> results = new ArrayList<>(tasks.size());
+        Throwable failure = null;
+        try {
+            if (!tasks.isEmpty())
+                results.add(tasks.get(0).call());
+        } catch (Throwable e) {
+            failure = e;
+        }
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null)
+                    failure = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                    failure = e;
+            }
+        }
+        if (failure instanceof RuntimeException re)
+            throw re;
+        if (failure instanceof Error error)
+            throw error;
+        if (failure != null)
+            throw new RuntimeException(failure);
+        return results;
+    }
+
+    /**
+     * Starts the task on one of the threads, and returns at once; for a search that runs in the background
+     * until it is stopped.
+     */
+    public static Future<?> submit(Runnable task) {
+        return pool.submit(task);
+    }
+
+    /**
+     * Runs the tasks in parallel, as invokeAll(), for tasks that return nothing.
+     */
+    public static void runAll(List<Runnable> tasks) {
+        List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            callables.add(Executors.callable(task));
+        invokeAll(callables);
+    }
+
+    /**
+     * @return a shared ForkJoinPool of daemon threads with the given parallelism, for a search that divides its work
+     * recursively (so that a thread waiting on its subtasks can run others in the meantime)
+     */
+    public static ForkJoinPool forkJoinPool(int parallelism) {
+        return forkJoinPools.computeIfAbsent(parallelism, p -> new ForkJoinPool(p, fjPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjPool);
+            thread.setName("search-fj-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false));
+    }
+}
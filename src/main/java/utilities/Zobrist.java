@@ -0,0 +1,45 @@
+package utilities;
+
+/**
+ * Keys for Zobrist-style hashing of game states (see AbstractGameState.longHash()).
+ * Each fact about a state, such as "the cell at (x, y) holds this node" or "this counter has this value", has a
+ * 64-bit key that is as good as random, and the hash of a component or state combines the keys of the facts that
+ * are true in it. As the combination can be undone, a component can keep its hash up to date in O(1) when one
+ * fact changes, rather than hashing all of its contents again.
+ * <p>
+ * Instead of a table of random numbers, the key of a fact is a 64-bit mix (the SplitMix64 finaliser) of the numbers
+ * that describe it. This needs no storage however many components, positions and values a game has, and gives the
+ * same keys in every run and on every thread.
+ */
+public final class Zobrist {
+
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param fact - a number that identifies the fact
+     * @return - the key for the fact
+     */
+    public static long key(long fact) {
+        long z = fact + GAMMA;  // so that 0 does not have the key 0
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return - the key for a fact described by two numbers, such as a position and the value at it
+     */
+    public static long key(long a, long b) {
+        return key(key(a) + b);
+    }
+
+    /**
+     * @return - the key for a fact described by three numbers
+     */
+    public static long key(long a, long b, long c) {
+        return key(key(key(a) + b) + c);
+    }
+}
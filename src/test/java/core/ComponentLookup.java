@@ -0,0 +1,71 @@
+package core;
+
+import core.components.*;
+import games.GameType;
+import games.dominion.DominionGameState;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static games.dominion.DominionConstants.DeckType.HAND;
+import static org.junit.Assert.*;
+
+public class ComponentLookup {
+
+    @Test
+    public void indexFindsNestedComponents() {
+        ComponentIndex index = new ComponentIndex();
+        assertNull(index.get(0));
+
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Card c = new Card("Card " + i);
+            cards.add(c);
+            deck.add(c);
+        }
+        Counter counter = new Counter();
+        index.rebuild(List.of(deck, counter));
+        assertEquals(202, index.size());
+        assertSame(deck, index.get(deck.getComponentID()));
+        assertSame(counter, index.get(counter.getComponentID()));
+        for (Card c : cards)
+            assertSame(c, index.get(c.getComponentID()));
+        assertNull(index.get(-1));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.get(deck.getComponentID()));
+    }
+
+    @Test
+    public void copyFindsItsOwnComponents() {
+        Game game = GameType.Dominion.createGameInstance(3, 42);
+        DominionGameState state = (DominionGameState) game.getGameState();
+        Deck<DominionCard> hand = state.getDeck(HAND, 0);
+        assertSame(hand, state.getComponentById(hand.getComponentID()));
+
+        DominionGameState copy = (DominionGameState) state.copy();
+        Deck<DominionCard> copyHand = copy.getDeck(HAND, 0);
+        assertNotSame(hand, copyHand);
+        assertSame(copyHand, copy.getComponentById(hand.getComponentID()));
+        assertSame(hand, state.getComponentById(hand.getComponentID()));
+    }
+
+    @Test
+    public void componentsAddedAfterLookupAreFound() {
+        Game game = GameType.Dominion.createGameInstance(3, 42);
+        DominionGameState state = (DominionGameState) game.getGameState();
+        Deck<DominionCard> hand = state.getDeck(HAND, 0);
+        assertSame(hand, state.getComponentById(hand.getComponentID()));
+
+        DominionCard newCard = DominionCard.create(CardType.GOLD);
+        assertNull(state.getComponentById(newCard.getComponentID()));
+        hand.add(newCard);
+        assertSame(newCard, state.getComponentById(newCard.getComponentID()));
+    }
+}
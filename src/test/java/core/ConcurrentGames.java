@@ -0,0 +1,97 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Card;
+import core.components.Component;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentGames {
+
+    private static final GameType[] games = {GameType.TicTacToe, GameType.Connect4, GameType.Dominion,
+            GameType.SushiGo, GameType.Diamant, GameType.Uno};
+
+    /**
+     * Plays a game with random actions, and at each decision rolls forward a copy of the state for a few actions.
+     * Returns the component IDs in the final state (sorted by ID, along with the component name) and the history
+     * and scores, which should depend only on the seed.
+     */
+    private static List<Object> play(GameType gameType, long seed) {
+        int nPlayers = Math.max(gameType.getMinPlayers(), Math.min(3, gameType.getMaxPlayers()));
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        state.redeterminisationRnd = new Random(seed);
+        Random actionRnd = new Random(seed);
+        List<Object> results = new ArrayList<>();
+
+        while (state.isNotTerminal() && state.getGameTick() < 200) {
+            AbstractGameState copy = state.copy(state.getCurrentPlayer());
+            for (int i = 0; i < 5 && copy.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                fm.next(copy, actions.get(actionRnd.nextInt(actions.size())));
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(actionRnd.nextInt(actions.size())));
+        }
+        state.getAllComponents().getComponents().stream()
+                .sorted(Comparator.comparingInt(Component::getComponentID))
+                .forEach(c -> results.add(c.getComponentID() + " " + c.getComponentName()));
+        for (int p = 0; p < nPlayers; p++)
+            results.add(state.getGameScore(p));
+        results.addAll(state.getHistoryAsText());
+        return results;
+    }
+
+    @Test
+    public void sameSeedGivesSameComponentIDs() {
+        List<Object> first = play(GameType.Dominion, 3);
+        // components created outside a game must not affect the IDs in the next one
+        for (int i = 0; i < 100; i++)
+            new Card("Unrelated");
+        play(GameType.SushiGo, 3);
+        assertEquals(first, play(GameType.Dominion, 3));
+    }
+
+    @Test
+    public void componentIDsAreUniqueWithinAGame() {
+        for (GameType gameType : games) {
+            Game game = gameType.createGameInstance(gameType.getMinPlayers(), 42);
+            AbstractGameState copy = game.getGameState().copy();
+            Set<Integer> ids = new HashSet<>();
+            for (Component c : copy.getAllComponents().getComponents())
+                assertTrue(gameType.name() + " has duplicate ID " + c.getComponentID(), ids.add(c.getComponentID()));
+        }
+    }
+
+    @Test
+    public void parallelGamesMatchSerialGames() throws Exception {
+        Map<String, List<Object>> serial = new HashMap<>();
+        List<Callable<Map.Entry<String, List<Object>>>> tasks = new ArrayList<>();
+        for (GameType gameType : games) {
+            for (long seed = 1; seed <= 4; seed++) {
+                long s = seed;
+                serial.put(gameType.name() + "-" + seed, play(gameType, seed));
+                // each game is run several times, so the same game is often running on more than one thread
+                for (int repeat = 0; repeat < 3; repeat++)
+                    tasks.add(() -> Map.entry(gameType.name() + "-" + s, play(gameType, s)));
+            }
+        }
+        Collections.shuffle(tasks, new Random(11));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Map.Entry<String, List<Object>>> result : executor.invokeAll(tasks)) {
+                Map.Entry<String, List<Object>> entry = result.get();
+                assertEquals(entry.getKey(), serial.get(entry.getKey()), entry.getValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Card;
+import core.components.Component;
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import games.GameType;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class CopyOnWriteDecks {
+
+    Random rnd = new Random(393);
+
+    private Deck<DominionCard> dominionDeck() {
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        deck.setCopyOnWrite(true);
+        deck.add(DominionCard.create(CardType.COPPER));
+        deck.add(DominionCard.create(CardType.MILITIA));
+        deck.add(DominionCard.create(CardType.SMITHY));
+        deck.add(DominionCard.create(CardType.GOLD));
+        return deck;
+    }
+
+    @Test
+    public void copyOfImmutableComponentsSharesThem() {
+        Deck<DominionCard> deck = dominionDeck();
+        Deck<DominionCard> copy = deck.copy();
+        assertTrue(copy.isCopyOnWrite());
+        assertEquals(deck, copy);
+        for (int i = 0; i < deck.getSize(); i++)
+            assertSame(deck.get(i), copy.get(i));
+    }
+
+    @Test
+    public void modifyingCopyLeavesOriginalUnchanged() {
+        Deck<DominionCard> deck = dominionDeck();
+        List<DominionCard> original = new ArrayList<>(deck.getComponents());
+        Deck<DominionCard> copy = deck.copy();
+
+        copy.draw();
+        copy.add(DominionCard.create(CardType.PROVINCE));
+        copy.shuffle(rnd);
+        copy.remove(0);
+        assertEquals(original, deck.getComponents());
+        assertEquals(3, copy.getSize());
+
+        copy.getComponents().clear();
+        assertEquals(original, deck.getComponents());
+        assertEquals(0, copy.getSize());
+    }
+
+    @Test
+    public void modifyingOriginalLeavesCopyUnchanged() {
+        Deck<DominionCard> deck = dominionDeck();
+        Deck<DominionCard> copy = deck.copy();
+        List<DominionCard> copyContents = new ArrayList<>(copy.getComponents());
+
+        deck.pick(2);
+        deck.addToBottom(DominionCard.create(CardType.CURSE));
+        deck.setComponent(0, DominionCard.create(CardType.DUCHY));
+        assertEquals(copyContents, copy.getComponents());
+
+        // and a copy of a copy is still independent
+        Deck<DominionCard> copyOfCopy = copy.copy();
+        copy.clear();
+        assertEquals(copyContents, copyOfCopy.getComponents());
+        assertEquals(0, copy.getSize());
+    }
+
+    @Test
+    public void mutableComponentsAreStillCopied() {
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        deck.setCopyOnWrite(true);
+        deck.add(new Card("One"));
+        deck.add(new Card("Two"));
+        Card immutable = new Card("Three");
+        immutable.setImmutable(true);
+        deck.add(immutable);
+
+        Deck<Card> copy = deck.copy();
+        assertNotSame(deck.get(1), copy.get(1));
+        assertNotSame(deck.get(2), copy.get(2));
+        assertSame(deck.get(0), copy.get(0));
+        assertEquals(deck, copy);
+
+        copy.get(1).setComponentName("Changed");
+        assertEquals("Two", deck.get(1).getComponentName());
+    }
+
+    @Test
+    public void partialObservableVisibilityIsNotShared() {
+        PartialObservableDeck<DominionCard> deck = new PartialObservableDeck<>("Test", 0, new boolean[]{true, false, false});
+        deck.setCopyOnWrite(true);
+        deck.add(DominionCard.create(CardType.COPPER));
+        deck.add(DominionCard.create(CardType.MILITIA));
+        deck.add(DominionCard.create(CardType.SMITHY));
+
+        PartialObservableDeck<DominionCard> copy = deck.copy();
+        copy.setVisibilityOfComponent(1, 2, true);
+        assertTrue(copy.isComponentVisible(1, 2));
+        assertFalse(deck.isComponentVisible(1, 2));
+
+        deck.setVisibilityOfComponent(0, new boolean[]{true, true, true});
+        assertTrue(deck.isComponentVisible(0, 1));
+        assertFalse(copy.isComponentVisible(0, 1));
+
+        PartialObservableDeck<DominionCard> secondCopy = deck.copy();
+        secondCopy.getVisibilityOfComponent(2)[1] = true;
+        assertFalse(deck.isComponentVisible(2, 1));
+
+        deck.draw();
+        assertEquals(3, secondCopy.getSize());
+        assertTrue(secondCopy.isComponentVisible(0, 1));
+        assertEquals(2, deck.getSize());
+        assertFalse(deck.isComponentVisible(0, 1));
+    }
+
+    @Test
+    public void immutableComponentsAreClonedWithoutCopyOnWrite() {
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        Card immutable = new Card("One");
+        immutable.setImmutable(true);
+        deck.add(immutable);
+        Deck<Card> copy = deck.copy();
+        assertNotSame(deck.get(0), copy.get(0));
+        assertEquals(deck, copy);
+    }
+
+    @Test
+    public void ownerOfSharedComponentIsUnchanged() {
+        Deck<DominionCard> deck = dominionDeck();
+        deck.setOwnerId(1);
+        Deck<DominionCard> copy = deck.copy();
+        copy.setOwnerId(2);
+        copy.add(deck.get(0));
+        copy.clear();
+        for (DominionCard card : deck.getComponents())
+            assertEquals(-1, card.getOwnerId());
+    }
+
+    private List<Deck<?>> decksOf(AbstractGameState state) {
+        List<Deck<?>> decks = new ArrayList<>();
+        for (Component c : state.getAllTopLevelComponents())
+            if (c instanceof Deck<?> deck && deck.isCopyOnWrite())
+                decks.add(deck);
+        return decks;
+    }
+
+    @Test
+    public void readingComponentsOfCopyDoesNotUnshareDecks() {
+        Game game = GameType.Dominion.createGameInstance(3, 42);
+        AbstractGameState state = game.getGameState();
+        state.getCoreGameParameters().copyOnWriteDecks = true;
+        AbstractGameState copy = state.copy();
+        List<Deck<?>> decks = decksOf(copy);
+        assertFalse(decks.isEmpty());
+        for (Deck<?> deck : decks)
+            assertTrue(deck.isStorageShared());
+
+        for (Deck<?> deck : decks)
+            deck.stream().forEach(c -> assertSame(c, copy.getComponentById(c.getComponentID())));
+        copy.getAllComponents();
+        for (Deck<?> deck : decks)
+            assertTrue(deck.getComponentName(), deck.isStorageShared());
+    }
+
+    /**
+     * Plays through a game, and at each decision rolls forward a copy of the state for a few random actions.
+     * Returns the scores of all the copies and the final history, which should not depend on whether
+     * the Decks are copied on write or not.
+     */
+    private List<Object> playWithCopies(GameType gameType, int nPlayers, boolean copyOnWrite) {
+        Game game = gameType.createGameInstance(nPlayers, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        state.getCoreGameParameters().copyOnWriteDecks = copyOnWrite;
+        state.redeterminisationRnd = new Random(7);
+        Random actionRnd = new Random(11);
+        List<Object> results = new ArrayList<>();
+
+        while (state.isNotTerminal() && state.getGameTick() < 300) {
+            AbstractGameState copy = state.copy(state.getCurrentPlayer());
+            for (int i = 0; i < 10 && copy.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                fm.next(copy, actions.get(actionRnd.nextInt(actions.size())));
+            }
+            for (int p = 0; p < nPlayers; p++)
+                results.add(copy.getGameScore(p));
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(actionRnd.nextInt(actions.size())));
+        }
+        results.addAll(state.getHistoryAsText());
+        return results;
+    }
+
+    @Test
+    public void copyThenMutateIsUnchangedInDominion() {
+        assertEquals(playWithCopies(GameType.Dominion, 3, false), playWithCopies(GameType.Dominion, 3, true));
+    }
+
+    @Test
+    public void copyThenMutateIsUnchangedInSushiGo() {
+        assertEquals(playWithCopies(GameType.SushiGo, 4, false), playWithCopies(GameType.SushiGo, 4, true));
+    }
+
+    @Test
+    public void copyThenMutateIsUnchangedInDiamant() {
+        assertEquals(playWithCopies(GameType.Diamant, 3, false), playWithCopies(GameType.Diamant, 3, true));
+    }
+}
@@ -1,8 +1,12 @@
 package core;
 
+import games.GameType;
+import games.diamant.DiamantParameters;
 import games.puertorico.PuertoRicoParameters;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 
 public class ParameterCopy {
@@ -13,7 +17,45 @@ public class ParameterCopy {
         params.setRandomSeed(1234);
         PuertoRicoParameters paramsCopy = (PuertoRicoParameters) params.copy();
         assertEquals(1234, params.getRandomSeed());
-        assertNotEquals(params.getRandomSeed(), paramsCopy.getRandomSeed());
+        assertEquals(params.getRandomSeed(), paramsCopy.getRandomSeed());
         assertEquals(params.hashCode(), paramsCopy.hashCode());
     }
+
+    @Test
+    public void stateCopiesShareFrozenParameters() {
+        DiamantParameters params = new DiamantParameters();
+        params.setRandomSeed(1234);
+        Game game = GameType.Diamant.createGameInstance(3, params);
+        AbstractGameState state = game.getGameState();
+        assertTrue(params.isFrozen());
+        assertSame(params, state.getGameParameters());
+        assertSame(params, state.copy().getGameParameters());
+        assertSame(params, state.copy(1).getGameParameters());
+
+        try {
+            params.setParameterValue("nCaves", 3);
+            fail("Frozen parameters should not be changed");
+        } catch (IllegalStateException expected) {
+            assertEquals(5, params.nCaves);
+        }
+
+        // to change the parameters, a copy is needed, which keeps the seed
+        DiamantParameters changed = (DiamantParameters) params.copy();
+        assertFalse(changed.isFrozen());
+        assertEquals(1234, changed.getRandomSeed());
+        changed.setParameterValue("nCaves", 3);
+        assertEquals(3, changed.nCaves);
+        assertEquals(5, params.nCaves);
+    }
+
+    @Test
+    public void randomizingParametersBetweenGames() {
+        Game game = GameType.Diamant.createGameInstance(3, 42);
+        AbstractParameters params = game.getGameState().getGameParameters();
+        game.randomizeParameters();
+        assertFalse(params.isFrozen());
+        game.reset(Collections.emptyList(), 43);
+        assertTrue(params.isFrozen());
+        assertEquals(43, params.getRandomSeed());
+    }
 }
@@ -0,0 +1,125 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.BoardNode;
+import core.components.Card;
+import core.properties.*;
+import games.GameType;
+import games.pandemic.PandemicGameState;
+import org.json.simple.JSONArray;
+import org.junit.Test;
+import utilities.Hash;
+
+import java.util.*;
+
+import static core.CoreConstants.nameHash;
+import static games.pandemic.PandemicConstants.infectionHash;
+import static org.junit.Assert.*;
+
+public class PropertyStorage {
+
+    @Test
+    public void propertyMapIsTheSameAsAHashMap() {
+        Random rnd = new Random(42);
+        PropertyMap map = new PropertyMap();
+        Map<Integer, Property> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "p" + rnd.nextInt(50);
+            int key = Hash.GetInstance().hash(name);
+            if (rnd.nextInt(3) == 0) {
+                assertSame(expected.remove(key), map.remove(key));
+            } else {
+                PropertyInt p = new PropertyInt(name, i);
+                assertSame(expected.put(key, p), map.put(key, p));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        for (int key : expected.keySet())
+            assertSame(expected.get(key), map.get(key));
+        assertNull(map.get(Hash.GetInstance().hash("not a property")));
+    }
+
+    @Test
+    public void keysWithSameHashAreReported() {
+        // "Aa" and "BB" have the same String.hashCode()
+        int key = Hash.GetInstance().hash("collidingPropertyAa");
+        assertEquals(key, Hash.GetInstance().hash("collidingPropertyAa"));
+        String error = null;
+        try {
+            Hash.GetInstance().hash("collidingPropertyBB");
+        } catch (AssertionError e) {
+            error = e.getMessage();
+        }
+        assertNotNull(error);
+        assertTrue(error.contains("collidingPropertyAa"));
+        assertEquals("collidingPropertyAa", Hash.GetInstance().getKey(key));
+    }
+
+    @Test
+    public void copiesShareOnlyImmutableProperties() {
+        Card card = new Card("Test");
+        PropertyString name = new PropertyString("name", "Test card");
+        name.setImmutable(true);
+        PropertyIntArray counts = new PropertyIntArray("counts", new JSONArray());
+        card.setProperty(name);
+        card.setProperty(counts);
+
+        Card copy = card.copy();
+        assertSame(name, copy.getProperty("name"));
+        assertNotSame(counts, copy.getProperty("counts"));
+        assertEquals(counts, copy.getProperty("counts"));
+
+        // adding to, replacing and removing from the copy does not change the original
+        copy.setProperty(new PropertyInt("extra", 1));
+        copy.setProperty(new PropertyString("name", "Changed"));
+        assertEquals(2, card.getNumProperties());
+        assertNull(card.getProperty("extra"));
+        assertEquals("Test card", ((PropertyString) card.getProperty("name")).value);
+        copy.getProperties().remove(counts.getHashKey());
+        assertNotNull(card.getProperty("counts"));
+        assertEquals(2, copy.getNumProperties());
+
+        // and the same the other way round
+        Card secondCopy = card.copy();
+        card.setProperty(new PropertyInt("extra", 2));
+        assertNull(secondCopy.getProperty("extra"));
+        assertSame(name, secondCopy.getProperty("name"));
+    }
+
+    @Test
+    public void pandemicCopiesDoNotChangeTheOriginal() {
+        Game game = GameType.Pandemic.createGameInstance(4, 42);
+        PandemicGameState state = (PandemicGameState) game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(42);
+
+        // the names of cities are shared by copies, but not the disease cubes on them
+        PandemicGameState firstCopy = (PandemicGameState) state.copy();
+        BoardNode atlanta = state.getWorld().getNodeByStringProperty(nameHash, "Atlanta");
+        BoardNode copyOfAtlanta = firstCopy.getWorld().getNodeByStringProperty(nameHash, "Atlanta");
+        assertNotSame(atlanta, copyOfAtlanta);
+        assertSame(atlanta.getProperty(nameHash), copyOfAtlanta.getProperty(nameHash));
+        assertNotSame(atlanta.getProperty(infectionHash), copyOfAtlanta.getProperty(infectionHash));
+
+        for (int step = 0; step < 20 && state.isNotTerminal(); step++) {
+            String before = describeCities(state);
+            AbstractGameState copy = state.copy();
+            for (int i = 0; i < 30 && copy.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+            }
+            assertEquals(before, describeCities(state));
+
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+
+    private static String describeCities(PandemicGameState state) {
+        StringBuilder sb = new StringBuilder();
+        for (BoardNode city : state.getWorld().getBoardNodes())
+            sb.append(city).append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSEnums;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReusedStateCopies {
+
+    private static final GameType[] games = {GameType.TicTacToe, GameType.Connect4, GameType.DotsAndBoxes,
+            GameType.Diamant};
+
+    @Test
+    public void copyIntoGivesSameStateAsCopy() {
+        for (GameType gameType : games) {
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel fm = game.getForwardModel();
+            Random rnd = new Random(42);
+            AbstractGameState target = state.copy();
+            AbstractGameState firstTarget = target;
+
+            while (state.isNotTerminal()) {
+                AbstractGameState expected = state.copy();
+                target = state.copyInto(target, -1);
+                assertSame(gameType.name(), firstTarget, target);
+                assertEquals(gameType.name(), expected, target);
+                assertEquals(gameType.name(), expected.hashCode(), target.hashCode());
+                assertEquals(gameType.name(), expected.getHistoryAsText(), target.getHistoryAsText());
+
+                // the reused copy must be independent of the original in both directions
+                List<AbstractAction> actions = fm.computeAvailableActions(target);
+                fm.next(target, actions.get(rnd.nextInt(actions.size())));
+                assertEquals(gameType.name(), expected, state);
+                assertEquals(gameType.name(), expected.hashCode(), state.hashCode());
+
+                target = state.copyInto(target, -1);
+                actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                assertEquals(gameType.name(), expected, target);
+                assertEquals(gameType.name(), expected.hashCode(), target.hashCode());
+            }
+        }
+    }
+
+    @Test
+    public void gamesWithoutCopyIntoMakeANewCopy() {
+        Game game = GameType.Dominion.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractGameState target = state.copy();
+        AbstractGameState copy = state.copyInto(target, -1);
+        assertNotSame(target, copy);
+        assertEquals(state, copy);
+
+        // and so does any target from another game
+        AbstractGameState ticTacToe = GameType.TicTacToe.createGameInstance(2, 42).getGameState();
+        assertNotSame(ticTacToe, ticTacToe.copyInto(state, -1));
+    }
+
+    @Test
+    public void statePoolKeepsOneCopyPerPlayer() {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        StatePool pool = new StatePool();
+        AbstractGameState full = pool.copy(state, -1);
+        AbstractGameState player0 = pool.copy(state, 0);
+        AbstractGameState player1 = pool.copy(state, 1);
+        assertNotSame(full, player0);
+        assertNotSame(player0, player1);
+        assertSame(full, pool.copy(state, -1));
+        assertSame(player1, pool.copy(state, 1));
+
+        pool.clear();
+        assertNotSame(full, pool.copy(state, -1));
+    }
+
+    @Test
+    public void mctsSearchIsUnchangedByReusingStates() {
+        // Diamant is left out, as its copies are redeterminised with an unseeded RNG
+        for (GameType gameType : new GameType[]{GameType.TicTacToe, GameType.Connect4, GameType.DotsAndBoxes}) {
+            for (MCTSEnums.Information information : new MCTSEnums.Information[]{MCTSEnums.Information.Open_Loop,
+                    MCTSEnums.Information.Information_Set}) {
+                Game game = gameType.createGameInstance(2, 42);
+                AbstractGameState state = game.getGameState();
+                AbstractForwardModel fm = game.getForwardModel();
+                MCTSPlayer copying = mctsPlayer(information, false, fm);
+                MCTSPlayer reusing = mctsPlayer(information, true, fm);
+                copying.initializePlayer(state);
+                reusing.initializePlayer(state);
+                Random rnd = new Random(42);
+
+                for (int move = 0; move < 5 && state.isNotTerminal(); move++) {
+                    List<AbstractAction> actions = fm.computeAvailableActions(state);
+                    AbstractAction copyAction = copying.getAction(state.copy(), actions);
+                    AbstractAction reuseAction = reusing.getAction(state.copy(), actions);
+                    assertEquals(gameType + " " + information, copyAction, reuseAction);
+                    fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                }
+            }
+        }
+    }
+
+    private static MCTSPlayer mctsPlayer(MCTSEnums.Information information, boolean reuseStates, AbstractForwardModel fm) {
+        MCTSParams params = new MCTSParams();
+        params.setRandomSeed(93);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 300;
+        params.rolloutLength = 10;
+        params.information = information;
+        params.reuseStates = reuseStates;
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        return player;
+    }
+}
@@ -0,0 +1,106 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.Counter;
+import core.components.Deck;
+import core.components.GridBoard;
+import core.components.BoardNode;
+import games.GameType;
+import games.diamant.DiamantGameState;
+import org.junit.Test;
+import utilities.HashedDeque;
+import utilities.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StateHashing {
+
+    private AbstractGameState play(Game game, int[][] moves) {
+        AbstractGameState state = game.getGameState().copy();
+        AbstractForwardModel fm = game.getForwardModel();
+        for (int[] move : moves) {
+            AbstractAction action = fm.computeAvailableActions(state).stream()
+                    .filter(a -> ((SetGridValueAction) a).getX() == move[0] && ((SetGridValueAction) a).getY() == move[1])
+                    .findFirst().orElseThrow();
+            fm.next(state, action);
+        }
+        return state;
+    }
+
+    @Test
+    public void transpositionsHaveTheSameHash() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        game.getGameState().longHash();  // so that the board keeps its hash up to date from here on
+        AbstractGameState first = play(game, new int[][]{{0, 0}, {1, 1}, {2, 2}});
+        AbstractGameState second = play(game, new int[][]{{2, 2}, {1, 1}, {0, 0}});
+        AbstractGameState different = play(game, new int[][]{{0, 0}, {2, 2}, {1, 1}});
+        assertEquals(first.longHash(), second.longHash());
+        assertNotEquals(first.longHash(), different.longHash());
+        assertNotEquals(first.longHash(), game.getGameState().longHash());
+        assertEquals(first.longHash(), first.copy().longHash());
+    }
+
+    @Test
+    public void gridBoardHashIsKeptUpToDate() {
+        Random rnd = new Random(42);
+        List<BoardNode> nodes = List.of(new BoardNode(-1, "a"), new BoardNode(-1, "b"), new BoardNode(-1, "c"));
+        GridBoard board = new GridBoard(5, 4);
+        board.longHash();
+        for (int i = 0; i < 200; i++) {
+            BoardNode node = rnd.nextInt(4) == 0 ? null : nodes.get(rnd.nextInt(nodes.size()));
+            board.setElement(rnd.nextInt(5), rnd.nextInt(4), node);
+            assertEquals(board.copy().longHash(), board.longHash());
+            // a board with the same ID and nodes, hashed from scratch
+            GridBoard fresh = board.emptyCopy();
+            for (int y = 0; y < board.getHeight(); y++)
+                for (int x = 0; x < board.getWidth(); x++)
+                    fresh.setElement(x, y, board.getElement(x, y));
+            assertEquals(fresh.longHash(), board.longHash());
+        }
+    }
+
+    @Test
+    public void counterHashFollowsItsValue() {
+        Counter counter = new Counter(0, 0, 10, "test");
+        long zero = counter.longHash();
+        counter.increment(3);
+        assertNotEquals(zero, counter.longHash());
+        assertEquals(counter.copy().longHash(), counter.longHash());
+        counter.decrement(3);
+        assertEquals(zero, counter.longHash());
+    }
+
+    private static void assertDeckHashIsUpToDate(Deck<?> deck) {
+        long contents = new HashedDeque<>(new ArrayList<>(deck.getComponents())).longHash();
+        assertEquals(Zobrist.key(deck.getComponentID(), deck.getOwnerId(), contents), deck.longHash());
+    }
+
+    @Test
+    public void diamantHashIsKeptUpToDateThroughAGame() {
+        Game game = GameType.Diamant.createGameInstance(3, 42);
+        DiamantGameState state = (DiamantGameState) game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(42);
+        long previous = state.longHash();
+        int changes = 0;
+        while (state.isNotTerminal()) {
+            assertEquals(state.longHash(), state.copy().longHash());
+            assertEquals(state.longHash(), state.copyInto(state.copy(), -1).longHash());
+            assertDeckHashIsUpToDate(state.getMainDeck());
+            assertDeckHashIsUpToDate(state.getDiscardDeck());
+            assertDeckHashIsUpToDate(state.getPath());
+
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            if (state.longHash() != previous)
+                changes++;
+            previous = state.longHash();
+        }
+        assertTrue(changes > 10);
+    }
+}
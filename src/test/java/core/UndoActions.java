@@ -0,0 +1,84 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UndoActions {
+
+    private static final GameType[] games = {GameType.TicTacToe, GameType.Connect4, GameType.Chess,
+            GameType.DotsAndBoxes, GameType.ChineseCheckers};
+
+    private static void assertSameState(String message, AbstractGameState expected, AbstractGameState actual) {
+        assertEquals(message, expected, actual);
+        assertEquals(message, expected.hashCode(), actual.hashCode());
+        assertEquals(message, expected.getCurrentPlayer(), actual.getCurrentPlayer());
+        assertEquals(message, expected.getHistoryAsText(), actual.getHistoryAsText());
+    }
+
+    @Test
+    public void nextThenUndoGivesOriginalState() {
+        for (GameType gameType : games) {
+            for (long seed = 1; seed <= 3; seed++) {
+                Game game = gameType.createGameInstance(2, seed);
+                AbstractGameState state = game.getGameState();
+                AbstractForwardModel fm = game.getForwardModel();
+                assertTrue(gameType.name(), fm.supportsUndo());
+                Random rnd = new Random(seed);
+
+                while (state.isNotTerminal() && state.getGameTick() < 300) {
+                    List<AbstractAction> actions = fm.computeAvailableActions(state);
+                    // try every action from here, and check each leaves no trace once undone
+                    for (AbstractAction action : actions) {
+                        AbstractGameState before = state.copy();
+                        UndoToken token = fm.nextWithUndo(state, action);
+                        fm.undo(state, token);
+                        assertSameState(gameType.name() + " " + action, before, state);
+                    }
+                    fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void undoingALineOfPlayGivesOriginalState() {
+        for (GameType gameType : games) {
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel fm = game.getForwardModel();
+            Random rnd = new Random(42);
+
+            for (int move = 0; move < 20 && state.isNotTerminal(); move++) {
+                AbstractGameState before = state.copy();
+                // play to the end of the game (or a long way), then undo everything
+                List<UndoToken> tokens = new ArrayList<>();
+                while (state.isNotTerminal() && tokens.size() < 100) {
+                    List<AbstractAction> actions = fm.computeAvailableActions(state);
+                    tokens.add(fm.nextWithUndo(state, actions.get(rnd.nextInt(actions.size()))));
+                }
+                for (int i = tokens.size() - 1; i >= 0; i--)
+                    fm.undo(state, tokens.get(i));
+                assertSameState(gameType.name() + " at move " + move, before, state);
+
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void gamesWithoutUndoThrow() {
+        Game game = GameType.Dominion.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        assertFalse(fm.supportsUndo());
+        fm.nextWithUndo(state, fm.computeAvailableActions(state).get(0));
+    }
+}
@@ -0,0 +1,89 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import utilities.Utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the MCTS iterations per second of Information_Set search with a pool of determinisations
+ * (MCTSParams.determinisationPool and determinisationReuse), against the same search making a new determinisation
+ * for every iteration (a pool of 0).
+ * Each search has a fixed time budget, and is run from each of the first few decisions of a game (the moves played
+ * are random).
+ * <p>
+ * Arguments (all optional): games=LoveLetter,Hanabi,SushiGo nPlayers=3 seed=42 pools=0,4,16,64 reuse=0
+ * budget=500 (ms per decision) decisions=10 rolloutLength=10 reuseStates=false
+ */
+public class DeterminisationPoolBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "LoveLetter,Hanabi,SushiGo").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 3);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int[] pools = Arrays.stream(Utils.getArg(args, "pools", "0,4,16,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int reuse = Utils.getArg(args, "reuse", 0);
+        int budget = Utils.getArg(args, "budget", 500);
+        int decisions = Utils.getArg(args, "decisions", 10);
+        int rolloutLength = Utils.getArg(args, "rolloutLength", 10);
+        boolean reuseStates = Utils.getArg(args, "reuseStates", false);
+
+        System.out.printf("Information_Set search with %d ms per decision; determinisations reused for %s%n",
+                budget, reuse > 0 ? reuse + " iterations" : "the whole search");
+        System.out.printf("%-15s %8s %12s %10s%n", "Game", "Pool", "Iters/sec", "Speedup");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // the first run warms up the JVM, and is not reported
+            run(gameType, nPlayers, seed, pools[0], reuse, budget, 1, rolloutLength, reuseStates);
+            double baseline = 0.0;
+            for (int pool : pools) {
+                double rate = run(gameType, nPlayers, seed, pool, reuse, budget, decisions, rolloutLength, reuseStates);
+                if (pool == 0)
+                    baseline = rate;
+                System.out.printf("%-15s %8d %12.0f %10s%n", gameName, pool, rate,
+                        baseline > 0.0 ? String.format("%.2f", rate / baseline) : "-");
+            }
+        }
+    }
+
+    /**
+     * @return the iterations per second over the searches from the first few decisions of a game
+     */
+    private static double run(GameType gameType, int nPlayers, long seed, int pool, int reuse, int budget,
+                              int decisions, int rolloutLength, boolean reuseStates) {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_TIME,
+                "budget", budget, "rolloutLength", rolloutLength, "information", "Information_Set",
+                "determinisationPool", pool, "determinisationReuse", reuse, "reuseStates", reuseStates));
+        MCTSPlayer player = new MCTSPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        Random rnd = new Random(seed);
+        long iterations = 0, nanos = 0;
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            long startTime = System.nanoTime();
+            player.getAction(observation, actions);
+            nanos += System.nanoTime() - startTime;
+            iterations += Arrays.stream(player.getThreadIterations()).sum();
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return iterations / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,87 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.search.MaxNSearchParameters;
+import players.search.MaxNSearchPlayer;
+import utilities.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the time a MaxNSearchPlayer (paranoid, with alpha-beta pruning) takes to search to a fixed depth on
+ * different numbers of threads (MaxNSearchParameters.parallelThreads), and the speedup over a single thread.
+ * Each search is run from each of the first few decisions of a game (the moves played are random).
+ * <p>
+ * Arguments (all optional): games=Connect4,TicTacToe nPlayers=2 seed=42 threads=1,2,4,8 depth=6 decisions=10
+ * tableSize=0 ordering=false
+ */
+public class MaxNParallelBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "Connect4,TicTacToe").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int[] threads = Arrays.stream(Utils.getArg(args, "threads", "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int depth = Utils.getArg(args, "depth", 6);
+        int decisions = Utils.getArg(args, "decisions", 10);
+        int tableSize = Utils.getArg(args, "tableSize", 0);
+        boolean ordering = Utils.getArg(args, "ordering", false);
+
+        System.out.printf("Search to depth %d on %d processors%n", depth, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-15s %8s %12s %10s%n", "Game", "Threads", "ms/search", "Speedup");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // the first run warms up the JVM, and is not reported
+            run(gameType, nPlayers, seed, threads[0], depth, 1, tableSize, ordering);
+            double baseline = 0.0;
+            for (int t : threads) {
+                double millis = run(gameType, nPlayers, seed, t, depth, decisions, tableSize, ordering);
+                if (t == 1)
+                    baseline = millis;
+                System.out.printf("%-15s %8d %12.1f %10s%n", gameName, t, millis,
+                        baseline > 0.0 ? String.format("%.2f", baseline / millis) : "-");
+            }
+        }
+    }
+
+    /**
+     * @return the mean time in milliseconds of the searches from the first few decisions of a game
+     */
+    private static double run(GameType gameType, int nPlayers, long seed, int threads, int depth, int decisions,
+                              int tableSize, boolean ordering) {
+        MaxNSearchParameters params = new MaxNSearchParameters();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_TIME,
+                "budget", Integer.MAX_VALUE, "searchDepth", depth, "paranoid", true, "alphaBetaPruning", true,
+                "expandByEstimatedValue", ordering, "transpositionTableSize", tableSize, "parallelThreads", threads));
+        MaxNSearchPlayer player = new MaxNSearchPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        Random rnd = new Random(seed);
+        long nanos = 0;
+        int searches = 0;
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            long startTime = System.nanoTime();
+            // the search reorders the actions it is given, so that the moves played are the same for each search
+            player.getAction(observation, new ArrayList<>(actions));
+            nanos += System.nanoTime() - startTime;
+            searches++;
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return nanos / 1e6 / Math.max(searches, 1);
+    }
+}
@@ -0,0 +1,83 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.search.MaxNSearchParameters;
+import players.search.MaxNSearchPlayer;
+import utilities.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the depth that an iterative deepening MaxNSearchPlayer (paranoid, with alpha-beta pruning) finishes in a
+ * fixed time, with and without a transposition table (MaxNSearchParameters.transpositionTableSize) and move ordering
+ * (expandByEstimatedValue).
+ * Each search is run from each of the first few decisions of a game (the moves played are random).
+ * <p>
+ * The table is only used for games with a full 64-bit state hash (AbstractGameState.hasLongHash()).
+ * <p>
+ * Arguments (all optional): games=Connect4,TicTacToe nPlayers=2 seed=42 budget=500 (ms per
+ * decision) decisions=10 tableSize=1048576
+ */
+public class MaxNSearchBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "Connect4,TicTacToe").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int budget = Utils.getArg(args, "budget", 500);
+        int decisions = Utils.getArg(args, "decisions", 10);
+        int tableSize = Utils.getArg(args, "tableSize", 1 << 20);
+
+        System.out.printf("Iterative deepening with %d ms per decision%n", budget);
+        System.out.printf("%-15s %-20s %12s%n", "Game", "Search", "Mean depth");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // the first run warms up the JVM, and is not reported
+            run(gameType, nPlayers, seed, budget, 1, 0, false);
+            System.out.printf("%-15s %-20s %12.2f%n", gameName, "plain",
+                    run(gameType, nPlayers, seed, budget, decisions, 0, false));
+            System.out.printf("%-15s %-20s %12.2f%n", gameName, "ordering",
+                    run(gameType, nPlayers, seed, budget, decisions, 0, true));
+            System.out.printf("%-15s %-20s %12.2f%n", gameName, "table",
+                    run(gameType, nPlayers, seed, budget, decisions, tableSize, false));
+            System.out.printf("%-15s %-20s %12.2f%n", gameName, "table + ordering",
+                    run(gameType, nPlayers, seed, budget, decisions, tableSize, true));
+        }
+    }
+
+    /**
+     * @return the mean depth of the deepest search that finished, over the first few decisions of a game
+     */
+    private static double run(GameType gameType, int nPlayers, long seed, int budget, int decisions,
+                              int tableSize, boolean ordering) {
+        MaxNSearchParameters params = new MaxNSearchParameters();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_TIME,
+                "budget", budget, "searchDepth", 100, "iterativeDeepening", true, "paranoid", true,
+                "alphaBetaPruning", true, "expandByEstimatedValue", ordering, "transpositionTableSize", tableSize));
+        MaxNSearchPlayer player = new MaxNSearchPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        Random rnd = new Random(seed);
+        int depths = 0, searches = 0;
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            // the search reorders the actions it is given, so that the moves played are the same for each search
+            player.getAction(state.copy(state.getCurrentPlayer()), new ArrayList<>(actions));
+            depths += player.getDepthReached();
+            searches++;
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return depths / (double) Math.max(searches, 1);
+    }
+}
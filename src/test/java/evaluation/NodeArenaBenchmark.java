@@ -0,0 +1,84 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.mcts.ArenaTreeNode;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.mcts.TreeStatistics;
+import utilities.Utils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the memory held by an MCTS tree, and the iterations run per second, when the tree is stored as a
+ * SingleTreeNode per node and when it is stored in a NodeArena (MCTSParams.nodeArena).
+ * Each search adds a node an iteration (until it reaches the end of the game), so the default budget gives
+ * trees of about 100k nodes. Memory is measured as the heap in use after a full GC, with and without the tree.
+ * <p>
+ * Arguments (all optional): games=Connect4,DotsAndBoxes,Dominion nPlayers=2 seed=42 iterations=100000
+ * rolloutLength=10 treePolicy=UCB
+ * Run with enough heap (-Xmx4g or more) for the largest trees.
+ */
+public class NodeArenaBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "Connect4,DotsAndBoxes,Dominion").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int iterations = Utils.getArg(args, "iterations", 100000);
+        int rolloutLength = Utils.getArg(args, "rolloutLength", 10);
+        String treePolicy = Utils.getArg(args, "treePolicy", "UCB");
+
+        System.out.printf("%-15s %-12s %10s %14s %12s %12s%n", "Game", "Tree", "Nodes", "Tree bytes", "Bytes/node", "Iters/sec");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // a smaller search first warms up the JVM, and is not reported
+            for (boolean arena : new boolean[]{false, true})
+                run(gameType, nPlayers, seed, iterations / 10, rolloutLength, treePolicy, arena, false);
+            for (boolean arena : new boolean[]{false, true})
+                run(gameType, nPlayers, seed, iterations, rolloutLength, treePolicy, arena, true);
+        }
+    }
+
+    private static void run(GameType gameType, int nPlayers, long seed, int iterations, int rolloutLength,
+                            String treePolicy, boolean arena, boolean report) {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_ITERATIONS,
+                "budget", iterations, "rolloutLength", rolloutLength, "treePolicy", treePolicy, "nodeArena", arena));
+        MCTSPlayer player = new MCTSPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractGameState observation = state.copy(state.getCurrentPlayer());
+
+        long before = usedMemory();
+        long startTime = System.nanoTime();
+        player.getAction(observation, actions);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        long withTree = usedMemory();
+        int nodes = player.getRoot() instanceof ArenaTreeNode arenaRoot ?
+                arenaRoot.getNodeCount() : new TreeStatistics(player.getRoot()).totalNodes;
+        if (report) {
+            long treeBytes = withTree - before;
+            System.out.printf("%-15s %-12s %10d %14d %12.0f %12.0f%n", gameType.name(), arena ? "NodeArena" : "SingleTree",
+                    nodes, treeBytes, treeBytes / (double) nodes, iterations / seconds);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
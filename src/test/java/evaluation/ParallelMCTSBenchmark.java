@@ -0,0 +1,87 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import utilities.Utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures how the number of MCTS iterations per second scales with the number of threads, for tree-parallel
+ * search (MCTSParams.treeParallelThreads) or root-parallel search (MCTSParams.rootParallelThreads).
+ * Each search has a fixed time budget, and the iterations are read from the visits to the root once it has finished.
+ * <p>
+ * Arguments (all optional): games=Connect4,DotsAndBoxes,Dominion nPlayers=2 seed=42 threads=1,2,4,8,16
+ * mode=tree budget=1000 (ms per decision) decisions=5 rolloutLength=1000
+ */
+public class ParallelMCTSBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "Connect4,DotsAndBoxes,Dominion").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int[] threads = Arrays.stream(Utils.getArg(args, "threads", "1,2,4,8,16").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        boolean tree = Utils.getArg(args, "mode", "tree").equals("tree");
+        int budget = Utils.getArg(args, "budget", 1000);
+        int decisions = Utils.getArg(args, "decisions", 5);
+        int rolloutLength = Utils.getArg(args, "rolloutLength", 1000);
+
+        System.out.printf("%d processors available; %s-parallel search with %d ms per decision%n",
+                Runtime.getRuntime().availableProcessors(), tree ? "tree" : "root", budget);
+        System.out.printf("%-15s %8s %12s %10s%n", "Game", "Threads", "Iters/sec", "Speedup");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // the first run warms up the JVM, and is not reported
+            run(gameType, nPlayers, seed, 1, tree, budget, 1, rolloutLength);
+            double single = 0.0;
+            for (int nThreads : threads) {
+                double rate = run(gameType, nPlayers, seed, nThreads, tree, budget, decisions, rolloutLength);
+                if (nThreads == 1)
+                    single = rate;
+                System.out.printf("%-15s %8d %12.0f %10s%n", gameName, nThreads, rate,
+                        single > 0.0 ? String.format("%.2f", rate / single) : "-");
+            }
+        }
+    }
+
+    /**
+     * Runs a search from each of the first few decisions of a game (the moves played are random),
+     * and returns the iterations per second over all of them
+     */
+    private static double run(GameType gameType, int nPlayers, long seed, int nThreads, boolean tree,
+                              int budget, int decisions, int rolloutLength) {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_TIME,
+                "budget", budget, "rolloutLength", rolloutLength,
+                tree ? "treeParallelThreads" : "rootParallelThreads", nThreads));
+        MCTSPlayer player = new MCTSPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        Random rnd = new Random(seed);
+        long iterations = 0, nanos = 0;
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            long startTime = System.nanoTime();
+            player.getAction(observation, actions);
+            nanos += System.nanoTime() - startTime;
+            iterations += Arrays.stream(player.getThreadIterations()).sum();
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return iterations / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,89 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.rmhc.RMHCParams;
+import players.rmhc.RMHCPlayer;
+import utilities.Utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the FM calls per second of an RMHCPlayer that evaluates batches of mutants (RMHCParams.batchSize) on
+ * different numbers of threads (RMHCParams.parallelThreads), against one that evaluates a single mutant in each
+ * iteration. Each search has a fixed time budget, and is run from each of the first few decisions of the first player
+ * in a game (the moves played are random).
+ * <p>
+ * Arguments (all optional): games=Connect4,Descent2e,Root nPlayers=2 seed=42 batch=8 threads=1,2,4,8 budget=500 (ms
+ * per decision) decisions=5 horizon=10
+ */
+public class RMHCBatchBenchmark {
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "Connect4,Descent2e,Root").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int batch = Utils.getArg(args, "batch", 8);
+        int[] threads = Arrays.stream(Utils.getArg(args, "threads", "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int budget = Utils.getArg(args, "budget", 500);
+        int decisions = Utils.getArg(args, "decisions", 5);
+        int horizon = Utils.getArg(args, "horizon", 10);
+
+        System.out.printf("RMHC with %d ms per decision, batches of %d, on %d processors%n", budget, batch,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-15s %8s %8s %14s %10s%n", "Game", "Batch", "Threads", "FM calls/sec", "Speedup");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // the first runs warm up the JVM, and are not reported
+            run(gameType, nPlayers, seed, 1, 1, budget, 1, horizon);
+            run(gameType, nPlayers, seed, batch, threads[threads.length - 1], budget, 1, horizon);
+            double baseline = run(gameType, nPlayers, seed, 1, 1, budget, decisions, horizon);
+            System.out.printf("%-15s %8d %8d %14.0f %10.2f%n", gameName, 1, 1, baseline, 1.0);
+            for (int t : threads) {
+                double rate = run(gameType, nPlayers, seed, batch, t, budget, decisions, horizon);
+                System.out.printf("%-15s %8d %8d %14.0f %10.2f%n", gameName, batch, t, rate, rate / baseline);
+            }
+        }
+    }
+
+    /**
+     * @return the FM calls per second over the searches from the first few decisions of a game
+     */
+    private static double run(GameType gameType, int nPlayers, long seed, int batch, int threads, int budget,
+                              int decisions, int horizon) {
+        RMHCParams params = new RMHCParams();
+        params.setParameterValues(Map.<String, Object>of("randomSeed", (int) seed, "budgetType", PlayerConstants.BUDGET_TIME,
+                "budget", budget, "horizon", horizon, "batchSize", batch, "parallelThreads", threads));
+        RMHCPlayer player = new RMHCPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        Random rnd = new Random(seed);
+        long fmCalls = 0, nanos = 0;
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); ) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            if (state.getCurrentPlayer() != player.getPlayerID()) {
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                continue;
+            }
+            decision++;
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            long startTime = System.nanoTime();
+            player.getAction(observation, actions);
+            nanos += System.nanoTime() - startTime;
+            fmCalls += player.getFMCalls();
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return fmCalls / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,127 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.StatePool;
+import core.actions.AbstractAction;
+import games.GameType;
+import players.PlayerConstants;
+import players.mcts.MCTSEnums;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import utilities.Utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the memory allocated (and time taken) to copy game states, comparing a new copy() each time with
+ * reusing the last copy through AbstractGameState.copyInto(); and then the same for MCTS searches with and
+ * without MCTSParams.reuseStates.
+ * <p>
+ * Arguments (all optional): games=TicTacToe,Connect4,DotsAndBoxes,Diamant nPlayers=2 seed=42 copies=2000
+ * iterations=2000 information=Open_Loop
+ * Games that do not implement _copyInto() show no difference, as copyInto() then makes a new copy.
+ */
+public class StateCopyBenchmark {
+
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String... args) {
+        String[] games = Utils.getArg(args, "games", "TicTacToe,Connect4,DotsAndBoxes,Diamant").split(",");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        long seed = Utils.getArg(args, "seed", 42L);
+        int copies = Utils.getArg(args, "copies", 2000);
+        int iterations = Utils.getArg(args, "iterations", 2000);
+        MCTSEnums.Information information = MCTSEnums.Information.valueOf(Utils.getArg(args, "information", "Open_Loop"));
+
+        System.out.printf("%-15s %-12s %14s %12s%n", "Game", "Method", "Bytes/copy", "ns/copy");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            // run each once to warm up, then measure
+            for (int run = 0; run < 2; run++) {
+                boolean report = run == 1;
+                copyBenchmark(gameType, nPlayers, seed, copies, false, report);
+                copyBenchmark(gameType, nPlayers, seed, copies, true, report);
+            }
+        }
+
+        System.out.printf("%n%-15s %-12s %14s %12s%n", "Game", "MCTS", "Bytes/iter", "ns/iter");
+        for (String gameName : games) {
+            GameType gameType = GameType.valueOf(gameName);
+            for (int run = 0; run < 2; run++) {
+                boolean report = run == 1;
+                mctsBenchmark(gameType, nPlayers, seed, iterations, information, false, report);
+                mctsBenchmark(gameType, nPlayers, seed, iterations, information, true, report);
+            }
+        }
+    }
+
+    /**
+     * Plays a random game, and at each decision copies the state the given number of times
+     */
+    private static void copyBenchmark(GameType gameType, int nPlayers, long seed, int copies, boolean reuse, boolean report) {
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(seed);
+        StatePool pool = new StatePool();
+        long bytes = 0, nanos = 0, total = 0;
+        while (state.isNotTerminal()) {
+            long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+            long startTime = System.nanoTime();
+            for (int i = 0; i < copies; i++) {
+                AbstractGameState copy = reuse ? pool.copy(state, -1) : state.copy();
+                if (copy.getGameTick() != state.getGameTick())
+                    throw new AssertionError("Copy is not of the same state");
+            }
+            nanos += System.nanoTime() - startTime;
+            bytes += threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+            total += copies;
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        if (report)
+            System.out.printf("%-15s %-12s %14d %12d%n", gameType.name(), reuse ? "copyInto" : "copy", bytes / total, nanos / total);
+    }
+
+    /**
+     * Runs an MCTS search from each decision of a random game
+     */
+    private static void mctsBenchmark(GameType gameType, int nPlayers, long seed, int iterations,
+                                      MCTSEnums.Information information, boolean reuse, boolean report) {
+        MCTSParams params = new MCTSParams();
+        params.setRandomSeed(seed);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = iterations;
+        params.information = information;
+        params.rolloutLength = 10;
+        params.reuseStates = reuse;
+        MCTSPlayer player = new MCTSPlayer(params);
+
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        Random rnd = new Random(seed);
+        long bytes = 0, nanos = 0, total = 0;
+        // a handful of decisions is enough, and keeps this quick for long games
+        for (int decision = 0; decision < 10 && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+            long startTime = System.nanoTime();
+            player.getAction(observation, actions);
+            nanos += System.nanoTime() - startTime;
+            bytes += threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+            total += iterations;
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        if (report)
+            System.out.printf("%-15s %-12s %14d %12d%n", gameType.name(), reuse ? "reuseStates" : "copy", bytes / total, nanos / total);
+    }
+}
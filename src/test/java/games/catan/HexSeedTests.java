@@ -133,9 +133,11 @@ public class HexSeedTests {
             assertEquals(diceRolls[loop], state.getRollValue());
         }
 
-        // Now we repeat this with a different seed
+        // Now we repeat this with a different seed (the parameters are frozen once used, so we change a copy)
+        params = (CatanParameters) params.copy();
         params.setRandomSeed(392);
         params.setParameterValue("diceSeed", 427858);
+        state = new CatanGameState(params, 4);
         fm.setup(state);
         int matches = 0;
         for (int loop = 0; loop < 20; loop++) {
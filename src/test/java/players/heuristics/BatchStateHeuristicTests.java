@@ -0,0 +1,61 @@
+package players.heuristics;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import games.dominion.DominionFGParameters;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.metrics.DomStateFeaturesReduced;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchStateHeuristicTests {
+
+    DominionForwardModel fm = new DominionForwardModel();
+
+    private List<AbstractGameState> states() {
+        DominionGameState state = new DominionGameState(new DominionFGParameters(), 4);
+        fm.setup(state);
+        Random rnd = new Random(42);
+        List<AbstractGameState> retValue = new ArrayList<>();
+        for (int i = 0; i < 40 && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            retValue.add(state.copy());
+        }
+        return retValue;
+    }
+
+    private void checkBatch(IStateHeuristic heuristic) {
+        List<AbstractGameState> states = states();
+        for (int player = 0; player < 4; player++) {
+            double[] batch = heuristic.evaluateStates(states, player);
+            assertEquals(states.size(), batch.length);
+            for (int i = 0; i < states.size(); i++)
+                assertEquals(heuristic.evaluateState(states.get(i), player), batch[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void linearBatchIsSameAsSingle() {
+        checkBatch(new LinearStateHeuristic(new DomStateFeaturesReduced(),
+                "src/test/java/players/heuristics/DominionFeatureWeights.json", new PureScoreHeuristic()));
+    }
+
+    @Test
+    public void logisticBatchIsSameAsSingle() {
+        checkBatch(new LogisticStateHeuristic(new DomStateFeaturesReduced(),
+                "src/test/java/players/heuristics/DominionFeatureWeightsLogistic.json", new WinOnlyHeuristic()));
+    }
+
+    @Test
+    public void defaultBatchIsSameAsSingle() {
+        checkBatch((state, player) -> state.getGameScore(player) - state.getGameTick() * 0.01);
+    }
+}
@@ -0,0 +1,116 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.CoreConstants;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ArenaTreeTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.nodeArena = true;
+    }
+
+    @Test
+    public void eachIterationAddsANode() {
+        for (MCTSEnums.TreePolicy policy : new MCTSEnums.TreePolicy[]{
+                MCTSEnums.TreePolicy.UCB, MCTSEnums.TreePolicy.UCB_Tuned, MCTSEnums.TreePolicy.EXP3}) {
+            params.treePolicy = policy;
+            Game game = GameType.Connect4.createGameInstance(2, 42);
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            TestMCTSPlayer player = TestMCTSPlayer.search(params, state, fm);
+
+            ArenaTreeNode root = (ArenaTreeNode) player.getRoot();
+            assertEquals(1000, root.getVisits());
+            assertEquals(1000, Arrays.stream(root.actionVisits()).sum());
+            assertEquals(actions.size(), root.actionValues.size());
+            // a game of Connect4 rarely ends within the tree after so few iterations
+            assertTrue(root.getNodeCount() > 950);
+            assertTrue(root.getNodeCount() <= 1001);
+            for (ActionStats stats : root.actionValues.values())
+                assertEquals(1000, stats.validVisits);
+        }
+    }
+
+    @Test
+    public void findsTheWinningMove() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        // X takes the first two squares of the top row, and O two of the middle row
+        for (int move : new int[]{0, 2, 0, 1})
+            fm.next(state, fm.computeAvailableActions(state).get(move));
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        int player = state.getCurrentPlayer();
+
+        for (MCTSEnums.TreePolicy policy : new MCTSEnums.TreePolicy[]{
+                MCTSEnums.TreePolicy.UCB, MCTSEnums.TreePolicy.UCB_Tuned, MCTSEnums.TreePolicy.EXP3}) {
+            params.treePolicy = policy;
+            AbstractAction chosen = TestMCTSPlayer.search(params, state, fm).getRoot().bestAction();
+            AbstractGameState next = state.copy();
+            fm.next(next, chosen);
+            assertEquals(CoreConstants.GameResult.WIN_GAME, next.getPlayerResults()[player]);
+        }
+    }
+
+    @Test
+    public void informationSetSearchWithMAST() {
+        params.information = MCTSEnums.Information.Information_Set;
+        params.MAST = MCTSEnums.MASTType.Both;
+        params.useMAST = true;
+        params.rolloutType = MCTSEnums.Strategies.MAST;
+        params.budget = 200;
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        TestMCTSPlayer player = TestMCTSPlayer.search(params, state.copy(state.getCurrentPlayer()), fm);
+        assertEquals(200, player.getRoot().getVisits());
+        assertFalse(player.getRoot().MASTStatistics.get(state.getCurrentPlayer()).isEmpty());
+    }
+
+    @Test
+    public void playsAWholeGame() {
+        params.budget = 200;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(List.of(player, new RandomPlayer()));
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+    }
+
+    @Test
+    public void selfOnlyIsNotSupported() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        try {
+            TestMCTSPlayer.search(params, state, game.getForwardModel());
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("arena"));
+        }
+    }
+}
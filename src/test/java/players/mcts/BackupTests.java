@@ -4,7 +4,6 @@ import core.actions.AbstractAction;
 import org.junit.Test;
 import utilities.Pair;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -111,7 +110,7 @@ public class BackupTests {
                 new Pair<>(0, new LMRAction("Middle")));
         root.currentNodeTrajectory = nodeTrajectory001;
         root.actionsInTree = actionTrajectory001;
-        root.actionsInRollout = new ArrayList<>();
+        root.actionsInRollout = new ActionTrajectory();
         lastNode = levelFourLeaf;
     }
 
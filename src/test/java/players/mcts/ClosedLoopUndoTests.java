@@ -0,0 +1,100 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClosedLoopUndoTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;  // as set for Closed_Loop by MCTSParams._reset()
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.rolloutLength = 10;
+        params.maxTreeDepth = 10;
+        params.undoInPlace = true;
+    }
+
+    private static AbstractAction cell(AbstractForwardModel fm, AbstractGameState state, int x, int y) {
+        return fm.computeAvailableActions(state).stream()
+                .filter(a -> ((SetGridValueAction) a).getX() == x && ((SetGridValueAction) a).getY() == y)
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    public void searchLeavesStateUnchanged() {
+        for (GameType gameType : new GameType[]{GameType.TicTacToe, GameType.Connect4, GameType.Chess,
+                GameType.DotsAndBoxes, GameType.ChineseCheckers}) {
+            TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel fm = game.getForwardModel();
+            player.setForwardModel(fm);
+            for (int move = 0; move < 4 && state.isNotTerminal(); move++) {
+                AbstractGameState before = state.copy();
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                AbstractAction chosen = player._getAction(state, actions);
+                assertEquals(gameType.name(), before, state);
+                assertEquals(gameType.name(), before.getHistoryAsText(), state.getHistoryAsText());
+                assertTrue(actions.contains(chosen));
+                assertEquals(500, player.getRoot().getVisits());
+                assertTrue(new TreeStatistics(player.getRoot()).depthReached > 1);
+                fm.next(state, chosen);
+            }
+        }
+    }
+
+    @Test
+    public void onlyRootHasStateWhenUndoneInPlace() {
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.TicTacToe, 2);
+        assertTrue(root.undoInPlace);
+        assertNotNull(root.getState());
+        for (SingleTreeNode[] childArray : root.children.values())
+            for (SingleTreeNode child : childArray)
+                if (child != null)
+                    assertNull(child.getState());
+    }
+
+    @Test
+    public void nodesHaveOwnStatesByDefault() {
+        params.undoInPlace = new MCTSParams().undoInPlace;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.TicTacToe, 2);
+        assertFalse(root.undoInPlace);
+        for (SingleTreeNode[] childArray : root.children.values())
+            for (SingleTreeNode child : childArray)
+                if (child != null)
+                    assertNotNull(child.getState());
+    }
+
+    @Test
+    public void findsWinningMove() {
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        fm.next(state, cell(fm, state, 0, 0));
+        fm.next(state, cell(fm, state, 0, 1));
+        fm.next(state, cell(fm, state, 1, 0));
+        fm.next(state, cell(fm, state, 1, 1));
+
+        AbstractAction chosen = player._getAction(state, fm.computeAvailableActions(state));
+        assertEquals(cell(fm, state, 2, 0), chosen);
+    }
+}
@@ -0,0 +1,61 @@
+package players.mcts;
+
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import static org.junit.Assert.*;
+
+public class DeterminisationPoolTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Information_Set;
+    }
+
+    @Test
+    public void eachDeterminisationIsKeptForTheSearch() {
+        params.determinisationPool = 4;
+        for (GameType gameType : new GameType[]{GameType.LoveLetter, GameType.SushiGo}) {
+            SingleTreeNode root = TestMCTSPlayer.search(params, gameType, 3);
+            assertEquals(200, root.getVisits());
+            assertEquals(4, root.determinisations.made);
+        }
+    }
+
+    @Test
+    public void determinisationsAreRemade() {
+        params.determinisationPool = 4;
+        params.determinisationReuse = 10;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+        assertEquals(200, root.getVisits());
+        // each of the 4 is used for 50 iterations, and made afresh every 10
+        assertEquals(20, root.determinisations.made);
+    }
+
+    @Test
+    public void noPoolWithoutInformationSets() {
+        params.determinisationPool = 4;
+        params.information = MCTSEnums.Information.Open_Loop;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+        assertEquals(200, root.getVisits());
+        assertNull(root.determinisations);
+    }
+
+    @Test
+    public void poolWithReusedStates() {
+        params.determinisationPool = 8;
+        params.reuseStates = true;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+        assertEquals(200, root.getVisits());
+        assertEquals(200, root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum());
+    }
+}
@@ -0,0 +1,96 @@
+package players.mcts;
+
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import utilities.Pair;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LeafParallelTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.leafParallelRollouts = 4;
+    }
+
+    @Test
+    public void eachIterationIsOneVisit() {
+        for (MCTSEnums.Information information : MCTSEnums.Information.values()) {
+            params.information = information;
+            // as set by MCTSParams._reset()
+            params.discardStateAfterEachIteration = information != MCTSEnums.Information.Closed_Loop;
+            SingleTreeNode root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+            assertEquals(200, root.getVisits());
+            // four rollouts of up to 10 actions each (fewer if the game ends)
+            assertTrue(root.rolloutActionsTaken > 200 * 3 * 10);
+            assertTrue(root.rolloutActionsTaken <= 200 * 4 * 10);
+        }
+    }
+
+    @Test
+    public void fmCallsOfAllRolloutsAreCounted() {
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 5000;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+        int parallelVisits = root.getVisits();
+        // the search stops after the iteration that passes the budget
+        assertTrue(root.fmCallsCount > 5000);
+        assertTrue(root.fmCallsCount <= 5000 + 4 * 10 + 42);
+
+        params.leafParallelRollouts = 1;
+        root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+        assertTrue(parallelVisits < root.getVisits() / 3);
+    }
+
+    @Test
+    public void copiesOfAllRolloutsAreCounted() {
+        params.budgetType = PlayerConstants.BUDGET_COPY_CALLS;
+        params.budget = 400;
+        params.leafParallelRollouts = 1;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+        assertEquals(200, root.getVisits());
+        assertEquals(401, root.copyCount);
+
+        // the three extra rollouts each need a copy of the state as well
+        params.leafParallelRollouts = 4;
+        root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+        assertEquals(80, root.getVisits());
+        assertEquals(401, root.copyCount);
+    }
+
+    @Test
+    public void MASTStatisticsIncludeAllRollouts() {
+        params.MAST = MCTSEnums.MASTType.Rollout;
+        params.useMAST = true;
+        params.rolloutType = MCTSEnums.Strategies.MAST;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.Connect4, 2);
+        int MASTVisits = 0;
+        for (Map<Object, Pair<Integer, Double>> stats : root.MASTStatistics)
+            MASTVisits += stats.values().stream().mapToInt(p -> p.a).sum();
+        assertEquals(root.rolloutActionsTaken, MASTVisits);
+        assertTrue(MASTVisits > 200 * 3 * 10);
+    }
+
+    @Test
+    public void multiTreeIsNotSupported() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MultiTree;
+        try {
+            TestMCTSPlayer.search(params, GameType.Connect4, 2);
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("Leaf-parallel"));
+        }
+    }
+}
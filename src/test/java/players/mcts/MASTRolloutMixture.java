@@ -54,8 +54,8 @@ public class MASTRolloutMixture {
         node.backUpSingleNode(new LMRAction("Left"), new double[]{1.0});
         // Create a singleton list with Left action
         List<Pair<Integer, AbstractAction>> actions = List.of(new Pair<>(0, new LMRAction("Left")));
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{1.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{2.0});
 
         assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
         assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
@@ -88,8 +88,8 @@ public class MASTRolloutMixture {
         node.backUpSingleNode(new LMRAction("Left"), new double[]{1.0});
         // Create a singleton list with Left action
         List<Pair<Integer, AbstractAction>> actions = List.of(new Pair<>(0, new LMRAction("Left")));
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{1.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{2.0});
 
         assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
         assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
@@ -128,8 +128,8 @@ public class MASTRolloutMixture {
         node.backUpSingleNode(new LMRAction("Left"), new double[]{1.0});
         // Create a singleton list with Left action
         List<Pair<Integer, AbstractAction>> actions = List.of(new Pair<>(0, new LMRAction("Left")));
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
-        node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{1.0});
+        node.updateMASTStatistics(actions, new ActionTrajectory(), new double[]{2.0});
 
         assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
         assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
@@ -0,0 +1,91 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.interfaces.IActionKey;
+import org.junit.Test;
+import utilities.Pair;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MASTTableTests {
+
+    MASTTable table = new MASTTable();
+
+    @Test
+    public void addAndMean() {
+        table.add(new LMRAction("Left"), null, 1.0);
+        table.add(new LMRAction("Left"), null, 2.0);
+        table.add(new LMRAction("Right"), null, -1.0);
+        assertEquals(2, table.size());
+        assertEquals(1.5, table.mean(new LMRAction("Left"), null, 0.0), 1e-9);
+        assertEquals(-1.0, table.mean(new LMRAction("Right"), null, 0.0), 1e-9);
+        assertEquals(0.25, table.mean(new LMRAction("Middle"), null, 0.25), 1e-9);
+        assertEquals(new Pair<>(2, 3.0), table.get(new LMRAction("Left")));
+        assertNull(table.get(new LMRAction("Middle")));
+    }
+
+    @Test
+    public void actionKeysGroupActions() {
+        IActionKey firstLetter = action -> action.toString().substring(0, 1);
+        table.add(new LMRAction("Left"), firstLetter, 1.0);
+        table.add(new LMRAction("Long"), firstLetter, 3.0);
+        assertEquals(1, table.size());
+        assertEquals(2.0, table.mean(new LMRAction("Lost"), firstLetter, 0.0), 1e-9);
+        assertEquals(new Pair<>(2, 4.0), table.get("L"));
+    }
+
+    @Test
+    public void growsAndMatchesAHashMap() {
+        Map<Object, Pair<Integer, Double>> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            AbstractAction action = new LMRAction("A" + (i % 700));
+            table.add(action, null, i);
+            Pair<Integer, Double> stats = expected.getOrDefault(action, new Pair<>(0, 0.0));
+            expected.put(action, new Pair<>(stats.a + 1, stats.b + i));
+        }
+        assertEquals(expected, table);
+        assertEquals(table, new HashMap<>(table));
+    }
+
+    @Test
+    public void putReplacesAnEntry() {
+        table.add(new LMRAction("Left"), null, 1.0);
+        assertEquals(new Pair<>(1, 1.0), table.put(new LMRAction("Left"), new Pair<>(5, 10.0)));
+        assertNull(table.put(new LMRAction("Right"), new Pair<>(1, 0.5)));
+        assertEquals(2.0, table.mean(new LMRAction("Left"), null, 0.0), 1e-9);
+        assertEquals(0.5, table.mean(new LMRAction("Right"), null, 0.0), 1e-9);
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertNull(table.get(new LMRAction("Left")));
+    }
+
+    @Test
+    public void decayAsUtils() {
+        table.put(new LMRAction("Left"), new Pair<>(10, 5.0));
+        table.put(new LMRAction("Right"), new Pair<>(1, 2.0));
+        MASTTable decayed = table.decay(0.5);
+        assertEquals(new Pair<>(5, 2.5), decayed.get(new LMRAction("Left")));
+        assertEquals(new Pair<>(0, 0.0), decayed.get(new LMRAction("Right")));
+        assertEquals(utilities.Utils.decay(new HashMap<>(table), 0.5), decayed);
+        // the original is unchanged
+        assertEquals(new Pair<>(10, 5.0), table.get(new LMRAction("Left")));
+    }
+
+    @Test
+    public void trajectoryIsReused() {
+        ActionTrajectory trajectory = new ActionTrajectory();
+        for (int i = 0; i < 40; i++)
+            trajectory.add(i % 2, new LMRAction("A" + i));
+        assertEquals(40, trajectory.size());
+        assertEquals(1, trajectory.player(39));
+        assertEquals(new LMRAction("A39"), trajectory.action(39));
+        trajectory.clear();
+        assertTrue(trajectory.isEmpty());
+        trajectory.add(1, new LMRAction("Left"));
+        assertEquals(1, trajectory.size());
+        assertEquals(new LMRAction("Left"), trajectory.action(0));
+    }
+}
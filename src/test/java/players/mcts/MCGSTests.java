@@ -2,6 +2,7 @@ package players.mcts;
 
 import core.AbstractPlayer;
 import core.Game;
+import evaluation.features.LongHashStateKey;
 import evaluation.features.StateKeyFromFeatureVector;
 import evaluation.features.TurnAndPlayerOnly;
 import games.GameType;
@@ -76,6 +77,37 @@ public class MCGSTests {
         return game;
     }
 
+    public Game createTicTacToe(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        mctsPlayer.setDebug(true);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        Game game = GameType.TicTacToe.createGameInstance(players.size(), 42);
+        game.reset(players);
+        return game;
+    }
+
+    @Test
+    public void LongHashKeyMergesTranspositions() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.budget = 1000;
+        // a key that is unique to the sequence of actions, so that no two paths share a node
+        params.MCGSStateKey = (s, p) -> s.getHistory().toString();
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        int nodesWithoutTranspositions = ((MCGSNode) mctsPlayer.getRoot(0)).getTranspositionMap().size();
+
+        params.MCGSStateKey = new LongHashStateKey();
+        game = createTicTacToe(params);
+        game.oneAction();
+        MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+        assertEquals(1000, root.getVisits());
+        assertTrue(root.getTranspositionMap().keySet().stream().allMatch(k -> k instanceof Long));
+        assertEquals(0, root.nonMatchingNodes(actionVisitsAddUp).size());
+        assertTrue(root.getTranspositionMap().size() < nodesWithoutTranspositions);
+    }
+
     @Test
     public void SingleFileDotsAndBoxes() {
         // The aim here is to have a minimal (and silly) feature that consists only of the player ID and the Round
@@ -0,0 +1,126 @@
+package players.mcts;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.features.LongHashStateKey;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class MCGSTranspositionTableTests {
+
+    MCTSParams params;
+
+    private final Predicate<SingleTreeNode> actionVisitsAddUp = node ->
+            node.getVisits() == node.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.MCGSStateKey = new LongHashStateKey();
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+    }
+
+    @Test
+    public void behavesAsAMap() {
+        MCGSTranspositionTable table = new MCGSTranspositionTable(0);
+        Map<Object, MCGSNode> expected = new HashMap<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // a mix of Long and String keys, from a small enough range that many are added again and removed
+            Object key = rnd.nextBoolean() ? (Object) (long) rnd.nextInt(2000) : "key" + rnd.nextInt(2000);
+            if (rnd.nextInt(3) == 0) {
+                assertSame(expected.remove(key), table.remove(key));
+            } else {
+                MCGSNode node = new MCGSNode();
+                assertSame(expected.put(key, node), table.put(key, node));
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        for (Object key : expected.keySet())
+            assertSame(expected.get(key), table.get(key));
+        assertEquals(expected, new HashMap<>(table));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertNull(table.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void replacesTheOldestThenLeastVisited() {
+        MCGSTranspositionTable table = new MCGSTranspositionTable(8);
+        MCGSNode graphRoot = new MCGSNode();
+        table.put(0L, graphRoot);
+        for (long key = 1; key < 8; key++) {
+            MCGSNode node = new MCGSNode();
+            node.nVisits = (int) key;
+            table.put(key, node);
+        }
+        table.age();
+        // all but 6 and 7 are found in the new search
+        for (long key = 0; key < 6; key++)
+            assertNotNull(table.probe(key));
+        // 7 is on the path of the current iteration
+        graphRoot.trajectory.add(7L);
+
+        table.add(100L, new MCGSNode(), graphRoot);
+        assertEquals(8, table.size());
+        assertFalse(table.containsKey(6L));
+        assertEquals(1, table.replacements);
+        // all are now from this search, so the least visited other than the root goes next
+        table.add(101L, new MCGSNode(), graphRoot);
+        assertFalse(table.containsKey(100L));
+        assertTrue(table.containsKey(101L));
+        assertTrue(table.containsKey(0L));
+        assertTrue(table.containsKey(7L));
+        assertEquals(8, table.size());
+        assertEquals(2, table.replacements);
+    }
+
+    @Test
+    public void boundedGraphSearch() {
+        params.MCGSTableSize = 100;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = List.of(player, new RandomPlayer(new Random(3023)));
+        Game game = GameType.Connect4.createGameInstance(players.size(), 42);
+        game.reset(players);
+        game.oneAction();
+
+        MCGSNode root = (MCGSNode) player.getRoot(0);
+        MCGSTranspositionTable table = root.getTranspositionMap();
+        assertEquals(1000, root.getVisits());
+        assertTrue(table.size() <= 100);
+        assertTrue(table.replacements > 0);
+        assertTrue(table.hits > 0);
+        assertTrue(table.misses > 0);
+        assertEquals(0, root.nonMatchingNodes(actionVisitsAddUp).size());
+    }
+
+    @Test
+    public void boundedGraphSearchWithReuse() {
+        params.MCGSTableSize = 100;
+        params.reuseTree = true;
+        params.budget = 300;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(List.of(player, new RandomPlayer(new Random(3023))));
+        for (int turn = 0; turn < 10 && game.getGameState().isNotTerminal(); turn++) {
+            game.oneAction();
+            MCGSNode root = (MCGSNode) player.getRoot(0);
+            assertTrue(root.getTranspositionMap().size() <= 100);
+            assertSame(root, root.getTranspositionMap().values().iterator().next().root);
+        }
+    }
+}
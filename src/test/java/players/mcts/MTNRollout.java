@@ -34,15 +34,15 @@ public class MTNRollout extends MultiTreeNode {
                 // the last player should be someone else
                 assertTrue(actionsInRollout.size() >= params.rolloutLength);
                 assertEquals(0, openLoopState.getTurnOwner());
-                assertNotEquals(0, actionsInRollout.get(actionsInRollout.size() - 1).a.intValue());
+                assertNotEquals(0, actionsInRollout.player(actionsInRollout.size() - 1));
                 break;
             case END_ACTION:
                 // in this case we have at least 10 actions, and finish at the end of a player's Turn
                 // which means that the current player is not the same as the player who acted last
                 // and the last player who acted should be the decision player
                 assertTrue(actionsInRollout.size() >= params.rolloutLength);
-                assertNotEquals(openLoopState.getTurnOwner(), actionsInRollout.get(actionsInRollout.size() - 1).a.intValue());
-                assertEquals(0, actionsInRollout.get(actionsInRollout.size() - 1).a.intValue());
+                assertNotEquals(openLoopState.getTurnOwner(), actionsInRollout.player(actionsInRollout.size() - 1));
+                assertEquals(0, actionsInRollout.player(actionsInRollout.size() - 1));
                 break;
             case END_TURN:
                 assertTrue(actionsInRollout.size() >= params.rolloutLength);
@@ -0,0 +1,94 @@
+package players.mcts;
+
+import core.Game;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PonderingTests {
+
+    MCTSParams params;
+    TestMCTSPlayer player;
+    Game game;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.reuseTree = true;
+        params.ponderBudget = 500;
+    }
+
+    private void createGame() {
+        player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(List.of(player, new RandomPlayer(new Random(3023))));
+    }
+
+    @Test
+    public void ponderedTreeIsReused() throws Exception {
+        createGame();
+        game.oneAction();
+        assertNotNull(player.ponderSearch);
+        SingleTreeNode ponderRoot = player.ponderRoot;
+        assertEquals(1, ponderRoot.decisionPlayer);
+        assertNotSame(ponderRoot, player.getRoot());
+        // let the search use all of its budget before the opponent moves
+        player.ponderSearch.get();
+        assertEquals(500, ponderRoot.getVisits());
+
+        game.oneAction();
+        game.oneAction();
+        SingleTreeNode root = player.getRoot();
+        assertEquals(500, player.getPonderIterations());
+        assertTrue(root.inheritedVisits > 0);
+        assertEquals(root.inheritedVisits + 200, root.getVisits());
+        assertEquals(0, root.getDepth());
+        // and a new search is started from the state after this decision
+        assertNotNull(player.ponderSearch);
+        assertNotSame(ponderRoot, player.ponderRoot);
+    }
+
+    @Test
+    public void pondersThroughAWholeGame() {
+        params.ponderBudget = 100000;
+        createGame();
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        // stopped when the game ends
+        assertNull(player.ponderSearch);
+    }
+
+    @Test
+    public void noPonderingInCompetitionMode() {
+        createGame();
+        game.getGameState().getCoreGameParameters().competitionMode = true;
+        game.oneAction();
+        assertNull(player.ponderSearch);
+        assertNull(player.ponderRoot);
+    }
+
+    @Test
+    public void selfOnlyIsNotSupported() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        createGame();
+        try {
+            game.oneAction();
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("Pondering"));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package players.mcts;
+
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class ReusedStatesTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(4021);
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        // without rollouts the state a node keeps is the one that reached it, which does not depend on the random
+        // rollout policy
+        params.rolloutLength = 0;
+        params.maxTreeDepth = 10;
+    }
+
+    private SingleTreeNode search(boolean reuseStates) {
+        params.reuseStates = reuseStates;
+        return TestMCTSPlayer.search(params, GameType.TicTacToe, 2);
+    }
+
+    private void compareTrees(SingleTreeNode pooled, SingleTreeNode copied) {
+        assertEquals(copied.getVisits(), pooled.getVisits());
+        assertEquals(copied.state, pooled.state);
+        assertEquals(copied.openLoopState, pooled.openLoopState);
+        assertEquals(copied.children.keySet(), pooled.children.keySet());
+        Iterator<SingleTreeNode[]> copiedChildren = copied.children.values().iterator();
+        for (SingleTreeNode[] pooledArray : pooled.children.values()) {
+            SingleTreeNode[] copiedArray = copiedChildren.next();
+            if (pooledArray == null || copiedArray == null) {
+                assertSame(copiedArray, pooledArray);
+                continue;
+            }
+            for (int i = 0; i < pooledArray.length; i++) {
+                if (pooledArray[i] == null || copiedArray[i] == null)
+                    assertSame(copiedArray[i], pooledArray[i]);
+                else
+                    compareTrees(pooledArray[i], copiedArray[i]);
+            }
+        }
+    }
+
+    @Test
+    public void statesAreNotReusedByDefault() {
+        assertFalse(new MCTSParams().reuseStates);
+        assertNull(search(false).statePool);
+    }
+
+    @Test
+    public void statesAreReusedWhenDiscarded() {
+        SingleTreeNode pooled = search(true);
+        assertNotNull(pooled.statePool);
+        compareTrees(pooled, search(false));
+    }
+
+    @Test
+    public void statesKeptByNodesAreNotReused() {
+        params.discardStateAfterEachIteration = false;
+        SingleTreeNode pooled = search(true);
+        assertNull(pooled.statePool);
+        compareTrees(pooled, search(false));
+    }
+
+    @Test
+    public void masterStatesAreNotReused() {
+        params.maintainMasterState = true;
+        SingleTreeNode pooled = search(true);
+        assertNotNull(pooled.statePool);
+        compareTrees(pooled, search(false));
+    }
+}
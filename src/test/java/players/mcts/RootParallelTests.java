@@ -0,0 +1,139 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RootParallelTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // the other trees are searched by copies of the player, so parameters must be registered
+        params = new MCTSParams();
+        params.setParameterValue("randomSeed", 9332);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 400);
+        params.setParameterValue("rolloutLength", 10);
+        params.setParameterValue("rootParallelThreads", 4);
+    }
+
+    private int totalFMCalls(TestMCTSPlayer player) {
+        return player.getRoot().fmCallsCount +
+                Arrays.stream(player.parallelSearches).mapToInt(p -> p.root.fmCallsCount).sum();
+    }
+
+    @Test
+    public void iterationBudgetIsSharedBetweenTrees() {
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        player.setForwardModel(fm);
+        for (int move = 0; move < 3; move++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction chosen = player._getAction(state, actions);
+            assertTrue(actions.contains(chosen));
+
+            assertArrayEquals(new int[]{100, 100, 100, 100}, player.threadIterations);
+            assertEquals(3, player.parallelSearches.length);
+            SingleTreeNode root = player.getRoot();
+            assertEquals(400, root.getVisits());
+            assertEquals(400, Arrays.stream(root.actionVisits()).sum());
+            // each of the trees has been searched separately
+            for (MCTSPlayer search : player.parallelSearches) {
+                assertNotSame(root, search.root);
+                assertEquals(100, search.root.getVisits());
+            }
+            fm.next(state, chosen);
+        }
+    }
+
+    @Test
+    public void fmCallBudgetIsSharedBetweenTrees() {
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_FM_CALLS);
+        params.setParameterValue("budget", 2000);
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        player.setForwardModel(game.getForwardModel());
+        AbstractGameState state = game.getGameState();
+        player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+
+        // each tree stops once it has passed its share, which it can only overshoot by one iteration
+        int total = totalFMCalls(player);
+        assertTrue(total > 2000);
+        assertTrue(total <= 2000 + 4 * 20);
+        int iterations = Arrays.stream(player.threadIterations).sum();
+        assertEquals(iterations, player.getRoot().getVisits());
+    }
+
+    @Test
+    public void oneThreadIsAnOrdinarySearch() {
+        params.setParameterValue("rootParallelThreads", 1);
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        player.setForwardModel(game.getForwardModel());
+        AbstractGameState state = game.getGameState();
+        player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        assertEquals(0, player.parallelSearches.length);
+        assertArrayEquals(new int[]{400}, player.threadIterations);
+        assertEquals(400, player.getRoot().getVisits());
+    }
+
+    @Test
+    public void playsWholeGamesWithTreeReuse() {
+        params.setParameterValue("reuseTree", true);
+        params.setParameterValue("budget", 200);
+        for (MCTSEnums.OpponentTreePolicy policy : new MCTSEnums.OpponentTreePolicy[]{
+                MCTSEnums.OpponentTreePolicy.OneTree, MCTSEnums.OpponentTreePolicy.MultiTree}) {
+            params.setParameterValue("opponentTreePolicy", policy);
+            TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+            player.rolloutTest = false;
+            Game game = GameType.Connect4.createGameInstance(2, 42);
+            game.reset(List.of(player, new RandomPlayer()));
+            game.run();
+            assertFalse(game.getGameState().isNotTerminal());
+            assertEquals(3, player.parallelSearches.length);
+        }
+    }
+
+    @Test
+    public void multiTreeMergesTreesOfDecisionPlayer() {
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.MultiTree);
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        // the player is not the first, and the copies that search the other trees are not given an ID by the game
+        game.reset(List.of(new RandomPlayer(), player));
+        AbstractGameState state = game.getGameState();
+        for (int decision = 0; decision < 10 && state.isNotTerminal(); decision++) {
+            boolean ours = state.getCurrentPlayer() == 1;
+            List<AbstractAction> actions = game.getForwardModel().computeAvailableActions(state);
+            game.oneAction();
+            if (ours) {
+                SingleTreeNode root = player.getRoot().decisionRoot();
+                assertEquals(1, root.decisionPlayer);
+                assertTrue(actions.containsAll(root.actionValues.keySet()));
+                for (MCTSPlayer search : player.parallelSearches) {
+                    MultiTreeNode searchRoot = (MultiTreeNode) search.root;
+                    for (int p = 0; p < 2; p++)
+                        assertTrue(searchRoot.getRoot(p) == null || searchRoot.getRoot(p).decisionPlayer == p);
+                }
+                assertArrayEquals(new int[]{50, 50, 50, 50}, player.threadIterations);
+            }
+        }
+    }
+}
@@ -11,7 +11,7 @@ import static org.junit.Assert.*;
 public class STNRollout extends SingleTreeNode {
 
     static int lastActorInTree, staticRolloutDepth, staticPenultimateTurn, staticPenultimateRound;
-    List<Pair<Integer, AbstractAction>> rolloutActions;
+    ActionTrajectory rolloutActions;
 
     @Override
     protected void oneSearchIteration() {
@@ -38,15 +38,15 @@ public class STNRollout extends SingleTreeNode {
                 // the last player should be someone else
                 assertTrue(staticRolloutDepth >= expectedRolloutLength);
                 assertEquals(0, openLoopState.getTurnOwner());
-                assertNotEquals(0, rolloutActions.get(rolloutActions.size() - 1).a.intValue());
+                assertNotEquals(0, rolloutActions.player(rolloutActions.size() - 1));
                 break;
             case END_ACTION:
                 // in this case we have at least expected actions, and finish at the end of a player's Turn
                 // which means that the current player is not the same as the player who acted last
                 // and the last player who acted should be the decision player
                 assertTrue(staticRolloutDepth >= expectedRolloutLength);
-                assertNotEquals(openLoopState.getTurnOwner(), rolloutActions.get(rolloutActions.size() - 1).a.intValue());
-                assertEquals(0, rolloutActions.get(rolloutActions.size() - 1).a.intValue());
+                assertNotEquals(openLoopState.getTurnOwner(), rolloutActions.player(rolloutActions.size() - 1));
+                assertEquals(0, rolloutActions.player(rolloutActions.size() - 1));
                 break;
             case END_TURN:
                 // in this case we have at least expected actions, and finish at the end of a player's Turn
@@ -68,7 +68,7 @@ public class STNRollout extends SingleTreeNode {
     }
 
     @Override
-    protected void updateMASTStatistics(List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
+    protected void updateMASTStatistics(List<Pair<Integer, AbstractAction>> tree, ActionTrajectory rollout, double[] value) {
         rolloutActions = rollout;
     }
 
@@ -0,0 +1,83 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static players.mcts.SearchProfile.Phase.*;
+
+public class SearchProfileTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Open_Loop;
+    }
+
+    @Test
+    public void eachPhaseIsTimed() {
+        params.profileSearch = true;
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+        SearchProfile profile = root.profile;
+        assertNotNull(profile);
+        assertEquals(200, profile.iterations);
+        for (SearchProfile.Phase phase : new SearchProfile.Phase[]{Selection, Rollout, Heuristic, Backup}) {
+            assertEquals(200, profile.calls[phase.ordinal()]);
+            assertTrue(profile.nanos[phase.ordinal()] > 0);
+        }
+        assertTrue(profile.calls[Expansion.ordinal()] > 0);
+        assertTrue(profile.calls[Copy.ordinal()] >= 200);
+        assertTrue(profile.calls[Actions.ordinal()] > 0);
+        assertTrue(profile.totalNanos >= profile.nanos[Selection.ordinal()] + profile.nanos[Rollout.ordinal()]);
+    }
+
+    @Test
+    public void profileIsRemadeForEachSearch() {
+        params.profileSearch = true;
+        params.reuseTree = true;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        AbstractGameState state = game.getGameState();
+        for (int decision = 0; decision < 3; decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, player._getAction(state.copy(), actions));
+            assertEquals(200, player.getRoot().profile.iterations);
+            assertEquals(200, player.getRoot().profile.calls[Backup.ordinal()]);
+        }
+    }
+
+    @Test
+    public void noProfileByDefault() {
+        SingleTreeNode root = TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+        assertEquals(200, root.getVisits());
+        assertNull(root.profile);
+    }
+
+    @Test
+    public void treeParallelIsNotSupported() {
+        params.profileSearch = true;
+        params.treeParallelThreads = 2;
+        try {
+            TestMCTSPlayer.search(params, GameType.LoveLetter, 3);
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("profiling"));
+        }
+    }
+}
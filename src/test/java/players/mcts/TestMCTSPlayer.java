@@ -1,7 +1,10 @@
 package players.mcts;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
+import core.Game;
 import core.actions.AbstractAction;
+import games.GameType;
 import players.mcts.MCTSParams;
 import players.mcts.MCTSPlayer;
 import players.mcts.MultiTreeNode;
@@ -15,6 +18,7 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertTrue;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
 
 public class TestMCTSPlayer extends MCTSPlayer {
@@ -34,6 +38,30 @@ public class TestMCTSPlayer extends MCTSPlayer {
         return factory;
     }
 
+    /**
+     * Makes one decision from the given state with a new player, and checks that the action chosen is one of those
+     * available.
+     * @return the player, whose tree is then at getRoot()
+     */
+    public static TestMCTSPlayer search(MCTSParams params, AbstractGameState state, AbstractForwardModel fm) {
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.setForwardModel(fm);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractAction chosen = player._getAction(state, actions);
+        assertTrue(actions.contains(chosen));
+        return player;
+    }
+
+    /**
+     * Makes the first decision of a game (seed 42) of the given type, from the view of the first player.
+     * @return the root of the tree searched
+     */
+    public static SingleTreeNode search(MCTSParams params, GameType gameType, int nPlayers) {
+        Game game = gameType.createGameInstance(nPlayers, 42);
+        AbstractGameState state = game.getGameState();
+        return search(params, state.copy(state.getCurrentPlayer()), game.getForwardModel()).getRoot();
+    }
+
     public void setDebug(boolean debug) {
         this.debug = debug;
     }
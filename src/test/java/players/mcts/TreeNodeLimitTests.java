@@ -0,0 +1,104 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TreeNodeLimitTests {
+
+    MCTSParams params;
+    Game game;
+    AbstractForwardModel fm;
+    AbstractGameState state;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.rolloutLength = 10;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.maxTreeNodes = 200;
+        game = GameType.Connect4.createGameInstance(2, 42);
+        fm = game.getForwardModel();
+        state = game.getGameState();
+    }
+
+    @Test
+    public void stopExpandingKeepsToTheLimit() {
+        SingleTreeNode root = TestMCTSPlayer.search(params, state, fm).getRoot();
+        TreeStatistics stats = new TreeStatistics(root);
+        assertEquals(200, stats.totalNodes);
+        assertEquals(200, root.treeNodes);
+        assertEquals(0, stats.pruneEvents);
+        // the iterations after the tree is full still count at the root
+        assertEquals(1000, root.getVisits());
+    }
+
+    @Test
+    public void pruningKeepsBelowTheLimit() {
+        params.treeNodeLimit = MCTSEnums.TreeNodeLimit.PruneLeastVisited;
+        SingleTreeNode root = TestMCTSPlayer.search(params, state, fm).getRoot();
+        TreeStatistics stats = new TreeStatistics(root);
+        assertTrue(stats.totalNodes <= 200);
+        assertEquals(stats.totalNodes, root.treeNodes);
+        assertTrue(stats.pruneEvents > 0);
+        assertTrue(stats.prunedNodes >= 800 - 200);
+        // the statistics of the actions at the root are all kept
+        assertEquals(1000, root.getVisits());
+        int rootVisits = 0;
+        for (ActionStats actionStats : root.actionValues.values())
+            rootVisits += actionStats.nVisits;
+        assertEquals(1000, rootVisits);
+    }
+
+    @Test
+    public void noLimit() {
+        params.maxTreeNodes = 0;
+        SingleTreeNode root = TestMCTSPlayer.search(params, state, fm).getRoot();
+        assertEquals(new TreeStatistics(root).totalNodes, root.treeNodes);
+        assertTrue(root.treeNodes > 900);
+    }
+
+    @Test
+    public void reusedTreeIsCounted() {
+        for (MCTSEnums.TreeNodeLimit limit : MCTSEnums.TreeNodeLimit.values()) {
+            params.treeNodeLimit = limit;
+            params.reuseTree = true;
+            params.budget = 300;
+            TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+            player.rolloutTest = false;
+            Game game = GameType.Connect4.createGameInstance(2, 42);
+            game.reset(List.of(player, new RandomPlayer()));
+            for (int turn = 0; turn < 8 && game.getGameState().isNotTerminal(); turn++) {
+                game.oneAction();
+                SingleTreeNode root = player.getRoot();
+                if (root != null) {
+                    assertEquals(new TreeStatistics(root).totalNodes, root.treeNodes);
+                    assertTrue(root.treeNodes <= 200);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiTreeIsNotSupported() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MultiTree;
+        try {
+            TestMCTSPlayer.search(params, state, fm);
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("maxTreeNodes"));
+        }
+    }
+}
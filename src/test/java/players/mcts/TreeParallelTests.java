@@ -0,0 +1,143 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TreeParallelTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.rolloutLength = 10;
+        params.treeParallelThreads = 4;
+    }
+
+    // once the search is over, every visit to a node has been backed up through exactly one of its actions,
+    // so that no virtual losses are left behind
+    private static void checkVisits(SingleTreeNode root) {
+        Deque<SingleTreeNode> nodes = new ArrayDeque<>();
+        nodes.add(root);
+        while (!nodes.isEmpty()) {
+            SingleTreeNode node = nodes.pop();
+            assertEquals(node.nVisits, Arrays.stream(node.actionVisits()).sum());
+            for (ActionStats stats : node.actionValues.values())
+                assertTrue(stats.validVisits >= stats.nVisits);
+            for (SingleTreeNode[] children : node.children.values())
+                if (children != null)
+                    Arrays.stream(children).filter(c -> c != null && !c.terminalNode).forEach(nodes::add);
+        }
+    }
+
+    private SingleTreeNode search(GameType gameType, int moves) {
+        Game game = gameType.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        for (int move = 0; move < moves; move++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(move % actions.size()));
+        }
+        return TestMCTSPlayer.search(params, state, fm).getRoot();
+    }
+
+    @Test
+    public void iterationBudgetIsSharedByTheThreads() {
+        for (MCTSEnums.TreePolicy policy : new MCTSEnums.TreePolicy[]{
+                MCTSEnums.TreePolicy.UCB, MCTSEnums.TreePolicy.UCB_Tuned, MCTSEnums.TreePolicy.AlphaGo}) {
+            params.treePolicy = policy;
+            SingleTreeNode root = search(GameType.Connect4, 2);
+            assertEquals(1000, root.getVisits());
+            assertEquals(4, root.threadIterations.length);
+            assertEquals(1000, Arrays.stream(root.threadIterations).sum());
+            assertTrue(new TreeStatistics(root).totalNodes > 100);
+            checkVisits(root);
+        }
+    }
+
+    @Test
+    public void fmCallsAreCountedFromAllThreads() {
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 5000;
+        params.information = MCTSEnums.Information.Open_Loop;
+        SingleTreeNode root = search(GameType.Connect4, 0);
+        // a search can run over by an iteration for each thread
+        assertTrue(root.fmCallsCount > 5000);
+        assertTrue(root.fmCallsCount < 5000 + 4 * 30);
+        checkVisits(root);
+    }
+
+    @Test
+    public void selfOnlyAndParanoidTrees() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        SingleTreeNode root = search(GameType.Connect4, 2);
+        assertEquals(1000, root.getVisits());
+        checkVisits(root);
+
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.paranoid = true;
+        root = search(GameType.Connect4, 2);
+        assertEquals(1000, root.getVisits());
+        checkVisits(root);
+    }
+
+    @Test
+    public void pUCTWithSharedTree() {
+        params.pUCT = true;
+        // later actions in the list are more likely to be chosen
+        params.actionHeuristic = (a, s, l) -> 1.0 + l.indexOf(a);
+        for (double temperature : new double[]{0.0, 1.0}) {
+            params.pUCTTemperature = temperature;
+            SingleTreeNode root = search(GameType.Connect4, 2);
+            assertEquals(1000, root.getVisits());
+            assertEquals(1000, Arrays.stream(root.threadIterations).sum());
+            checkVisits(root);
+            assertEquals(root.actionsFromOpenLoopState.size(), root.actionPDFEstimates.size());
+            assertEquals(1.0, root.actionPDFEstimates.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-6);
+        }
+    }
+
+    @Test
+    public void playsAWholeGame() {
+        params.budget = 200;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(List.of(player, new RandomPlayer()));
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+    }
+
+    @Test
+    public void multiTreeIsNotSupported() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MultiTree;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        player.rolloutTest = false;
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        player.setForwardModel(game.getForwardModel());
+        AbstractGameState state = game.getGameState();
+        try {
+            player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+            fail("Expected an AssertionError");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage().contains("Tree-parallel"));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package players.rhea;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RHEAParallelTests {
+
+    RHEAParams params;
+
+    @Before
+    public void setup() {
+        params = new RHEAParams();
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 20;
+        params.horizon = 8;
+        params.mutationCount = 2;
+    }
+
+    private RHEAPlayer search(GameType gameType, int decisions) {
+        Game game = gameType.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        RHEAPlayer player = new RHEAPlayer(params);
+        player.getRnd().setSeed(42);
+        player.setForwardModel(fm);
+        player.initializePlayer(state);
+        for (int decision = 0; decision < decisions && state.isNotTerminal(); decision++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction chosen = player._getAction(state.copy(), actions);
+            assertTrue(actions.contains(chosen));
+            fm.next(state, chosen);
+            // the opponent plays the first action
+            if (state.isNotTerminal())
+                fm.next(state, fm.computeAvailableActions(state).get(0));
+        }
+        return player;
+    }
+
+    @Test
+    public void parallelSearchDoesNotDependOnThreads() {
+        params.parallelThreads = 2;
+        RHEAPlayer two = search(GameType.Connect4, 3);
+        params.parallelThreads = 3;
+        RHEAPlayer three = search(GameType.Connect4, 3);
+        assertEquals(two.fmCalls, three.fmCalls);
+        assertEquals(two.copyCalls, three.copyCalls);
+        assertEquals(two.population.size(), three.population.size());
+        for (int i = 0; i < two.population.size(); i++) {
+            assertEquals(two.population.get(i).value, three.population.get(i).value, 1e-9);
+            assertArrayEquals(two.population.get(i).actions, three.population.get(i).actions);
+        }
+    }
+
+    @Test
+    public void parallelSearchWithShiftAndMAST() {
+        params.parallelThreads = 4;
+        params.shiftLeft = true;
+        params.useMAST = true;
+        RHEAPlayer player = search(GameType.Connect4, 4);
+        assertEquals(params.populationSize, player.population.size());
+        assertTrue(player.fmCalls > 0);
+    }
+
+    @Test
+    public void parallelSearchChecksBudgetBetweenBatches() {
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 2 * params.horizon;
+        params.parallelThreads = 2;
+        params.shiftLeft = true;
+        for (int decisions = 1; decisions <= 2; decisions++) {
+            RHEAPlayer player = search(GameType.Connect4, decisions);
+            // the budget is used up before the whole population is created, and is passed by at most one batch
+            assertTrue(player.population.size() < params.populationSize);
+            assertTrue(player.fmCalls < params.budget + params.parallelThreads * params.horizon);
+        }
+    }
+
+    @Test
+    public void parallelTimeBudgetIsOfElapsedTime() {
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 300;
+        params.parallelThreads = 4;
+        long start = System.currentTimeMillis();
+        RHEAPlayer player = search(GameType.Connect4, 1);
+        // the CPU time of the searching thread alone would let the search run on while it waits for the others
+        assertTrue(System.currentTimeMillis() - start < 2 * params.budget);
+        assertTrue(player.fmCalls > 0);
+    }
+
+    @Test
+    public void closedLoopKeepsStatesOfActions() {
+        params.closedLoop = true;
+        params.crossoverType = RHEAEnums.CrossoverType.UNIFORM;
+        RHEAPlayer player = search(GameType.Connect4, 2);
+        for (RHEAIndividual individual : player.population) {
+            // after its last rollout all the states of an individual are reached by its actions
+            assertEquals(individual.length + 1, individual.validStates);
+            double delta = 0, previous = 0;
+            for (int i = 0; i < individual.length; i++) {
+                double score = params.heuristic.evaluateState(individual.gameStates[i + 1], player.getPlayerID());
+                assertEquals(score, individual.scores[i + 1], 1e-9);
+                delta += Math.pow(params.discountFactor, i) * (score - previous);
+                previous = score;
+            }
+            assertEquals(delta, individual.value, 1e-9);
+        }
+    }
+
+    @Test
+    public void closedLoopDoesNotEvaluatePrefixAgain() {
+        // without crossover the same states are simulated either way (and a parallel search has its own
+        // rollout policies, seeded from the player, so these are the same in both searches)
+        params.crossoverType = RHEAEnums.CrossoverType.NONE;
+        params.parallelThreads = 2;
+        AtomicInteger evaluations = new AtomicInteger();
+        params.heuristic = (state, playerId) -> {
+            evaluations.incrementAndGet();
+            return state.getGameScore(playerId);
+        };
+        RHEAPlayer open = search(GameType.Connect4, 1);
+        int openEvaluations = evaluations.getAndSet(0);
+        params.closedLoop = true;
+        RHEAPlayer closed = search(GameType.Connect4, 1);
+        assertEquals(open.fmCalls, closed.fmCalls);
+        assertEquals(open.copyCalls, closed.copyCalls);
+        assertEquals(open.population.get(0).value, closed.population.get(0).value, 1e-9);
+        assertTrue(evaluations.get() < openEvaluations);
+    }
+}
@@ -0,0 +1,80 @@
+package players.rmhc;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RMHCBatchTests {
+
+    RMHCParams params;
+
+    @Before
+    public void setup() {
+        params = new RMHCParams();
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 30;
+        params.horizon = 6;
+        params.batchSize = 4;
+    }
+
+    private RMHCPlayer search(GameType gameType) {
+        Game game = gameType.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        RMHCPlayer player = new RMHCPlayer(params);
+        player.getRnd().setSeed(42);
+        player.setForwardModel(fm);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractAction chosen = player._getAction(state.copy(), actions);
+        assertTrue(actions.contains(chosen));
+        return player;
+    }
+
+    @Test
+    public void batchDoesNotDependOnThreads() {
+        RMHCPlayer serial = search(GameType.Connect4);
+        params.parallelThreads = 3;
+        RMHCPlayer parallel = search(GameType.Connect4);
+        assertEquals(30, parallel.numIters);
+        assertEquals(serial.fmCalls, parallel.fmCalls);
+        assertEquals(serial.copyCalls, parallel.copyCalls);
+        assertEquals(serial.bestIndividual.value, parallel.bestIndividual.value, 1e-9);
+        assertArrayEquals(serial.bestIndividual.actions, parallel.bestIndividual.actions);
+    }
+
+    @Test
+    public void batchStopsAtFMBudget() {
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 500;
+        params.parallelThreads = 2;
+        RMHCPlayer batched = search(GameType.Connect4);
+        params.batchSize = 1;
+        RMHCPlayer single = search(GameType.Connect4);
+        // the budget is checked after each iteration, which counts the calls of every mutant in it
+        assertTrue(batched.fmCalls >= 500);
+        assertTrue(single.fmCalls >= 500);
+        assertTrue(batched.numIters < single.numIters);
+    }
+
+    @Test
+    public void parallelTimeBudgetIsOfElapsedTime() {
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 300;
+        params.batchSize = 8;
+        params.parallelThreads = 4;
+        long start = System.currentTimeMillis();
+        RMHCPlayer player = search(GameType.Connect4);
+        // the CPU time of the searching thread alone would let the search run on while it waits for the others
+        assertTrue(System.currentTimeMillis() - start < 2 * params.budget);
+        assertTrue(player.numIters > 0);
+    }
+}
@@ -0,0 +1,72 @@
+package players.search;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MaxNParallelTests {
+
+    private static MaxNSearchPlayer createPlayer(AbstractForwardModel forwardModel, int depth, boolean paranoid,
+                                                 int threads, int tableSize) {
+        MaxNSearchParameters params = MaxNTestPlayers.parameters(depth, paranoid);
+        params.parallelThreads = threads;
+        params.transpositionTableSize = tableSize;
+        params.expandByEstimatedValue = tableSize > 0;
+        return MaxNTestPlayers.createPlayer(params, forwardModel);
+    }
+
+    private void compareSearches(int threads, int tableSize) {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        // the siblings searched at the same time may prune less
+        MaxNTestPlayers.compareSearches(fm, state, createPlayer(fm, 5, true, 1, 0),
+                createPlayer(fm, 5, true, threads, tableSize), 8);
+    }
+
+    @Test
+    public void parallelAlphaBetaFindsSameValues() {
+        compareSearches(2, 0);
+        compareSearches(4, 0);
+    }
+
+    @Test
+    public void parallelAlphaBetaWithTableFindsSameValues() {
+        compareSearches(4, 1 << 16);
+    }
+
+    @Test
+    public void parallelMaxNChoosesLegalAction() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        MaxNSearchPlayer player = createPlayer(fm, 4, false, 3, 0);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractAction action = player._getAction(state.copy(), actions);
+        assertTrue(actions.contains(action));
+        assertEquals(actions.size(), player.getRootResult().allActionValues().size());
+    }
+
+    @Test
+    public void parallelIterativeDeepeningStopsInTime() {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        MaxNSearchPlayer player = createPlayer(fm, 40, true, 4, 1 << 16);
+        player.getParameters().iterativeDeepening = true;
+        player.getParameters().budget = 100;
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        long start = System.currentTimeMillis();
+        AbstractAction action = player._getAction(state.copy(), actions);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(actions.contains(action));
+        assertTrue(player.getDepthReached() >= 1);
+    }
+}
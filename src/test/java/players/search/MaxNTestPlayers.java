@@ -0,0 +1,64 @@
+package players.search;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import players.PlayerConstants;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The players of the MaxN search tests. These search to a fixed depth, with alpha-beta pruning and no time limit, so
+ * that two searches of the same state can be compared.
+ */
+class MaxNTestPlayers {
+
+    /**
+     * @param heuristic the heuristic to use, or null for the game's own score
+     */
+    static MaxNSearchParameters parameters(int depth, boolean paranoid, IStateHeuristic heuristic) {
+        MaxNSearchParameters params = new MaxNSearchParameters();
+        if (heuristic != null)
+            params.setParameterValue("heuristic", heuristic);
+        params.budget = Integer.MAX_VALUE;
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.paranoid = paranoid;
+        params.alphaBetaPruning = true;
+        params.searchDepth = depth;
+        params.setRandomSeed(11);
+        return params;
+    }
+
+    static MaxNSearchParameters parameters(int depth, boolean paranoid) {
+        return parameters(depth, paranoid, null);
+    }
+
+    static MaxNSearchPlayer createPlayer(MaxNSearchParameters params, AbstractForwardModel forwardModel) {
+        MaxNSearchPlayer player = new MaxNSearchPlayer(params);
+        player.setForwardModel(forwardModel);
+        return player;
+    }
+
+    /**
+     * Plays up to the given number of moves from the state with the actions chosen by other, checking at each that it
+     * searches to its full depth and finds the same value as reference.
+     * @return the number of hits in the transposition table of other over all the moves
+     */
+    static int compareSearches(AbstractForwardModel fm, AbstractGameState state, MaxNSearchPlayer reference,
+                               MaxNSearchPlayer other, int moves) {
+        int hits = 0;
+        for (int move = 0; move < moves && state.isNotTerminal(); move++) {
+            reference._getAction(state.copy(), fm.computeAvailableActions(state));
+            AbstractAction action = other._getAction(state.copy(), fm.computeAvailableActions(state));
+            // the two may search more or less of the tree, but the value found is the same
+            assertArrayEquals(reference.getRootResult().value(), other.getRootResult().value(), 1e-9);
+            assertEquals(other.getParameters().searchDepth, other.getDepthReached());
+            if (other.transpositionTable != null)
+                hits += other.transpositionTable.hits;
+            fm.next(state, action);
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,76 @@
+package players.search;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Test;
+import utilities.Zobrist;
+
+import static org.junit.Assert.*;
+
+public class MaxNTranspositionTests {
+
+    private static MaxNSearchPlayer createPlayer(AbstractForwardModel forwardModel, int depth, boolean paranoid,
+                                                 int tableSize, boolean ordering, IStateHeuristic heuristic) {
+        MaxNSearchParameters params = MaxNTestPlayers.parameters(depth, paranoid, heuristic);
+        params.transpositionTableSize = tableSize;
+        params.expandByEstimatedValue = ordering;
+        return MaxNTestPlayers.createPlayer(params, forwardModel);
+    }
+
+    private void compareSearches(GameType gameType, int depth, boolean paranoid, int moves, IStateHeuristic heuristic) {
+        Game game = gameType.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        MaxNSearchPlayer plain = createPlayer(fm, depth, paranoid, 0, false, heuristic);
+        MaxNSearchPlayer withTable = createPlayer(fm, depth, paranoid, 1 << 16, true, heuristic);
+        // the table changes how much is searched, but not the value found
+        assertTrue(MaxNTestPlayers.compareSearches(fm, state, plain, withTable, moves) > 0);
+    }
+
+    @Test
+    public void alphaBetaWithTableFindsSameValues() {
+        compareSearches(GameType.Connect4, 5, true, 12, null);
+    }
+
+    @Test
+    public void maxNWithTableFindsSameValues() {
+        // with MaxN the value found depends on how ties are broken, so each state has a different (arbitrary) value
+        IStateHeuristic noTies = (state, player) -> (Zobrist.key(state.longHash(), player) >>> 11) * 0x1.0p-53;
+        compareSearches(GameType.TicTacToe, 4, false, 6, noTies);
+    }
+
+    @Test
+    public void tableIsNotUsedWithoutLongHash() {
+        // the longHash() of a DotsAndBoxes state is only its 32-bit hashCode(), which may collide
+        Game game = GameType.DotsAndBoxes.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        assertFalse(state.hasLongHash());
+        MaxNSearchPlayer player = createPlayer(fm, 2, true, 1 << 16, true, null);
+        player._getAction(state.copy(), fm.computeAvailableActions(state));
+        assertNull(player.transpositionTable);
+        assertEquals(2, player.getDepthReached());
+    }
+
+    @Test
+    public void iterativeDeepeningUsesDeepestSearchThatFinished() {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        MaxNSearchPlayer player = createPlayer(fm, 40, true, 1 << 16, true, null);
+        player.getParameters().iterativeDeepening = true;
+        player.getParameters().budget = 100;
+        player._getAction(state.copy(), fm.computeAvailableActions(state));
+        int depth = player.getDepthReached();
+        assertTrue(depth >= 1 && depth < 40);
+
+        // the same value as a fixed-depth search to that depth
+        MaxNSearchPlayer fixed = createPlayer(fm, depth, true, 0, false, null);
+        fixed._getAction(state.copy(), fm.computeAvailableActions(state));
+        assertEquals(depth, fixed.getDepthReached());
+        assertArrayEquals(fixed.getRootResult().value(), player.getRootResult().value(), 1e-9);
+    }
+}
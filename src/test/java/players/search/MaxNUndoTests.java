@@ -0,0 +1,47 @@
+package players.search;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MaxNUndoTests {
+
+    private static MaxNSearchPlayer createPlayer(AbstractForwardModel forwardModel) {
+        return MaxNTestPlayers.createPlayer(MaxNTestPlayers.parameters(3, true), forwardModel);
+    }
+
+    @Test
+    public void undoGivesSameSearchAsCopying() {
+        // the same search, once undoing each action and once copying the state for each action
+        Connect4ForwardModel undoFM = new Connect4ForwardModel();
+        Connect4ForwardModel copyFM = new Connect4ForwardModel() {
+            @Override
+            public boolean supportsUndo() {
+                return false;
+            }
+        };
+        Connect4GameState state = new Connect4GameState(new Connect4GameParameters(), 2);
+        undoFM.setup(state);
+        MaxNSearchPlayer undoPlayer = createPlayer(undoFM);
+        MaxNSearchPlayer copyPlayer = createPlayer(copyFM);
+
+        for (int move = 0; move < 12 && state.isNotTerminal(); move++) {
+            AbstractGameState before = state.copy();
+            AbstractAction copyAction = copyPlayer._getAction(state.copy(), undoFM.computeAvailableActions(state));
+            AbstractAction undoAction = undoPlayer._getAction(state, undoFM.computeAvailableActions(state));
+            // the search must leave the state it was given as it was
+            assertEquals(before, state);
+            assertEquals(before.getHistoryAsText(), state.getHistoryAsText());
+
+            assertEquals(copyAction, undoAction);
+            assertArrayEquals(copyPlayer.getRootResult().value(), undoPlayer.getRootResult().value(), 1e-9);
+            undoFM.next(state, undoAction);
+        }
+    }
+}
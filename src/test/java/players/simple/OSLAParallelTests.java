@@ -0,0 +1,81 @@
+package players.simple;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class OSLAParallelTests {
+
+    // no ties, so that the choice does not depend on the order the states are scored in
+    static final IStateHeuristic noTies = (state, player) -> (state.hashCode() & 0xFFFF) / 65536.0;
+
+    @Test
+    public void parallelChoosesSameActions() {
+        Game game = GameType.DotsAndBoxes.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        OSLAPlayer serial = new OSLAPlayer(noTies, new Random(7));
+        serial.setForwardModel(fm);
+        OSLAPlayer parallel = new OSLAPlayer(noTies, new Random(7));
+        parallel.setParallelThreads(3);
+        parallel.setForwardModel(fm);
+        int parallelDecisions = 0;
+        while (state.isNotTerminal()) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            if (actions.size() >= OSLAPlayer.PARALLEL_MIN_ACTIONS)
+                parallelDecisions++;
+            AbstractAction expected = serial.getAction(state.copy(), actions);
+            AbstractAction chosen = parallel.getAction(state.copy(), actions);
+            assertEquals(expected, chosen);
+            fm.next(state, chosen);
+        }
+        assertTrue(parallelDecisions > 0);
+    }
+
+    @Test
+    public void parallelStatesAreScoredInBatches() {
+        AtomicInteger batches = new AtomicInteger(), states = new AtomicInteger(), single = new AtomicInteger();
+        IStateHeuristic counting = new IStateHeuristic() {
+            @Override
+            public double evaluateState(AbstractGameState gs, int playerId) {
+                single.incrementAndGet();
+                return noTies.evaluateState(gs, playerId);
+            }
+
+            @Override
+            public double[] evaluateStates(List<AbstractGameState> gameStates, int playerId) {
+                batches.incrementAndGet();
+                states.addAndGet(gameStates.size());
+                return IStateHeuristic.super.evaluateStates(gameStates, playerId);
+            }
+        };
+        Game game = GameType.DotsAndBoxes.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertTrue(actions.size() >= OSLAPlayer.PARALLEL_MIN_ACTIONS);
+
+        OSLAPlayer player = new OSLAPlayer(counting, new Random(7));
+        player.setForwardModel(fm);
+        // without threads each state is scored as soon as it is reached
+        player.getAction(state.copy(), actions);
+        assertEquals(0, batches.get());
+        assertEquals(actions.size(), single.get());
+
+        player.setParallelThreads(4);
+        player.getAction(state.copy(), actions);
+        // one batch for each thread
+        assertEquals(4, batches.get());
+        assertEquals(actions.size(), states.get());
+    }
+}
@@ -0,0 +1,123 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HashedDequeTests {
+
+    // the hash of the same elements computed from scratch
+    private static long freshHash(List<Integer> elements) {
+        return new HashedDeque<>(new ArrayList<>(elements)).longHash();
+    }
+
+    @Test
+    public void hashIsKeptUpToDateUnderRandomOperations() {
+        Random rnd = new Random(42);
+        HashedDeque<Integer> deque = new HashedDeque<>();
+        List<Integer> expected = new ArrayList<>();
+        deque.longHash();
+        for (int step = 0; step < 5000; step++) {
+            int size = expected.size();
+            switch (rnd.nextInt(9)) {
+                case 0, 1 -> {
+                    int index = rnd.nextInt(size + 1);
+                    deque.add(index, step % 50);
+                    expected.add(index, step % 50);
+                }
+                case 2 -> {
+                    deque.add(step % 50);
+                    expected.add(step % 50);
+                }
+                case 3, 4 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.remove(index), deque.remove(index));
+                    }
+                }
+                case 5 -> {
+                    int index = rnd.nextBoolean() ? 0 : rnd.nextInt(size + 1);
+                    List<Integer> values = List.of(step % 50, (step + 1) % 50, (step + 2) % 50);
+                    deque.addAll(index, values);
+                    expected.addAll(index, values);
+                }
+                case 6 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        deque.set(index, step % 50);
+                        expected.set(index, step % 50);
+                    }
+                }
+                case 7 -> {
+                    if (size > 0) {
+                        assertEquals(expected.remove(0), deque.removeFirst());
+                    }
+                    deque.addLast(step % 50);
+                    expected.add(step % 50);
+                }
+                case 8 -> {
+                    if (rnd.nextInt(50) == 0) {
+                        deque.clear();
+                        expected.clear();
+                    }
+                }
+            }
+            assertEquals(expected, deque);
+            assertEquals("step " + step, freshHash(expected), deque.longHash());
+        }
+    }
+
+    @Test
+    public void hashDependsOnOrder() {
+        HashedDeque<String> deque = new HashedDeque<>(List.of("a", "b", "c"));
+        HashedDeque<String> reversed = new HashedDeque<>(List.of("c", "b", "a"));
+        HashedDeque<String> shorter = new HashedDeque<>(List.of("a", "b"));
+        assertNotEquals(deque.longHash(), reversed.longHash());
+        assertNotEquals(deque.longHash(), shorter.longHash());
+        reversed.add(0, reversed.removeLast());
+        reversed.add(1, reversed.remove(2));
+        assertEquals(deque.longHash(), reversed.longHash());
+    }
+
+    @Test
+    public void copiesTakeOverTheHash() {
+        HashedDeque<Integer> deque = new HashedDeque<>(List.of(1, 2, 3, 4));
+        long hash = deque.longHash();
+        HashedDeque<Integer> copy = new HashedDeque<>(deque);
+        assertEquals(hash, copy.longHash());
+        copy.removeFirst();
+        copy.add(1);
+        assertEquals(hash, deque.longHash());
+        assertEquals(freshHash(List.of(2, 3, 4, 1)), copy.longHash());
+
+        // a list that has been changed without its hash being kept up to date is hashed again when asked
+        HashedDeque<Integer> other = new HashedDeque<>();
+        other.copyHashFrom(copy);
+        other.invalidateHash();
+        other.addAll(copy);
+        assertEquals(copy.longHash(), other.longHash());
+    }
+
+    @Test
+    public void failedChangesDoNotAlterTheHash() {
+        HashedDeque<Integer> deque = new HashedDeque<>(List.of(1, 2, 3));
+        long hash = deque.longHash();
+        try {
+            deque.add(5, 4);
+            fail("Expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            deque.remove(3);
+            fail("Expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        assertEquals(hash, deque.longHash());
+        deque.add(4);
+        assertEquals(freshHash(List.of(1, 2, 3, 4)), deque.longHash());
+    }
+}
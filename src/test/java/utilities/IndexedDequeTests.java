@@ -0,0 +1,92 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IndexedDequeTests {
+
+    @Test
+    public void addingAtTheTopKeepsIndexOrder() {
+        IndexedDeque<Integer> deque = new IndexedDeque<>();
+        for (int i = 0; i < 20; i++)
+            deque.add(0, i);
+        assertEquals(20, deque.size());
+        for (int i = 0; i < 20; i++)
+            assertEquals(19 - i, (int) deque.get(i));
+        assertEquals(19, (int) deque.removeFirst());
+        assertEquals(0, (int) deque.removeLast());
+        assertEquals(18, deque.size());
+    }
+
+    @Test
+    public void sameAsArrayListUnderRandomOperations() {
+        Random rnd = new Random(42);
+        IndexedDeque<Integer> deque = new IndexedDeque<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int step = 0; step < 20000; step++) {
+            int size = expected.size();
+            int op = rnd.nextInt(8);
+            switch (op) {
+                case 0, 1 -> {
+                    int index = rnd.nextInt(size + 1);
+                    deque.add(index, step);
+                    expected.add(index, step);
+                }
+                case 2 -> {
+                    deque.add(step);
+                    expected.add(step);
+                }
+                case 3, 4 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.remove(index), deque.remove(index));
+                    }
+                }
+                case 5 -> {
+                    int index = rnd.nextInt(size + 1);
+                    List<Integer> values = List.of(step, step + 1, step + 2);
+                    deque.addAll(index, values);
+                    expected.addAll(index, values);
+                }
+                case 6 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.set(index, -step), deque.set(index, -step));
+                    }
+                }
+                case 7 -> {
+                    if (rnd.nextInt(100) == 0) {
+                        deque.clear();
+                        expected.clear();
+                    } else if (size > 2) {
+                        Collections.shuffle(deque.subList(1, size - 1), new Random(step));
+                        Collections.shuffle(expected.subList(1, size - 1), new Random(step));
+                    }
+                }
+            }
+            assertEquals(expected.size(), deque.size());
+        }
+        assertEquals(expected, deque);
+        assertEquals(expected.hashCode(), deque.hashCode());
+        assertArrayEquals(expected.toArray(), deque.toArray());
+        assertEquals(expected, new IndexedDeque<>(deque));
+        if (!expected.isEmpty())
+            assertEquals(expected.indexOf(expected.get(expected.size() / 2)), deque.indexOf(expected.get(expected.size() / 2)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfRangeThrows() {
+        IndexedDeque<String> deque = new IndexedDeque<>(List.of("a", "b"));
+        deque.get(2);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void modificationDuringIterationIsDetected() {
+        IndexedDeque<String> deque = new IndexedDeque<>(List.of("a", "b", "c"));
+        for (String s : deque)
+            deque.add(0, s);
+    }
+}
@@ -0,0 +1,70 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PersistentLogTests {
+
+    @Test
+    public void entriesAreInOrder() {
+        PersistentLog<String> log = new PersistentLog<>();
+        assertTrue(log.isEmpty());
+        log.add("a");
+        log.add("b");
+        log.add("c");
+        assertEquals(3, log.size());
+        assertEquals(List.of("a", "b", "c"), log.toList());
+        assertEquals("a", log.get(0));
+        assertEquals("c", log.get(2));
+    }
+
+    @Test
+    public void copiesAreIndependent() {
+        PersistentLog<String> log = new PersistentLog<>();
+        log.add("a");
+        log.add("b");
+        PersistentLog<String> copy = log.copy();
+        copy.add("c");
+        log.add("d");
+        log.add("e");
+        assertEquals(List.of("a", "b", "c"), copy.toList());
+        assertEquals(List.of("a", "b", "d", "e"), log.toList());
+
+        copy.clear();
+        assertEquals(0, copy.size());
+        assertEquals(4, log.size());
+    }
+
+    @Test
+    public void setDoesNotAffectCopies() {
+        PersistentLog<String> log = new PersistentLog<>();
+        log.add("a");
+        log.add("b");
+        log.add("c");
+        PersistentLog<String> copy = log.copy();
+        log.set(1, "x");
+        assertEquals(List.of("a", "x", "c"), log.toList());
+        assertEquals(List.of("a", "b", "c"), copy.toList());
+        log.set(2, "y");
+        assertEquals(List.of("a", "x", "y"), log.toList());
+    }
+
+    @Test
+    public void returnedListIsNotBackedByLog() {
+        PersistentLog<String> log = new PersistentLog<>();
+        log.add("a");
+        List<String> list = log.toList();
+        list.add("b");
+        assertEquals(1, log.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBoundsThrows() {
+        PersistentLog<String> log = new PersistentLog<>();
+        log.add("a");
+        log.get(1);
+    }
+}